@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package alias;
+
+import alias.id.WildcardID;
+import alias.id.WildcardTrie;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Alias lookup index for a single string identifier type.
+ *
+ * Exact identifier values are resolved with a hash map lookup.  Identifier values containing asterisk (*) wildcards
+ * are compiled into a wildcard trie and the results of wildcard resolution, including identifiers that don't match
+ * any wildcard, are held in a bounded least-recently-used cache.  The cache is cleared whenever the index changes.
+ *
+ * Alias lists are shared across decoding channels and updated from the alias editor.  Exact value lookups read a
+ * concurrent map without locking.  Updates, and wildcard resolution (the trie and the access ordered cache, which is
+ * modified by lookups), are synchronized.
+ */
+public class AliasIndex
+{
+    public static final int CACHE_SIZE = 500;
+    private static final String NO_MATCH = "";
+
+    private Map<String,Alias> mAliases = new ConcurrentHashMap<>();
+    private WildcardTrie mWildcards = new WildcardTrie();
+    private Map<String,String> mWildcardCache = new LinkedHashMap<String,String>(CACHE_SIZE, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String,String> eldest)
+        {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    /**
+     * Adds the identifier value and alias to this index
+     *
+     * @throws IllegalArgumentException if the value contains wildcards but is not a valid wildcard identifier
+     */
+    public synchronized void add(String value, Alias alias)
+    {
+        if(value == null || alias == null)
+        {
+            return;
+        }
+
+        if(value.contains(WildcardID.WILDCARD))
+        {
+            mWildcards.add(new WildcardID(value));
+        }
+
+        mAliases.put(value, alias);
+        mWildcardCache.clear();
+    }
+
+    /**
+     * Removes the identifier value from this index
+     */
+    public synchronized void remove(String value)
+    {
+        if(value != null)
+        {
+            if(value.contains(WildcardID.WILDCARD))
+            {
+                mWildcards.remove(value);
+            }
+
+            mAliases.remove(value);
+            mWildcardCache.clear();
+        }
+    }
+
+    /**
+     * Lookup the alias for the identifier, including wildcard matches.
+     */
+    public Alias get(String id)
+    {
+        return get(id, true);
+    }
+
+    /**
+     * Lookup the alias for the identifier.
+     *
+     * @param id to lookup
+     * @param includeWildcards true to search for a matching wildcard alias when there is not an exact match
+     * @return alias or null
+     */
+    public Alias get(String id, boolean includeWildcards)
+    {
+        if(id == null)
+        {
+            return null;
+        }
+
+        Alias alias = mAliases.get(id);
+
+        if(alias == null && includeWildcards)
+        {
+            alias = getWildcardMatch(id);
+        }
+
+        return alias;
+    }
+
+    /**
+     * Lookup the alias for the best matching wildcard identifier value
+     */
+    private synchronized Alias getWildcardMatch(String id)
+    {
+        if(mWildcards.isEmpty())
+        {
+            return null;
+        }
+
+        String wildcard = mWildcardCache.get(id);
+
+        if(wildcard == null)
+        {
+            WildcardID match = mWildcards.getMatch(id);
+
+            wildcard = match != null ? match.value() : NO_MATCH;
+
+            mWildcardCache.put(id, wildcard);
+        }
+
+        return wildcard.isEmpty() ? null : mAliases.get(wildcard);
+    }
+
+    /**
+     * Clears cached wildcard lookup results
+     */
+    public synchronized void invalidate()
+    {
+        mWildcardCache.clear();
+    }
+}
@@ -19,7 +19,6 @@
 package alias;
 
 import alias.id.AliasID;
-import alias.id.WildcardID;
 import alias.id.esn.Esn;
 import alias.id.fleetsync.FleetsyncID;
 import alias.id.lojack.LoJackFunctionAndID;
@@ -36,11 +35,11 @@ import org.slf4j.LoggerFactory;
 import sample.Listener;
 
 import javax.xml.bind.annotation.XmlAttribute;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class AliasList implements Listener<AliasEvent>
 {
@@ -48,25 +47,19 @@ public class AliasList implements Listener<AliasEvent>
     public static final String WILDCARD = "*";
     public static final String REGEX_WILDCARD = ".";
 
-    private Map<String,Alias> mESN = new HashMap<>();
-    private Map<String,Alias> mFleetsync = new HashMap<>();
-    private Map<LoJackFunctionAndID,Alias> mLoJack = new HashMap<>();
-    private Map<String,Alias> mMDC1200 = new HashMap<>();
-    private Map<String,Alias> mMobileID = new HashMap<>();
-    private Map<String,Alias> mMPT1327 = new HashMap<>();
-    private Map<String,Alias> mSiteID = new HashMap<>();
+    private AliasIndex mESN = new AliasIndex();
+    private AliasIndex mFleetsync = new AliasIndex();
+    //Concurrent maps - lookups from the decoding channels are not synchronized with updates from the alias editor
+    private Map<Function,Map<String,Alias>> mLoJack = new ConcurrentHashMap<>();
+    private Map<Function,List<LoJackFunctionAndID>> mLoJackWildcards = new ConcurrentHashMap<>();
+    private AliasIndex mMDC1200 = new AliasIndex();
+    private AliasIndex mMobileID = new AliasIndex();
+    private AliasIndex mMPT1327 = new AliasIndex();
+    private AliasIndex mSiteID = new AliasIndex();
     private Map<Integer,Alias> mStatus = new HashMap<>();
-    private Map<String,Alias> mTalkgroup = new HashMap<>();
+    private AliasIndex mTalkgroup = new AliasIndex();
     private Map<Integer,Alias> mUniqueID = new HashMap<>();
 
-    private List<WildcardID> mESNWildcards = new ArrayList<>();
-    private List<WildcardID> mMobileIDWildcards = new ArrayList<>();
-    private List<WildcardID> mFleetsyncWildcards = new ArrayList<>();
-    private List<WildcardID> mMDC1200Wildcards = new ArrayList<>();
-    private List<WildcardID> mMPT1327Wildcards = new ArrayList<>();
-    private List<WildcardID> mSiteWildcards = new ArrayList<>();
-    private List<WildcardID> mTalkgroupWildcards = new ArrayList<>();
-
     private String mName;
 
     /**
@@ -110,13 +103,7 @@ public class AliasList implements Listener<AliasEvent>
 
                         if(esn != null)
                         {
-                            if(esn.contains(WILDCARD))
-                            {
-                                mESNWildcards.add(new WildcardID(esn));
-                                Collections.sort(mESNWildcards);
-                            }
-
-                            mESN.put(esn, alias);
+                            mESN.add(esn, alias);
                         }
                         break;
                     case FLEETSYNC:
@@ -124,30 +111,18 @@ public class AliasList implements Listener<AliasEvent>
 
                         if(fleetsync != null)
                         {
-                            if(fleetsync.contains(WILDCARD))
-                            {
-                                mFleetsyncWildcards.add(new WildcardID(fleetsync));
-                                Collections.sort(mFleetsyncWildcards);
-                            }
-
-                            mFleetsync.put(fleetsync, alias);
+                            mFleetsync.add(fleetsync, alias);
                         }
                         break;
                     case LOJACK:
-                        mLoJack.put((LoJackFunctionAndID) id, alias);
+                        addLoJack((LoJackFunctionAndID) id, alias);
                         break;
                     case MDC1200:
                         String mdc = ((MDC1200ID) id).getIdent();
 
                         if(mdc != null)
                         {
-                            if(mdc.contains(WILDCARD))
-                            {
-                                mMDC1200Wildcards.add(new WildcardID(mdc));
-                                Collections.sort(mMDC1200Wildcards);
-                            }
-
-                            mMDC1200.put(mdc, alias);
+                            mMDC1200.add(mdc, alias);
                         }
                         break;
                     case MPT1327:
@@ -155,13 +130,7 @@ public class AliasList implements Listener<AliasEvent>
 
                         if(mpt != null)
                         {
-                            if(mpt.contains(WILDCARD))
-                            {
-                                mMPT1327Wildcards.add(new WildcardID(mpt));
-                                Collections.sort(mMPT1327Wildcards);
-                            }
-
-                            mMPT1327.put(mpt, alias);
+                            mMPT1327.add(mpt, alias);
                         }
                         break;
                     case MIN:
@@ -169,13 +138,7 @@ public class AliasList implements Listener<AliasEvent>
 
                         if(min != null)
                         {
-                            if(min.contains(WILDCARD))
-                            {
-                                mMobileIDWildcards.add(new WildcardID(min));
-                                Collections.sort(mMobileIDWildcards);
-                            }
-
-                            mMobileID.put(min, alias);
+                            mMobileID.add(min, alias);
                         }
                         break;
                     case LTR_NET_UID:
@@ -186,13 +149,7 @@ public class AliasList implements Listener<AliasEvent>
 
                         if(siteID != null)
                         {
-                            if(siteID.contains(WILDCARD))
-                            {
-                                mSiteWildcards.add(new WildcardID(siteID));
-                                Collections.sort(mSiteWildcards);
-                            }
-
-                            mSiteID.put(siteID, alias);
+                            mSiteID.add(siteID, alias);
                         }
                         break;
                     case STATUS:
@@ -203,13 +160,7 @@ public class AliasList implements Listener<AliasEvent>
 
                         if(tgid != null)
                         {
-                            if(tgid.contains(WILDCARD))
-                            {
-                                mTalkgroupWildcards.add(new WildcardID(tgid));
-                                Collections.sort(mTalkgroupWildcards);
-                            }
-
-                            mTalkgroup.put(tgid, alias);
+                            mTalkgroup.add(tgid, alias);
                         }
                         break;
                     case BROADCAST_CHANNEL:
@@ -230,29 +181,80 @@ public class AliasList implements Listener<AliasEvent>
     }
 
     /**
-     * Removes the alias from this list
+     * Adds the lojack identifier to the exact match map for the function, or to the wildcard list for the function
+     * when the identifier contains wildcards.
      */
-    public void removeAlias(Alias alias)
+    private synchronized void addLoJack(LoJackFunctionAndID lojack, Alias alias)
     {
-        if(alias != null)
+        Function function = lojack.getFunction();
+        String id = lojack.getID();
+
+        if(function != null && id != null)
         {
-            for(AliasID aliasID : alias.getId())
+            if(id.contains(WILDCARD))
             {
-                removeAliasID(aliasID, alias);
+                List<LoJackFunctionAndID> wildcards = mLoJackWildcards.get(function);
+
+                if(wildcards == null)
+                {
+                    wildcards = new CopyOnWriteArrayList<>();
+                    mLoJackWildcards.put(function, wildcards);
+                }
+
+                if(!wildcards.contains(lojack))
+                {
+                    wildcards.add(lojack);
+                }
+            }
+
+            Map<String,Alias> aliases = mLoJack.get(function);
+
+            if(aliases == null)
+            {
+                aliases = new ConcurrentHashMap<>();
+                mLoJack.put(function, aliases);
             }
+
+            aliases.put(id, alias);
         }
     }
 
-    private void removeWildcard(String value, List<WildcardID> wildcards)
+    /**
+     * Removes the lojack identifier
+     */
+    private synchronized void removeLoJack(LoJackFunctionAndID lojack)
     {
-        if(value != null)
+        Function function = lojack.getFunction();
+        String id = lojack.getID();
+
+        if(function != null && id != null)
         {
-            for(WildcardID wildcardID : wildcards)
+            List<LoJackFunctionAndID> wildcards = mLoJackWildcards.get(function);
+
+            if(wildcards != null)
             {
-                if(wildcardID.value().equals(value))
-                {
-                    wildcards.remove(wildcardID);
-                }
+                wildcards.remove(lojack);
+            }
+
+            Map<String,Alias> aliases = mLoJack.get(function);
+
+            if(aliases != null)
+            {
+                aliases.remove(id);
+            }
+        }
+    }
+
+    /**
+     * Removes the alias from this list
+     */
+    public void removeAlias(Alias alias)
+    {
+        if(alias != null)
+        {
+            for(AliasID aliasID : alias.getId())
+            {
+                removeAliasID(aliasID, alias);
             }
         }
     }
@@ -267,72 +269,22 @@ public class AliasList implements Listener<AliasEvent>
             switch(id.getType())
             {
                 case ESN:
-                    String esn = ((Esn) id).getEsn();
-
-                    if(esn != null)
-                    {
-                        if(esn.contains(WILDCARD))
-                        {
-                            removeWildcard(esn, mESNWildcards);
-                        }
-                    }
-
-                    mESN.remove(esn);
+                    mESN.remove(((Esn) id).getEsn());
                     break;
                 case FLEETSYNC:
-                    String fleetsync = ((FleetsyncID) id).getIdent();
-
-                    if(fleetsync != null)
-                    {
-                        if(fleetsync.contains(WILDCARD))
-                        {
-                            removeWildcard(fleetsync, mFleetsyncWildcards);
-                        }
-
-                        mFleetsync.remove(fleetsync);
-                    }
+                    mFleetsync.remove(((FleetsyncID) id).getIdent());
                     break;
                 case LOJACK:
-                    mLoJack.remove((LoJackFunctionAndID) id);
+                    removeLoJack((LoJackFunctionAndID) id);
                     break;
                 case MDC1200:
-                    String mdc = ((MDC1200ID) id).getIdent();
-
-                    if(mdc != null)
-                    {
-                        if(mdc.contains(WILDCARD))
-                        {
-                            removeWildcard(mdc, mMDC1200Wildcards);
-                        }
-
-                        mMDC1200.remove(mdc);
-                    }
+                    mMDC1200.remove(((MDC1200ID) id).getIdent());
                     break;
                 case MPT1327:
-                    String mpt = ((MPT1327ID) id).getIdent();
-
-                    if(mpt != null)
-                    {
-                        if(mpt.contains(WILDCARD))
-                        {
-                            removeWildcard(mpt, mMPT1327Wildcards);
-                        }
-
-                        mMPT1327.remove(mpt);
-                    }
+                    mMPT1327.remove(((MPT1327ID) id).getIdent());
                     break;
                 case MIN:
-                    String min = ((Min) id).getMin();
-
-                    if(min != null)
-                    {
-                        if(min.contains(WILDCARD))
-                        {
-                            removeWildcard(min, mMobileIDWildcards);
-                        }
-
-                        mMobileID.remove(min);
-                    }
+                    mMobileID.remove(((Min) id).getMin());
                     break;
                 case LTR_NET_UID:
                     mUniqueID.remove(((UniqueID) id).getUid());
@@ -344,17 +296,7 @@ public class AliasList implements Listener<AliasEvent>
                     mStatus.remove(((StatusID) id).getStatus());
                     break;
                 case TALKGROUP:
-                    String tgid = ((TalkgroupID) id).getTalkgroup();
-
-                    if(tgid != null)
-                    {
-                        if(tgid.contains(WILDCARD))
-                        {
-                            removeWildcard(tgid, mTalkgroupWildcards);
-                        }
-
-                        mTalkgroup.remove(tgid);
-                    }
+                    mTalkgroup.remove(((TalkgroupID) id).getTalkgroup());
                     break;
                 case NON_RECORDABLE:
                 case PRIORITY:
@@ -369,27 +311,17 @@ public class AliasList implements Listener<AliasEvent>
     }
 
     /**
-     * Returns the first matching regex wildcard from the list of wildcards that matches the
-     * identifier.
-     *
-     * @param id to match
-     * @param wildcards to match against
-     * @return matching wildcard ID or null
+     * Clears cached wildcard lookup results for each of the identifier indexes
      */
-    private String getWildcardMatch(String id, List<WildcardID> wildcards)
+    private void invalidate()
     {
-        if(id != null)
-        {
-            for(WildcardID wildcard : wildcards)
-            {
-                if(wildcard.matches(id))
-                {
-                    return wildcard.value();
-                }
-            }
-        }
-
-        return null;
+        mESN.invalidate();
+        mFleetsync.invalidate();
+        mMDC1200.invalidate();
+        mMobileID.invalidate();
+        mMPT1327.invalidate();
+        mSiteID.invalidate();
+        mTalkgroup.invalidate();
     }
 
     /**
@@ -397,24 +329,7 @@ public class AliasList implements Listener<AliasEvent>
      */
     public Alias getSiteID(String siteID)
     {
-        Alias alias = null;
-
-        if(siteID != null)
-        {
-            alias = mSiteID.get(siteID);
-
-            if(alias == null)
-            {
-                String wildcard = getWildcardMatch(siteID, mSiteWildcards);
-
-                if(wildcard != null)
-                {
-                    alias = mSiteID.get(wildcard);
-                }
-            }
-        }
-
-        return alias;
+        return mSiteID.get(siteID);
     }
 
     /**
@@ -438,24 +353,7 @@ public class AliasList implements Listener<AliasEvent>
      */
     public Alias getESNAlias(String esn)
     {
-        Alias alias = null;
-
-        if(esn != null)
-        {
-            alias = mESN.get(esn);
-
-            if(alias == null)
-            {
-                String wildcard = getWildcardMatch(esn, mESNWildcards);
-
-                if(wildcard != null)
-                {
-                    alias = mESN.get(wildcard);
-                }
-            }
-        }
-
-        return alias;
+        return mESN.get(esn);
     }
 
     /**
@@ -463,38 +361,38 @@ public class AliasList implements Listener<AliasEvent>
      */
     public Alias getFleetsyncAlias(String ident)
     {
-        Alias alias = null;
+        return mFleetsync.get(ident);
+    }
 
-        if(ident != null)
+    /**
+     * Lookup alias by lojack function and ID.  Exact identifier matches are preferred over wildcard matches.
+     */
+    public Alias getLoJackAlias(Function function, String id)
+    {
+        if(function != null && id != null)
         {
-            alias = mFleetsync.get(ident);
+            Map<String,Alias> aliases = mLoJack.get(function);
 
-            if(alias == null)
+            if(aliases != null)
             {
-                String wildcard = getWildcardMatch(ident, mFleetsyncWildcards);
+                Alias alias = aliases.get(id);
 
-                if(wildcard != null)
+                if(alias != null)
                 {
-                    alias = mFleetsync.get(wildcard);
+                    return alias;
                 }
-            }
-        }
 
-        return alias;
-    }
+                List<LoJackFunctionAndID> wildcards = mLoJackWildcards.get(function);
 
-    /**
-     * Lookup alias by lojack function and ID
-     */
-    public Alias getLoJackAlias(Function function, String id)
-    {
-        if(id != null)
-        {
-            for(LoJackFunctionAndID lojack : mLoJack.keySet())
-            {
-                if(lojack.matches(function, id))
+                if(wildcards != null)
                 {
-                    return mLoJack.get(lojack);
+                    for(LoJackFunctionAndID lojack : wildcards)
+                    {
+                        if(lojack.matches(function, id))
+                        {
+                            return aliases.get(lojack.getID());
+                        }
+                    }
                 }
             }
         }
@@ -507,24 +405,7 @@ public class AliasList implements Listener<AliasEvent>
      */
     public Alias getMDC1200Alias(String ident)
     {
-        Alias alias = null;
-
-        if(ident != null)
-        {
-            alias = mMDC1200.get(ident);
-
-            if(alias == null)
-            {
-                String wildcard = getWildcardMatch(ident, mMDC1200Wildcards);
-
-                if(wildcard != null)
-                {
-                    alias = mMDC1200.get(wildcard);
-                }
-            }
-        }
-
-        return alias;
+        return mMDC1200.get(ident);
     }
 
     /**
@@ -532,24 +413,7 @@ public class AliasList implements Listener<AliasEvent>
      */
     public Alias getMPT1327Alias(String ident)
     {
-        Alias alias = null;
-
-        if(ident != null)
-        {
-            alias = mMPT1327.get(ident);
-
-            if(alias == null)
-            {
-                String wildcard = getWildcardMatch(ident, mMPT1327Wildcards);
-
-                if(wildcard != null)
-                {
-                    alias = mMPT1327.get(wildcard);
-                }
-            }
-        }
-
-        return alias;
+        return mMPT1327.get(ident);
     }
 
     /**
@@ -557,24 +421,7 @@ public class AliasList implements Listener<AliasEvent>
      */
     public Alias getMobileIDNumberAlias(String ident)
     {
-        Alias alias = null;
-
-        if(ident != null)
-        {
-            alias = mMobileID.get(ident);
-
-            if(alias == null)
-            {
-                String wildcard = getWildcardMatch(ident, mMobileIDWildcards);
-
-                if(wildcard != null)
-                {
-                    alias = mMobileID.get(wildcard);
-                }
-            }
-        }
-
-        return alias;
+        return mMobileID.get(ident);
     }
 
     /**
@@ -586,24 +433,7 @@ public class AliasList implements Listener<AliasEvent>
      */
     public Alias getTalkgroupAlias(String tgid, boolean includeWildcards)
     {
-        Alias alias = null;
-
-        if(tgid != null)
-        {
-            alias = mTalkgroup.get(tgid);
-
-            if(alias == null && includeWildcards)
-            {
-                String wildcard = getWildcardMatch(tgid, mTalkgroupWildcards);
-
-                if(wildcard != null)
-                {
-                    alias = mTalkgroup.get(wildcard);
-                }
-            }
-        }
-
-        return alias;
+        return mTalkgroup.get(tgid, includeWildcards);
     }
 
     /**
@@ -649,6 +479,9 @@ public class AliasList implements Listener<AliasEvent>
         {
             Alias alias = event.getAlias();
 
+            //Alias changes can alter wildcard lookup results
+            invalidate();
+
             switch(event.getEvent())
             {
                 case ADD:
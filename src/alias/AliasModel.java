@@ -165,13 +165,33 @@ public class AliasModel extends AbstractTableModel
     }
 
     /**
-     * Bulk loading of aliases
+     * Bulk loading of aliases.  Aliases are appended to the model in a single operation, since the alias list is a
+     * copy-on-write list and adding each alias separately would copy the list once per alias.
      */
     public void addAliases(List<Alias> aliases)
     {
+        List<Alias> toAdd = new ArrayList<>();
+
         for(Alias alias : aliases)
         {
-            addAlias(alias);
+            if(alias != null)
+            {
+                toAdd.add(alias);
+            }
+        }
+
+        if(!toAdd.isEmpty())
+        {
+            int first = mAliases.size();
+
+            mAliases.addAll(toAdd);
+
+            fireTableRowsInserted(first, first + toAdd.size() - 1);
+
+            for(Alias alias : toAdd)
+            {
+                broadcast(new AliasEvent(alias, Event.ADD));
+            }
         }
     }
 
@@ -0,0 +1,251 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package alias.id;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Character trie of wildcard identifier patterns where each asterisk (*) matches any single character.
+ *
+ * Lookups walk the identifier one character at a time following both the literal character branch and the wildcard
+ * branch, so the cost is bounded by the identifier length and the number of overlapping patterns instead of requiring
+ * a regular expression match against every pattern.  When several patterns match, the pattern with the lowest
+ * WildcardID weight (most specific) is returned and equally weighted patterns resolve to the first one added.
+ */
+public class WildcardTrie
+{
+    private static final char WILDCARD = '*';
+
+    private Node mRoot = new Node();
+    private long mSequence;
+    private int mSize;
+
+    /**
+     * Adds the wildcard pattern.  Adding a pattern that already exists has no effect.
+     */
+    public void add(WildcardID wildcardID)
+    {
+        String value = wildcardID.value();
+
+        Node node = mRoot;
+
+        for(int x = 0; x < value.length(); x++)
+        {
+            node = node.getOrCreate(value.charAt(x));
+        }
+
+        if(node.mWildcardID == null)
+        {
+            node.mWildcardID = wildcardID;
+            node.mSequence = mSequence++;
+            mSize++;
+        }
+    }
+
+    /**
+     * Removes the wildcard pattern value
+     */
+    public void remove(String value)
+    {
+        if(value != null && remove(mRoot, value, 0))
+        {
+            mSize--;
+        }
+    }
+
+    /**
+     * Recursively removes the pattern and prunes empty branches.
+     *
+     * @return true if the pattern was removed
+     */
+    private boolean remove(Node node, String value, int index)
+    {
+        if(index == value.length())
+        {
+            if(node.mWildcardID != null)
+            {
+                node.mWildcardID = null;
+                return true;
+            }
+
+            return false;
+        }
+
+        char character = value.charAt(index);
+
+        Node child = node.get(character);
+
+        if(child != null && remove(child, value, index + 1))
+        {
+            if(child.isEmpty())
+            {
+                node.remove(character);
+            }
+
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Finds the most specific wildcard pattern that matches the identifier.
+     *
+     * @param id to match
+     * @return matching wildcard pattern or null
+     */
+    public WildcardID getMatch(String id)
+    {
+        if(id == null || mSize == 0)
+        {
+            return null;
+        }
+
+        Node match = getMatch(mRoot, id, 0, null);
+
+        return match != null ? match.mWildcardID : null;
+    }
+
+    /**
+     * Depth first search of the literal and wildcard branches for the best matching terminal node
+     */
+    private Node getMatch(Node node, String id, int index, Node best)
+    {
+        if(index == id.length())
+        {
+            return node.mWildcardID != null && isBetter(node, best) ? node : best;
+        }
+
+        Node literal = node.get(id.charAt(index));
+
+        if(literal != null)
+        {
+            best = getMatch(literal, id, index + 1, best);
+        }
+
+        if(node.mWildcardChild != null)
+        {
+            best = getMatch(node.mWildcardChild, id, index + 1, best);
+        }
+
+        return best;
+    }
+
+    /**
+     * Indicates if the candidate terminal node has a lower weight (or equal weight and earlier sequence) than best
+     */
+    private static boolean isBetter(Node candidate, Node best)
+    {
+        if(best == null)
+        {
+            return true;
+        }
+
+        int comparison = candidate.mWildcardID.compareTo(best.mWildcardID);
+
+        return comparison < 0 || (comparison == 0 && candidate.mSequence < best.mSequence);
+    }
+
+    /**
+     * Number of patterns in this trie
+     */
+    public int size()
+    {
+        return mSize;
+    }
+
+    public boolean isEmpty()
+    {
+        return mSize == 0;
+    }
+
+    /**
+     * Removes all patterns
+     */
+    public void clear()
+    {
+        mRoot = new Node();
+        mSize = 0;
+    }
+
+    /**
+     * Trie node with literal character children and a separate wildcard child
+     */
+    private static class Node
+    {
+        private Map<Character,Node> mChildren;
+        private Node mWildcardChild;
+        private WildcardID mWildcardID;
+        private long mSequence;
+
+        private Node get(char character)
+        {
+            if(character == WILDCARD)
+            {
+                return mWildcardChild;
+            }
+
+            return mChildren != null ? mChildren.get(character) : null;
+        }
+
+        private Node getOrCreate(char character)
+        {
+            Node child = get(character);
+
+            if(child == null)
+            {
+                child = new Node();
+
+                if(character == WILDCARD)
+                {
+                    mWildcardChild = child;
+                }
+                else
+                {
+                    if(mChildren == null)
+                    {
+                        mChildren = new HashMap<>();
+                    }
+
+                    mChildren.put(character, child);
+                }
+            }
+
+            return child;
+        }
+
+        private void remove(char character)
+        {
+            if(character == WILDCARD)
+            {
+                mWildcardChild = null;
+            }
+            else if(mChildren != null)
+            {
+                mChildren.remove(character);
+            }
+        }
+
+        private boolean isEmpty()
+        {
+            return mWildcardID == null && mWildcardChild == null && (mChildren == null || mChildren.isEmpty());
+        }
+    }
+}
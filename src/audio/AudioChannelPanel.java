@@ -64,7 +64,6 @@ public class AudioChannelPanel extends JPanel
     private JLabel mToAlias = new JLabel(" ");
     private JLabel mTo = new JLabel("-----");
 
-    private boolean mConfigured = false;
 
     public AudioChannelPanel(IconManager iconManager, SettingsManager settingsManager, AudioOutput audioOutput)
     {
@@ -99,7 +98,27 @@ public class AudioChannelPanel extends JPanel
         mMutedLabel.setVisible(false);
         add(mMutedLabel);
 
-        mChannelName = new JLabel(mAudioOutput != null ? mAudioOutput.getChannelName() : " ");
+        mChannelName = new JLabel(mAudioOutput != null ? mAudioOutput.getChannelName() : " ")
+        {
+            private static final long serialVersionUID = 1L;
+
+            /**
+             * Audio playback statistics are generated when the tooltip is shown
+             */
+            @Override
+            public String getToolTipText()
+            {
+                if(mAudioOutput != null)
+                {
+                    return "Latency: " + mAudioOutput.getLatency() + " ms (average " +
+                        Math.round(mAudioOutput.getAverageLatency()) + " ms)  Underruns: " +
+                        mAudioOutput.getUnderrunCount() + "  Overruns: " + mAudioOutput.getOverrunCount();
+                }
+
+                return null;
+            }
+        };
+        ToolTipManager.sharedInstance().registerComponent(mChannelName);
         mChannelName.setFont(mFont);
         mChannelName.setForeground(mLabelColor);
         add(mChannelName);
@@ -151,8 +170,6 @@ public class AudioChannelPanel extends JPanel
     private void resetLabels()
     {
         updateLabel(mTo, null, mToAlias, null);
-
-        mConfigured = false;
     }
 
     /**
@@ -195,28 +212,23 @@ public class AudioChannelPanel extends JPanel
     }
 
     /**
-     * Processes audio metadata to update this panel's display values
+     * Processes audio metadata to update this panel's display values.  Audio output only broadcasts metadata when the
+     * snapshot changes, so each metadata received updates the display.
      */
     public class AudioMetadataProcessor implements Listener<Metadata>
     {
         @Override
         public void receive(final Metadata metadata)
         {
-            if(metadata.isUpdated() || !mConfigured)
+            EventQueue.invokeLater(new Runnable()
             {
-                EventQueue.invokeLater(new Runnable()
+                @Override
+                public void run()
                 {
-                    @Override
-                    public void run()
-                    {
-                        updateLabel(mTo, metadata.getPrimaryAddressTo().getIdentifier(),
-                            mToAlias, metadata.getPrimaryAddressTo().getAlias());
-
-                        mConfigured = true;
-                    }
-                });
-
-            }
+                    updateLabel(mTo, metadata.getPrimaryAddressTo().getIdentifier(),
+                        mToAlias, metadata.getPrimaryAddressTo().getAlias());
+                }
+            });
         }
     }
 
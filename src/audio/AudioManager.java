@@ -171,7 +171,7 @@ public class AudioManager implements Listener<AudioPacket>, IAudioController
      * Primary ingest point for audio produced by all decoding channels, for distribution to audio playback devices.
      */
     @Override
-    public synchronized void receive(AudioPacket packet)
+    public void receive(AudioPacket packet)
     {
         mAudioPacketQueue.add(packet);
     }
@@ -427,13 +427,27 @@ public class AudioManager implements Listener<AudioPacket>, IAudioController
                     for(AudioPacket packet : packets)
                     {
                         /* Don't process any packet's marked as do not monitor */
-                        if(!packet.getMetadata().isDoNotMonitor() && packet.getType() == AudioPacket.Type.AUDIO)
+                        if(!packet.getMetadata().isDoNotMonitor())
                         {
-                            AudioOutputConnection connection = getConnection(packet);
+                            if(packet.getType() == AudioPacket.Type.AUDIO)
+                            {
+                                AudioOutputConnection connection = getConnection(packet);
 
-                            if(connection != null)
+                                if(connection != null)
+                                {
+                                    connection.receive(packet);
+                                }
+                            }
+                            /* End packets let the audio output play out the remaining buffered audio */
+                            else if(packet.getType() == AudioPacket.Type.END)
                             {
-                                connection.receive(packet);
+                                AudioOutputConnection connection =
+                                    mChannelConnectionMap.get(packet.getMetadata().getMetadataID());
+
+                                if(connection != null)
+                                {
+                                    connection.receive(packet);
+                                }
                             }
                         }
                     }
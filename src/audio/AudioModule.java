@@ -20,6 +20,7 @@ package audio;
 
 import audio.squelch.ISquelchStateListener;
 import audio.squelch.SquelchState;
+import channel.latency.LatencyStage;
 import channel.metadata.Metadata;
 import dsp.filter.design.FilterDesignException;
 import dsp.filter.fir.FIRFilterSpecification;
@@ -97,6 +98,11 @@ public class AudioModule extends Module implements IAudioPacketProvider, IFilter
             {
                 if(mAudioPacketListener != null)
                 {
+                    if(mMetadata.hasCallLatency())
+                    {
+                        mMetadata.getCallLatency().mark(LatencyStage.FIRST_VOICE_FRAME);
+                    }
+
                     AudioPacket packet = new AudioPacket(realBuffer.getSamples(), mMetadata.copyOf());
                     mAudioPacketListener.receive(packet);
                 }
@@ -21,11 +21,16 @@ package audio;
 import channel.metadata.Metadata;
 import sample.real.RealBuffer;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public class AudioPacket
 {
     private Type mType;
     private RealBuffer mAudioData;
     private Metadata mMetadata;
+    private long mTimestamp = System.currentTimeMillis();
+    private Map<Integer,float[]> mResampledAudio;
 
     public AudioPacket(Type type, Metadata metadata)
     {
@@ -55,6 +60,14 @@ public class AudioPacket
         mMetadata = metadata;
     }
 
+    /**
+     * Creation time of this packet in milliseconds
+     */
+    public long getTimestamp()
+    {
+        return mTimestamp;
+    }
+
     public Type getType()
     {
         return mType;
@@ -70,6 +83,45 @@ public class AudioPacket
         return mAudioData != null;
     }
 
+    /**
+     * Audio samples at the sample rate.  Audio is converted from the decoder sample rate by the shared resampler for
+     * the target rate the first time it is requested, and the converted samples are reused by all other consumers
+     * of this packet that request the same rate.
+     *
+     * @param sampleRate of the audio samples
+     * @return samples or null if this packet doesn't contain audio
+     */
+    public float[] getAudio(int sampleRate)
+    {
+        if(mAudioData == null)
+        {
+            return null;
+        }
+
+        if(sampleRate == AudioResampler.DECODER_SAMPLE_RATE)
+        {
+            return mAudioData.getSamples();
+        }
+
+        synchronized(this)
+        {
+            if(mResampledAudio == null)
+            {
+                mResampledAudio = new HashMap<>();
+            }
+
+            float[] samples = mResampledAudio.get(sampleRate);
+
+            if(samples == null)
+            {
+                samples = AudioResampler.getInstance(sampleRate).resample(this);
+                mResampledAudio.put(sampleRate, samples);
+            }
+
+            return samples;
+        }
+    }
+
     public enum Type
     {
         AUDIO,
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package audio;
+
+import dsp.filter.polyphase.PolyphaseRationalResampler;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared resampling stage that converts decoded audio from the decoder sample rate to a target sample rate.
+ *
+ * There is a single instance per target sample rate, holding a polyphase rational resampler for each audio stream
+ * (channel metadata ID) so that the filter state is continuous across the stream's audio packets.  Consumers don't
+ * use this class directly - AudioPacket.getAudio(sampleRate) resamples each packet once per target rate and shares
+ * the result with every consumer of the packet.
+ */
+public class AudioResampler
+{
+    public static final int DECODER_SAMPLE_RATE = (int) AudioFormats.PCM_8KHZ_RATE;
+
+    /* Maximum number of stream resamplers retained per target rate - least recently used are discarded */
+    public static final int MAXIMUM_STREAMS = 32;
+
+    private static final Map<Integer,AudioResampler> RESAMPLERS = new ConcurrentHashMap<>();
+
+    private int mOutputRate;
+    private Map<Integer,PolyphaseRationalResampler> mStreamResamplers =
+        new LinkedHashMap<Integer,PolyphaseRationalResampler>(MAXIMUM_STREAMS, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer,PolyphaseRationalResampler> eldest)
+            {
+                return size() > MAXIMUM_STREAMS;
+            }
+        };
+
+    private AudioResampler(int outputRate)
+    {
+        mOutputRate = outputRate;
+    }
+
+    /**
+     * Shared resampler for the target sample rate
+     */
+    public static AudioResampler getInstance(int outputRate)
+    {
+        AudioResampler resampler = RESAMPLERS.get(outputRate);
+
+        if(resampler == null)
+        {
+            resampler = new AudioResampler(outputRate);
+
+            AudioResampler existing = RESAMPLERS.putIfAbsent(outputRate, resampler);
+
+            if(existing != null)
+            {
+                resampler = existing;
+            }
+        }
+
+        return resampler;
+    }
+
+    /**
+     * Resamples the packet's audio to the target sample rate using the resampler for the packet's stream.  Packets
+     * for a stream should be resampled in order.
+     *
+     * @param packet with decoder sample rate audio
+     * @return resampled audio samples
+     */
+    public synchronized float[] resample(AudioPacket packet)
+    {
+        int streamID = packet.hasMetadata() ? packet.getMetadata().getMetadataID() : 0;
+
+        PolyphaseRationalResampler resampler = mStreamResamplers.get(streamID);
+
+        if(resampler == null)
+        {
+            resampler = new PolyphaseRationalResampler(DECODER_SAMPLE_RATE, mOutputRate);
+            mStreamResamplers.put(streamID, resampler);
+        }
+
+        return resampler.resample(packet.getAudioBuffer().getSamples());
+    }
+
+    /**
+     * Target sample rate
+     */
+    public int getOutputRate()
+    {
+        return mOutputRate;
+    }
+}
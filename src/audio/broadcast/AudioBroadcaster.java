@@ -20,14 +20,16 @@ package audio.broadcast;
 
 import audio.convert.ISilenceGenerator;
 import channel.metadata.Metadata;
+import org.apache.mina.core.buffer.IoBuffer;
+import org.apache.mina.core.session.IoSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import properties.SystemProperties;
 import sample.Listener;
 import util.ThreadPool;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.InputStream;
 import java.util.Queue;
 import java.util.concurrent.LinkedTransferQueue;
 import java.util.concurrent.ScheduledFuture;
@@ -40,6 +42,17 @@ public abstract class AudioBroadcaster implements Listener<AudioRecording>
 
     public static final int PROCESSOR_RUN_INTERVAL_MS = 1000;
 
+    /* Streaming data rate - 2000 bytes per processor interval for 16 kbps */
+    private static final int BYTES_PER_INTERVAL = 2000;
+
+    /* Largest streaming deficit carried into the next interval, so a stalled recording can't cause a burst later */
+    private static final int MAXIMUM_DEFICIT_BYTES = 2 * BYTES_PER_INTERVAL;
+
+    public static final String PROPERTY_WRITE_QUEUE_LIMIT_MS = "broadcast.write.queue.limit.ms";
+
+    /* Maximum audio queued for writing to a server before further audio is dropped */
+    public static final int DEFAULT_WRITE_QUEUE_LIMIT_MS = 5000;
+
     private ScheduledFuture mRecordingQueueProcessorFuture;
 
     private RecordingQueueProcessor mRecordingQueueProcessor = new RecordingQueueProcessor();
@@ -52,6 +65,11 @@ public abstract class AudioBroadcaster implements Listener<AudioRecording>
 
     private int mStreamedAudioCount = 0;
     private int mAgedOffAudioCount = 0;
+    private int mDroppedAudioCount = 0;
+    private long mDroppedAudioBytes = 0;
+    private volatile long mWriteQueueBytes = 0;
+    private volatile long mPeakWriteQueueBytes = 0;
+    private long mWriteQueueLimit;
     private BroadcastConfiguration mBroadcastConfiguration;
     private long mDelay;
     private long mMaximumRecordingAge;
@@ -84,6 +102,10 @@ public abstract class AudioBroadcaster implements Listener<AudioRecording>
         mDelay = mBroadcastConfiguration.getDelay();
         mMaximumRecordingAge = mBroadcastConfiguration.getMaximumRecordingAge();
         mSilenceGenerator = BroadcastFactory.getSilenceGenerator(broadcastConfiguration.getBroadcastFormat());
+
+        //16 kbps streams are written at 2000 bytes per second
+        mWriteQueueLimit = SystemProperties.getInstance()
+            .get(PROPERTY_WRITE_QUEUE_LIMIT_MS, DEFAULT_WRITE_QUEUE_LIMIT_MS) * 2l;
     }
 
     /**
@@ -91,6 +113,51 @@ public abstract class AudioBroadcaster implements Listener<AudioRecording>
      */
     protected abstract void broadcastAudio(byte[] audio);
 
+    /**
+     * Writes the audio to the streaming session, wrapping the audio array without copying it.
+     *
+     * @see #writeAudio(IoSession, Object, int)
+     */
+    protected boolean writeAudio(IoSession session, byte[] audio)
+    {
+        return writeAudio(session, IoBuffer.wrap(audio), audio.length);
+    }
+
+    /**
+     * Writes the audio message to the streaming session unless the session's write queue already holds more than
+     * the write queue limit.  When the server or network can't keep up, the audio is dropped instead of queueing
+     * without limit in memory.  Audio is always written in whole MP3 frames, so dropping a message doesn't corrupt
+     * the stream.
+     *
+     * @param session to write to
+     * @param message containing the audio
+     * @param length of the audio in bytes
+     * @return true if the message was written or false if it was dropped
+     */
+    protected boolean writeAudio(IoSession session, Object message, int length)
+    {
+        long queued = session.getScheduledWriteBytes();
+
+        mWriteQueueBytes = queued;
+
+        if(queued > mPeakWriteQueueBytes)
+        {
+            mPeakWriteQueueBytes = queued;
+        }
+
+        if(queued > 0 && queued + length > mWriteQueueLimit)
+        {
+            mDroppedAudioCount++;
+            mDroppedAudioBytes += length;
+            broadcast(new BroadcastEvent(this, BroadcastEvent.Event.BROADCASTER_DROPPED_COUNT_CHANGE));
+            return false;
+        }
+
+        session.write(message);
+
+        return true;
+    }
+
     /**
      * Protocol-specific metadata updater
      */
@@ -145,6 +212,8 @@ public abstract class AudioBroadcaster implements Listener<AudioRecording>
             }
 
             disconnect();
+
+            mRecordingQueueProcessor.releaseCurrentRecording();
         }
     }
 
@@ -189,6 +258,38 @@ public abstract class AudioBroadcaster implements Listener<AudioRecording>
         return mAgedOffAudioCount;
     }
 
+    /**
+     * Number of audio writes that were dropped because the server's write queue exceeded the write queue limit
+     */
+    public int getDroppedAudioCount()
+    {
+        return mDroppedAudioCount;
+    }
+
+    /**
+     * Number of audio bytes that were dropped because the server's write queue exceeded the write queue limit
+     */
+    public long getDroppedAudioBytes()
+    {
+        return mDroppedAudioBytes;
+    }
+
+    /**
+     * Number of bytes waiting to be written to the server as of the most recent audio write
+     */
+    public long getWriteQueueBytes()
+    {
+        return mWriteQueueBytes;
+    }
+
+    /**
+     * Largest number of bytes waiting to be written to the server at the time of an audio write
+     */
+    public long getPeakWriteQueueBytes()
+    {
+        return mPeakWriteQueueBytes;
+    }
+
     /**
      * Primary insert method for the stream manager to nominate completed audio recordings for broadcast.
      *
@@ -312,13 +413,15 @@ public abstract class AudioBroadcaster implements Listener<AudioRecording>
 
     /**
      * Audio recording queue processor.  Fetches recordings from the queue and chunks the recording byte content
-     * to subclass implementations for broadcast in the appropriate manner.
+     * to subclass implementations for broadcast in the appropriate manner.  Live recordings are streamed while they
+     * are being encoded - the processor streams whatever encoded audio is available and moves to the next recording
+     * once the current recording is complete and fully streamed.
      */
     public class RecordingQueueProcessor implements Runnable
     {
         private AtomicBoolean mProcessing = new AtomicBoolean();
-        private ByteArrayInputStream mInputStream;
-        private long mFinalSilencePadding = 0;
+        private AudioRecording mCurrentRecording;
+        private InputStream mInputStream;
         private int mBytesStreamedActual = 0;
         private int mBytesStreamedRequired = 0;
 
@@ -329,45 +432,60 @@ public abstract class AudioBroadcaster implements Listener<AudioRecording>
             {
                 try
                 {
-                    if(mInputStream == null || mInputStream.available() <= 0)
+                    synchronized(this)
                     {
-                        if(mFinalSilencePadding > 0)
+                        if(mInputStream == null || isFinished())
                         {
-                            broadcastAudio(mSilenceGenerator.generate(mFinalSilencePadding));
-                            mFinalSilencePadding = 0;
+                            nextRecording();
                         }
 
-                        nextRecording();
-                    }
-
-                    if(mInputStream != null)
-                    {
-                        //We need to stream at 13.888 fps (144 byte frame) to achieve 2000 Bps or 16 kbps
-                        mBytesStreamedRequired += 2000;  //2000 bytes per second for 16 kbps data rate
-                        int bytesToStream = mBytesStreamedRequired - mBytesStreamedActual;
+                        if(mInputStream != null)
+                        {
+                            //We need to stream at 13.888 fps (144 byte frame) to achieve 2000 Bps or 16 kbps
+                            mBytesStreamedRequired += BYTES_PER_INTERVAL;
 
-                        //Trim length to whole-frame intervals (144 byte frame)
-                        bytesToStream -= (bytesToStream % 144);
+                            //Limit the deficit when a live recording has been supplying audio slower than real time
+                            if(mBytesStreamedRequired - mBytesStreamedActual > MAXIMUM_DEFICIT_BYTES)
+                            {
+                                mBytesStreamedActual = mBytesStreamedRequired - MAXIMUM_DEFICIT_BYTES;
+                            }
 
-                        int length = Math.min(bytesToStream, mInputStream.available());
+                            int bytesToStream = mBytesStreamedRequired - mBytesStreamedActual;
 
-                        byte[] audio = new byte[length];
+                            //Trim length to whole-frame intervals (144 byte frame)
+                            bytesToStream -= (bytesToStream % 144);
 
-                        try
-                        {
-                            mBytesStreamedActual += mInputStream.read(audio);
+                            int available = mInputStream.available();
+                            int length = Math.min(bytesToStream, available);
 
-                            broadcastAudio(audio);
+                            if(available <= 0)
+                            {
+                                //A live recording is waiting for the encoder - keep the stream fed with silence for
+                                //this interval and don't carry the interval forward as a deficit
+                                broadcastAudio(mSilenceGenerator.generate(PROCESSOR_RUN_INTERVAL_MS));
+                                mBytesStreamedActual = mBytesStreamedRequired;
+                            }
+                            else if(length > 0)
+                            {
+                                byte[] audio = new byte[length];
+
+                                try
+                                {
+                                    mBytesStreamedActual += mInputStream.read(audio);
+
+                                    broadcastAudio(audio);
+                                }
+                                catch(IOException ioe)
+                                {
+                                    mLog.error("Error reading from audio recording input stream", ioe);
+                                }
+                            }
                         }
-                        catch(IOException ioe)
+                        else
                         {
-                            mLog.error("Error reading from in-memory audio recording input stream", ioe);
+                            broadcastAudio(mSilenceGenerator.generate(PROCESSOR_RUN_INTERVAL_MS));
                         }
                     }
-                    else
-                    {
-                        broadcastAudio(mSilenceGenerator.generate(PROCESSOR_RUN_INTERVAL_MS));
-                    }
                 }
                 catch(Exception e)
                 {
@@ -378,25 +496,71 @@ public abstract class AudioBroadcaster implements Listener<AudioRecording>
             }
         }
 
+        /**
+         * Indicates if the current recording is complete and all of its audio has been streamed.  Completion is
+         * checked before the available audio since a live recording doesn't receive audio after it completes.
+         */
+        private boolean isFinished() throws IOException
+        {
+            boolean complete = mCurrentRecording.isComplete();
+
+            return complete && mInputStream.available() <= 0;
+        }
+
+        /**
+         * Releases the current recording so that it can be deleted once all broadcasters have streamed it
+         */
+        public synchronized void releaseCurrentRecording()
+        {
+            if(mInputStream != null)
+            {
+                try
+                {
+                    mInputStream.close();
+                }
+                catch(IOException ioe)
+                {
+                    //Ignore
+                }
+
+                mInputStream = null;
+            }
+
+            if(mCurrentRecording != null)
+            {
+                mCurrentRecording.removePendingReplay();
+                mCurrentRecording = null;
+            }
+        }
+
         /**
          * Loads the next recording for broadcast
          */
         private void nextRecording()
         {
-            mBytesStreamedActual = 0;
-            mBytesStreamedRequired = 0;
-
             boolean metadataUpdateRequired = false;
 
             if(mInputStream != null)
             {
+                //Pad the end of the finished recording with silence to a whole processor interval
+                long finalSilencePadding = PROCESSOR_RUN_INTERVAL_MS -
+                    (mCurrentRecording.getRecordingLength() % PROCESSOR_RUN_INTERVAL_MS);
+
+                if(finalSilencePadding > 0 && finalSilencePadding < PROCESSOR_RUN_INTERVAL_MS)
+                {
+                    broadcastAudio(mSilenceGenerator.generate(finalSilencePadding));
+                }
+
                 mStreamedAudioCount++;
                 broadcast(new BroadcastEvent(AudioBroadcaster.this,
                     BroadcastEvent.Event.BROADCASTER_STREAMED_COUNT_CHANGE));
                 metadataUpdateRequired = true;
             }
 
-            mInputStream = null;
+            releaseCurrentRecording();
+
+            mBytesStreamedActual = 0;
+            mBytesStreamedRequired = 0;
 
             //Peek at the next recording but don't remove it from the queue yet, so we can inspect the start time for
             //age limits and/or delay elapsed
@@ -420,42 +584,25 @@ public abstract class AudioBroadcaster implements Listener<AudioRecording>
 
                 try
                 {
-                    if(Files.exists(nextRecording.getPath()))
-                    {
-                        byte[] audio = Files.readAllBytes(nextRecording.getPath());
-
-                        if(audio != null && audio.length > 0)
-                        {
-                            mInputStream = new ByteArrayInputStream(audio);
-
-                            mFinalSilencePadding = PROCESSOR_RUN_INTERVAL_MS -
-                                (nextRecording.getRecordingLength() % PROCESSOR_RUN_INTERVAL_MS);
+                    mInputStream = nextRecording.getInputStream();
+                    mCurrentRecording = nextRecording;
 
-                            while(mFinalSilencePadding >= PROCESSOR_RUN_INTERVAL_MS)
-                            {
-                                mFinalSilencePadding -= PROCESSOR_RUN_INTERVAL_MS;
-                            }
-
-                            if(connected())
-                            {
-                                broadcastMetadata(nextRecording.getMetadata());
-                            }
-
-                            metadataUpdateRequired = false;
-                        }
+                    if(connected())
+                    {
+                        broadcastMetadata(nextRecording.getMetadata());
                     }
+
+                    metadataUpdateRequired = false;
                 }
                 catch(IOException ioe)
                 {
                     mLog.error("Stream [" + getBroadcastConfiguration().getName() + "] error reading temporary audio " +
-                        "stream recording [" + nextRecording.getPath().toString() + "] - skipping recording - ", ioe);
+                        "stream recording [" + nextRecording.getPath() + "] - skipping recording - ", ioe);
 
                     mInputStream = null;
-                    metadataUpdateRequired = false;
+                    nextRecording.removePendingReplay();
                 }
 
-                nextRecording.removePendingReplay();
-
                 broadcast(new BroadcastEvent(AudioBroadcaster.this, BroadcastEvent.Event.BROADCASTER_QUEUE_CHANGE));
             }
 
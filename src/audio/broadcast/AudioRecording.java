@@ -22,6 +22,10 @@ import channel.metadata.Metadata;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -33,7 +37,7 @@ public class AudioRecording implements Comparable<AudioRecording>
     private long mStartTime;
     private long mRecordingLength;
     private AtomicInteger mPendingReplayCount = new AtomicInteger();
-    private Metadata mMetadata;
+    private volatile Metadata mMetadata;
 
     /**
      * Audio recording that is ready to be streamed
@@ -67,6 +71,14 @@ public class AudioRecording implements Comparable<AudioRecording>
         return mMetadata;
     }
 
+    /**
+     * Updates the audio metadata for the recording
+     */
+    protected void setMetadata(Metadata metadata)
+    {
+        mMetadata = metadata;
+    }
+
     /**
      * Recording start time in milliseconds since epoch
      */
@@ -84,6 +96,33 @@ public class AudioRecording implements Comparable<AudioRecording>
     }
 
 
+    /**
+     * Indicates if the recording is complete.  Completed recordings don't receive any further audio.
+     */
+    public boolean isComplete()
+    {
+        return true;
+    }
+
+    /**
+     * Opens a stream for reading the recorded audio.  Each invocation returns a new stream positioned at the start
+     * of the recording.
+     *
+     * @throws IOException if the recording can't be read
+     */
+    public InputStream getInputStream() throws IOException
+    {
+        return new ByteArrayInputStream(Files.readAllBytes(mPath));
+    }
+
+    /**
+     * Releases any resources held by the recording once it has been streamed by all broadcasters.  Recordings backed
+     * by a file are deleted by the broadcast model.
+     */
+    public void dispose()
+    {
+    }
+
     /**
      * Implements comparable for sorting recordings based on start time in ascending order
      */
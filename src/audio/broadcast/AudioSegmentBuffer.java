@@ -0,0 +1,340 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package audio.broadcast;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Append-only buffer of encoded audio segments for a recording that is streamed while it is being encoded.
+ *
+ * Segments are held in memory while the application-wide memory budget for segment buffers allows, and are spooled
+ * to a temporary file once the budget is exhausted (e.g. when broadcasters fall behind).  Each reader has its own
+ * read position, so several broadcasters can stream the same recording.
+ */
+public class AudioSegmentBuffer
+{
+    private final static Logger mLog = LoggerFactory.getLogger(AudioSegmentBuffer.class);
+
+    /* Maximum encoded audio held in memory across all segment buffers - about 30 minutes at 16 kbps */
+    public static final long MEMORY_LIMIT = 4 * 1024 * 1024;
+
+    private static final AtomicLong sMemoryUsed = new AtomicLong();
+
+    private List<Segment> mSegments = new ArrayList<>();
+    private long mSize;
+    private long mMemoryUsed;
+    private Path mSpoolPath;
+    private FileChannel mSpoolChannel;
+    private long mSpoolSize;
+    private boolean mComplete;
+    private boolean mDisposed;
+
+    /**
+     * Constructs a segment buffer
+     *
+     * @param spoolPath for the temporary file used when the memory budget is exhausted
+     */
+    public AudioSegmentBuffer(Path spoolPath)
+    {
+        mSpoolPath = spoolPath;
+    }
+
+    /**
+     * Appends the encoded audio to this buffer
+     */
+    public synchronized void add(byte[] audio)
+    {
+        if(mDisposed || mComplete || audio == null || audio.length == 0)
+        {
+            return;
+        }
+
+        if(mSpoolChannel == null && sMemoryUsed.addAndGet(audio.length) <= MEMORY_LIMIT)
+        {
+            mMemoryUsed += audio.length;
+            mSegments.add(new Segment(audio));
+            mSize += audio.length;
+        }
+        else
+        {
+            if(mSpoolChannel == null)
+            {
+                sMemoryUsed.addAndGet(-audio.length);
+            }
+
+            spool(audio);
+        }
+
+        notifyAll();
+    }
+
+    /**
+     * Appends the encoded audio to the spool file.  Once spooling starts, all further audio for this buffer is
+     * spooled so that segments stay in order.
+     */
+    private void spool(byte[] audio)
+    {
+        try
+        {
+            if(mSpoolChannel == null)
+            {
+                mLog.info("Streaming audio memory limit reached - spooling to [" + mSpoolPath.toString() + "]");
+
+                mSpoolChannel = FileChannel.open(mSpoolPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(audio);
+
+            while(buffer.hasRemaining())
+            {
+                mSpoolChannel.write(buffer, mSpoolSize + buffer.position());
+            }
+
+            mSegments.add(new Segment(mSpoolSize, audio.length));
+            mSpoolSize += audio.length;
+            mSize += audio.length;
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error spooling streaming audio to [" + mSpoolPath.toString() + "] - discarding audio", ioe);
+        }
+    }
+
+    /**
+     * Marks this buffer as complete.  No further audio is accepted and readers finish once they have read all of
+     * the buffered audio.
+     */
+    public synchronized void complete()
+    {
+        mComplete = true;
+
+        notifyAll();
+    }
+
+    public synchronized boolean isComplete()
+    {
+        return mComplete;
+    }
+
+    /**
+     * Total number of bytes appended to this buffer
+     */
+    public synchronized long size()
+    {
+        return mSize;
+    }
+
+    /**
+     * Creates a reader positioned at the start of this buffer
+     */
+    public Reader getReader()
+    {
+        return new Reader();
+    }
+
+    /**
+     * Releases the memory used by this buffer and deletes any spool file
+     */
+    public synchronized void dispose()
+    {
+        if(!mDisposed)
+        {
+            mDisposed = true;
+            mComplete = true;
+
+            sMemoryUsed.addAndGet(-mMemoryUsed);
+            mMemoryUsed = 0;
+            mSegments.clear();
+
+            if(mSpoolChannel != null)
+            {
+                try
+                {
+                    mSpoolChannel.close();
+                    Files.deleteIfExists(mSpoolPath);
+                }
+                catch(IOException ioe)
+                {
+                    mLog.error("Error deleting streaming audio spool file [" + mSpoolPath.toString() + "]", ioe);
+                }
+
+                mSpoolChannel = null;
+            }
+
+            notifyAll();
+        }
+    }
+
+    /**
+     * Encoded audio segment held either in memory or in the spool file
+     */
+    private class Segment
+    {
+        private byte[] mAudio;
+        private long mSpoolOffset;
+        private int mLength;
+
+        private Segment(byte[] audio)
+        {
+            mAudio = audio;
+            mLength = audio.length;
+        }
+
+        private Segment(long spoolOffset, int length)
+        {
+            mSpoolOffset = spoolOffset;
+            mLength = length;
+        }
+
+        /**
+         * Copies length bytes starting at the offset within this segment into the buffer
+         */
+        private void read(int offset, byte[] buffer, int bufferOffset, int length) throws IOException
+        {
+            if(mAudio != null)
+            {
+                System.arraycopy(mAudio, offset, buffer, bufferOffset, length);
+            }
+            else
+            {
+                ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, bufferOffset, length);
+
+                while(byteBuffer.hasRemaining())
+                {
+                    int read = mSpoolChannel.read(byteBuffer, mSpoolOffset + offset + (byteBuffer.position() -
+                        bufferOffset));
+
+                    if(read < 0)
+                    {
+                        throw new IOException("Unexpected end of streaming audio spool file");
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Buffer reader.  Reads block until audio is available and return -1 only once the buffer is complete and all
+     * audio has been read, or the buffer has been disposed.  Use available() to read only the audio that is currently
+     * buffered without blocking.
+     */
+    public class Reader extends InputStream
+    {
+        private int mSegmentIndex;
+        private int mSegmentOffset;
+        private long mPosition;
+
+        @Override
+        public int available()
+        {
+            synchronized(AudioSegmentBuffer.this)
+            {
+                return (int) Math.min(Integer.MAX_VALUE, mSize - mPosition);
+            }
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            byte[] buffer = new byte[1];
+
+            int read = read(buffer, 0, 1);
+
+            return read == 1 ? (buffer[0] & 0xFF) : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException
+        {
+            synchronized(AudioSegmentBuffer.this)
+            {
+                if(length <= 0)
+                {
+                    return 0;
+                }
+
+                while(!mDisposed && !mComplete && mPosition >= mSize)
+                {
+                    try
+                    {
+                        AudioSegmentBuffer.this.wait();
+                    }
+                    catch(InterruptedException ie)
+                    {
+                        throw new InterruptedIOException("Interrupted while waiting for streaming audio");
+                    }
+                }
+
+                if(mDisposed)
+                {
+                    return -1;
+                }
+
+                int total = 0;
+
+                while(total < length && mSegmentIndex < mSegments.size())
+                {
+                    Segment segment = mSegments.get(mSegmentIndex);
+
+                    int count = Math.min(length - total, segment.mLength - mSegmentOffset);
+
+                    segment.read(mSegmentOffset, buffer, offset + total, count);
+
+                    total += count;
+                    mSegmentOffset += count;
+
+                    if(mSegmentOffset >= segment.mLength)
+                    {
+                        mSegmentIndex++;
+                        mSegmentOffset = 0;
+                    }
+                }
+
+                mPosition += total;
+
+                return total > 0 ? total : -1;
+            }
+        }
+
+        /**
+         * Indicates if the buffer is complete and this reader has read all of the audio
+         */
+        public boolean isFinished()
+        {
+            synchronized(AudioSegmentBuffer.this)
+            {
+                return mDisposed || (mComplete && mPosition >= mSize);
+            }
+        }
+    }
+}
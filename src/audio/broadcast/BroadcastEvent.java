@@ -83,6 +83,7 @@ public class BroadcastEvent
         BROADCASTER_STATE_CHANGE,
         BROADCASTER_STREAMED_COUNT_CHANGE,
         BROADCASTER_AGED_OFF_COUNT_CHANGE,
+        BROADCASTER_DROPPED_COUNT_CHANGE,
         BROADCASTER_DELETE,
 
         CONFIGURATION_ADD,
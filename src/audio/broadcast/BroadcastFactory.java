@@ -64,9 +64,8 @@ public class BroadcastFactory
     {
         if(configuration != null)
         {
-            IAudioConverter converter = getAudioConverter(configuration);
-
-            if(converter != null)
+            //Broadcasters stream the shared recordings produced by the stream manager and don't need an encoder
+            if(isSupported(configuration.getBroadcastFormat()))
             {
                 switch(configuration.getBroadcastServerType())
                 {
@@ -91,6 +90,14 @@ public class BroadcastFactory
         return null;
     }
 
+    /**
+     * Indicates if audio can be converted to the broadcast format
+     */
+    public static boolean isSupported(BroadcastFormat broadcastFormat)
+    {
+        return broadcastFormat == BroadcastFormat.MP3;
+    }
+
     /**
      * Creates an audio convert to convert from 8 kHz PCM audio to the specified format
      *
@@ -99,12 +106,23 @@ public class BroadcastFactory
      */
     public static IAudioConverter getAudioConverter(BroadcastConfiguration configuration)
     {
-        switch(configuration.getBroadcastFormat())
+        return getAudioConverter(configuration.getBroadcastFormat());
+    }
+
+    /**
+     * Creates an audio convert to convert from 8 kHz PCM audio to the specified format
+     *
+     * @param broadcastFormat for the output audio
+     * @return audio convert or null
+     */
+    public static IAudioConverter getAudioConverter(BroadcastFormat broadcastFormat)
+    {
+        switch(broadcastFormat)
         {
             case MP3:
                 return new MP3AudioConverter(MP3_MONO_16_KHZ_BITRATE, MP3_CONSTANT_BITRATE);
             default:
-                mLog.info("Unrecognized broadcastAudio format: " + configuration.getBroadcastFormat().name());
+                mLog.info("Unrecognized broadcastAudio format: " + broadcastFormat.name());
         }
 
         return null;
@@ -20,6 +20,7 @@ package audio.broadcast;
 
 import alias.id.broadcast.BroadcastChannel;
 import audio.AudioPacket;
+import channel.latency.LatencyStage;
 import channel.metadata.Metadata;
 import icon.IconManager;
 import org.slf4j.Logger;
@@ -52,6 +53,7 @@ public class BroadcastModel extends AbstractTableModel implements Listener<Audio
 
     public static final String TEMPORARY_STREAM_DIRECTORY = "streaming";
     public static final String TEMPORARY_STREAM_FILE_SUFFIX = "temporary_streaming_file_";
+    public static final String PROPERTY_LIVE_STREAMING = "broadcast.live.streaming";
 
     private static final String UNIQUE_NAME_REGEX = "(.*)\\((\\d*)\\)";
 
@@ -61,9 +63,10 @@ public class BroadcastModel extends AbstractTableModel implements Listener<Audio
     public static final int COLUMN_BROADCASTER_QUEUE_SIZE = 3;
     public static final int COLUMN_BROADCASTER_STREAMED_COUNT = 4;
     public static final int COLUMN_BROADCASTER_AGED_OFF_COUNT = 5;
+    public static final int COLUMN_BROADCASTER_DROPPED_COUNT = 6;
 
     public static final String[] COLUMN_NAMES = new String[]
-        {"Streaming", "Name", "Status", "Queued", "Streamed", "Aged Off"};
+        {"Streaming", "Name", "Status", "Queued", "Streamed", "Aged Off", "Dropped"};
 
     private List<BroadcastConfiguration> mBroadcastConfigurations = new CopyOnWriteArrayList<>();
     private List<AudioRecording> mRecordingQueue = new CopyOnWriteArrayList<>();
@@ -81,7 +84,8 @@ public class BroadcastModel extends AbstractTableModel implements Listener<Audio
     {
         mIconManager = iconManager;
         mStreamManager = new StreamManager(new CompletedRecordingListener(), BroadcastFormat.MP3,
-            SystemProperties.getInstance().getApplicationFolder(TEMPORARY_STREAM_DIRECTORY));
+            SystemProperties.getInstance().getApplicationFolder(TEMPORARY_STREAM_DIRECTORY),
+            SystemProperties.getInstance().get(PROPERTY_LIVE_STREAMING, true));
         mStreamManager.start();
 
         //Monitor to remove temporary recording files that have been streamed by all audio broadcasters
@@ -285,6 +289,11 @@ public class BroadcastModel extends AbstractTableModel implements Listener<Audio
                 if(mBroadcasterMap.containsKey(channel.getChannelName()))
                 {
                     mStreamManager.receive(audioPacket);
+
+                    if(audioPacket.getMetadata().hasCallLatency())
+                    {
+                        audioPacket.getMetadata().getCallLatency().mark(LatencyStage.AUDIO_STREAMING);
+                    }
                     return;
                 }
             }
@@ -451,6 +460,12 @@ public class BroadcastModel extends AbstractTableModel implements Listener<Audio
                         fireTableCellUpdated(row, COLUMN_BROADCASTER_AGED_OFF_COUNT);
                     }
                     break;
+                case BROADCASTER_DROPPED_COUNT_CHANGE:
+                    if(row >= 0)
+                    {
+                        fireTableCellUpdated(row, COLUMN_BROADCASTER_DROPPED_COUNT);
+                    }
+                    break;
             }
         }
 
@@ -563,6 +578,14 @@ public class BroadcastModel extends AbstractTableModel implements Listener<Audio
                                 return audioBroadcasterD.getAgedOffAudioCount();
                             }
                             break;
+                        case COLUMN_BROADCASTER_DROPPED_COUNT:
+                            AudioBroadcaster audioBroadcasterE = mBroadcasterMap.get(configuration.getName());
+
+                            if(audioBroadcasterE != null)
+                            {
+                                return audioBroadcasterE.getDroppedAudioCount();
+                            }
+                            break;
                         default:
                             break;
                     }
@@ -622,14 +645,19 @@ public class BroadcastModel extends AbstractTableModel implements Listener<Audio
      */
     private void removeRecording(AudioRecording recording)
     {
-        try
-        {
-            Files.delete(recording.getPath());
-        }
-        catch(IOException ioe)
+        recording.dispose();
+
+        if(recording.getPath() != null)
         {
-            mLog.error("Error deleting temporary internet recording file: " + recording.getPath().toString() + " - " +
-                ioe.getMessage());
+            try
+            {
+                Files.delete(recording.getPath());
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Error deleting temporary internet recording file: " + recording.getPath().toString() +
+                    " - " + ioe.getMessage());
+            }
         }
     }
 
@@ -695,8 +723,8 @@ public class BroadcastModel extends AbstractTableModel implements Listener<Audio
     }
 
     /**
-     * Processes completed audio recordings and distributes them to the audio broadcasters.  Adds the recording to
-     * the audio recording queue to be monitored for deletion.
+     * Processes completed audio recordings, or live audio recordings as they start, and distributes them to the audio
+     * broadcasters.  Adds the recording to the audio recording queue to be monitored for deletion.
      */
     public class CompletedRecordingListener implements Listener<AudioRecording>
     {
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package audio.broadcast;
+
+import controller.NamingThreadFactory;
+import org.apache.mina.core.service.IoProcessor;
+import org.apache.mina.core.service.SimpleIoProcessorPool;
+import org.apache.mina.transport.socket.nio.NioProcessor;
+import org.apache.mina.transport.socket.nio.NioSession;
+import org.apache.mina.transport.socket.nio.NioSocketConnector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import properties.SystemProperties;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates the Apache Mina socket connectors used by the broadcasters and metadata updaters.
+ *
+ * By default, each Mina socket connector creates its own I/O processor pool (one selector thread per processor) and
+ * its own executor.  Connectors created by this factory instead share a single application-wide I/O processor pool
+ * and executor, so the number of selector threads is fixed by the processor count setting regardless of the number
+ * of configured streams.  Processor and executor threads exit when there are no open sessions.
+ *
+ * Connectors created by this factory don't dispose the shared processor pool when they are disposed.
+ */
+public class BroadcastSocketConnectorFactory
+{
+    private final static Logger mLog = LoggerFactory.getLogger(BroadcastSocketConnectorFactory.class);
+
+    public static final String PROPERTY_IO_PROCESSOR_COUNT = "broadcast.io.processor.count";
+
+    /* One selector thread easily services dozens of 16 kbps streams */
+    public static final int DEFAULT_IO_PROCESSOR_COUNT = 1;
+
+    private static ExecutorService sExecutor;
+    private static IoProcessor<NioSession> sIoProcessor;
+
+    /**
+     * Creates a socket connector that uses the shared I/O processor pool
+     */
+    public static NioSocketConnector getSocketConnector()
+    {
+        return new NioSocketConnector(getExecutor(), getIoProcessor());
+    }
+
+    /**
+     * Shared executor for the I/O processors and for the connectors' connection handling threads
+     */
+    private static synchronized ExecutorService getExecutor()
+    {
+        if(sExecutor == null)
+        {
+            sExecutor = Executors.newCachedThreadPool(new NamingThreadFactory("sdrtrunk broadcast io"));
+        }
+
+        return sExecutor;
+    }
+
+    /**
+     * Shared I/O processor pool sized according to the processor count system property
+     */
+    private static synchronized IoProcessor<NioSession> getIoProcessor()
+    {
+        if(sIoProcessor == null)
+        {
+            int count = SystemProperties.getInstance().get(PROPERTY_IO_PROCESSOR_COUNT, DEFAULT_IO_PROCESSOR_COUNT);
+
+            if(count < 1)
+            {
+                count = DEFAULT_IO_PROCESSOR_COUNT;
+            }
+
+            sIoProcessor = new SimpleIoProcessorPool<>(NioProcessor.class, getExecutor(), count, null);
+
+            mLog.info("Broadcast I/O processor pool created with [" + count + "] processors");
+        }
+
+        return sIoProcessor;
+    }
+}
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package audio.broadcast;
+
+import audio.AudioPacket;
+import audio.convert.IAudioConverter;
+import channel.metadata.Metadata;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Collections;
+
+/**
+ * Audio recording that is encoded incrementally as audio packets arrive and can be streamed while the call is in
+ * progress.  Encoded audio is held in an audio segment buffer that broadcasters read from directly, so the recording
+ * only touches the disk when the segment buffer memory budget is exhausted.
+ */
+public class LiveAudioRecording extends AudioRecording
+{
+    private IAudioConverter mConverter;
+    private AudioSegmentBuffer mSegmentBuffer;
+    private volatile long mSampleCount;
+
+    /**
+     * Constructs a live audio recording
+     *
+     * @param metadata for the recording
+     * @param start time of recording in milliseconds since epoch
+     * @param converter to encode the audio packets
+     * @param spoolPath for a temporary file if the encoded audio must be spooled to disk
+     */
+    public LiveAudioRecording(Metadata metadata, long start, IAudioConverter converter, Path spoolPath)
+    {
+        super(null, metadata, start, 0);
+
+        mConverter = converter;
+        mSegmentBuffer = new AudioSegmentBuffer(spoolPath);
+    }
+
+    /**
+     * Encodes the audio packet and appends the encoded audio to this recording
+     */
+    public synchronized void receive(AudioPacket audioPacket)
+    {
+        if(mSegmentBuffer.isComplete())
+        {
+            return;
+        }
+
+        if(audioPacket.hasMetadata())
+        {
+            setMetadata(audioPacket.getMetadata());
+        }
+
+        if(audioPacket.getType() == AudioPacket.Type.AUDIO && audioPacket.hasAudioBuffer())
+        {
+            mSegmentBuffer.add(mConverter.convert(Collections.singletonList(audioPacket)));
+            mSampleCount += audioPacket.getAudioBuffer().getSamples().length;
+        }
+    }
+
+    /**
+     * Flushes the final partial audio frame from the encoder and completes this recording
+     */
+    public synchronized void complete()
+    {
+        if(!mSegmentBuffer.isComplete())
+        {
+            mSegmentBuffer.add(mConverter.flush());
+            mSegmentBuffer.complete();
+        }
+    }
+
+    /**
+     * Recording length in milliseconds.  Increases while the recording is in progress.
+     */
+    @Override
+    public long getRecordingLength()
+    {
+        //Assumes audio sample rate of 8000 samples/second or 8 samples/milli-second
+        return mSampleCount / 8;
+    }
+
+    @Override
+    public boolean isComplete()
+    {
+        return mSegmentBuffer.isComplete();
+    }
+
+    /**
+     * Non-blocking stream of the encoded audio that returns audio as it is encoded
+     */
+    @Override
+    public InputStream getInputStream()
+    {
+        return mSegmentBuffer.getReader();
+    }
+
+    @Override
+    public void dispose()
+    {
+        mSegmentBuffer.dispose();
+    }
+}
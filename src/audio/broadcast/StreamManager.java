@@ -30,6 +30,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ScheduledFuture;
@@ -48,6 +49,8 @@ public class StreamManager implements Listener<AudioPacket>
     private BroadcastFormat mBroadcastFormat;
     private Path mTempDirectory;
     private Map<Integer,AudioRecorder> mStreamRecorders = new HashMap<>();
+    private Map<Integer,LiveAudioRecording> mLiveRecordings = new HashMap<>();
+    private boolean mLiveStreaming;
     private Runnable mRecorderMonitor;
     private ScheduledFuture<?> mRecorderMonitorFuture;
     private AtomicBoolean mRunning = new AtomicBoolean();
@@ -60,16 +63,24 @@ public class StreamManager implements Listener<AudioPacket>
      *
      * Completed streamable audio recordings are nominated to the output listener (for broadcast) upon completion
      *
+     * In live streaming mode, each stream is instead encoded incrementally as audio packets arrive into an in-memory
+     * live audio recording that is nominated to the output listener when the stream starts, so that broadcasters
+     * can stream the audio while the call is in progress.  Temporary files are only used if the encoded audio
+     * exceeds the in-memory budget.
+     *
      * @param listener to receive completed audio recordings
      * @param tempDirectory where to store temporary audio recordings
+     * @param liveStreaming true to nominate live recordings as streams start, false to nominate completed recordings
      */
-    public StreamManager(Listener<AudioRecording> listener, BroadcastFormat broadcastFormat, Path tempDirectory)
+    public StreamManager(Listener<AudioRecording> listener, BroadcastFormat broadcastFormat, Path tempDirectory,
+                         boolean liveStreaming)
     {
         assert (tempDirectory != null && Files.isDirectory(tempDirectory));
 
         mAudioRecordingListener = listener;
         mBroadcastFormat = broadcastFormat;
         mTempDirectory = tempDirectory;
+        mLiveStreaming = liveStreaming;
     }
 
     /**
@@ -111,12 +122,28 @@ public class StreamManager implements Listener<AudioPacket>
                     removeRecorder(streamKey);
                 }
             }
+
+            synchronized(mLiveRecordings)
+            {
+                for(LiveAudioRecording recording : mLiveRecordings.values())
+                {
+                    recording.complete();
+                }
+
+                mLiveRecordings.clear();
+            }
         }
     }
 
     @Override
     public void receive(AudioPacket audioPacket)
     {
+        if(mLiveStreaming)
+        {
+            receiveLive(audioPacket);
+            return;
+        }
+
         if(mRunning.get() && audioPacket.hasMetadata())
         {
             synchronized(mStreamRecorders)
@@ -157,6 +184,65 @@ public class StreamManager implements Listener<AudioPacket>
         }
     }
 
+    /**
+     * Encodes the audio packet into the live recording for the packet's stream, creating and nominating a new live
+     * recording when the stream starts, and completes the live recording when the stream ends.
+     */
+    private void receiveLive(AudioPacket audioPacket)
+    {
+        if(mRunning.get() && audioPacket.hasMetadata())
+        {
+            int channelMetadataID = audioPacket.getMetadata().getMetadataID();
+
+            AudioPacket.Type type = audioPacket.getType();
+
+            if(type == AudioPacket.Type.AUDIO)
+            {
+                LiveAudioRecording recording;
+                boolean created = false;
+
+                synchronized(mLiveRecordings)
+                {
+                    recording = mLiveRecordings.get(channelMetadataID);
+
+                    if(recording == null)
+                    {
+                        recording = new LiveAudioRecording(audioPacket.getMetadata(), System.currentTimeMillis(),
+                            BroadcastFactory.getAudioConverter(mBroadcastFormat), getTemporaryRecordingPath());
+                        mLiveRecordings.put(channelMetadataID, recording);
+                        created = true;
+                    }
+                }
+
+                //Encode before nominating so that broadcasters have audio available as soon as they start
+                recording.receive(audioPacket);
+
+                if(created && mAudioRecordingListener != null)
+                {
+                    mAudioRecordingListener.receive(recording);
+                }
+            }
+            else if(type == AudioPacket.Type.END)
+            {
+                LiveAudioRecording recording;
+
+                synchronized(mLiveRecordings)
+                {
+                    recording = mLiveRecordings.remove(channelMetadataID);
+                }
+
+                if(recording != null)
+                {
+                    recording.complete();
+                }
+            }
+            else
+            {
+                mLog.info("Unrecognized Audio Packet Type: " + type);
+            }
+        }
+    }
+
     /**
      * Removes the recorder associated with the source channel ID.
      *
@@ -214,6 +300,12 @@ public class StreamManager implements Listener<AudioPacket>
         @Override
         public void run()
         {
+            if(mLiveStreaming)
+            {
+                cycleLiveRecordings();
+                return;
+            }
+
             synchronized(mStreamRecorders)
             {
                 long now = System.currentTimeMillis();
@@ -229,5 +321,37 @@ public class StreamManager implements Listener<AudioPacket>
                     });
             }
         }
+
+        /**
+         * Completes live recordings that have reached the maximum life-span, including streams that ended without an
+         * end packet.  Subsequent audio for a stream starts a new live recording.
+         */
+        private void cycleLiveRecordings()
+        {
+            List<LiveAudioRecording> completed = new ArrayList<>();
+
+            synchronized(mLiveRecordings)
+            {
+                long now = System.currentTimeMillis();
+
+                Iterator<Map.Entry<Integer,LiveAudioRecording>> it = mLiveRecordings.entrySet().iterator();
+
+                while(it.hasNext())
+                {
+                    LiveAudioRecording recording = it.next().getValue();
+
+                    if(recording.getStartTime() + MAXIMUM_RECORDER_LIFESPAN_MILLIS < now)
+                    {
+                        it.remove();
+                        completed.add(recording);
+                    }
+                }
+            }
+
+            for(LiveAudioRecording recording : completed)
+            {
+                recording.complete();
+            }
+        }
     }
 }
@@ -18,6 +18,7 @@
  ******************************************************************************/
 package audio.broadcast.icecast;
 
+import audio.broadcast.BroadcastSocketConnectorFactory;
 import audio.broadcast.IBroadcastMetadataUpdater;
 import channel.metadata.Metadata;
 import org.apache.mina.core.future.ConnectFuture;
@@ -77,7 +78,7 @@ public class IcecastBroadcastMetadataUpdater implements IBroadcastMetadataUpdate
     {
         if(mSocketConnector == null)
         {
-            mSocketConnector = new NioSocketConnector();
+            mSocketConnector = BroadcastSocketConnectorFactory.getSocketConnector();
 //            mSocketConnector.getFilterChain().addLast("logger", new LoggingFilter(IcecastBroadcastMetadataUpdater.class));
             mSocketConnector.getFilterChain().addLast("http_client_codec", new HttpClientCodec());
 
@@ -18,10 +18,10 @@
  ******************************************************************************/
 package audio.broadcast.icecast;
 
+import audio.broadcast.BroadcastSocketConnectorFactory;
 import audio.broadcast.BroadcastState;
 import audio.convert.MP3AudioConverter;
 import org.apache.mina.core.RuntimeIoException;
-import org.apache.mina.core.buffer.IoBuffer;
 import org.apache.mina.core.future.ConnectFuture;
 import org.apache.mina.core.service.IoHandlerAdapter;
 import org.apache.mina.core.session.IoSession;
@@ -82,11 +82,7 @@ public class IcecastHTTPAudioBroadcaster extends IcecastAudioBroadcaster
     {
         if(audio != null && audio.length > 0 && connect() && mStreamingSession != null && mStreamingSession.isConnected())
         {
-            IoBuffer buffer = IoBuffer.allocate(audio.length);
-            buffer.put(audio);
-            buffer.flip();
-
-            mStreamingSession.write(buffer);
+            writeAudio(mStreamingSession, audio);
         }
     }
 
@@ -108,7 +104,7 @@ public class IcecastHTTPAudioBroadcaster extends IcecastAudioBroadcaster
 
             if(mSocketConnector == null)
             {
-                mSocketConnector = new NioSocketConnector();
+                mSocketConnector = BroadcastSocketConnectorFactory.getSocketConnector();
                 mSocketConnector.setConnectTimeoutCheckInterval(10000);
 
 //                mSocketConnector.getFilterChain().addLast("logger",
@@ -18,6 +18,7 @@
  ******************************************************************************/
 package audio.broadcast.icecast;
 
+import audio.broadcast.BroadcastSocketConnectorFactory;
 import audio.broadcast.BroadcastState;
 import audio.broadcast.icecast.codec.IcecastCodecFactory;
 import audio.convert.MP3AudioConverter;
@@ -78,7 +79,7 @@ public class IcecastTCPAudioBroadcaster extends IcecastAudioBroadcaster
     {
         if(audio != null && audio.length > 0 && connect() && mStreamingSession != null && mStreamingSession.isConnected())
         {
-            mStreamingSession.write(audio);
+            writeAudio(mStreamingSession, audio);
         }
     }
 
@@ -100,7 +101,7 @@ public class IcecastTCPAudioBroadcaster extends IcecastAudioBroadcaster
 
             if(mSocketConnector == null)
             {
-                mSocketConnector = new NioSocketConnector();
+                mSocketConnector = BroadcastSocketConnectorFactory.getSocketConnector();
                 mSocketConnector.setConnectTimeoutCheckInterval(CONNECTION_ATTEMPT_TIMEOUT);
 
 //                LoggingFilter loggingFilter = new LoggingFilter(IcecastTCPAudioBroadcaster.class);
@@ -52,10 +52,7 @@ public class IcecastEncoder extends ProtocolEncoderAdapter
         {
             byte[] data = (byte[])message;
 
-            IoBuffer buf = IoBuffer.allocate(data.length).setAutoExpand(false);
-            buf.put(data);
-            buf.flip();
-            out.write(buf);
+            out.write(IoBuffer.wrap(data));
         }
         //Icecast connection messages
         else if(message instanceof String)
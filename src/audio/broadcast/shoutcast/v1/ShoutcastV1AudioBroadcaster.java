@@ -19,10 +19,10 @@
 package audio.broadcast.shoutcast.v1;
 
 import audio.broadcast.AudioBroadcaster;
+import audio.broadcast.BroadcastSocketConnectorFactory;
 import audio.broadcast.BroadcastState;
 import audio.broadcast.IBroadcastMetadataUpdater;
 import org.apache.mina.core.RuntimeIoException;
-import org.apache.mina.core.buffer.IoBuffer;
 import org.apache.mina.core.future.ConnectFuture;
 import org.apache.mina.core.service.IoHandlerAdapter;
 import org.apache.mina.core.session.IoSession;
@@ -93,10 +93,7 @@ public class ShoutcastV1AudioBroadcaster extends AudioBroadcaster
     {
         if(audio != null && audio.length > 0 && connect() && mStreamingSession != null && mStreamingSession.isConnected())
         {
-            IoBuffer buf = IoBuffer.allocate(audio.length).setAutoExpand(false);
-            buf.put(audio);
-            buf.flip();
-            mStreamingSession.write(buf);
+            writeAudio(mStreamingSession, audio);
         }
     }
 
@@ -118,7 +115,7 @@ public class ShoutcastV1AudioBroadcaster extends AudioBroadcaster
 
             if(mSocketConnector == null)
             {
-                mSocketConnector = new NioSocketConnector();
+                mSocketConnector = BroadcastSocketConnectorFactory.getSocketConnector();
                 mSocketConnector.setConnectTimeoutCheckInterval(10000);
 
 //                mSocketConnector.getFilterChain().addLast("logger",
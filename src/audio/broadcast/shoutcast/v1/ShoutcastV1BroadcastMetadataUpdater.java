@@ -18,6 +18,7 @@
  ******************************************************************************/
 package audio.broadcast.shoutcast.v1;
 
+import audio.broadcast.BroadcastSocketConnectorFactory;
 import audio.broadcast.IBroadcastMetadataUpdater;
 import channel.metadata.Metadata;
 import org.apache.mina.core.future.ConnectFuture;
@@ -74,7 +75,7 @@ public class ShoutcastV1BroadcastMetadataUpdater implements IBroadcastMetadataUp
     {
         if(mSocketConnector == null)
         {
-            mSocketConnector = new NioSocketConnector();
+            mSocketConnector = BroadcastSocketConnectorFactory.getSocketConnector();
 
 //            mSocketConnector.getFilterChain().addLast("logger",
 //                new LoggingFilter(ShoutcastV1BroadcastMetadataUpdater.class));
@@ -19,6 +19,7 @@
 package audio.broadcast.shoutcast.v2;
 
 import audio.broadcast.AudioBroadcaster;
+import audio.broadcast.BroadcastSocketConnectorFactory;
 import audio.broadcast.BroadcastState;
 import audio.broadcast.IBroadcastMetadataUpdater;
 import audio.broadcast.shoutcast.v2.ultravox.AuthenticateBroadcast;
@@ -115,7 +116,7 @@ public class ShoutcastV2AudioBroadcaster extends AudioBroadcaster implements IBr
             MP3Audio mp3Audio = new MP3Audio();
             mp3Audio.setPayload(audio);
 
-            mStreamingSession.write(mp3Audio);
+            writeAudio(mStreamingSession, mp3Audio, audio.length);
         }
     }
 
@@ -154,7 +155,7 @@ public class ShoutcastV2AudioBroadcaster extends AudioBroadcaster implements IBr
 
             if(mSocketConnector == null)
             {
-                mSocketConnector = new NioSocketConnector();
+                mSocketConnector = BroadcastSocketConnectorFactory.getSocketConnector();
                 mSocketConnector.setConnectTimeoutCheckInterval(10000);
 
 //                mSocketConnector.getFilterChain().addLast("logger",
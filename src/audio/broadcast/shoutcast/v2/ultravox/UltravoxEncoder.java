@@ -32,10 +32,8 @@ public class UltravoxEncoder extends ProtocolEncoderAdapter
         {
             byte[] data = ((UltravoxMessage)message).getMessage();
 
-            IoBuffer buf = IoBuffer.allocate(data.length).setAutoExpand(false);
-            buf.put(data);
-            buf.flip();
-            out.write(buf);
+            //Message bytes are a new array for each message and can be wrapped without copying
+            out.write(IoBuffer.wrap(data));
         }
     }
 }
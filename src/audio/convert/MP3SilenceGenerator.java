@@ -31,49 +31,90 @@ public class MP3SilenceGenerator implements ISilenceGenerator
 {
     private final static Logger mLog = LoggerFactory.getLogger(MP3SilenceGenerator.class);
 
-    private MP3AudioConverter mGenerator = new MP3AudioConverter(MP3Recorder.MP3_BIT_RATE, MP3Recorder.CONSTANT_BIT_RATE);
-    private byte[] mPreviousPartialFrameData;
+    /* MPEG-2.5 layer III frames at 8 kHz and 16 kbps */
+    public static final int FRAME_LENGTH = 144;
+    public static final int SAMPLES_PER_FRAME = 576;
+
+    /* Duration of the silence block that is encoded once and shared by all generators */
+    private static final int SILENCE_BLOCK_MILLISECONDS = 10000;
+
+    private static byte[] sSilenceFrames;
+
+    private long mSampleRemainder;
+    private int mFrameIndex;
 
     /**
-     * Generates MP3 audio silence frames
+     * Generates MP3 audio silence frames.
+     *
+     * Silence is encoded once into a block of whole frames that is shared by all generators, and each generator
+     * cycles through the shared block.  This keeps idle broadcasters from each running their own MP3 encoder.
      */
     public MP3SilenceGenerator()
     {
     }
 
-    public byte[] generate(long duration)
+    /**
+     * Shared block of encoded silence frames, encoded on first use.  The block starts with the first frame from a
+     * fresh encoder, which doesn't reference bit reservoir data from a previous frame, so the block can be repeated.
+     */
+    private static synchronized byte[] getSilenceFrames()
     {
-        int length = (int)(duration * 8);   //8000 Hz sample rate
-        float[] silence = new float[length];
-        AudioPacket silencePacket = new AudioPacket(silence, null);
-        List<AudioPacket> silencePackets = new ArrayList<>();
-        silencePackets.add(silencePacket);
+        if(sSilenceFrames == null)
+        {
+            MP3AudioConverter converter = new MP3AudioConverter(MP3Recorder.MP3_BIT_RATE,
+                MP3Recorder.CONSTANT_BIT_RATE);
 
-        byte[] frameData = mGenerator.convert(silencePackets);
+            List<AudioPacket> silencePackets = new ArrayList<>();
+            silencePackets.add(new AudioPacket(new float[SILENCE_BLOCK_MILLISECONDS * 8], null));
 
-        frameData = merge(mPreviousPartialFrameData, frameData);
+            byte[] frames = merge(converter.convert(silencePackets), converter.flush());
 
-        if(frameData != null && frameData.length > 0)
-        {
-            if(frameData.length < 144)
-            {
-                mPreviousPartialFrameData = frameData;
-                return null;
-            }
-            else if((frameData.length % 144) == 0)
-            {
-                mPreviousPartialFrameData = null;
-                return frameData;
-            }
-            else
+            int integralFrameLength = frames != null ? (frames.length / FRAME_LENGTH) * FRAME_LENGTH : 0;
+
+            if(integralFrameLength == 0)
             {
-                int integralFrameLength = (int)(frameData.length / 144) * 144;
-                mPreviousPartialFrameData = Arrays.copyOfRange(frameData, integralFrameLength, frameData.length);
-                return Arrays.copyOf(frameData, integralFrameLength);
+                mLog.error("Unable to encode MP3 silence frames");
+                return new byte[0];
             }
+
+            sSilenceFrames = Arrays.copyOf(frames, integralFrameLength);
+        }
+
+        return sSilenceFrames;
+    }
+
+    public byte[] generate(long duration)
+    {
+        byte[] silenceFrames = getSilenceFrames();
+
+        int frameCount = silenceFrames.length / FRAME_LENGTH;
+
+        if(frameCount == 0)
+        {
+            return null;
+        }
+
+        //Carry partial frame durations over to the next request
+        long samples = (duration * 8) + mSampleRemainder;   //8000 Hz sample rate
+
+        int framesRequired = (int)(samples / SAMPLES_PER_FRAME);
+        mSampleRemainder = samples % SAMPLES_PER_FRAME;
+
+        if(framesRequired == 0)
+        {
+            return null;
+        }
+
+        byte[] silence = new byte[framesRequired * FRAME_LENGTH];
+
+        for(int x = 0; x < framesRequired; x++)
+        {
+            System.arraycopy(silenceFrames, mFrameIndex * FRAME_LENGTH, silence, x * FRAME_LENGTH, FRAME_LENGTH);
+
+            mFrameIndex = (mFrameIndex + 1) % frameCount;
         }
 
-        return null;
+        return silence;
     }
 
     private static byte[] merge(byte[] a, byte[] b)
@@ -21,44 +21,66 @@ package audio.output;
 import audio.AudioEvent;
 import audio.AudioPacket;
 import audio.AudioPacket.Type;
+import channel.latency.LatencyStage;
 import channel.metadata.Metadata;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sample.Broadcaster;
 import sample.Listener;
 import source.mixer.MixerChannel;
-import util.ThreadPool;
 
 import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.BooleanControl;
 import javax.sound.sampled.Control;
+import javax.sound.sampled.DataLine;
 import javax.sound.sampled.FloatControl;
-import javax.sound.sampled.Line;
 import javax.sound.sampled.LineEvent;
 import javax.sound.sampled.LineListener;
 import javax.sound.sampled.LineUnavailableException;
 import javax.sound.sampled.Mixer;
 import javax.sound.sampled.SourceDataLine;
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.concurrent.LinkedTransferQueue;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 public abstract class AudioOutput implements Listener<AudioPacket>, LineListener
 {
     private final static Logger mLog = LoggerFactory.getLogger(AudioOutput.class);
 
+    /* Duration of each block of mixed audio written to the source data line */
+    public static final int PERIOD_MILLISECONDS = 20;
+
+    /* Audio buffered per stream before playback starts and maximum audio buffered per stream */
+    public static final int JITTER_BUFFER_MILLISECONDS = 100;
+    public static final int JITTER_BUFFER_CAPACITY_MILLISECONDS = 2000;
+
+    /* Amount of audio the render thread keeps queued in the source data line */
+    public static final int LINE_TARGET_MILLISECONDS = 60;
+
+    /* Silence is written to keep the line running across short gaps before the line is stopped */
+    public static final long SILENCE_HOLD_MILLISECONDS = 500;
+
+    /* A stream without new packets for this period is treated as ended and its remaining audio is played */
+    public static final long STREAM_IDLE_MILLISECONDS = 250;
+
+    private static final long IDLE_WAIT_MILLISECONDS = 500;
+
+    /* Gain applied to lower priority streams while a higher priority stream is playing */
+    public static final float DUCKING_GAIN = 0.25f;
+
     private LinkedTransferQueue<AudioPacket> mBuffer = new LinkedTransferQueue<>();
-    private int mBufferStartThreshold;
-    private int mBufferStopThreshold;
 
     private Listener<Metadata> mMetadataListener;
     private Broadcaster<AudioEvent> mAudioEventBroadcaster = new Broadcaster<>();
 
-    private ScheduledFuture<?> mProcessorTask;
+    private Thread mRenderThread;
+    private volatile boolean mRunning;
 
     private SourceDataLine mOutput;
     private Mixer mMixer;
@@ -69,75 +91,68 @@ public abstract class AudioOutput implements Listener<AudioPacket>, LineListener
     private AudioEvent mAudioStartEvent;
     private AudioEvent mAudioStopEvent;
 
-    private boolean mCanProcessAudio = false;
-    private long mLastActivity = System.currentTimeMillis();
+    private volatile boolean mCanProcessAudio = false;
+    private volatile long mLastActivity = System.currentTimeMillis();
+    private Metadata mLastMetadata;
+
+    private AtomicLong mUnderrunCount = new AtomicLong();
+    private AtomicLong mOverrunCount = new AtomicLong();
+    private volatile long mLatency;
+    private volatile double mAverageLatency;
 
     /**
      * Single audio channel playback with automatic starting and stopping of the
      * underlying sourcedataline specified by the mixer and mixer channel
      * arguments.
      *
-     * Maintains an internal non-blocking audio packet queue and processes this
-     * queue 25 times a second (every 40 ms).
+     * Audio packets are received through a non-blocking queue and rendered by a dedicated audio thread that holds a
+     * jitter buffer for each source stream, mixes concurrent streams by priority (ducking lower priority streams) and
+     * writes fixed duration periods to the source data line, keeping only a small amount of audio queued in the line.
+     *
+     * The source data line is opened with the first supported audio format.  Audio is resampled from the decoder
+     * sample rate when the line sample rate differs, so that the mixer doesn't perform its own rate conversion.
      *
      * @param mixer to obtain source data line
      * @param mixerChannel either mono or left/right stereo
-     * @param audioFormat to use during playback
-     * @param lineInfo to use when obtaining the source data line
-     * @param requestedBufferSize of approximately 1 second of audio
+     * @param audioFormats to use during playback, in order of preference
+     * @param bufferMilliseconds duration of audio that the source data line buffer can hold
      */
     public AudioOutput(Mixer mixer,
                        MixerChannel mixerChannel,
-                       AudioFormat audioFormat,
-                       Line.Info lineInfo,
-                       int requestedBufferSize)
+                       AudioFormat[] audioFormats,
+                       int bufferMilliseconds)
     {
         mMixer = mixer;
         mMixerChannel = mixerChannel;
 
         try
         {
-            mOutput = (SourceDataLine) mMixer.getLine(lineInfo);
+            AudioFormat audioFormat = openLine(audioFormats, bufferMilliseconds);
 
             if(mOutput != null)
             {
-                mOutput.open(audioFormat, requestedBufferSize);
-
-                //Start threshold: buffer is full with 10% or less of capacity remaining
-                mBufferStartThreshold = (int) (mOutput.getBufferSize() * 0.10);
-
-                //Stop threshold: buffer is empty with 90% or more capacity available
-                mBufferStopThreshold = (int) (mOutput.getBufferSize() * 0.90);
-
                 mOutput.addLineListener(this);
 
-                if(mOutput != null)
+                try
                 {
-                    try
-                    {
-                        Control gain = mOutput.getControl(FloatControl.Type.MASTER_GAIN);
-                        mGainControl = (FloatControl) gain;
-                    }
-                    catch(IllegalArgumentException iae)
-                    {
-                        mLog.warn("Couldn't obtain MASTER GAIN control for stereo line [" +
-                            mixer.getMixerInfo().getName() + " | " + getChannelName() + "]");
-                    }
-
-                    try
-                    {
-                        Control mute = mOutput.getControl(BooleanControl.Type.MUTE);
-                        mMuteControl = (BooleanControl) mute;
-                    }
-                    catch(IllegalArgumentException iae)
-                    {
-                        mLog.warn("Couldn't obtain MUTE control for stereo line [" +
-                            mixer.getMixerInfo().getName() + " | " + getChannelName() + "]");
-                    }
+                    Control gain = mOutput.getControl(FloatControl.Type.MASTER_GAIN);
+                    mGainControl = (FloatControl) gain;
+                }
+                catch(IllegalArgumentException iae)
+                {
+                    mLog.warn("Couldn't obtain MASTER GAIN control for stereo line [" +
+                        mixer.getMixerInfo().getName() + " | " + getChannelName() + "]");
+                }
 
-					/* Run the queue processor task every 40 milliseconds or 25 times a second */
-                    mProcessorTask = ThreadPool.SCHEDULED.scheduleAtFixedRate(new BufferProcessor(),
-                        0, 40, TimeUnit.MILLISECONDS);
+                try
+                {
+                    Control mute = mOutput.getControl(BooleanControl.Type.MUTE);
+                    mMuteControl = (BooleanControl) mute;
+                }
+                catch(IllegalArgumentException iae)
+                {
+                    mLog.warn("Couldn't obtain MUTE control for stereo line [" +
+                        mixer.getMixerInfo().getName() + " | " + getChannelName() + "]");
                 }
 
                 mAudioStartEvent = new AudioEvent(AudioEvent.Type.AUDIO_STARTED,
@@ -146,6 +161,13 @@ public abstract class AudioOutput implements Listener<AudioPacket>, LineListener
                     getChannelName());
 
                 mCanProcessAudio = true;
+                mRunning = true;
+
+                mRenderThread = new Thread(new AudioRenderer(audioFormat), "sdrtrunk audio output " +
+                    getChannelName());
+                mRenderThread.setDaemon(true);
+                mRenderThread.setPriority(Thread.MAX_PRIORITY);
+                mRenderThread.start();
             }
         }
         catch(LineUnavailableException e)
@@ -155,6 +177,45 @@ public abstract class AudioOutput implements Listener<AudioPacket>, LineListener
         }
     }
 
+    /**
+     * Obtains and opens a source data line using the first audio format that the mixer supports.
+     *
+     * @return audio format of the opened line
+     * @throws LineUnavailableException if a line can't be opened with any of the audio formats
+     */
+    private AudioFormat openLine(AudioFormat[] audioFormats, int bufferMilliseconds) throws LineUnavailableException
+    {
+        LineUnavailableException lastException = null;
+
+        for(AudioFormat audioFormat : audioFormats)
+        {
+            DataLine.Info lineInfo = new DataLine.Info(SourceDataLine.class, audioFormat);
+
+            if(mMixer.isLineSupported(lineInfo))
+            {
+                try
+                {
+                    SourceDataLine line = (SourceDataLine) mMixer.getLine(lineInfo);
+
+                    int bufferSize = (int) (audioFormat.getFrameRate() * bufferMilliseconds / 1000) *
+                        audioFormat.getFrameSize();
+
+                    line.open(audioFormat, bufferSize);
+
+                    mOutput = line;
+
+                    return audioFormat;
+                }
+                catch(LineUnavailableException lue)
+                {
+                    lastException = lue;
+                }
+            }
+        }
+
+        throw lastException != null ? lastException : new LineUnavailableException("No supported audio format");
+    }
+
     public void reset()
     {
         broadcast(new AudioEvent(AudioEvent.Type.AUDIO_STOPPED, getChannelName()));
@@ -163,13 +224,23 @@ public abstract class AudioOutput implements Listener<AudioPacket>, LineListener
     public void dispose()
     {
         mCanProcessAudio = false;
+        mRunning = false;
 
-        if(mProcessorTask != null)
+        if(mRenderThread != null)
         {
-            mProcessorTask.cancel(true);
+            mRenderThread.interrupt();
+
+            try
+            {
+                mRenderThread.join(1000);
+            }
+            catch(InterruptedException ie)
+            {
+                Thread.currentThread().interrupt();
+            }
         }
 
-        mProcessorTask = null;
+        mRenderThread = null;
 
         mBuffer.clear();
 
@@ -188,10 +259,10 @@ public abstract class AudioOutput implements Listener<AudioPacket>, LineListener
     }
 
     /**
-     * Converts the audio packet data into a byte buffer format appropriate for
-     * the underlying source data line.
+     * Converts the mixed audio samples into frames appropriate for the underlying source data line and places them
+     * in the little-endian byte buffer.
      */
-    protected abstract ByteBuffer convert(AudioPacket packet);
+    protected abstract void convert(float[] samples, ByteBuffer buffer);
 
     /**
      * Audio output channel name
@@ -284,101 +355,321 @@ public abstract class AudioOutput implements Listener<AudioPacket>, LineListener
         }
     }
 
-    public class BufferProcessor implements Runnable
+    /**
+     * Number of times a stream or the source data line ran out of audio while playing
+     */
+    public long getUnderrunCount()
     {
-        private AtomicBoolean mProcessing = new AtomicBoolean();
+        return mUnderrunCount.get();
+    }
 
-        public BufferProcessor()
+    /**
+     * Number of times a stream's jitter buffer was full and the oldest audio was discarded
+     */
+    public long getOverrunCount()
+    {
+        return mOverrunCount.get();
+    }
+
+    /**
+     * Latency in milliseconds from the creation of the most recently played audio packet until that audio is
+     * expected to reach the speaker.
+     */
+    public long getLatency()
+    {
+        return mLatency;
+    }
+
+    /**
+     * Smoothed (exponential moving average) audio packet latency in milliseconds
+     */
+    public double getAverageLatency()
+    {
+        return mAverageLatency;
+    }
+
+    /**
+     * Audio render loop.  Drains received packets into per-stream jitter buffers, mixes a period of audio from all
+     * playable streams and writes it to the source data line whenever the line's queued audio falls below the
+     * target.  The thread blocks on the packet queue while there is no audio to play.
+     */
+    public class AudioRenderer implements Runnable
+    {
+        private Map<Integer,JitterBuffer> mStreams = new HashMap<>();
+        private float[] mPeriod;
+        private ByteBuffer mPeriodBuffer;
+        private float mSampleRate;
+        private int mFrameSize;
+        private int mJitterTarget;
+        private int mJitterCapacity;
+        private int mLineTargetFrames;
+        private long mLastAudioTimestamp;
+
+        public AudioRenderer(AudioFormat audioFormat)
+        {
+            mSampleRate = audioFormat.getSampleRate();
+            mFrameSize = audioFormat.getFrameSize();
+
+            mPeriod = new float[getSamples(PERIOD_MILLISECONDS)];
+            mPeriodBuffer = ByteBuffer.allocate(mPeriod.length * mFrameSize).order(ByteOrder.LITTLE_ENDIAN);
+            mJitterTarget = getSamples(JITTER_BUFFER_MILLISECONDS);
+            mJitterCapacity = getSamples(JITTER_BUFFER_CAPACITY_MILLISECONDS);
+            mLineTargetFrames = getSamples(LINE_TARGET_MILLISECONDS);
+        }
+
+        private int getSamples(long milliseconds)
         {
+            return (int) (mSampleRate * milliseconds / 1000);
         }
 
         @Override
         public void run()
         {
-            try
+            while(mRunning)
             {
-				/* The processing flag ensures that only one instance of the
-				 * processor can run at any given time */
-                if(mProcessing.compareAndSet(false, true))
+                try
                 {
-                    List<AudioPacket> packets = new ArrayList<AudioPacket>();
+                    AudioPacket packet = mBuffer.poll(getWaitMilliseconds(), TimeUnit.MILLISECONDS);
 
-                    mBuffer.drainTo(packets);
+                    while(packet != null)
+                    {
+                        enqueue(packet);
+                        packet = mBuffer.poll();
+                    }
 
-                    for(AudioPacket packet : packets)
+                    if(mOutput.isRunning() && getQueuedFrames() > mLineTargetFrames)
                     {
-                        if(packet.getType() == Type.AUDIO)
+                        continue;
+                    }
+
+                    if(render())
+                    {
+                        mLastAudioTimestamp = System.currentTimeMillis();
+                        write();
+                        updateTimestamp();
+                    }
+                    else if(mOutput.isRunning())
+                    {
+                        if(mLastAudioTimestamp + SILENCE_HOLD_MILLISECONDS > System.currentTimeMillis())
+                        {
+                            Arrays.fill(mPeriod, 0.0f);
+                            write();
+                        }
+                        else
                         {
-                            broadcast(packet.getMetadata());
+                            mOutput.drain();
+                            mOutput.stop();
+                        }
+                    }
 
-                            ByteBuffer buffer = convert(packet);
+                    removeIdleStreams();
+                }
+                catch(InterruptedException ie)
+                {
+                    //Interrupted by dispose() - the loop exits once the running flag is cleared
+                }
+                catch(Exception e)
+                {
+                    mLog.error("Error while rendering audio", e);
+                }
+            }
+        }
 
-                            int wrote = 0;
+        /**
+         * Time to wait for the next packet.  Waits indefinitely (in idle wait increments) when the line is stopped
+         * and there are no streams, otherwise no longer than until the line needs another period of audio.
+         */
+        private long getWaitMilliseconds()
+        {
+            if(!mOutput.isRunning())
+            {
+                return mStreams.isEmpty() ? IDLE_WAIT_MILLISECONDS : PERIOD_MILLISECONDS;
+            }
 
-                            if(!mOutput.isRunning())
-                            {
-                                int toWrite = mOutput.available();
+            int excess = getQueuedFrames() - mLineTargetFrames;
 
-                                if(toWrite > buffer.array().length)
-                                {
-                                    toWrite = buffer.array().length;
-                                }
+            return excess > 0 ? Math.max(1, (long) (excess * 1000 / mSampleRate)) : 0;
+        }
 
-                                //Top off the buffer and check if we can start it
-                                wrote += mOutput.write(buffer.array(), 0, toWrite);
+        /**
+         * Number of audio frames written to the source data line that have not yet been played
+         */
+        private int getQueuedFrames()
+        {
+            return (mOutput.getBufferSize() - mOutput.available()) / mFrameSize;
+        }
 
-                                checkStart();
-                            }
+        /**
+         * Adds the packet to the jitter buffer for the packet's source stream
+         */
+        private void enqueue(AudioPacket packet)
+        {
+            int streamID = packet.hasMetadata() ? packet.getMetadata().getMetadataID() : 0;
 
-                            if(mOutput.isRunning() && wrote < buffer.array().length)
-                            {
-                                //Blocking write
-                                wrote += mOutput.write(buffer.array(), wrote,
-                                    buffer.array().length - wrote);
-                            }
+            JitterBuffer stream = mStreams.get(streamID);
 
-                            updateTimestamp();
-                        }
+            if(packet.getType() == Type.AUDIO && packet.hasAudioBuffer())
+            {
+                if(stream == null)
+                {
+                    stream = new JitterBuffer(mJitterTarget, mJitterCapacity);
+                    mStreams.put(streamID, stream);
+                }
+
+                if(stream.add(packet, packet.getAudio((int) mSampleRate)) > 0)
+                {
+                    mOverrunCount.incrementAndGet();
+                }
+            }
+            else if(packet.getType() == Type.END && stream != null)
+            {
+                stream.end();
+            }
+        }
+
+        /**
+         * Mixes one period of audio from all playable streams.  Streams with the highest priority (lowest value)
+         * play at full gain and all other streams are ducked.
+         *
+         * @return true if any stream contributed audio to the period
+         */
+        private boolean render()
+        {
+            int highestPriority = Integer.MAX_VALUE;
+
+            for(JitterBuffer stream : mStreams.values())
+            {
+                if(stream.isPlayable() && stream.getPriority() < highestPriority)
+                {
+                    highestPriority = stream.getPriority();
+                }
+            }
+
+            if(highestPriority == Integer.MAX_VALUE)
+            {
+                return false;
+            }
+
+            if(mOutput.isRunning() && mOutput.available() >= mOutput.getBufferSize())
+            {
+                //The line played everything that was written before the next period was ready
+                mUnderrunCount.incrementAndGet();
+            }
+
+            Arrays.fill(mPeriod, 0.0f);
+
+            long delay = (long) (getQueuedFrames() * 1000 / mSampleRate);
+
+            for(JitterBuffer stream : mStreams.values())
+            {
+                if(stream.isPlayable())
+                {
+                    boolean primary = stream.getPriority() == highestPriority;
+
+                    stream.mix(mPeriod, primary ? 1.0f : DUCKING_GAIN);
+
+                    if(stream.isUnderrun())
+                    {
+                        mUnderrunCount.incrementAndGet();
                     }
 
-                    checkStop();
+                    AudioPacket started = stream.nextStartedPacket();
 
-                    mProcessing.set(false);
+                    while(started != null)
+                    {
+                        packetStarted(started, primary, delay);
+                        started = stream.nextStartedPacket();
+                    }
                 }
             }
-            catch(Exception e)
+
+            for(int x = 0; x < mPeriod.length; x++)
             {
-                mLog.error("Error while processing audio buffers", e);
+                if(mPeriod[x] > 1.0f)
+                {
+                    mPeriod[x] = 1.0f;
+                }
+                else if(mPeriod[x] < -1.0f)
+                {
+                    mPeriod[x] = -1.0f;
+                }
             }
+
+            return true;
         }
 
         /**
-         * Starts audio playback once audio buffer is almost full and remaining
-         * capacity falls below the start threshold.
+         * Updates latency statistics and metadata when the audio from a packet starts playback
+         *
+         * @param packet that started playback
+         * @param primary indicates if the packet is from a highest priority (non-ducked) stream
+         * @param delay in milliseconds until audio written now reaches the speaker
          */
-        private void checkStart()
+        private void packetStarted(AudioPacket packet, boolean primary, long delay)
         {
-            if(mCanProcessAudio &&
-                !mOutput.isRunning() &&
-                mOutput.available() <= mBufferStartThreshold)
+            long now = System.currentTimeMillis();
+
+            long latency = now - packet.getTimestamp() + delay;
+
+            mLatency = latency;
+            mAverageLatency = mAverageLatency == 0.0 ? latency : (mAverageLatency * 0.9) + (latency * 0.1);
+
+            Metadata metadata = packet.getMetadata();
+
+            if(metadata != null)
+            {
+                if(metadata.hasCallLatency())
+                {
+                    metadata.getCallLatency().mark(LatencyStage.AUDIO_PLAYBACK, now + delay);
+                }
+
+                //Packets share a metadata snapshot until the metadata changes
+                if(primary && metadata != mLastMetadata)
+                {
+                    mLastMetadata = metadata;
+                    broadcast(metadata);
+                }
+            }
+        }
+
+        /**
+         * Writes the current period to the source data line and starts the line if it isn't running
+         */
+        private void write()
+        {
+            mPeriodBuffer.clear();
+
+            convert(mPeriod, mPeriodBuffer);
+
+            mOutput.write(mPeriodBuffer.array(), 0, mPeriodBuffer.position());
+
+            if(!mOutput.isRunning())
             {
                 mOutput.start();
             }
         }
 
         /**
-         * Stops audio playback and drains the audio buffer to empty when the
-         * audio buffer is mostly empty and the available buffer capacity
-         * exceeds the stop threshold
+         * Ends streams that haven't received packets recently so that their remaining audio plays out, and removes
+         * ended streams once their audio has been played.
          */
-        private void checkStop()
+        private void removeIdleStreams()
         {
-            if(mCanProcessAudio &&
-                mOutput.isRunning() &&
-                mOutput.available() >= mBufferStopThreshold)
+            Iterator<JitterBuffer> it = mStreams.values().iterator();
+
+            while(it.hasNext())
             {
-                mOutput.drain();
-                mOutput.stop();
+                JitterBuffer stream = it.next();
+
+                if(!stream.isEnded() && stream.isIdle(STREAM_IDLE_MILLISECONDS))
+                {
+                    stream.end();
+                }
+
+                if(stream.isEnded() && stream.size() == 0)
+                {
+                    it.remove();
+                }
             }
         }
     }
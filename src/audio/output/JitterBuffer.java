@@ -0,0 +1,258 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package audio.output;
+
+import audio.AudioPacket;
+import channel.metadata.Metadata;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Per-stream audio sample buffer that absorbs packet arrival jitter before playback.
+ *
+ * Playback of a stream doesn't start until the buffer holds the target (prefill) number of samples or the stream
+ * has ended, and restarts prefilling whenever the buffer runs dry mid-stream.  When the buffer exceeds its capacity
+ * the oldest samples are discarded.
+ *
+ * Not thread safe - intended for use by a single audio render thread.
+ */
+public class JitterBuffer
+{
+    private float[] mSamples;
+    private int mReadPointer;
+    private int mSize;
+    private int mTargetSize;
+
+    private Deque<PacketMark> mPacketMarks = new ArrayDeque<>();
+    private long mWriteCount;
+    private long mReadCount;
+
+    private Metadata mMetadata;
+    private boolean mPrimed;
+    private boolean mEnded;
+    private long mLastPacketTimestamp;
+
+    /**
+     * Constructs a jitter buffer
+     *
+     * @param targetSize number of samples to buffer before starting playback
+     * @param capacity maximum number of samples buffered
+     */
+    public JitterBuffer(int targetSize, int capacity)
+    {
+        mTargetSize = targetSize;
+        mSamples = new float[capacity];
+    }
+
+    /**
+     * Adds the packet's audio samples to this buffer.
+     *
+     * @param packet containing audio samples
+     * @param samples from the packet at the playback sample rate
+     * @return number of samples discarded from the oldest end of the buffer to make room (overrun)
+     */
+    public int add(AudioPacket packet, float[] samples)
+    {
+        mEnded = false;
+        mLastPacketTimestamp = System.currentTimeMillis();
+
+        if(packet.hasMetadata())
+        {
+            mMetadata = packet.getMetadata();
+        }
+
+        int dropped = 0;
+
+        int offset = 0;
+        int length = samples.length;
+
+        //Packets larger than the capacity retain only the newest samples
+        if(length > mSamples.length)
+        {
+            offset = length - mSamples.length;
+            dropped += offset;
+            length = mSamples.length;
+        }
+
+        int overflow = mSize + length - mSamples.length;
+
+        if(overflow > 0)
+        {
+            skip(overflow);
+            dropped += overflow;
+        }
+
+        mPacketMarks.add(new PacketMark(mWriteCount, packet));
+
+        int writePointer = (mReadPointer + mSize) % mSamples.length;
+
+        for(int x = 0; x < length; x++)
+        {
+            mSamples[writePointer] = samples[offset + x];
+            writePointer = (writePointer + 1) % mSamples.length;
+        }
+
+        mSize += length;
+        mWriteCount += length;
+
+        if(!mPrimed && mSize >= mTargetSize)
+        {
+            mPrimed = true;
+        }
+
+        return dropped;
+    }
+
+    /**
+     * Marks the end of the current transmission so that remaining samples are played without waiting for the
+     * prefill target.
+     */
+    public void end()
+    {
+        mEnded = true;
+    }
+
+    /**
+     * Indicates if this buffer has samples available for playback
+     */
+    public boolean isPlayable()
+    {
+        return mSize > 0 && (mPrimed || mEnded);
+    }
+
+    /**
+     * Indicates if the end of the transmission was signalled
+     */
+    public boolean isEnded()
+    {
+        return mEnded;
+    }
+
+    /**
+     * Indicates if no packets have been added to this buffer within the timeout period
+     */
+    public boolean isIdle(long timeout)
+    {
+        return mLastPacketTimestamp + timeout < System.currentTimeMillis();
+    }
+
+    /**
+     * Mixes (adds) up to period length samples from this buffer into the period, scaled by the gain.
+     *
+     * @param period to mix samples into
+     * @param gain to apply to each sample
+     * @return number of samples mixed into the period
+     */
+    public int mix(float[] period, float gain)
+    {
+        int count = Math.min(period.length, mSize);
+
+        for(int x = 0; x < count; x++)
+        {
+            period[x] += mSamples[mReadPointer] * gain;
+            mReadPointer = (mReadPointer + 1) % mSamples.length;
+        }
+
+        mSize -= count;
+        mReadCount += count;
+
+        //Ran dry mid-stream - require prefill before resuming
+        if(mSize == 0)
+        {
+            mPrimed = false;
+        }
+
+        return count;
+    }
+
+    /**
+     * Indicates if the last mix ran out of samples before the end of the stream was signalled
+     */
+    public boolean isUnderrun()
+    {
+        return mSize == 0 && !mEnded;
+    }
+
+    /**
+     * Removes and returns the oldest packet that has started playback (or was discarded) since the previous
+     * invocation, or null when no further packets have started.
+     */
+    public AudioPacket nextStartedPacket()
+    {
+        PacketMark mark = mPacketMarks.peek();
+
+        if(mark != null && mark.mStart < mReadCount)
+        {
+            mPacketMarks.poll();
+            return mark.mPacket;
+        }
+
+        return null;
+    }
+
+    /**
+     * Discards the oldest samples
+     */
+    private void skip(int count)
+    {
+        mReadPointer = (mReadPointer + count) % mSamples.length;
+        mSize -= count;
+        mReadCount += count;
+    }
+
+    /**
+     * Metadata from the most recent packet added to this buffer
+     */
+    public Metadata getMetadata()
+    {
+        return mMetadata;
+    }
+
+    /**
+     * Audio priority of the stream where a lower value indicates a higher priority
+     */
+    public int getPriority()
+    {
+        return mMetadata != null ? mMetadata.getAudioPriority() : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Number of samples currently buffered
+     */
+    public int size()
+    {
+        return mSize;
+    }
+
+    /**
+     * Sample count position and packet for each buffered packet
+     */
+    private class PacketMark
+    {
+        private long mStart;
+        private AudioPacket mPacket;
+
+        private PacketMark(long start, AudioPacket packet)
+        {
+            mStart = start;
+            mPacket = packet;
+        }
+    }
+}
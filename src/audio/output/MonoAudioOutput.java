@@ -19,49 +19,36 @@
 package audio.output;
 
 import audio.AudioFormats;
-import audio.AudioPacket;
 import source.mixer.MixerChannel;
 
+import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.Mixer;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.ShortBuffer;
 
 /**
  * Mono Audio output implementation
  */
 public class MonoAudioOutput extends AudioOutput
 {
-    private final static int BUFFER_SIZE = 8000;
+    private final static int BUFFER_MILLISECONDS = 500;
+
+    /* Prefer the 48 kHz line that output mixers are selected for, over the 8 kHz decoder audio rate */
+    private final static AudioFormat[] AUDIO_FORMATS = {AudioFormats.PCM_SIGNED_48KHZ_16BITS_MONO,
+        AudioFormats.PCM_SIGNED_8KHZ_16BITS_MONO};
 
     public MonoAudioOutput(Mixer mixer)
     {
-        super(mixer, MixerChannel.MONO, AudioFormats.PCM_SIGNED_8KHZ_16BITS_MONO,
-            AudioFormats.MONO_SOURCE_DATALINE_INFO, BUFFER_SIZE);
+        super(mixer, MixerChannel.MONO, AUDIO_FORMATS, BUFFER_MILLISECONDS);
     }
 
     /**
-     * Converts the audio packet data into mono audio frames.
+     * Converts the audio samples into mono audio frames.
      */
-    protected ByteBuffer convert(AudioPacket packet)
+    protected void convert(float[] samples, ByteBuffer buffer)
     {
-        if(packet.hasAudioBuffer())
+        for(float sample : samples)
         {
-            float[] samples = packet.getAudioBuffer().getSamples();
-
-			/* Little-endian byte buffer */
-            ByteBuffer buffer = ByteBuffer.allocate(samples.length * 2).order(ByteOrder.LITTLE_ENDIAN);
-
-            ShortBuffer shortBuffer = buffer.asShortBuffer();
-
-            for(float sample : samples)
-            {
-                shortBuffer.put((short) (sample * Short.MAX_VALUE));
-            }
-
-            return buffer;
+            buffer.putShort((short) (sample * Short.MAX_VALUE));
         }
-
-        return null;
     }
 }
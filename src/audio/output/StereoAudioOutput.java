@@ -19,64 +19,50 @@
 package audio.output;
 
 import audio.AudioFormats;
-import audio.AudioPacket;
 import source.mixer.MixerChannel;
 
+import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.Mixer;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.ShortBuffer;
 
 /**
  * Stereo audio output implementation.
  */
 public class StereoAudioOutput extends AudioOutput
 {
-    private final static int BUFFER_SIZE = 16000;
+    private final static int BUFFER_MILLISECONDS = 500;
+
+    /* Prefer the 48 kHz line that output mixers are selected for, over the 8 kHz decoder audio rate */
+    private final static AudioFormat[] AUDIO_FORMATS = {AudioFormats.PCM_SIGNED_48KHZ_16BITS_STEREO,
+        AudioFormats.PCM_SIGNED_8KHZ_16BITS_STEREO};
 
     public StereoAudioOutput(Mixer mixer, MixerChannel channel)
     {
-        super(mixer, channel, AudioFormats.PCM_SIGNED_8KHZ_16BITS_STEREO, AudioFormats.STEREO_SOURCE_DATALINE_INFO,
-            BUFFER_SIZE);
+        super(mixer, channel, AUDIO_FORMATS, BUFFER_MILLISECONDS);
     }
 
     /**
-     * Converts the audio packet data into stereo audio frames with the mixer
+     * Converts the audio samples into stereo audio frames with the mixer
      * channel containing the audio and the other channel containing zero
      * valued (silent) samples.
      */
-    protected ByteBuffer convert(AudioPacket packet)
+    protected void convert(float[] samples, ByteBuffer buffer)
     {
-        if(packet.hasAudioBuffer())
+        if(getMixerChannel() == MixerChannel.LEFT)
         {
-            float[] samples = packet.getAudioBuffer().getSamples();
-
-			/* Little-endian byte buffer */
-            ByteBuffer buffer = ByteBuffer.allocate(samples.length * 4)
-                .order(ByteOrder.LITTLE_ENDIAN);
-
-            ShortBuffer shortBuffer = buffer.asShortBuffer();
-
-            if(getMixerChannel() == MixerChannel.LEFT)
+            for(float sample : samples)
             {
-                for(float sample : samples)
-                {
-                    shortBuffer.put((short) (sample * Short.MAX_VALUE));
-                    shortBuffer.put((short) 0);
-                }
+                buffer.putShort((short) (sample * Short.MAX_VALUE));
+                buffer.putShort((short) 0);
             }
-            else
+        }
+        else
+        {
+            for(float sample : samples)
             {
-                for(float sample : samples)
-                {
-                    shortBuffer.put((short) 0);
-                    shortBuffer.put((short) (sample * Short.MAX_VALUE));
-                }
+                buffer.putShort((short) 0);
+                buffer.putShort((short) (sample * Short.MAX_VALUE));
             }
-
-            return buffer;
         }
-
-        return null;
     }
 }
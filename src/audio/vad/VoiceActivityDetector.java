@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package audio.vad;
+
+import org.jtransforms.fft.FloatFFT_1D;
+
+/**
+ * Energy and spectral flatness voice activity detector for a single audio channel.
+ *
+ * An audio buffer is classified as voice when its RMS level is above the energy threshold, its level is above the
+ * channel's noise floor by a margin, and its power spectrum is not flat.  Quiet buffers (keyed silence, hang time)
+ * fail the energy test and receiver noise from an open squelch has a nearly flat (white) spectrum, while voice
+ * concentrates its energy in formants and harmonics and has a low spectral flatness.  Filtered (colored) noise that
+ * isn't flat enough to be rejected by the spectral test has a steady level, so the noise floor, which follows level
+ * decreases immediately and level increases slowly, rises to meet it.  Speech levels dip between syllables, which
+ * keeps the noise floor below the speech peaks.
+ *
+ * Once voice is detected, buffers continue to be classified as active until the hang time has elapsed without voice,
+ * so that pauses between words and syllables are retained.
+ */
+public class VoiceActivityDetector
+{
+    private static final float EPSILON = 1E-10f;
+    private static final float SAMPLE_RATE = 8000.0f;
+    private static final float NOISE_FLOOR_MARGIN = 4.0f; //6 dB
+    private static final float NOISE_FLOOR_RISE_DB_PER_SECOND = 3.0f;
+
+    private float mEnergyThreshold;
+    private float mFlatnessThreshold;
+    private long mHangTimeSamples;
+    private long mHangSamplesRemaining;
+    private float mNoiseFloor;
+    private float mNoiseFloorRise;
+    private int mNoiseFloorRiseLength;
+
+    private FloatFFT_1D mFFT;
+    private float[] mFFTBuffer;
+
+    /**
+     * Constructs a voice activity detector
+     *
+     * @param energyThresholdDb minimum buffer RMS level for voice in dB relative to full scale (e.g. -45.0)
+     * @param flatnessThreshold maximum spectral flatness for voice, between 0.0 (tonal) and 1.0 (white noise)
+     * @param hangTimeSamples number of samples to remain active after the last buffer that contained voice
+     */
+    public VoiceActivityDetector(float energyThresholdDb, float flatnessThreshold, long hangTimeSamples)
+    {
+        //Compare mean square values to avoid a square root and log per buffer
+        mEnergyThreshold = (float)Math.pow(10.0, energyThresholdDb / 10.0);
+        mFlatnessThreshold = flatnessThreshold;
+        mHangTimeSamples = hangTimeSamples;
+        mNoiseFloor = mEnergyThreshold;
+    }
+
+    /**
+     * Indicates if the audio buffer contains voice or falls within the hang time following voice
+     */
+    public boolean isActive(float[] samples)
+    {
+        if(isVoice(samples))
+        {
+            mHangSamplesRemaining = mHangTimeSamples;
+            return true;
+        }
+
+        if(mHangSamplesRemaining > 0)
+        {
+            mHangSamplesRemaining -= samples.length;
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Resets the detector to the inactive state
+     */
+    public void reset()
+    {
+        mHangSamplesRemaining = 0;
+        mNoiseFloor = mEnergyThreshold;
+    }
+
+    /**
+     * Indicates if the audio buffer contains voice according to its energy and spectral flatness
+     */
+    private boolean isVoice(float[] samples)
+    {
+        if(samples.length < 4)
+        {
+            return false;
+        }
+
+        float energy = 0.0f;
+
+        for(float sample : samples)
+        {
+            energy += sample * sample;
+        }
+
+        energy /= samples.length;
+
+        float noiseFloor = mNoiseFloor;
+        updateNoiseFloor(energy, samples.length);
+
+        if(energy < mEnergyThreshold || energy < noiseFloor * NOISE_FLOOR_MARGIN)
+        {
+            return false;
+        }
+
+        return getSpectralFlatness(samples) < mFlatnessThreshold;
+    }
+
+    /**
+     * Updates the noise floor estimate.  The noise floor drops immediately to a lower buffer energy and otherwise
+     * rises at a fixed rate, but never above the buffer energy and never below the energy threshold.
+     */
+    private void updateNoiseFloor(float energy, int length)
+    {
+        if(energy < mNoiseFloor)
+        {
+            mNoiseFloor = Math.max(energy, mEnergyThreshold);
+        }
+        else
+        {
+            if(length != mNoiseFloorRiseLength)
+            {
+                mNoiseFloorRise = (float)Math.pow(10.0, NOISE_FLOOR_RISE_DB_PER_SECOND * length / SAMPLE_RATE / 10.0);
+                mNoiseFloorRiseLength = length;
+            }
+
+            mNoiseFloor = Math.min(mNoiseFloor * mNoiseFloorRise, energy);
+        }
+    }
+
+    /**
+     * Calculates the spectral flatness (geometric mean divided by arithmetic mean of the power spectrum) of the
+     * samples, excluding the DC and Nyquist bins.
+     */
+    private float getSpectralFlatness(float[] samples)
+    {
+        int length = samples.length & ~1;
+
+        if(mFFTBuffer == null || mFFTBuffer.length != length)
+        {
+            mFFT = new FloatFFT_1D(length);
+            mFFTBuffer = new float[length];
+        }
+
+        System.arraycopy(samples, 0, mFFTBuffer, 0, length);
+
+        mFFT.realForward(mFFTBuffer);
+
+        int bins = length / 2 - 1;
+        double logSum = 0.0;
+        double sum = 0.0;
+
+        for(int x = 1; x <= bins; x++)
+        {
+            float real = mFFTBuffer[2 * x];
+            float imaginary = mFFTBuffer[2 * x + 1];
+            float power = real * real + imaginary * imaginary + EPSILON;
+
+            logSum += Math.log(power);
+            sum += power;
+        }
+
+        return (float)(Math.exp(logSum / bins) / (sum / bins));
+    }
+}
@@ -0,0 +1,251 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package audio.vad;
+
+import java.util.Random;
+
+/**
+ * Checks the voice activity detector against synthetic 8 kHz signals: white noise (open squelch), low-pass filtered
+ * noise, near silence, a steady voiced tone and speech-like voiced audio with a syllable rate amplitude envelope.
+ * Each signal is 30 seconds of 20 ms buffers, and the active buffers are counted over the last 10 seconds, once the
+ * noise floor has settled.  Run from the command line - prints each result and the total failure count.
+ */
+public class VoiceActivityDetectorTest
+{
+    private static final float ENERGY_THRESHOLD_DB = VoiceActivityFilter.DEFAULT_ENERGY_THRESHOLD_DB;
+    private static final float FLATNESS_THRESHOLD = VoiceActivityFilter.DEFAULT_FLATNESS_THRESHOLD_PERCENT / 100.0f;
+    private static final float SAMPLE_RATE = 8000.0f;
+    private static final int BUFFER_SIZE = 160;
+    private static final int BUFFERS = 1500;
+    private static final int SETTLED_BUFFERS = 1000;
+
+    private static final int WHITE_NOISE = 0;
+    private static final int COLORED_NOISE = 1;
+    private static final int QUIET = 2;
+    private static final int STEADY_TONE = 3;
+    private static final int SPEECH = 4;
+
+    private static int sFailures = 0;
+
+    public static void main(String[] args)
+    {
+        log("START!");
+
+        check("White noise", WHITE_NOISE, 0.0f, 0.01f);
+        check("Colored noise", COLORED_NOISE, 0.0f, 0.01f);
+        check("Quiet", QUIET, 0.0f, 0.0f);
+        check("Steady voiced tone", STEADY_TONE, 0.0f, 0.01f);
+        check("Speech", SPEECH, 0.5f, 1.0f);
+        checkHangTime();
+        checkReset();
+
+        log("DONE! Failures: " + sFailures);
+    }
+
+    /**
+     * Counts the active buffers of the signal over the settled interval and checks that the active fraction is
+     * within the expected range
+     */
+    private static void check(String name, int signal, float minimum, float maximum)
+    {
+        VoiceActivityDetector detector = new VoiceActivityDetector(ENERGY_THRESHOLD_DB, FLATNESS_THRESHOLD, 0);
+        SignalGenerator generator = new SignalGenerator(signal);
+
+        int active = 0;
+
+        for(int x = 0; x < BUFFERS; x++)
+        {
+            if(detector.isActive(generator.next()) && x >= SETTLED_BUFFERS)
+            {
+                active++;
+            }
+        }
+
+        int settled = BUFFERS - SETTLED_BUFFERS;
+        float fraction = (float)active / settled;
+
+        report(name + " active [" + active + "/" + settled + "]", minimum <= fraction && fraction <= maximum);
+    }
+
+    /**
+     * Checks that the detector stays active for the hang time after speech stops and then goes inactive
+     */
+    private static void checkHangTime()
+    {
+        long hangTimeSamples = VoiceActivityFilter.DEFAULT_HANG_TIME_MS * VoiceActivityFilter.SAMPLES_PER_MILLISECOND;
+        int hangBuffers = (int)(hangTimeSamples / BUFFER_SIZE);
+
+        VoiceActivityDetector detector = new VoiceActivityDetector(ENERGY_THRESHOLD_DB, FLATNESS_THRESHOLD,
+            hangTimeSamples);
+        SignalGenerator speech = new SignalGenerator(SPEECH);
+        SignalGenerator quiet = new SignalGenerator(QUIET);
+
+        boolean lastSpeechActive = false;
+
+        for(int x = 0; x < 250; x++)
+        {
+            lastSpeechActive = detector.isActive(speech.next());
+        }
+
+        int hangActive = 0;
+
+        for(int x = 0; x < hangBuffers; x++)
+        {
+            if(detector.isActive(quiet.next()))
+            {
+                hangActive++;
+            }
+        }
+
+        int afterHangActive = 0;
+
+        for(int x = 0; x < 100; x++)
+        {
+            if(detector.isActive(quiet.next()))
+            {
+                afterHangActive++;
+            }
+        }
+
+        report("Hang time active [" + hangActive + "/" + hangBuffers + "] after hang time active [" +
+            afterHangActive + "/100]", lastSpeechActive && hangActive == hangBuffers && afterHangActive == 0);
+    }
+
+    /**
+     * Checks that resetting the detector at the end of a call ends the hang time, and that speech is detected again
+     * in the next call
+     */
+    private static void checkReset()
+    {
+        VoiceActivityDetector detector = new VoiceActivityDetector(ENERGY_THRESHOLD_DB, FLATNESS_THRESHOLD,
+            VoiceActivityFilter.DEFAULT_HANG_TIME_MS * VoiceActivityFilter.SAMPLES_PER_MILLISECOND);
+        SignalGenerator speech = new SignalGenerator(SPEECH);
+        SignalGenerator quiet = new SignalGenerator(QUIET);
+
+        boolean lastSpeechActive = false;
+
+        for(int x = 0; x < 250; x++)
+        {
+            lastSpeechActive = detector.isActive(speech.next());
+        }
+
+        detector.reset();
+
+        boolean quietActive = detector.isActive(quiet.next());
+
+        int nextCallActive = 0;
+
+        for(int x = 0; x < 250; x++)
+        {
+            if(detector.isActive(speech.next()))
+            {
+                nextCallActive++;
+            }
+        }
+
+        report("Reset quiet active [" + quietActive + "] next call active [" + nextCallActive + "/250]",
+            lastSpeechActive && !quietActive && nextCallActive >= 125);
+    }
+
+    private static void report(String message, boolean passed)
+    {
+        log(message + (passed ? " OK" : " FAILED"));
+
+        if(!passed)
+        {
+            sFailures++;
+        }
+    }
+
+    public static void log(String message)
+    {
+        System.out.println(message);
+    }
+
+    /**
+     * Generates consecutive buffers of a synthetic test signal
+     */
+    private static class SignalGenerator
+    {
+        private Random mRandom = new Random(1);
+        private int mSignal;
+        private long mSampleIndex;
+        private float mFiltered;
+
+        private SignalGenerator(int signal)
+        {
+            mSignal = signal;
+        }
+
+        private float[] next()
+        {
+            float[] samples = new float[BUFFER_SIZE];
+
+            for(int x = 0; x < BUFFER_SIZE; x++)
+            {
+                float noise = (float)mRandom.nextGaussian() * 0.1f;
+
+                switch(mSignal)
+                {
+                    case WHITE_NOISE:
+                        samples[x] = noise;
+                        break;
+                    case COLORED_NOISE:
+                        //One pole low-pass filter
+                        mFiltered = 0.8f * mFiltered + 0.6f * noise;
+                        samples[x] = mFiltered;
+                        break;
+                    case QUIET:
+                        samples[x] = noise * 0.01f;
+                        break;
+                    case STEADY_TONE:
+                        samples[x] = getVoiced(mSampleIndex) + noise * 0.05f;
+                        break;
+                    case SPEECH:
+                        //Syllable rate (4 Hz) amplitude envelope
+                        float envelope = (float)(0.55 + 0.45 * Math.sin(2.0 * Math.PI * 4.0 * mSampleIndex /
+                            SAMPLE_RATE));
+                        samples[x] = getVoiced(mSampleIndex) * envelope + noise * 0.05f;
+                        break;
+                }
+
+                mSampleIndex++;
+            }
+
+            return samples;
+        }
+
+        /**
+         * Voiced sound with a 120 Hz fundamental and harmonics, emphasizing the 4th and 5th harmonics as a formant
+         */
+        private static float getVoiced(long sampleIndex)
+        {
+            double voiced = 0.0;
+
+            for(int harmonic = 1; harmonic < 15; harmonic++)
+            {
+                double amplitude = (harmonic == 4 || harmonic == 5 ? 2.0 : 1.0) / harmonic;
+
+                voiced += amplitude * Math.sin(2.0 * Math.PI * 120.0 * harmonic * sampleIndex / SAMPLE_RATE);
+            }
+
+            return (float)(0.1 * voiced);
+        }
+    }
+}
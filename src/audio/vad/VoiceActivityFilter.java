@@ -0,0 +1,349 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package audio.vad;
+
+import audio.AudioPacket;
+import controller.channel.ChannelEvent;
+import controller.channel.ChannelEventListener;
+import controller.channel.ChannelProcessingManager;
+import module.ProcessingChain;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import properties.SystemProperties;
+import record.mp3.MP3Recorder;
+import sample.Broadcaster;
+import sample.Listener;
+import util.ThreadPool;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Voice activity filter for the audio packet stream from all decoding channels.  Audio packets that don't contain
+ * voice (dead carrier, hang time, keyed silence and open squelch noise) are dropped before they reach the registered
+ * listeners (recorder manager and audio streaming), so that silence is neither recorded nor encoded.  Call end and
+ * other non-audio packets are always passed through.
+ *
+ * Each channel has its own voice activity detector.  A short pre-roll of inactive audio is held for each channel and
+ * released ahead of the first voice packet, so that the onset of speech isn't clipped.  At the end of each call, the
+ * channel's detector is reset and its pre-roll is dropped, so that each call starts from the inactive state without
+ * reallocating the detector.  A channel's detector and pre-roll are released when its processing chain is stopped.
+ *
+ * The filter is enabled, and its thresholds, hang time and pre-roll are set, by system properties.  The filter tracks
+ * the amount of audio dropped, the recording (PCM) and streaming (MP3) bytes saved, and the processing time spent on
+ * voice activity detection.
+ */
+public class VoiceActivityFilter implements Listener<AudioPacket>, ChannelEventListener
+{
+    private final static Logger mLog = LoggerFactory.getLogger(VoiceActivityFilter.class);
+
+    public static final String PROPERTY_ENABLED = "audio.vad.enabled";
+    public static final String PROPERTY_ENERGY_THRESHOLD_DB = "audio.vad.energy.threshold.db";
+    public static final String PROPERTY_FLATNESS_THRESHOLD_PERCENT = "audio.vad.flatness.threshold.percent";
+    public static final String PROPERTY_HANG_TIME_MS = "audio.vad.hang.time.ms";
+    public static final String PROPERTY_PREROLL_MS = "audio.vad.preroll.ms";
+
+    public static final int DEFAULT_ENERGY_THRESHOLD_DB = -45;
+    public static final int DEFAULT_FLATNESS_THRESHOLD_PERCENT = 35;
+    public static final int DEFAULT_HANG_TIME_MS = 1500;
+    public static final int DEFAULT_PREROLL_MS = 200;
+
+    public static final int SAMPLES_PER_MILLISECOND = 8;
+    public static final long METRICS_INTERVAL_SECONDS = 60;
+
+    private ChannelProcessingManager mChannelProcessingManager;
+    private Broadcaster<AudioPacket> mBroadcaster = new Broadcaster<>();
+    private Map<Integer,ChannelState> mChannelStates = new ConcurrentHashMap<>();
+
+    private float mEnergyThreshold;
+    private float mFlatnessThreshold;
+    private long mHangTimeSamples;
+    private long mPrerollSamples;
+
+    private AtomicLong mReceivedSamples = new AtomicLong();
+    private AtomicLong mDroppedSamples = new AtomicLong();
+    private AtomicLong mProcessingNanos = new AtomicLong();
+
+    /**
+     * Constructs a voice activity filter using the thresholds, hang time and pre-roll from the system properties.
+     * Register the filter as a channel event listener so that channel state is released when channels stop.
+     *
+     * @param channelProcessingManager to identify the audio of a stopped channel
+     */
+    public VoiceActivityFilter(ChannelProcessingManager channelProcessingManager)
+    {
+        mChannelProcessingManager = channelProcessingManager;
+
+        SystemProperties properties = SystemProperties.getInstance();
+
+        mEnergyThreshold = properties.get(PROPERTY_ENERGY_THRESHOLD_DB, DEFAULT_ENERGY_THRESHOLD_DB);
+        mFlatnessThreshold = properties.get(PROPERTY_FLATNESS_THRESHOLD_PERCENT,
+            DEFAULT_FLATNESS_THRESHOLD_PERCENT) / 100.0f;
+        mHangTimeSamples = properties.get(PROPERTY_HANG_TIME_MS, DEFAULT_HANG_TIME_MS) * SAMPLES_PER_MILLISECOND;
+        mPrerollSamples = properties.get(PROPERTY_PREROLL_MS, DEFAULT_PREROLL_MS) * SAMPLES_PER_MILLISECOND;
+
+        ThreadPool.SCHEDULED.scheduleAtFixedRate(new MetricsLogger(), METRICS_INTERVAL_SECONDS,
+            METRICS_INTERVAL_SECONDS, TimeUnit.SECONDS);
+
+        mLog.info("Voice activity filter enabled - energy threshold [" + mEnergyThreshold + " dB] flatness " +
+            "threshold [" + mFlatnessThreshold + "] hang time [" + (mHangTimeSamples / SAMPLES_PER_MILLISECOND) +
+            " ms] pre-roll [" + (mPrerollSamples / SAMPLES_PER_MILLISECOND) + " ms]");
+    }
+
+    /**
+     * Indicates if voice activity filtering is enabled in the system properties
+     */
+    public static boolean isEnabled()
+    {
+        return SystemProperties.getInstance().get(PROPERTY_ENABLED, false);
+    }
+
+    /**
+     * Adds a listener to receive the filtered audio packets
+     */
+    public void addListener(Listener<AudioPacket> listener)
+    {
+        mBroadcaster.addListener(listener);
+    }
+
+    public void removeListener(Listener<AudioPacket> listener)
+    {
+        mBroadcaster.removeListener(listener);
+    }
+
+    /**
+     * Primary ingest point for audio packets from all decoding channels.  Packets from a channel are always received
+     * on one thread at a time.
+     */
+    @Override
+    public void receive(AudioPacket audioPacket)
+    {
+        if(!audioPacket.hasMetadata())
+        {
+            mBroadcaster.broadcast(audioPacket);
+            return;
+        }
+
+        Integer channel = audioPacket.getMetadata().getMetadataID();
+
+        if(audioPacket.getType() == AudioPacket.Type.AUDIO)
+        {
+            ChannelState state = mChannelStates.get(channel);
+
+            if(state == null)
+            {
+                state = new ChannelState();
+                mChannelStates.put(channel, state);
+            }
+
+            state.receive(audioPacket);
+        }
+        else
+        {
+            if(audioPacket.getType() == AudioPacket.Type.END)
+            {
+                ChannelState state = mChannelStates.get(channel);
+
+                if(state != null)
+                {
+                    state.reset();
+                }
+            }
+
+            mBroadcaster.broadcast(audioPacket);
+        }
+    }
+
+    /**
+     * Channel event listener method.  Releases the detector and pre-roll audio of a channel when its processing
+     * chain is stopped.  The processing chain is still registered with the processing manager when the stop
+     * notification is sent.
+     */
+    @Override
+    public void channelChanged(ChannelEvent event)
+    {
+        if(event.getEvent() == ChannelEvent.Event.NOTIFICATION_PROCESSING_STOP)
+        {
+            ProcessingChain processingChain = mChannelProcessingManager.getProcessingChain(event.getChannel());
+
+            if(processingChain != null)
+            {
+                remove(processingChain.getChannelState().getMutableMetadata().getMetadataID());
+            }
+        }
+    }
+
+    /**
+     * Releases the detector and drops the pre-roll audio held for the channel
+     *
+     * @param metadataID of the channel's audio packets
+     */
+    public void remove(int metadataID)
+    {
+        ChannelState state = mChannelStates.remove(metadataID);
+
+        if(state != null)
+        {
+            mDroppedSamples.addAndGet(state.getPrerollSampleCount());
+        }
+    }
+
+    /**
+     * Total number of audio samples received
+     */
+    public long getReceivedSampleCount()
+    {
+        return mReceivedSamples.get();
+    }
+
+    /**
+     * Total number of audio samples dropped as silence or noise
+     */
+    public long getDroppedSampleCount()
+    {
+        return mDroppedSamples.get();
+    }
+
+    /**
+     * Recording bytes saved (16-bit PCM) by dropping silence
+     */
+    public long getRecordingBytesSaved()
+    {
+        return mDroppedSamples.get() * 2;
+    }
+
+    /**
+     * Streaming bytes saved (MP3) by dropping silence
+     */
+    public long getStreamingBytesSaved()
+    {
+        return mDroppedSamples.get() * MP3Recorder.MP3_BIT_RATE / SAMPLES_PER_MILLISECOND / 8;
+    }
+
+    /**
+     * Total processing time spent on voice activity detection in nanoseconds
+     */
+    public long getProcessingNanos()
+    {
+        return mProcessingNanos.get();
+    }
+
+    /**
+     * Voice activity detector and pre-roll audio for a single channel
+     */
+    public class ChannelState
+    {
+        private VoiceActivityDetector mDetector = new VoiceActivityDetector(mEnergyThreshold, mFlatnessThreshold,
+            mHangTimeSamples);
+        private ArrayDeque<AudioPacket> mPreroll = new ArrayDeque<>();
+        private long mPrerollSampleCount;
+
+        /**
+         * Passes the audio packet, preceded by any pre-roll audio, when it contains voice, otherwise holds it as
+         * pre-roll audio
+         */
+        public void receive(AudioPacket audioPacket)
+        {
+            float[] samples = audioPacket.getAudioBuffer().getSamples();
+
+            mReceivedSamples.addAndGet(samples.length);
+
+            long start = System.nanoTime();
+            boolean active = mDetector.isActive(samples);
+            mProcessingNanos.addAndGet(System.nanoTime() - start);
+
+            if(active)
+            {
+                while(!mPreroll.isEmpty())
+                {
+                    mBroadcaster.broadcast(mPreroll.poll());
+                }
+
+                mPrerollSampleCount = 0;
+
+                mBroadcaster.broadcast(audioPacket);
+            }
+            else
+            {
+                mPreroll.add(audioPacket);
+                mPrerollSampleCount += samples.length;
+
+                while(mPrerollSampleCount > mPrerollSamples && !mPreroll.isEmpty())
+                {
+                    int dropped = mPreroll.poll().getAudioBuffer().getSamples().length;
+                    mPrerollSampleCount -= dropped;
+                    mDroppedSamples.addAndGet(dropped);
+                }
+            }
+        }
+
+        /**
+         * Number of audio samples held as pre-roll
+         */
+        public long getPrerollSampleCount()
+        {
+            return mPrerollSampleCount;
+        }
+
+        /**
+         * Drops the held pre-roll audio
+         */
+        public void clearPreroll()
+        {
+            mDroppedSamples.addAndGet(mPrerollSampleCount);
+            mPreroll.clear();
+            mPrerollSampleCount = 0;
+        }
+
+        /**
+         * Resets the detector to the inactive state and drops the held pre-roll audio at the end of a call
+         */
+        public void reset()
+        {
+            mDetector.reset();
+            clearPreroll();
+        }
+    }
+
+    /**
+     * Logs the voice activity filter metrics
+     */
+    public class MetricsLogger implements Runnable
+    {
+        @Override
+        public void run()
+        {
+            long received = mReceivedSamples.get();
+
+            if(received > 0)
+            {
+                long dropped = mDroppedSamples.get();
+
+                mLog.debug("Voice activity filter dropped [" + (dropped / SAMPLES_PER_MILLISECOND / 1000) +
+                    " of " + (received / SAMPLES_PER_MILLISECOND / 1000) + " seconds] of audio (" +
+                    (dropped * 100 / received) + "%) - recording bytes saved [" + getRecordingBytesSaved() +
+                    "] streaming bytes saved [" + getStreamingBytesSaved() + "] detection time [" +
+                    (mProcessingNanos.get() / 1000000) + " ms]");
+            }
+        }
+    }
+}
@@ -883,11 +883,17 @@ public class BinaryMessage extends BitSet
 	 */
 	public void xor( int offset, int width, int value )
 	{
-		BinaryMessage mask = new BinaryMessage( this.size() );
-		
-		mask.load( offset, width, value );
-		
-		this.xor( mask );
+		int mask = width < 32 ? value & ( ( 1 << width ) - 1 ) : value;
+
+		/* Flip the bit for each set bit in the value, MSB at the offset */
+		while( mask != 0 )
+		{
+			int bit = Integer.numberOfTrailingZeros( mask );
+			
+			flip( offset + width - bit - 1 );
+			
+			mask &= mask - 1;
+		}
 	}
 
 	public static void main(String[] args)
@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package buffer;
+
+/**
+ * Fixed capacity history of elements ordered newest first.  Adding an element to a full history overwrites the
+ * oldest element, so adding, capacity enforcement and indexed access are constant time.
+ *
+ * Not thread safe.
+ */
+public class HistoryBuffer<T>
+{
+    private Object[] mElements;
+    private int mHead;
+    private int mSize;
+
+    /**
+     * Constructs a history
+     *
+     * @param capacity maximum number of elements retained
+     */
+    public HistoryBuffer(int capacity)
+    {
+        if(capacity < 1)
+        {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+
+        mElements = new Object[capacity];
+    }
+
+    /**
+     * Adds the element as the newest element.
+     *
+     * @return true if the oldest element was removed to make room for the element
+     */
+    public boolean add(T element)
+    {
+        mElements[mHead] = element;
+
+        mHead = (mHead + 1) % mElements.length;
+
+        if(mSize < mElements.length)
+        {
+            mSize++;
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Element at the index where index 0 is the newest element
+     *
+     * @return element or null if the index is out of range
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int index)
+    {
+        if(index < 0 || index >= mSize)
+        {
+            return null;
+        }
+
+        return (T)mElements[getArrayIndex(index)];
+    }
+
+    /**
+     * Index of the element (newest first) or -1 if the element is not in this history
+     */
+    public int indexOf(T element)
+    {
+        for(int x = 0; x < mSize; x++)
+        {
+            Object candidate = mElements[getArrayIndex(x)];
+
+            if(candidate == element || (candidate != null && candidate.equals(element)))
+            {
+                return x;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Removes the element at the index where index 0 is the newest element.  Newer elements are shifted to close
+     * the gap.
+     */
+    public void remove(int index)
+    {
+        if(index < 0 || index >= mSize)
+        {
+            return;
+        }
+
+        //Shift each newer element one position toward the older end
+        for(int x = index; x > 0; x--)
+        {
+            mElements[getArrayIndex(x)] = mElements[getArrayIndex(x - 1)];
+        }
+
+        mHead = (mHead - 1 + mElements.length) % mElements.length;
+        mElements[mHead] = null;
+        mSize--;
+    }
+
+    /**
+     * Array position of the element at the index (newest first)
+     */
+    private int getArrayIndex(int index)
+    {
+        return (mHead - 1 - index + 2 * mElements.length) % mElements.length;
+    }
+
+    /**
+     * Number of elements in this history
+     */
+    public int size()
+    {
+        return mSize;
+    }
+
+    /**
+     * Maximum number of elements retained
+     */
+    public int getCapacity()
+    {
+        return mElements.length;
+    }
+
+    /**
+     * Changes the capacity of this history, retaining the newest elements that fit within the new capacity.
+     */
+    public void setCapacity(int capacity)
+    {
+        if(capacity < 1)
+        {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+
+        int size = Math.min(mSize, capacity);
+
+        Object[] elements = new Object[capacity];
+
+        //Copy oldest to newest so that the newest element precedes the head
+        for(int x = 0; x < size; x++)
+        {
+            elements[x] = mElements[getArrayIndex(size - 1 - x)];
+        }
+
+        mElements = elements;
+        mSize = size;
+        mHead = size % capacity;
+    }
+
+    /**
+     * Removes all elements
+     */
+    public void clear()
+    {
+        for(int x = 0; x < mElements.length; x++)
+        {
+            mElements[x] = null;
+        }
+
+        mHead = 0;
+        mSize = 0;
+    }
+}
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package channel.latency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks the latency of a single followed call from the control channel grant through each of the pipeline stages.
+ * Only the first occurrence of each stage is recorded, so stages can be marked for every sample buffer or audio
+ * packet without skewing the measurements.
+ *
+ * Instances are carried with the traffic channel metadata so that audio packets produced by the traffic channel
+ * reference the call that produced them.
+ */
+public class CallLatency
+{
+    private long mGrantTimestamp;
+    private AtomicInteger mMarkedStages = new AtomicInteger();
+
+    /**
+     * Constructs an instance
+     *
+     * @param grantTimestamp in milliseconds of the channel grant
+     */
+    public CallLatency(long grantTimestamp)
+    {
+        mGrantTimestamp = grantTimestamp;
+    }
+
+    /**
+     * Time in milliseconds of the channel grant
+     */
+    public long getGrantTimestamp()
+    {
+        return mGrantTimestamp;
+    }
+
+    /**
+     * Records the latency from the grant to now for the stage, if this is the first occurrence of the stage.
+     *
+     * @param stage that was reached
+     * @return latency in milliseconds, or -1 if the stage was previously marked
+     */
+    public long mark(LatencyStage stage)
+    {
+        return mark(stage, System.currentTimeMillis());
+    }
+
+    /**
+     * Records the latency from the grant to the timestamp for the stage, if this is the first occurrence of the stage.
+     *
+     * @param stage that was reached
+     * @param timestamp in milliseconds when the stage was reached
+     * @return latency in milliseconds, or -1 if the stage was previously marked
+     */
+    public long mark(LatencyStage stage, long timestamp)
+    {
+        int mask = 1 << stage.ordinal();
+
+        int marked;
+
+        do
+        {
+            marked = mMarkedStages.get();
+
+            if((marked & mask) != 0)
+            {
+                return -1;
+            }
+        }
+        while(!mMarkedStages.compareAndSet(marked, marked | mask));
+
+        long latency = timestamp - mGrantTimestamp;
+
+        LatencyMonitor.getInstance().getHistogram(stage).add(latency);
+
+        return latency;
+    }
+
+    /**
+     * Indicates if the stage has been marked
+     */
+    public boolean isMarked(LatencyStage stage)
+    {
+        return (mMarkedStages.get() & (1 << stage.ordinal())) != 0;
+    }
+}
@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package channel.latency;
+
+/**
+ * Thread-safe latency histogram with power-of-two millisecond buckets.
+ *
+ * Bucket 0 counts latencies under 1 ms and each following bucket N counts latencies from 2^(N-1) up to 2^N ms.  The
+ * final bucket counts all latencies at or above its lower bound.
+ */
+public class LatencyHistogram
+{
+    public static final int BUCKET_COUNT = 18;
+
+    private String mLabel;
+    private long[] mBuckets = new long[BUCKET_COUNT];
+    private long mCount;
+    private long mTotal;
+    private long mMinimum = Long.MAX_VALUE;
+    private long mMaximum;
+
+    /**
+     * Constructs a histogram
+     *
+     * @param label describing the measured latency
+     */
+    public LatencyHistogram(String label)
+    {
+        mLabel = label;
+    }
+
+    /**
+     * Label describing the measured latency
+     */
+    public String getLabel()
+    {
+        return mLabel;
+    }
+
+    /**
+     * Adds a latency measurement.  Negative values (e.g. from a system clock adjustment) are ignored.
+     *
+     * @param latency in milliseconds
+     */
+    public synchronized void add(long latency)
+    {
+        if(latency < 0)
+        {
+            return;
+        }
+
+        mBuckets[getBucket(latency)]++;
+        mCount++;
+        mTotal += latency;
+
+        if(latency < mMinimum)
+        {
+            mMinimum = latency;
+        }
+
+        if(latency > mMaximum)
+        {
+            mMaximum = latency;
+        }
+    }
+
+    /**
+     * Adds a latency measurement for an event that started at the timestamp and completed now.
+     *
+     * @param start timestamp in milliseconds
+     */
+    public void addSince(long start)
+    {
+        add(System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Bucket index for the latency value
+     */
+    public static int getBucket(long latency)
+    {
+        int bucket = 64 - Long.numberOfLeadingZeros(latency);
+
+        return bucket < BUCKET_COUNT ? bucket : BUCKET_COUNT - 1;
+    }
+
+    /**
+     * Lower bound (inclusive) in milliseconds for the bucket
+     */
+    public static long getBucketMinimum(int bucket)
+    {
+        return bucket == 0 ? 0 : 1l << (bucket - 1);
+    }
+
+    /**
+     * Copy of the bucket counts
+     */
+    public synchronized long[] getBuckets()
+    {
+        return mBuckets.clone();
+    }
+
+    public synchronized long getCount()
+    {
+        return mCount;
+    }
+
+    /**
+     * Minimum latency in milliseconds or 0 if there are no measurements
+     */
+    public synchronized long getMinimum()
+    {
+        return mCount > 0 ? mMinimum : 0;
+    }
+
+    /**
+     * Maximum latency in milliseconds
+     */
+    public synchronized long getMaximum()
+    {
+        return mMaximum;
+    }
+
+    /**
+     * Average latency in milliseconds
+     */
+    public synchronized double getAverage()
+    {
+        return mCount > 0 ? (double)mTotal / (double)mCount : 0.0d;
+    }
+
+    /**
+     * Approximate latency at the percentile (0.0 - 1.0), reported as the upper bound of the bucket that contains the
+     * percentile and limited to the maximum measured latency.
+     */
+    public synchronized long getPercentile(double percentile)
+    {
+        if(mCount == 0)
+        {
+            return 0;
+        }
+
+        long threshold = (long)Math.ceil(mCount * percentile);
+        long accumulated = 0;
+
+        for(int x = 0; x < BUCKET_COUNT; x++)
+        {
+            accumulated += mBuckets[x];
+
+            if(accumulated >= threshold)
+            {
+                return x < BUCKET_COUNT - 1 ? Math.min(getBucketMinimum(x + 1), mMaximum) : mMaximum;
+            }
+        }
+
+        return mMaximum;
+    }
+
+    /**
+     * Clears all measurements
+     */
+    public synchronized void reset()
+    {
+        mBuckets = new long[BUCKET_COUNT];
+        mCount = 0;
+        mTotal = 0;
+        mMinimum = Long.MAX_VALUE;
+        mMaximum = 0;
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append(mLabel).append(" COUNT:").append(mCount);
+
+        if(mCount > 0)
+        {
+            sb.append(" MIN:").append(getMinimum()).append("ms");
+            sb.append(" AVG:").append(Math.round(getAverage())).append("ms");
+            sb.append(" 95%:").append(getPercentile(0.95d)).append("ms");
+            sb.append(" MAX:").append(mMaximum).append("ms");
+        }
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package channel.latency;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Application-wide latency histograms for each call following pipeline stage.
+ */
+public class LatencyMonitor
+{
+    private static LatencyMonitor INSTANCE;
+
+    private Map<LatencyStage,LatencyHistogram> mHistograms = new EnumMap<>(LatencyStage.class);
+
+    private LatencyMonitor()
+    {
+        for(LatencyStage stage : LatencyStage.values())
+        {
+            mHistograms.put(stage, new LatencyHistogram(stage.getLabel()));
+        }
+    }
+
+    public static synchronized LatencyMonitor getInstance()
+    {
+        if(INSTANCE == null)
+        {
+            INSTANCE = new LatencyMonitor();
+        }
+
+        return INSTANCE;
+    }
+
+    /**
+     * Latency histogram for the stage
+     */
+    public LatencyHistogram getHistogram(LatencyStage stage)
+    {
+        return mHistograms.get(stage);
+    }
+
+    /**
+     * Clears the measurements for all stages
+     */
+    public void reset()
+    {
+        for(LatencyHistogram histogram : mHistograms.values())
+        {
+            histogram.reset();
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder();
+
+        for(LatencyStage stage : LatencyStage.values())
+        {
+            sb.append(mHistograms.get(stage).toString()).append("\n");
+        }
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package channel.latency;
+
+import net.miginfocom.swing.MigLayout;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+/**
+ * Displays the call following latency histogram summaries for each pipeline stage.  The display is refreshed once a
+ * second while the panel is showing.
+ */
+public class LatencyPanel extends JPanel
+{
+    private static final long serialVersionUID = 1L;
+
+    private static final int REFRESH_INTERVAL_MS = 1000;
+
+    private LatencyTableModel mTableModel = new LatencyTableModel();
+    private Timer mRefreshTimer;
+
+    public LatencyPanel()
+    {
+        init();
+    }
+
+    private void init()
+    {
+        setLayout(new MigLayout("insets 2 2 2 2", "[grow,fill]", "[grow,fill][]"));
+
+        JTable table = new JTable(mTableModel);
+        add(new JScrollPane(table), "wrap");
+
+        JButton resetButton = new JButton("Reset");
+        resetButton.addActionListener(new ActionListener()
+        {
+            @Override
+            public void actionPerformed(ActionEvent e)
+            {
+                LatencyMonitor.getInstance().reset();
+                mTableModel.fireTableDataChanged();
+            }
+        });
+        add(resetButton, "growx 0,align right");
+
+        mRefreshTimer = new Timer(REFRESH_INTERVAL_MS, new ActionListener()
+        {
+            @Override
+            public void actionPerformed(ActionEvent e)
+            {
+                if(isShowing())
+                {
+                    mTableModel.fireTableDataChanged();
+                }
+            }
+        });
+    }
+
+    @Override
+    public void addNotify()
+    {
+        super.addNotify();
+        mRefreshTimer.start();
+    }
+
+    @Override
+    public void removeNotify()
+    {
+        mRefreshTimer.stop();
+        super.removeNotify();
+    }
+
+    /**
+     * Table model with a row for each latency stage
+     */
+    public class LatencyTableModel extends AbstractTableModel
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final String[] COLUMNS = {"Stage", "Count", "Min (ms)", "Average (ms)", "95% (ms)", "Max (ms)"};
+
+        @Override
+        public int getRowCount()
+        {
+            return LatencyStage.values().length;
+        }
+
+        @Override
+        public int getColumnCount()
+        {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column)
+        {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex)
+        {
+            LatencyStage stage = LatencyStage.values()[rowIndex];
+            LatencyHistogram histogram = LatencyMonitor.getInstance().getHistogram(stage);
+
+            switch(columnIndex)
+            {
+                case 0:
+                    return stage.getLabel();
+                case 1:
+                    return histogram.getCount();
+                case 2:
+                    return histogram.getMinimum();
+                case 3:
+                    return Math.round(histogram.getAverage());
+                case 4:
+                    return histogram.getPercentile(0.95d);
+                case 5:
+                    return histogram.getMaximum();
+                default:
+                    return null;
+            }
+        }
+    }
+}
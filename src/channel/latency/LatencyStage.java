@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package channel.latency;
+
+/**
+ * Call following pipeline stages measured from the control channel grant that allocated a traffic channel.
+ */
+public enum LatencyStage
+{
+    CHANNEL_START("Grant to Channel Start"),
+    FIRST_SAMPLE("Grant to First Sample"),
+    FIRST_VOICE_FRAME("Grant to First Voice Frame"),
+    AUDIO_PLAYBACK("Grant to Audio Playback"),
+    AUDIO_RECORDING("Grant to Audio Recording"),
+    AUDIO_STREAMING("Grant to Audio Streaming");
+
+    private String mLabel;
+
+    LatencyStage(String label)
+    {
+        mLabel = label;
+    }
+
+    public String getLabel()
+    {
+        return mLabel;
+    }
+
+    @Override
+    public String toString()
+    {
+        return mLabel;
+    }
+}
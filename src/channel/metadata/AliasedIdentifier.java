@@ -103,7 +103,7 @@ public class AliasedIdentifier
 
         if(mIdentifier != null)
         {
-            copy.setIdentifier(new String(mIdentifier));
+            copy.setIdentifier(mIdentifier);
         }
 
         return copy;
@@ -21,14 +21,17 @@ package channel.metadata;
 import channel.state.State;
 import controller.channel.Channel;
 import sample.Listener;
+import util.SwingUpdateCoalescer;
 
 import javax.swing.table.AbstractTableModel;
 import java.awt.*;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class ChannelMetadataModel extends AbstractTableModel implements Listener<MutableMetadataChangeEvent>
 {
@@ -48,6 +51,17 @@ public class ChannelMetadataModel extends AbstractTableModel implements Listener
     private static final String[] COLUMNS = {"State", "Decoder", "Channel", "Frequency", "Primary From", "Primary To",
          "Secondary From", "Secondary To", "Channel Name", "Message"};
 
+    //Metadata changes are delivered to the table in batches on the swing thread at a limited rate
+    private SwingUpdateCoalescer<MutableMetadataChangeEvent> mUpdateCoalescer = new SwingUpdateCoalescer<>(
+        new Listener<List<MutableMetadataChangeEvent>>()
+        {
+            @Override
+            public void receive(List<MutableMetadataChangeEvent> changeEvents)
+            {
+                update(changeEvents);
+            }
+        });
+
     private List<MutableMetadata> mChannelMetadata = new ArrayList();
     private Map<MutableMetadata,Channel> mMetadataChannelMap = new HashMap();
 
@@ -220,56 +234,66 @@ public class ChannelMetadataModel extends AbstractTableModel implements Listener
     @Override
     public void receive(MutableMetadataChangeEvent mutableMetadataChangeEvent)
     {
-        //Execute on the swing thread to avoid threading issues
-        EventQueue.invokeLater(new Runnable()
+        mUpdateCoalescer.receive(mutableMetadataChangeEvent);
+    }
+
+    /**
+     * Processes a batch of metadata change events on the swing thread, firing one cell update for each changed cell
+     * regardless of how many times the cell changed since the previous batch.
+     */
+    private void update(List<MutableMetadataChangeEvent> changeEvents)
+    {
+        Set<Integer> updatedCells = new LinkedHashSet<>();
+
+        for(MutableMetadataChangeEvent changeEvent : changeEvents)
         {
-            @Override
-            public void run()
-            {
-                int rowIndex = mChannelMetadata.indexOf(mutableMetadataChangeEvent.getMetadata());
+            int rowIndex = mChannelMetadata.indexOf(changeEvent.getMetadata());
+            int columnIndex = getColumn(changeEvent.getAttribute());
 
-                if(rowIndex >= 0)
-                {
-                    switch(mutableMetadataChangeEvent.getAttribute())
-                    {
-                        case CHANNEL_CONFIGURATION_SYSTEM:
-                            break;
-                        case CHANNEL_CONFIGURATION_SITE:
-                            break;
-                        case CHANNEL_CONFIGURATION_NAME:
-                            fireTableCellUpdated(rowIndex, COLUMN_CONFIGURATION_NAME);
-                            break;
-                        case CHANNEL_FREQUENCY:
-                            fireTableCellUpdated(rowIndex, COLUMN_FREQUENCY);
-                            break;
-                        case CHANNEL_FREQUENCY_LABEL:
-                            fireTableCellUpdated(rowIndex, COLUMN_CHANNEL);
-                            break;
-                        case CHANNEL_STATE:
-                            fireTableCellUpdated(rowIndex, COLUMN_STATE);
-                            break;
-                        case MESSAGE:
-                        case MESSAGE_TYPE:
-                            fireTableCellUpdated(rowIndex, COLUMN_MESSAGE);
-                            break;
-                        case PRIMARY_ADDRESS_FROM:
-                            fireTableCellUpdated(rowIndex, COLUMN_PRIMARY_FROM);
-                            break;
-                        case PRIMARY_ADDRESS_TO:
-                            fireTableCellUpdated(rowIndex, COLUMN_PRIMARY_TO);
-                            break;
-                        case PRIMARY_DECODER_TYPE:
-                            fireTableCellUpdated(rowIndex, COLUMN_DECODER);
-                            break;
-                        case SECONDARY_ADDRESS_FROM:
-                            fireTableCellUpdated(rowIndex, COLUMN_SECONDARY_FROM);
-                            break;
-                        case SECONDARY_ADDRESS_TO:
-                            fireTableCellUpdated(rowIndex, COLUMN_SECONDARY_TO);
-                            break;
-                    }
-                }
+            if(rowIndex >= 0 && columnIndex >= 0)
+            {
+                updatedCells.add(rowIndex * COLUMNS.length + columnIndex);
             }
-        });
+        }
+
+        for(Integer cell : updatedCells)
+        {
+            fireTableCellUpdated(cell / COLUMNS.length, cell % COLUMNS.length);
+        }
+    }
+
+    /**
+     * Table column that displays the metadata attribute, or -1 if the attribute isn't displayed
+     */
+    private static int getColumn(Attribute attribute)
+    {
+        switch(attribute)
+        {
+            case CHANNEL_CONFIGURATION_NAME:
+                return COLUMN_CONFIGURATION_NAME;
+            case CHANNEL_FREQUENCY:
+                return COLUMN_FREQUENCY;
+            case CHANNEL_FREQUENCY_LABEL:
+                return COLUMN_CHANNEL;
+            case CHANNEL_STATE:
+                return COLUMN_STATE;
+            case MESSAGE:
+            case MESSAGE_TYPE:
+                return COLUMN_MESSAGE;
+            case PRIMARY_ADDRESS_FROM:
+                return COLUMN_PRIMARY_FROM;
+            case PRIMARY_ADDRESS_TO:
+                return COLUMN_PRIMARY_TO;
+            case PRIMARY_DECODER_TYPE:
+                return COLUMN_DECODER;
+            case SECONDARY_ADDRESS_FROM:
+                return COLUMN_SECONDARY_FROM;
+            case SECONDARY_ADDRESS_TO:
+                return COLUMN_SECONDARY_TO;
+            case CHANNEL_CONFIGURATION_SYSTEM:
+            case CHANNEL_CONFIGURATION_SITE:
+            default:
+                return -1;
+        }
     }
 }
@@ -21,6 +21,7 @@ package channel.metadata;
 import alias.Alias;
 import alias.id.broadcast.BroadcastChannel;
 import alias.id.priority.Priority;
+import channel.latency.CallLatency;
 import channel.state.State;
 import module.decode.DecoderType;
 import org.slf4j.Logger;
@@ -40,6 +41,7 @@ public class Metadata
 
     private int mMetadataID;
 
+    protected volatile long mVersion;
     protected boolean mUpdated;
     protected DecoderType mPrimaryDecoderType;
     protected boolean mSelected;
@@ -58,6 +60,7 @@ public class Metadata
     protected AliasedIdentifier mPrimaryAddressTo = new AliasedIdentifier();
     protected AliasedIdentifier mSecondaryAddressFrom = new AliasedIdentifier();
     protected AliasedIdentifier mSecondaryAddressTo = new AliasedIdentifier();
+    protected CallLatency mCallLatency;
 
     //Lazily constructed member variables.
     private Integer mAudioPriority;
@@ -70,6 +73,10 @@ public class Metadata
      * Channel metadata.  Contains all attributes that reflect the state and current attribute values for a channel
      * that is currently decoding.  This metadata is intended to support any decoding channel gui components to
      * graphically convey the current state of a decoding channel and to provide audio metadata
+     *
+     * Metadata produced by copyOf() is an immutable snapshot that can be shared across threads.  The mutable metadata
+     * reuses the same snapshot until one of its attributes changes, so audio packets produced while the metadata is
+     * unchanged all reference the same snapshot and version.
      */
     public Metadata()
     {
@@ -95,6 +102,16 @@ public class Metadata
             " ID:" + (mPrimaryAddressTo.hasIdentifier() ? mPrimaryAddressTo.getIdentifier() : "UNKNOWN");
     }
 
+    /**
+     * Version of this metadata.  The version changes each time an attribute of the mutable metadata changes and a
+     * snapshot copy carries the version of the metadata at the time the copy was made.  Consumers can compare
+     * versions (or snapshot references) to detect metadata changes.
+     */
+    public long getVersion()
+    {
+        return mVersion;
+    }
+
     /**
      * Indicates if any of the fields of this metadata have been updated since the last time a copy was made from this
      * metadata.  This method is primarily used by downstream audio playback and audio recording to signal when changes
@@ -210,6 +227,22 @@ public class Metadata
         return mPrimaryDecoderType != null;
     }
 
+    /**
+     * Latency tracker for the followed call that is being processed by a traffic channel, or null
+     */
+    public CallLatency getCallLatency()
+    {
+        return mCallLatency;
+    }
+
+    /**
+     * Indicates if this metadata has a call latency tracker
+     */
+    public boolean hasCallLatency()
+    {
+        return mCallLatency != null;
+    }
+
     /**
      * Returns the alias associated with the attribute or null
      */
@@ -552,31 +585,11 @@ public class Metadata
      */
     private void determineRecordable()
     {
-        mDoNotRecord = false;
-
-        if(mPrimaryAddressTo.hasAlias() && !mPrimaryAddressTo.getAlias().isRecordable())
-        {
-            mDoNotRecord = true;
-            return;
-        }
-
-        if(mPrimaryAddressFrom.hasAlias() && !mPrimaryAddressFrom.getAlias().isRecordable())
-        {
-            mDoNotRecord = true;
-            return;
-        }
-
-        if(mSecondaryAddressTo.hasAlias() && !mSecondaryAddressTo.getAlias().isRecordable())
-        {
-            mDoNotRecord = true;
-            return;
-        }
-
-        if(mSecondaryAddressFrom.hasAlias() && !mSecondaryAddressFrom.getAlias().isRecordable())
-        {
-            mDoNotRecord = true;
-            return;
-        }
+        //Snapshots are shared across threads, so the value is only assigned once it is fully determined
+        mDoNotRecord = (mPrimaryAddressTo.hasAlias() && !mPrimaryAddressTo.getAlias().isRecordable()) ||
+            (mPrimaryAddressFrom.hasAlias() && !mPrimaryAddressFrom.getAlias().isRecordable()) ||
+            (mSecondaryAddressTo.hasAlias() && !mSecondaryAddressTo.getAlias().isRecordable()) ||
+            (mSecondaryAddressFrom.hasAlias() && !mSecondaryAddressFrom.getAlias().isRecordable());
     }
 
     /**
@@ -584,27 +597,30 @@ public class Metadata
      */
     private void determineBroadcastChannels()
     {
-        mBroadcastChannels = new TreeSet<>();
+        //Snapshots are shared across threads, so the set is only assigned once it is fully populated
+        Set<BroadcastChannel> broadcastChannels = new TreeSet<>();
 
         if(mPrimaryAddressTo.hasAlias() && mPrimaryAddressTo.getAlias().isStreamable())
         {
-            mBroadcastChannels.addAll(mPrimaryAddressTo.getAlias().getBroadcastChannels());
+            broadcastChannels.addAll(mPrimaryAddressTo.getAlias().getBroadcastChannels());
         }
 
         if(mPrimaryAddressFrom.hasAlias() && mPrimaryAddressFrom.getAlias().isStreamable())
         {
-            mBroadcastChannels.addAll(mPrimaryAddressFrom.getAlias().getBroadcastChannels());
+            broadcastChannels.addAll(mPrimaryAddressFrom.getAlias().getBroadcastChannels());
         }
 
         if(mSecondaryAddressTo.hasAlias() && mSecondaryAddressTo.getAlias().isStreamable())
         {
-            mBroadcastChannels.addAll(mSecondaryAddressTo.getAlias().getBroadcastChannels());
+            broadcastChannels.addAll(mSecondaryAddressTo.getAlias().getBroadcastChannels());
         }
 
         if(mSecondaryAddressFrom.hasAlias() && mSecondaryAddressFrom.getAlias().isStreamable())
         {
-            mBroadcastChannels.addAll(mSecondaryAddressFrom.getAlias().getBroadcastChannels());
+            broadcastChannels.addAll(mSecondaryAddressFrom.getAlias().getBroadcastChannels());
         }
+
+        mBroadcastChannels = broadcastChannels;
     }
 
     /**
@@ -617,18 +633,22 @@ public class Metadata
     {
         Metadata copy = new Metadata(mMetadataID);
 
+        copy.mVersion = mVersion;
+
         copy.mDoNotRecord = mDoNotRecord;
         copy.mRecordable = mRecordable;
         copy.mState = mState;
         copy.mPrimaryDecoderType = mPrimaryDecoderType;
         copy.mChannelFrequency = mChannelFrequency;
-
-        copy.mChannelConfigurationSystem = hasChannelConfigurationSystem() ? new String(mChannelConfigurationSystem) : null;
-        copy.mChannelConfigurationSite = hasChannelConfigurationSite() ? new String(mChannelConfigurationSite) : null;
-        copy.mChannelConfigurationName = hasChannelConfigurationName() ? new String(mChannelConfigurationName) : null;
-        copy.mChannelFrequencyLabel = hasChannelFrequencyLabel() ? new String(mChannelFrequencyLabel) : null;
-        copy.mMessage = hasMessage() ? new String(mMessage) : null;
-        copy.mMessageType = hasMessageType() ? new String(mMessageType) : null;
+        copy.mCallLatency = mCallLatency;
+
+        //Strings are immutable and can be shared
+        copy.mChannelConfigurationSystem = hasChannelConfigurationSystem() ? mChannelConfigurationSystem : null;
+        copy.mChannelConfigurationSite = hasChannelConfigurationSite() ? mChannelConfigurationSite : null;
+        copy.mChannelConfigurationName = hasChannelConfigurationName() ? mChannelConfigurationName : null;
+        copy.mChannelFrequencyLabel = hasChannelFrequencyLabel() ? mChannelFrequencyLabel : null;
+        copy.mMessage = hasMessage() ? mMessage : null;
+        copy.mMessageType = hasMessageType() ? mMessageType : null;
 
         copy.mNetworkID1 = mNetworkID1.copyOf();
         copy.mNetworkID2 = mNetworkID2.copyOf();
@@ -18,6 +18,7 @@
  ******************************************************************************/
 package channel.metadata;
 
+import channel.latency.CallLatency;
 import channel.state.State;
 import module.decode.DecoderType;
 import org.slf4j.Logger;
@@ -30,6 +31,7 @@ public class MutableMetadata extends Metadata implements Listener<AttributeChang
     private final static Logger mLog = LoggerFactory.getLogger(MutableMetadata.class);
 
     private Broadcaster<MutableMetadataChangeEvent> mMetadataChangeEventBroadcaster = new Broadcaster<>();
+    private volatile Metadata mSnapshot;
 
     /**
      * Mutable channel metadata.  Contains all attributes that reflect the state and current attribute values for a
@@ -51,7 +53,7 @@ public class MutableMetadata extends Metadata implements Listener<AttributeChang
     public void setSelected(boolean selected)
     {
         mSelected = selected;
-        mUpdated = true;
+        changed();
     }
 
     /**
@@ -60,6 +62,17 @@ public class MutableMetadata extends Metadata implements Listener<AttributeChang
     public void setRecordable(boolean recordable)
     {
         mRecordable = recordable;
+        mVersion++;
+    }
+
+    /**
+     * Sets the call latency tracker for the call that is being processed by a traffic channel.  Audio packets carry
+     * this tracker with the copied metadata.
+     */
+    public void setCallLatency(CallLatency callLatency)
+    {
+        mCallLatency = callLatency;
+        mVersion++;
     }
 
     /**
@@ -68,7 +81,7 @@ public class MutableMetadata extends Metadata implements Listener<AttributeChang
     public void setPrimaryDecoderType(DecoderType decoderType)
     {
         mPrimaryDecoderType = decoderType;
-        mUpdated = true;
+        changed();
     }
 
     /**
@@ -154,7 +167,7 @@ public class MutableMetadata extends Metadata implements Listener<AttributeChang
                     request.getAttribute().name());
         }
 
-        mUpdated = true;
+        changed();
     }
 
     /**
@@ -201,7 +214,7 @@ public class MutableMetadata extends Metadata implements Listener<AttributeChang
             broadcast(Attribute.SECONDARY_ADDRESS_TO);
         }
 
-        mUpdated = true;
+        changed();
     }
 
     /**
@@ -259,9 +272,42 @@ public class MutableMetadata extends Metadata implements Listener<AttributeChang
             broadcast(Attribute.NETWORK_ID_2);
         }
 
+        changed();
+    }
+
+
+    /**
+     * Marks this metadata as updated and changes the version so that a new snapshot is created on the next copy
+     */
+    private void changed()
+    {
+        mVersion++;
         mUpdated = true;
     }
 
+    /**
+     * Immutable snapshot of this metadata.  The previous snapshot is returned when no attributes have changed since
+     * it was created, so audio producers can call this method for every audio packet without creating a copy.
+     */
+    @Override
+    public Metadata copyOf()
+    {
+        long version = mVersion;
+
+        Metadata snapshot = mSnapshot;
+
+        if(snapshot == null || snapshot.getVersion() != version)
+        {
+            snapshot = super.copyOf();
+
+            //Use the version read before copying so that a change made during the copy forces a new snapshot
+            snapshot.mVersion = version;
+
+            mSnapshot = snapshot;
+        }
+
+        return snapshot;
+    }
 
     /**
      * Broadcasts to registered listeners that an attribute has changed for this metadata
@@ -31,6 +31,7 @@ import module.decode.event.CallEvent;
 public class TrafficChannelAllocationEvent extends DecoderStateEvent
 {
 	private CallEvent mCallEvent;
+	private long mTimestamp = System.currentTimeMillis();
 	
 	public TrafficChannelAllocationEvent( Object source, CallEvent callEvent )
 	{
@@ -42,4 +43,13 @@ public class TrafficChannelAllocationEvent extends DecoderStateEvent
 	{
 		return mCallEvent;
 	}
+
+	/**
+	 * Time in milliseconds when the channel grant was processed and this
+	 * allocation was requested
+	 */
+	public long getTimestamp()
+	{
+		return mTimestamp;
+	}
 }
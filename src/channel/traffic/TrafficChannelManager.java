@@ -46,6 +46,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledExecutorService;
 
 public class TrafficChannelManager extends Module implements ICallEventProvider, IDecoderStateEventListener
@@ -56,7 +57,7 @@ public class TrafficChannelManager extends Module implements ICallEventProvider,
     public static final String UNKNOWN_FREQUENCY = "UNKNOWN FREQUENCY";
 
     private int mTrafficChannelPoolMaximumSize = DecodeConfiguration.TRAFFIC_CHANNEL_LIMIT_DEFAULT;
-    private List<Channel> mTrafficChannelPool = new ArrayList<Channel>();
+    private List<Channel> mTrafficChannelPool = new CopyOnWriteArrayList<Channel>();
     private Map<String,Channel> mTrafficChannelsInUse = new ConcurrentHashMap<String,Channel>();
 
     private DecoderStateEventListener mEventListener = new DecoderStateEventListener();
@@ -72,7 +73,9 @@ public class TrafficChannelManager extends Module implements ICallEventProvider,
     /**
      * Monitors call events and allocates traffic decoder channels in response
      * to traffic channel allocation call events.  Manages a pool of reusable
-     * traffic channel allocations.
+     * traffic channel allocations.  The pool is filled with idle, pre-built
+     * processing chains when this manager starts so that a channel grant only
+     * has to tune and start a traffic channel.
      *
      * @param channelModel containing channels currently in use
      * @param decodeConfiguration - decoder configuration to use for each
@@ -104,9 +107,14 @@ public class TrafficChannelManager extends Module implements ICallEventProvider,
     @Override
     public void dispose()
     {
+        mDecodeConfiguration = null;
+
         for(Channel trafficChannel : mTrafficChannelPool)
         {
             mChannelModel.broadcast(new ChannelEvent(trafficChannel, Event.REQUEST_DISABLE));
+
+            //Removing the channel disposes of its idle processing chain
+            mChannelModel.removeChannel(trafficChannel);
         }
 
         mTrafficChannelPool.clear();
@@ -114,7 +122,6 @@ public class TrafficChannelManager extends Module implements ICallEventProvider,
         mTrafficChannelsInUse.clear();
 
         mCallEventListener = null;
-        mDecodeConfiguration = null;
     }
 
     /**
@@ -145,17 +152,7 @@ public class TrafficChannelManager extends Module implements ICallEventProvider,
 
             if(channel == null && mTrafficChannelPool.size() < mTrafficChannelPoolMaximumSize)
             {
-                channel = new Channel("Traffic", ChannelType.TRAFFIC);
-
-                channel.setDecodeConfiguration(mDecodeConfiguration);
-
-                channel.setRecordConfiguration(mRecordConfiguration);
-
-                channel.setAliasListName(mAliasListName);
-
-                mChannelModel.addChannel(channel);
-
-                mTrafficChannelPool.add(channel);
+                channel = createTrafficChannel();
             }
 
 			/* If we have a configured channel, update metadata */
@@ -173,6 +170,48 @@ public class TrafficChannelManager extends Module implements ICallEventProvider,
         return channel;
     }
 
+    /**
+     * Creates a new traffic channel and adds it to the channel model and to
+     * the traffic channel pool.
+     *
+     * Note: you must enforce thread safety on the mTrafficChannelsInUse
+     * external to this method.
+     */
+    private Channel createTrafficChannel()
+    {
+        Channel channel = new Channel("Traffic", ChannelType.TRAFFIC);
+
+        channel.setDecodeConfiguration(mDecodeConfiguration);
+
+        channel.setRecordConfiguration(mRecordConfiguration);
+
+        channel.setAliasListName(mAliasListName);
+
+        mChannelModel.addChannel(channel);
+
+        mTrafficChannelPool.add(channel);
+
+        return channel;
+    }
+
+    /**
+     * Fills the traffic channel pool and requests an idle processing chain
+     * for each channel, so that the decoder modules are already constructed
+     * when a channel grant arrives.
+     */
+    private void prepareTrafficChannels()
+    {
+        synchronized(mTrafficChannelsInUse)
+        {
+            while(mDecodeConfiguration != null && mTrafficChannelPool.size() < mTrafficChannelPoolMaximumSize)
+            {
+                Channel channel = createTrafficChannel();
+
+                mChannelModel.broadcast(new ChannelEvent(channel, Event.REQUEST_PREPARE));
+            }
+        }
+    }
+
     /**
      * Processes the event and creates a traffic channel is resources are
      * available
@@ -198,8 +237,8 @@ public class TrafficChannelManager extends Module implements ICallEventProvider,
 
                 if(channel != null)
                 {
-                    TrafficChannelEvent trafficChannelEvent =
-                        new TrafficChannelEvent(this, channel, Event.REQUEST_ENABLE, callEvent);
+                    TrafficChannelEvent trafficChannelEvent = new TrafficChannelEvent(this, channel,
+                        Event.REQUEST_ENABLE, callEvent, event.getTimestamp());
 
                     //Request to enable the channel
                     mChannelModel.broadcast(trafficChannelEvent);
@@ -336,6 +375,24 @@ public class TrafficChannelManager extends Module implements ICallEventProvider,
     @Override
     public void start(ScheduledExecutorService executor)
     {
+        //Build the traffic channel pool off of the calling thread, since this
+        //method is invoked while the channel processing manager is starting
+        //the control channel
+        executor.execute(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    prepareTrafficChannels();
+                }
+                catch(Exception e)
+                {
+                    mLog.error("Error preparing traffic channel pool", e);
+                }
+            }
+        });
     }
 
     @Override
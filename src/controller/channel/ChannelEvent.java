@@ -72,6 +72,8 @@ public class ChannelEvent
 		REQUEST_DISABLE,
 		//Request to enable a channel - response will be a PROCESSING_START_NOTIFICATION
 		REQUEST_ENABLE,
+		//Request to construct an idle processing chain for a channel ahead of an enable request
+		REQUEST_PREPARE,
 		//Request to select the channel
 		REQUEST_SELECT;
 	}
@@ -176,10 +176,22 @@ public class ChannelModel extends AbstractTableModel implements IChannelEventBro
      * event is broadcast.
      */
     public void addChannels(List<Channel> channels)
+    {
+        addChannels(channels, true);
+    }
+
+    /**
+     * Bulk loading of channel list.  Each channel is added and a channel add event is broadcast.
+     *
+     * @param channels to add
+     * @param autoStart true to request that each enabled channel be started as it is added, or false when the caller
+     * will start the enabled channels (e.g. as a bulk start)
+     */
+    public void addChannels(List<Channel> channels, boolean autoStart)
     {
         for(Channel channel : channels)
         {
-            addChannel(channel);
+            addChannel(channel, autoStart);
         }
     }
 
@@ -187,6 +199,17 @@ public class ChannelModel extends AbstractTableModel implements IChannelEventBro
      * Adds the channel to the model and broadcasts a channel add event
      */
     public int addChannel(Channel channel)
+    {
+        return addChannel(channel, true);
+    }
+
+    /**
+     * Adds the channel to the model and broadcasts a channel add event
+     *
+     * @param channel to add
+     * @param autoStart true to request the channel be started when the channel is enabled
+     */
+    public int addChannel(Channel channel, boolean autoStart)
     {
         int index = -1;
 
@@ -209,7 +232,7 @@ public class ChannelModel extends AbstractTableModel implements IChannelEventBro
 
         broadcast(new ChannelEvent(channel, Event.NOTIFICATION_ADD));
 
-        if(channel.getEnabled())
+        if(autoStart && channel.getEnabled())
         {
             broadcast(new ChannelEvent(channel, Event.REQUEST_ENABLE));
         }
@@ -22,7 +22,10 @@ import alias.AliasModel;
 import audio.AudioPacket;
 import channel.metadata.Attribute;
 import channel.metadata.AttributeChangeRequest;
+import channel.latency.CallLatency;
+import channel.latency.LatencyStage;
 import channel.metadata.ChannelMetadataModel;
+import controller.NamingThreadFactory;
 import controller.channel.Channel.ChannelType;
 import controller.channel.ChannelEvent.Event;
 import controller.channel.map.ChannelMapModel;
@@ -33,6 +36,7 @@ import module.ProcessingChain;
 import module.decode.DecoderFactory;
 import module.decode.DecoderType;
 import module.decode.event.MessageActivityModel;
+import module.decode.event.MessageHistory;
 import module.log.EventLogManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,24 +48,57 @@ import source.SourceException;
 import source.SourceManager;
 import source.SourceType;
 import source.config.SourceConfigTuner;
+import source.tuner.TunerEvent;
+import source.tuner.TunerManager;
+import util.ThreadPool;
 
-import java.util.HashMap;
+
+import java.awt.GraphicsEnvironment;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
-
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Creates, starts and stops channel processing chains in response to channel events.
+ *
+ * Channel events are processed under a per-channel lock so that requests for different channels (e.g. starting
+ * several traffic channels during a busy period) can be processed concurrently, while requests for the same channel
+ * are processed in order.
+ *
+ * Tuner channels that are enabled while the USB tuners are still initializing wait for their tuner and are started as
+ * soon as a tuner is added to the tuner model, instead of waiting for every tuner to finish initializing.
+ */
 public class ChannelProcessingManager implements ChannelEventListener
 {
     private final static Logger mLog = LoggerFactory.getLogger(ChannelProcessingManager.class);
 
-    private Map<Integer,ProcessingChain> mProcessingChains = new HashMap<>();
+    public static final long BULK_START_TIMEOUT_SECONDS = 30;
+    public static final int BULK_START_MAX_THREADS = 4;
+
+    private Map<Integer,ProcessingChain> mProcessingChains = new ConcurrentHashMap<>();
+    private Map<Integer,ReentrantLock> mChannelLocks = new ConcurrentHashMap<>();
+    private Set<Channel> mChannelsAwaitingTuner = Collections.newSetFromMap(new ConcurrentHashMap<Channel,Boolean>());
 
     private List<Listener<AudioPacket>> mAudioPacketListeners = new CopyOnWriteArrayList<>();
     private List<Listener<Message>> mMessageListeners = new CopyOnWriteArrayList<>();
 
     private ChannelModel mChannelModel;
     private ChannelMapModel mChannelMapModel;
-    private ChannelMetadataModel mChannelMetadataModel = new ChannelMetadataModel();
+    private ChannelMetadataModel mChannelMetadataModel;
     private AliasModel mAliasModel;
     private EventLogManager mEventLogManager;
     private RecorderManager mRecorderManager;
@@ -80,10 +117,38 @@ public class ChannelProcessingManager implements ChannelEventListener
         mEventLogManager = eventLogManager;
         mRecorderManager = recorderManager;
         mSourceManager = sourceManager;
+
+        if(!GraphicsEnvironment.isHeadless())
+        {
+            mChannelMetadataModel = new ChannelMetadataModel();
+        }
+
+        mSourceManager.getTunerModel().addListener(new Listener<TunerEvent>()
+        {
+            @Override
+            public void receive(TunerEvent tunerEvent)
+            {
+                if(tunerEvent.getEvent() == TunerEvent.Event.ADD)
+                {
+                    startChannelsAwaitingTuner();
+                }
+            }
+        });
+
+        mSourceManager.getTunerManager().addInitializationCompleteListener(new Listener<TunerManager>()
+        {
+            @Override
+            public void receive(TunerManager tunerManager)
+            {
+                //Final attempt - channels without a tuner are now rejected
+                startChannelsAwaitingTuner();
+            }
+        });
     }
 
     /**
      * Channel metadata model containing metadata for each channel or channel time-slice that is currently processing.
+     * The model only feeds the channel metadata table, so it is null when running headless.
      */
     public ChannelMetadataModel getChannelMetadataModel()
     {
@@ -104,8 +169,57 @@ public class ChannelProcessingManager implements ChannelEventListener
      */
     private boolean isProcessing(Channel channel)
     {
-        return mProcessingChains.containsKey(channel.getChannelID()) &&
-            mProcessingChains.get(channel.getChannelID()).isProcessing();
+        ProcessingChain processingChain = mProcessingChains.get(channel.getChannelID());
+
+        return processingChain != null && processingChain.isProcessing();
+    }
+
+    /**
+     * Acquires the lock used to serialize processing of events for the channel.  Since the lock is discarded when
+     * the channel is deleted, a thread that acquires a discarded lock releases it and retries with the channel's
+     * current lock.
+     *
+     * @return the acquired lock
+     */
+    private ReentrantLock lockChannel(Channel channel)
+    {
+        while(true)
+        {
+            ReentrantLock lock = mChannelLocks.computeIfAbsent(channel.getChannelID(),
+                new Function<Integer,ReentrantLock>()
+                {
+                    @Override
+                    public ReentrantLock apply(Integer channelID)
+                    {
+                        return new ReentrantLock();
+                    }
+                });
+
+            lock.lock();
+
+            if(mChannelLocks.get(channel.getChannelID()) == lock)
+            {
+                return lock;
+            }
+
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Discards the channel lock unless other threads are waiting to acquire it.  Caller must hold the channel lock.
+     */
+    private void removeChannelLock(Channel channel)
+    {
+        mChannelLocks.computeIfPresent(channel.getChannelID(), new BiFunction<Integer,ReentrantLock,ReentrantLock>()
+        {
+            @Override
+            public ReentrantLock apply(Integer channelID, ReentrantLock lock)
+            {
+                //Keep the lock for queued threads so that their events stay serialized with the delete
+                return lock.hasQueuedThreads() ? lock : null;
+            }
+        });
     }
 
     /**
@@ -147,7 +261,31 @@ public class ChannelProcessingManager implements ChannelEventListener
     }
 
     @Override
-    public synchronized void channelChanged(ChannelEvent event)
+    public void channelChanged(ChannelEvent event)
+    {
+        Channel channel = event.getChannel();
+
+        ReentrantLock lock = lockChannel(channel);
+
+        try
+        {
+            processEvent(event);
+
+            if(event.getEvent() == Event.NOTIFICATION_DELETE)
+            {
+                removeChannelLock(channel);
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Processes the channel event.  Caller must hold the channel lock.
+     */
+    private void processEvent(ChannelEvent event)
     {
         Channel channel = event.getChannel();
 
@@ -161,6 +299,8 @@ public class ChannelProcessingManager implements ChannelEventListener
                 }
                 break;
             case REQUEST_DISABLE:
+                mChannelsAwaitingTuner.remove(channel);
+
                 if(channel.getEnabled())
                 {
                     switch(channel.getChannelType())
@@ -177,11 +317,25 @@ public class ChannelProcessingManager implements ChannelEventListener
                             break;
                     }
                 }
+                break;
+            case REQUEST_PREPARE:
+                if(!mProcessingChains.containsKey(channel.getChannelID()))
+                {
+                    mProcessingChains.put(channel.getChannelID(), createProcessingChain(channel));
+                }
+                break;
             case NOTIFICATION_DELETE:
+                mChannelsAwaitingTuner.remove(channel);
+
                 if(channel.getEnabled())
                 {
                     stopProcessing(channel, true);
                 }
+                else if(mProcessingChains.containsKey(channel.getChannelID()))
+                {
+                    //Dispose idle (prepared or previously used) processing chain
+                    mProcessingChains.remove(channel.getChannelID()).dispose();
+                }
                 break;
             case NOTIFICATION_CONFIGURATION_CHANGE:
                 if(isProcessing(channel))
@@ -195,6 +349,97 @@ public class ChannelProcessingManager implements ChannelEventListener
         }
     }
 
+    /**
+     * Starts each of the channels concurrently and waits for the channels to start.  Logs a start-up timing report
+     * showing the time taken to start each channel.
+     *
+     * @param channels to start
+     */
+    public void startChannels(List<Channel> channels)
+    {
+        if(channels.isEmpty())
+        {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+
+        List<Future<Long>> futures = new ArrayList<>();
+
+        //Dedicated start-up threads so that a large playlist doesn't tie up the shared scheduled thread pool.  The
+        //threads exit once the queued channel starts are complete.
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(channels.size(), BULK_START_MAX_THREADS),
+            new NamingThreadFactory("sdrtrunk channel start"));
+
+        for(final Channel channel : channels)
+        {
+            futures.add(executor.submit(new Callable<Long>()
+            {
+                @Override
+                public Long call() throws Exception
+                {
+                    long channelStart = System.currentTimeMillis();
+
+                    channelChanged(new ChannelEvent(channel, Event.REQUEST_ENABLE));
+
+                    return System.currentTimeMillis() - channelStart;
+                }
+            }));
+        }
+
+        executor.shutdown();
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("Channel start-up timing report\n");
+
+        int started = 0;
+
+        for(int x = 0; x < channels.size(); x++)
+        {
+            Channel channel = channels.get(x);
+
+            sb.append("\t[").append(channel.getName()).append("] ");
+
+            try
+            {
+                long remaining = start + TimeUnit.SECONDS.toMillis(BULK_START_TIMEOUT_SECONDS) -
+                    System.currentTimeMillis();
+
+                long elapsed = futures.get(x).get(Math.max(remaining, 0), TimeUnit.MILLISECONDS);
+
+                boolean processing = isProcessing(channel);
+
+                if(processing)
+                {
+                    started++;
+                }
+
+                if(!processing && mChannelsAwaitingTuner.contains(channel))
+                {
+                    sb.append("WAITING FOR TUNER ").append(elapsed).append("ms\n");
+                }
+                else
+                {
+                    sb.append(processing ? "STARTED " : "NOT STARTED ").append(elapsed).append("ms\n");
+                }
+            }
+            catch(TimeoutException te)
+            {
+                sb.append("STILL STARTING - timeout\n");
+            }
+            catch(InterruptedException | ExecutionException e)
+            {
+                sb.append("ERROR - ").append(e.getMessage()).append("\n");
+                mLog.error("Error starting channel [" + channel.getName() + "]", e);
+            }
+        }
+
+        sb.append("\tStarted ").append(started).append(" of ").append(channels.size()).append(" channels in ")
+            .append(System.currentTimeMillis() - start).append("ms");
+
+        mLog.info(sb.toString());
+    }
+
     private void startProcessing(ChannelEvent event)
     {
         Channel channel = event.getChannel();
@@ -220,6 +465,13 @@ public class ChannelProcessingManager implements ChannelEventListener
             mLog.debug("Error obtaining source for channel [" + channel.getName() + "]", se);
         }
 
+        if(source == null && isTunerInitializing(channel))
+        {
+            //Leave the channel enabled and start it once a tuner is added to the tuner model
+            mChannelsAwaitingTuner.add(channel);
+            return;
+        }
+
         if(source == null)
         {
             channel.setEnabled(false);
@@ -231,34 +483,12 @@ public class ChannelProcessingManager implements ChannelEventListener
 
         if(processingChain == null)
         {
-            processingChain = new ProcessingChain(channel.getChannelType());
-
-			/* Register global listeners */
-            for(Listener<AudioPacket> listener : mAudioPacketListeners)
-            {
-                processingChain.addAudioPacketListener(listener);
-            }
-
-            for(Listener<Message> listener : mMessageListeners)
-            {
-                processingChain.addMessageListener(listener);
-            }
-
-            //Register channel to receive frequency correction events to show in the spectral display (hack!)
-            processingChain.addFrequencyChangeListener(channel);
-
-			/* Processing Modules */
-            List<Module> modules = DecoderFactory.getModules(mChannelModel, mChannelMapModel, this,
-                mAliasModel, channel, processingChain.getChannelState().getMutableMetadata());
-            processingChain.addModules(modules);
-
-			/* Setup message activity model with filtering */
-            FilterSet<Message> messageFilter = DecoderFactory.getMessageFilters(modules);
-            MessageActivityModel messageModel = new MessageActivityModel(messageFilter);
-            processingChain.setMessageActivityModel(messageModel);
-
+            processingChain = createProcessingChain(channel);
         }
 
+        //Register channel to receive frequency correction events to show in the spectral display (hack!)
+        processingChain.addFrequencyChangeListener(channel);
+
         //Set the recordable flag to true if the user has requested recording.  The metadata class can still
         //override recordability if any of the aliased values has 'Do Not Record' alias identifier.
         boolean recordable = channel.getRecordConfiguration() != null &&
@@ -314,6 +544,8 @@ public class ChannelProcessingManager implements ChannelEventListener
 
         processingChain.setSource(source);
 
+        CallLatency callLatency = null;
+
         if(event instanceof TrafficChannelEvent)
         {
             TrafficChannelEvent trafficChannelEvent = (TrafficChannelEvent) event;
@@ -321,11 +553,38 @@ public class ChannelProcessingManager implements ChannelEventListener
             processingChain.getChannelState().configureAsTrafficChannel(
                 trafficChannelEvent.getTrafficChannelManager(),
                 trafficChannelEvent.getCallEvent());
+
+            if(trafficChannelEvent.getGrantTimestamp() > 0)
+            {
+                callLatency = new CallLatency(trafficChannelEvent.getGrantTimestamp());
+
+                final CallLatency firstSampleLatency = callLatency;
+
+                processingChain.setFirstSampleListener(new Listener<Long>()
+                {
+                    @Override
+                    public void receive(Long timestamp)
+                    {
+                        firstSampleLatency.mark(LatencyStage.FIRST_SAMPLE, timestamp);
+                    }
+                });
+            }
         }
 
+        //Audio packets produced by the channel carry the call latency tracker with the metadata
+        processingChain.getChannelState().getMutableMetadata().setCallLatency(callLatency);
+
         processingChain.start();
 
-        getChannelMetadataModel().add(processingChain.getChannelState().getMutableMetadata(), channel);
+        if(callLatency != null)
+        {
+            callLatency.mark(LatencyStage.CHANNEL_START);
+        }
+
+        if(mChannelMetadataModel != null)
+        {
+            mChannelMetadataModel.add(processingChain.getChannelState().getMutableMetadata(), channel);
+        }
 
         channel.setEnabled(true);
 
@@ -334,6 +593,82 @@ public class ChannelProcessingManager implements ChannelEventListener
         mChannelModel.broadcast(new ChannelEvent(channel, Event.NOTIFICATION_PROCESSING_START));
     }
 
+    /**
+     * Indicates if the channel uses a tuner source and the USB tuners are still initializing
+     */
+    private boolean isTunerInitializing(Channel channel)
+    {
+        return channel.getSourceConfiguration().getSourceType() == SourceType.TUNER &&
+            mSourceManager.getTunerManager().isInitializing();
+    }
+
+    /**
+     * Starts the channels that are waiting for a tuner.  Channels are started on a separate thread so that the
+     * tuner initialization thread that added the tuner is not held up.
+     */
+    private void startChannelsAwaitingTuner()
+    {
+        final List<Channel> channels = new ArrayList<>();
+
+        for(Channel channel : mChannelsAwaitingTuner)
+        {
+            if(mChannelsAwaitingTuner.remove(channel))
+            {
+                channels.add(channel);
+            }
+        }
+
+        if(!channels.isEmpty())
+        {
+            ThreadPool.SCHEDULED.execute(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    startChannels(channels);
+                }
+            });
+        }
+    }
+
+    /**
+     * Constructs an idle processing chain with the decoder modules for the channel.  Sources, event loggers and
+     * recorders are added when processing is started.
+     */
+    private ProcessingChain createProcessingChain(Channel channel)
+    {
+        ProcessingChain processingChain = new ProcessingChain(channel.getChannelType());
+
+		/* Register global listeners */
+        for(Listener<AudioPacket> listener : mAudioPacketListeners)
+        {
+            processingChain.addAudioPacketListener(listener);
+        }
+
+        for(Listener<Message> listener : mMessageListeners)
+        {
+            processingChain.addMessageListener(listener);
+        }
+
+		/* Processing Modules */
+        List<Module> modules = DecoderFactory.getModules(mChannelModel, mChannelMapModel, this,
+            mAliasModel, channel, processingChain.getChannelState().getMutableMetadata());
+        processingChain.addModules(modules);
+
+		/* Setup message activity model with filtering */
+        FilterSet<Message> messageFilter = DecoderFactory.getMessageFilters(modules);
+        if(GraphicsEnvironment.isHeadless())
+        {
+            processingChain.setMessageHistory(new MessageHistory(messageFilter, MessageHistory.DEFAULT_CAPACITY));
+        }
+        else
+        {
+            processingChain.setMessageActivityModel(new MessageActivityModel(messageFilter));
+        }
+
+        return processingChain;
+    }
+
     private void stopProcessing(Channel channel, boolean remove)
     {
         channel.setEnabled(false);
@@ -342,7 +677,10 @@ public class ChannelProcessingManager implements ChannelEventListener
         {
             ProcessingChain processingChain = mProcessingChains.get(channel.getChannelID());
 
-            getChannelMetadataModel().remove(processingChain.getChannelState().getMutableMetadata());
+            if(mChannelMetadataModel != null)
+            {
+                mChannelMetadataModel.remove(processingChain.getChannelState().getMutableMetadata());
+            }
 
             processingChain.stop();
 
@@ -7,19 +7,33 @@ public class TrafficChannelEvent extends ChannelEvent
 {
 	private TrafficChannelManager mTrafficChannelManager;
 	private CallEvent mCallEvent;
+	private long mGrantTimestamp;
 	
 	/**
 	 * Call event with traffic channel manager for call back, and original creation event.
+	 * 
+	 * @param grantTimestamp - time in milliseconds of the channel grant that
+	 * produced this event, for latency tracking
 	 */
 	public TrafficChannelEvent( TrafficChannelManager trafficChannelManager,
 								Channel channel, 
 								Event event, 
-								CallEvent callEvent )
+								CallEvent callEvent,
+								long grantTimestamp )
 	{
 		super( channel, event );
 		
 		mTrafficChannelManager = trafficChannelManager;
 		mCallEvent = callEvent;
+		mGrantTimestamp = grantTimestamp;
+	}
+	
+	/**
+	 * Time in milliseconds of the channel grant that produced this event
+	 */
+	public long getGrantTimestamp()
+	{
+		return mGrantTimestamp;
 	}
 	
 	public TrafficChannelManager getTrafficChannelManager()
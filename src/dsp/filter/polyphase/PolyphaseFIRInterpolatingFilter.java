@@ -136,6 +136,43 @@ public class PolyphaseFIRInterpolatingFilter
 		return interpolated;
 	}
 	
+	/**
+	 * Inserts the sample into the filter without generating any interpolated
+	 * samples.  Use with filter( phase ) to generate only the interpolated
+	 * samples that are needed, for example when resampling by a rational
+	 * factor.
+	 * 
+	 * @param sample - float sample
+	 */
+	public void load( float sample )
+	{
+		mBuffer[ mBufferPointer ] = (double)sample;
+		
+		mBufferPointer++;
+		mBufferPointer %= mBuffer.length;
+	}
+	
+	/**
+	 * Generates the interpolated sample for the phase from the samples loaded
+	 * into the filter, where phase 0 is the first of the (interpolation)
+	 * samples generated for the most recently loaded sample.
+	 * 
+	 * @param phase - 0 to (interpolation - 1)
+	 * @return - interpolated sample
+	 */
+	public float filter( int phase )
+	{
+		return mPhases[ phase ].filter();
+	}
+	
+	/**
+	 * Interpolation quantity (number of phases) of this filter
+	 */
+	public int getInterpolation()
+	{
+		return mPhases.length;
+	}
+	
 	/**
 	 * Single phase element of a polyphase interpolating FIR filter.  Each phase 
 	 * element shares a common buffer.  The tap indexes argument defines the 
@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package dsp.filter.polyphase;
+
+import dsp.filter.Window;
+import dsp.filter.Window.WindowType;
+
+import java.util.Arrays;
+
+/**
+ * Rational (L/M) sample rate converter using a polyphase interpolating FIR filter.
+ *
+ * The input is conceptually interpolated by L and decimated by M, but only the filter phases that produce output
+ * samples are computed, so the cost per output sample is the number of taps per phase regardless of the
+ * interpolation factor.  For example, 8 kHz to 44.1 kHz uses L=441 and M=80.
+ *
+ * Not thread safe.  Filter state carries across calls, so use one instance per continuous audio stream.
+ */
+public class PolyphaseRationalResampler
+{
+    /* Filter taps per polyphase branch - sets the transition band width relative to the lower sample rate */
+    public static final int TAPS_PER_PHASE = 24;
+
+    /* Pass band edge as a fraction of the lower of the input and output Nyquist frequencies */
+    private static final double CUTOFF = 0.9;
+
+    private PolyphaseFIRInterpolatingFilter mFilter;
+    private int mInputRate;
+    private int mOutputRate;
+    private int mInterpolation;
+    private int mDecimation;
+    private int mPhase;
+
+    /**
+     * Constructs a resampler
+     *
+     * @param inputRate of samples provided to this resampler
+     * @param outputRate of samples produced by this resampler
+     */
+    public PolyphaseRationalResampler(int inputRate, int outputRate)
+    {
+        if(inputRate <= 0 || outputRate <= 0)
+        {
+            throw new IllegalArgumentException("Sample rates must be positive - input [" + inputRate +
+                "] output [" + outputRate + "]");
+        }
+
+        mInputRate = inputRate;
+        mOutputRate = outputRate;
+
+        int gcd = gcd(inputRate, outputRate);
+
+        mInterpolation = outputRate / gcd;
+        mDecimation = inputRate / gcd;
+
+        mFilter = new PolyphaseFIRInterpolatingFilter(getCoefficients(), mInterpolation);
+    }
+
+    /**
+     * Designs a windowed-sinc low pass prototype filter at the interpolated sample rate with a cutoff below the
+     * lower of the input and output Nyquist frequencies, normalized to unity gain at DC.
+     */
+    private double[] getCoefficients()
+    {
+        int length = mInterpolation * TAPS_PER_PHASE;
+
+        //Cutoff normalized to the interpolated sample rate
+        double cutoff = CUTOFF * 0.5 * Math.min(mInputRate, mOutputRate) / ((double) mInputRate * mInterpolation);
+
+        double[] coefficients = new double[length];
+
+        double middle = (length - 1) / 2.0;
+
+        for(int x = 0; x < length; x++)
+        {
+            double t = x - middle;
+
+            coefficients[x] = t == 0.0 ? 2.0 * cutoff : Math.sin(2.0 * Math.PI * cutoff * t) / (Math.PI * t);
+        }
+
+        coefficients = Window.apply(WindowType.BLACKMAN, coefficients);
+
+        double sum = 0.0;
+
+        for(double coefficient : coefficients)
+        {
+            sum += coefficient;
+        }
+
+        for(int x = 0; x < length; x++)
+        {
+            coefficients[x] /= sum;
+        }
+
+        return coefficients;
+    }
+
+    /**
+     * Resamples the samples.  The number of samples returned varies by one from call to call when the rates are
+     * not integer multiples, since the fractional output position carries over to the next call.
+     *
+     * @param samples at the input rate
+     * @return samples at the output rate
+     */
+    public float[] resample(float[] samples)
+    {
+        if(mInterpolation == 1 && mDecimation == 1)
+        {
+            return samples;
+        }
+
+        //Upper bound for the number of outputs produced for this input length
+        float[] resampled = new float[(int) (((long) samples.length * mInterpolation) / mDecimation) + 1];
+
+        int pointer = 0;
+
+        for(float sample : samples)
+        {
+            mFilter.load(sample);
+
+            while(mPhase < mInterpolation)
+            {
+                resampled[pointer++] = mFilter.filter(mPhase);
+                mPhase += mDecimation;
+            }
+
+            mPhase -= mInterpolation;
+        }
+
+        return pointer == resampled.length ? resampled : Arrays.copyOf(resampled, pointer);
+    }
+
+    public int getInputRate()
+    {
+        return mInputRate;
+    }
+
+    public int getOutputRate()
+    {
+        return mOutputRate;
+    }
+
+    /**
+     * Interpolation (L) factor
+     */
+    public int getInterpolation()
+    {
+        return mInterpolation;
+    }
+
+    /**
+     * Decimation (M) factor
+     */
+    public int getDecimation()
+    {
+        return mDecimation;
+    }
+
+    private static int gcd(int a, int b)
+    {
+        while(b != 0)
+        {
+            int remainder = a % b;
+            a = b;
+            b = remainder;
+        }
+
+        return a;
+    }
+}
@@ -45,46 +45,45 @@ public class BCH_63_16_11 extends BerlekempMassey_63
 	 */
 	public BinaryMessage correctNID( BinaryMessage message )
 	{
-		CRC status = CRC.PASSED;
+		long original = message.getLong( 0, 62 );
 		
-		int[] original = message.toReverseIntegerArray( 0, 62 );
-		int[] corrected = new int[ 63 ];
-
-		boolean irrecoverableErrors = decode( original, corrected );
-
-		if( irrecoverableErrors )
+		long corrected = correct( original );
+		
+		if( corrected == IRRECOVERABLE )
 		{
 			message.setCRC( CRC.FAILED_CRC );
 			
 			return message;
 		}
+
+		/* Information bits 0 - 15 are held in the 16 MSBs of the codeword */
+		int errors = (int)( ( original ^ corrected ) >>> 47 );
+		
+		if( errors != 0 )
+		{
+			message.xor( 0, 16, errors );
+			
+			message.setCRC( CRC.CORRECTED );
+		}
 		else
 		{
-			for( int x = 0; x < 16; x++ )
-			{
-				int index = 63 - x - 1;
-				
-				if( corrected[ index ] != original[ index ] )
-				{
-					status = CRC.CORRECTED;
-					
-					if( corrected[ index ] == 1 )
-					{
-						message.set( x );
-					}
-					else
-					{
-						message.clear( x );
-					}
-				}
-			}
+			message.setCRC( CRC.PASSED );
 		}
 		
-		message.setCRC( status );
-		
 		return message;
 	}
 	
+	/**
+	 * Performs error detection and correction on a 63-bit codeword packed into
+	 * a long, with message bit 0 in bit 62 of the value.
+	 * 
+	 * @return corrected codeword or IRRECOVERABLE
+	 */
+	public long correct( long codeword )
+	{
+		return decodeBinary( codeword );
+	}
+	
 	public static void main( String[] args )
 	{
 		String orig  = "0010011000000011010010100000000110000111110011101010001010110000";
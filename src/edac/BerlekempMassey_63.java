@@ -43,6 +43,11 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Berlekemp Massey decoder for 63-bit primitive RS/BCH block codes
+ * 
+ * The GF(2**6) log/antilog lookup tables are generated once and shared by all
+ * decoder instances.  Decoding is allocation free: each decoding thread uses a
+ * reusable workspace, a zero syndrome returns immediately, and the Chien 
+ * search stops as soon as all roots of the error locator polynomial are found.
  */
 public class BerlekempMassey_63
 {
@@ -54,31 +59,43 @@ public class BerlekempMassey_63
 	/* Codeword Length: NN = 2 ** MM - 1 */
 	private static final int NN = 63;
 	
-	/* Hamming distance between codewords: NN - KK + 1 = 2 * TT + 1 */
-	private static int KK;
+	/* Returned by decodeBinary() when the codeword cannot be corrected */
+	public static final long IRRECOVERABLE = -1l;
+
+	/* P25 generator polynomial */
+	private static final int[] GENERATOR_POLYNOMIAL = { 1, 1, 0, 0, 0, 0, 1 };
+
+	/* Polynomial form lookup, doubled in length so that the sum of two index
+	 * form values can be used without a modulo operation */
+	private static final int[] ALPHA_TO = new int[ 2 * NN ];
+
+	/* Index form lookup: INDEX_OF[ alpha**i ] = i, INDEX_OF[ 0 ] = -1 */
+	private static final int[] INDEX_OF = new int[ NN + 1 ];
+	
+	static
+	{
+		generate_gf( GENERATOR_POLYNOMIAL );
+	}
 
 	/* Maximum number of errors that can be corrected */
 	int TT;
 
-	int[] alpha_to;
-	int[] index_of;
-	int[] gg;
+	/* Number of syndromes / parity symbols: NN - KK = 2 * TT */
+	private int mSyndromeCount;
+	
+	private ThreadLocal<Workspace> mWorkspace = new ThreadLocal<Workspace>()
+	{
+		@Override
+		protected Workspace initialValue()
+		{
+			return new Workspace( TT );
+		}
+	};
 	
 	public BerlekempMassey_63( int tt )
     {
 		TT = tt;
-		KK = NN - 2 * TT;
-		
-        alpha_to = new int[ NN + 1 ];
-        index_of = new int[ NN + 1 ];
-        gg       = new int[ NN - KK + 1 ];
-
-        /* P25 generator polynomial */
-        int generator_polinomial[] = { 1, 1, 0, 0, 0, 0, 1 };
-
-        generate_gf( generator_polinomial );
-
-        gen_poly();
+		mSyndromeCount = 2 * TT;
     }
 
 	/**
@@ -88,459 +105,542 @@ public class BerlekempMassey_63
 	 * p(X) in pp[0]..pp[mm]
 	 * 
 	 * Lookup tables:  
-	 * 		index_of[] = polynomial form   
-	 * 		alpha_to[] = contains j=alpha**i;
+	 * 		INDEX_OF[] = polynomial form   
+	 * 		ALPHA_TO[] = contains j=alpha**i;
 	 * 
-	 * Polynomial form -> Index form  index_of[j=alpha**i] = i
+	 * Polynomial form -> Index form  INDEX_OF[j=alpha**i] = i
 	 * 
-	 * alpha_to = 2 is the primitive element of GF( 2**mm )
+	 * alpha = 2 is the primitive element of GF( 2**mm )
 	 * 
 	 * @param generator_polynomial
 	 */
-	private void generate_gf( int[] generator_polynomial )
+	private static void generate_gf( int[] generator_polynomial )
 	{
 		int i;
 		int mask = 1;
 
-        alpha_to[ MM ] = 0;
+        ALPHA_TO[ MM ] = 0;
         
         for( i = 0; i < MM; i++ ) 
         {
-            alpha_to[ i ] = mask;
-            index_of[ alpha_to[ i ] ] = i;
+            ALPHA_TO[ i ] = mask;
+            INDEX_OF[ ALPHA_TO[ i ] ] = i;
             
             if( generator_polynomial[ i ] != 0 )
             {
-                alpha_to[ MM ] ^= mask;
+                ALPHA_TO[ MM ] ^= mask;
             }
             
             mask <<= 1;
         }
         
-        index_of[ alpha_to[ MM ] ] = MM;
+        INDEX_OF[ ALPHA_TO[ MM ] ] = MM;
         
         mask >>= 1;
             
         for ( i = MM + 1; i < NN; i++ ) 
         {
-            if( alpha_to[ i - 1 ] >= mask )
+            if( ALPHA_TO[ i - 1 ] >= mask )
             {
-                alpha_to[ i ] = alpha_to[ MM ] ^ ( ( alpha_to[ i - 1 ] ^ mask ) << 1 );
+                ALPHA_TO[ i ] = ALPHA_TO[ MM ] ^ ( ( ALPHA_TO[ i - 1 ] ^ mask ) << 1 );
             }
             else
             {
-                alpha_to[ i ] = alpha_to[ i - 1 ] << 1;
+                ALPHA_TO[ i ] = ALPHA_TO[ i - 1 ] << 1;
             }
             
-            index_of[ alpha_to[ i ] ] = i;
+            INDEX_OF[ ALPHA_TO[ i ] ] = i;
         }
         
-        index_of[ 0 ] = -1;
+        INDEX_OF[ 0 ] = -1;
+        
+        /* Repeat the table for index sums up to 2 * NN - 1 */
+        for( i = NN; i < 2 * NN; i++ )
+        {
+        	ALPHA_TO[ i ] = ALPHA_TO[ i - NN ];
+        }
+    }
+
+	/**
+	 * Decodes the codeword.
+	 * 
+	 * @param input - received codeword symbols in polynomial form, 
+	 * recd[i], i=0..(nn-1)
+	 * @param output - corrected codeword symbols in polynomial form.  If the
+	 * codeword cannot be corrected, the received codeword is output as is.
+	 * @return true if the errors are irrecoverable
+	 */
+    public boolean decode( final int[] input, int[] output )
+    {
+    	Workspace workspace = mWorkspace.get();
+    	
+    	System.arraycopy( input, 0, output, 0, NN );
+    	
+    	/* No non-zero syndromes => no errors: output received codeword */
+    	if( !calculateSyndromes( input, workspace.s ) )
+    	{
+    		return false;
+    	}
+    	
+    	int count = solve( workspace );
+    	
+    	if( count < 0 )
+    	{
+    		return true;
+    	}
+    	
+    	for( int i = 0; i < count; i++ )
+    	{
+    		output[ workspace.loc[ i ] ] ^= workspace.err[ i ];
+    	}
+    	
+    	return false;
     }
 
     /**
-     * Generates the polynomial for a TT-error correction code.
+     * Decodes a binary (BCH) codeword packed into a long where codeword 
+     * symbol i is held in bit i of the value.
      * 
-     * Length NN = ( 2 ** MM -1 ) Reed Solomon code from the product of 
-     * (X+alpha**i), i=1..2*tt 
+     * @return corrected codeword or IRRECOVERABLE
      */
-	private void gen_poly()
+    public long decodeBinary( long codeword )
     {
-        int i, j;
+    	Workspace workspace = mWorkspace.get();
+    	
+    	if( !calculateBinarySyndromes( codeword, workspace.s ) )
+    	{
+    		return codeword;
+    	}
+    	
+    	int count = solve( workspace );
+    	
+    	if( count < 0 )
+    	{
+    		return IRRECOVERABLE;
+    	}
+    	
+    	for( int i = 0; i < count; i++ )
+    	{
+    		/* Binary codes only have error values of 1 - anything else means 
+    		 * the solution is not a binary codeword */
+    		if( workspace.err[ i ] != 1 )
+    		{
+    			return IRRECOVERABLE;
+    		}
+    		
+    		codeword ^= ( 1l << workspace.loc[ i ] );
+    	}
+    	
+    	return codeword;
+    }
 
-        gg[ 0 ] = 2; /* primitive element alpha = 2  for GF(2**mm)  */
-        gg[ 1 ] = 1; /* g(x) = (X+alpha) initially */
-        for( i = 2; i <= NN - KK; i++ ) 
-        {
-            gg[ i ] = 1;
-            
-            for( j = i - 1; j > 0; j-- )
-            {
-                if( gg[ j ] != 0 )
-                {
-                    gg[ j ] = gg[ j - 1 ] ^ alpha_to[ ( index_of[ gg[ j ] ] + i ) % NN ];
-                }
-                else
-                {
-                    gg[ j ] = gg[ j - 1 ];
-                }
-            }
-            
-            /* gg[0] can never be zero */
-            gg[ 0 ] = alpha_to[ ( index_of[ gg[ 0 ] ] + i ) % NN ];
-        }
-        
-        /* convert gg[] to index form for quicker encoding */
-        for( i = 0; i <= NN - KK; i++ )
-        {
-            gg[ i ] = index_of[ gg[ i ] ];
-        }
+    /**
+     * Computes the 2*tt syndromes by substituting alpha**i into rec(X) and
+     * evaluating, storing the syndromes in index form in s[i], i=1..2tt 
+     * 
+     * @return true if any syndrome is non-zero
+     */
+    private boolean calculateSyndromes( int[] input, int[] s )
+    {
+    	for( int i = 1; i <= mSyndromeCount; i++ )
+    	{
+    		s[ i ] = 0;
+    	}
+    	
+    	for( int j = 0; j < NN; j++ )
+    	{
+    		if( input[ j ] != 0 )
+    		{
+    			/* recd[j] in index form, stepped by j for each syndrome */
+    			int exponent = INDEX_OF[ input[ j ] ];
+    			
+    			for( int i = 1; i <= mSyndromeCount; i++ )
+    			{
+    				exponent += j;
+    				
+    				if( exponent >= NN )
+    				{
+    					exponent -= NN;
+    				}
+    				
+    				s[ i ] ^= ALPHA_TO[ exponent ];
+    			}
+    		}
+    	}
+    	
+    	return toIndexForm( s );
     }
 
-	/**
-	 * Decodes 
-	 * @param input
-	 * @param output
-	 * @return
-	 */
-    /* assume we have received bits grouped into mm-bit symbols in recd[i],
-    i=0..(nn-1),  and recd[i] is polynomial form.
-    We first compute the 2*tt syndromes by substituting alpha**i into rec(X) and
-    evaluating, storing the syndromes in s[i], i=1..2tt (leave s[0] zero) .
-    Then we use the Berlekamp iteration to find the error location polynomial
-    elp[i].   If the degree of the elp is >tt, we cannot correct all the errors
-    and hence just put out the information symbols uncorrected. If the degree of
+    /**
+     * Computes the 2*tt syndromes of a binary codeword packed into a long.
+     * 
+     * @return true if any syndrome is non-zero
+     */
+    private boolean calculateBinarySyndromes( long codeword, int[] s )
+    {
+    	for( int i = 1; i <= mSyndromeCount; i++ )
+    	{
+    		s[ i ] = 0;
+    	}
+    	
+    	long remaining = codeword;
+    	
+    	while( remaining != 0 )
+    	{
+    		int j = Long.numberOfTrailingZeros( remaining );
+    		
+    		remaining &= remaining - 1;
+    		
+    		int exponent = 0;
+    		
+    		for( int i = 1; i <= mSyndromeCount; i++ )
+    		{
+    			exponent += j;
+    			
+    			if( exponent >= NN )
+    			{
+    				exponent -= NN;
+    			}
+    			
+    			s[ i ] ^= ALPHA_TO[ exponent ];
+    		}
+    	}
+    	
+    	return toIndexForm( s );
+    }
+
+    /**
+     * Converts the syndromes from polynomial form to index form 
+     * 
+     * @return true if any syndrome is non-zero
+     */
+    private boolean toIndexForm( int[] s )
+    {
+    	boolean syn_error = false;
+    	
+    	for( int i = 1; i <= mSyndromeCount; i++ )
+    	{
+    		if( s[ i ] != 0 )
+    		{
+    			syn_error = true;
+    		}
+    		
+    		s[ i ] = INDEX_OF[ s[ i ] ];
+    	}
+    	
+    	return syn_error;
+    }
+
+    /* Given the 2*tt syndromes (non-zero) in index form, we use the Berlekamp 
+    iteration to find the error location polynomial elp[i].   If the degree 
+    of the elp is >tt, we cannot correct all the errors.  If the degree of
     elp is <=tt, we substitute alpha**i , i=1..n into the elp to get the roots,
     hence the inverse roots, the error location numbers. If the number of errors
     located does not equal the degree of the elp, we have more than tt errors
     and cannot correct them.  Otherwise, we then solve for the error value at
-    the error location and correct the error.  The procedure is that found in
-    Lin and Costello. For the cases where the number of errors is known to be too
-    large to correct, the information symbols as received are output (the
-    advantage of systematic encoding is that hopefully some of the information
-    symbols will be okay and that if we are in luck, the errors are in the
-    parity part of the transmitted codeword).  Of course, these insoluble cases
-    can be returned as error flags to the calling routine if desired.   */
-    public boolean decode( final int[] input, int[] output ) //input, output
+    the error location.  The procedure is that found in Lin and Costello. */
+    
+    /**
+     * Solves for the error locations and values.
+     * 
+     * @param w - workspace containing the syndromes in index form
+     * @return number of errors with locations in w.loc[] and polynomial form
+     * error values in w.err[], or -1 if the errors are irrecoverable
+     */
+    private int solve( Workspace w )
     {
+    	int[] s = w.s;
+    	int[][] elp = w.elp;
+    	int[] d = w.d;
+    	int[] l = w.l;
+    	int[] u_lu = w.u_lu;
+    	int[] root = w.root;
+    	int[] loc = w.loc;
+    	int[] z = w.z;
+    	int[] reg = w.reg;
+    	int[] err = w.err;
+    	
     	int u, q;
-        int[][] elp = new int[ NN - KK + 2 ][ NN - KK ];
-        int[] d = new int[ NN - KK + 2 ]; 
-        int[] l = new int[ NN - KK + 2 ]; 
-        int[] u_lu = new int[ NN - KK + 2 ];
-        int[] s = new int[ NN - KK + 1 ];
-        int count = 0; 
-        boolean syn_error = false;
-        int[] root = new int[ TT ];
-        int[] loc = new int[ TT ];
-        int[] z = new int[ TT + 1 ];
-        int[] err = new int[ NN ];
-        int[] reg = new int[ TT + 1 ];
-
-        boolean irrecoverable_error = false;
-
-    	/* put recd[i] into index form (ie as powers of alpha) */
-        for( int i = 0; i < NN; i++ )
+    	
+        /* compute the error location polynomial via the Berlekamp iterative algorithm,
+         following the terminology of Lin and Costello :   d[u] is the 'mu'th
+         discrepancy, where u='mu'+1 and 'mu' (the Greek letter!) is the step number
+         ranging from -1 to 2*tt (see L&C),  l[u] is the
+         degree of the elp at that step, and u_l[u] is the difference between the
+         step number and the degree of the elp.
+         */
+    	
+        /* initialise table entries */
+        d[ 0 ] = 0; /* index form */
+        d[ 1 ] = s[ 1 ]; /* index form */
+        elp[ 0 ][ 0 ] = 0; /* index form */
+        elp[ 1 ][ 0 ] = 1; /* polynomial form */
+        
+        for( int i = 1; i < mSyndromeCount; i++ ) 
         {
-        	output[ i ] = index_of[ input[ i ] ]; 
+            elp[ 0 ][ i ] = -1; /* index form */
+            elp[ 1 ][ i ] = 0; /* polynomial form */
         }
         
-        /* first form the syndromes */
-        for( int i = 1; i <= NN - KK; i++ ) 
+        l[ 0 ] = 0;
+        l[ 1 ] = 0;
+        u_lu[ 0 ] = -1;
+        u_lu[ 1 ] = 0;
+        u = 0;
+
+        do 
         {
-            s[ i ] = 0;
+            u++;
             
-            for( int j = 0; j < NN; j++ )
+            if( d[ u ] == -1 ) 
             {
-                if( output[ j ] != -1 )
+                l[ u + 1 ] = l[ u ];
+                
+                for( int i = 0; i <= l[ u ]; i++ ) 
                 {
-                	/* recd[j] in index form */
-                	s[ i ] ^= alpha_to[ ( output[ j ] + i * j ) % NN ];
+                    elp[ u + 1 ][ i ] = elp[ u ][ i ];
+                    elp[ u ][ i ] = INDEX_OF[ elp[ u ][ i ] ];
                 }
-            }
-            
-            /* convert syndrome from polynomial form to index form  */
-            if( s[ i ] != 0 )
-            {
-            	/* set flag if non-zero syndrome => error */            	
-                syn_error = true; 
-            }
-            
-            s[ i ] = index_of[ s[ i ] ];
-        }
-        
-        if( syn_error ) /* if errors, try and correct */
-        {
-            /* compute the error location polynomial via the Berlekamp iterative algorithm,
-             following the terminology of Lin and Costello :   d[u] is the 'mu'th
-             discrepancy, where u='mu'+1 and 'mu' (the Greek letter!) is the step number
-             ranging from -1 to 2*tt (see L&C),  l[u] is the
-             degree of the elp at that step, and u_l[u] is the difference between the
-             step number and the degree of the elp.
-             */
-        	
-            /* initialise table entries */
-            d[ 0 ] = 0; /* index form */
-            d[ 1 ] = s[ 1 ]; /* index form */
-            elp[ 0 ][ 0 ] = 0; /* index form */
-            elp[ 1 ][ 0 ] = 1; /* polynomial form */
-            
-            for( int i = 1; i < NN - KK; i++ ) 
-            {
-                elp[ 0 ][ i ] = -1; /* index form */
-                elp[ 1 ][ i ] = 0; /* polynomial form */
-            }
-            
-            l[ 0 ] = 0;
-            l[ 1 ] = 0;
-            u_lu[ 0 ] = -1;
-            u_lu[ 1 ] = 0;
-            u = 0;
-
-            do 
+            } 
+            else
+            /* search for words with greatest u_lu[q] for which d[q]!=0 */
             {
-                u++;
+                q = u - 1;
                 
-                if( d[ u ] == -1 ) 
+                while( ( d[ q ] == -1 ) && ( q > 0 ) )
                 {
-                    l[ u + 1 ] = l[ u ];
-                    
-                    for( int i = 0; i <= l[ u ]; i++ ) 
-                    {
-                        elp[ u + 1 ][ i ] = elp[ u ][ i ];
-                        elp[ u ][ i ] = index_of[ elp[ u ][ i ] ];
-                    }
-                } 
-                else
-                /* search for words with greatest u_lu[q] for which d[q]!=0 */
+                    q--;
+                }
+                
+                /* have found first non-zero d[q]  */
+                if( q > 0 ) 
                 {
-                    q = u - 1;
-                    
-                    while( ( d[ q ] == -1 ) && ( q > 0 ) )
-                    {
-                        q--;
-                    }
-                    
-                    /* have found first non-zero d[q]  */
-                    if( q > 0 ) 
+                	int j = q;
+                	
+                    do 
                     {
-                    	int j = q;
-                    	
-                        do 
+                        j--;
+                        
+                        if( ( d[ j ] != -1 ) && ( u_lu[ q ] < u_lu[ j ] ) )
                         {
-                            j--;
-                            
-                            if( ( d[ j ] != -1 ) && ( u_lu[ q ] < u_lu[ j ] ) )
-                            {
-                                q = j;
-                            }
-                        } 
-                        while( j > 0 );
-                    };
+                            q = j;
+                        }
+                    } 
+                    while( j > 0 );
+                };
 
-                    /* have now found q such that d[u]!=0 and u_lu[q] is maximum */
-                    /* store degree of new elp polynomial */
-                    if( l[ u ] > l[ q ] + u - q )
-                    {
-                        l[ u + 1 ] = l[ u ];
-                    }
-                    else
-                    {
-                        l[ u + 1 ] = l[ q ] + u - q;
-                    }
+                /* have now found q such that d[u]!=0 and u_lu[q] is maximum */
+                /* store degree of new elp polynomial */
+                if( l[ u ] > l[ q ] + u - q )
+                {
+                    l[ u + 1 ] = l[ u ];
+                }
+                else
+                {
+                    l[ u + 1 ] = l[ q ] + u - q;
+                }
 
-                    /* form new elp(x) */
-                    for( int i = 0; i < NN - KK; i++ )
-                    {
-                        elp[ u + 1 ][ i ] = 0;
-                    }                    	
-                    
-                    for( int i = 0; i <= l[q]; i++ )
-                    {
-                        if( elp[ q ][ i ] != -1 )
-                        {
-                            elp[ u + 1 ][ i + u - q ] = 
-                        		alpha_to[ ( d[ u ] + NN - d[ q ]
-                                    + elp[ q ][ i ]) % NN ];
-                        }
-                    }
-                    for( int i = 0; i <= l[u]; i++ ) 
+                /* form new elp(x) */
+                for( int i = 0; i < mSyndromeCount; i++ )
+                {
+                    elp[ u + 1 ][ i ] = 0;
+                }                    	
+                
+                for( int i = 0; i <= l[q]; i++ )
+                {
+                    if( elp[ q ][ i ] != -1 )
                     {
-                        elp[ u + 1 ][ i ] ^= elp[ u ][ i ];
-                        elp[ u ][ i ] = index_of[ elp[ u ][ i ] ]; /*convert old elp value to index*/
+                        elp[ u + 1 ][ i + u - q ] = 
+                    		ALPHA_TO[ ( d[ u ] + NN - d[ q ] + elp[ q ][ i ] ) % NN ];
                     }
                 }
-                
-                u_lu[ u + 1 ] = u - l[ u + 1 ];
+                for( int i = 0; i <= l[u]; i++ ) 
+                {
+                    elp[ u + 1 ][ i ] ^= elp[ u ][ i ];
+                    elp[ u ][ i ] = INDEX_OF[ elp[ u ][ i ] ]; /*convert old elp value to index*/
+                }
+            }
+            
+            u_lu[ u + 1 ] = u - l[ u + 1 ];
 
-                /* form (u+1)th discrepancy */
-                if( u < NN - KK ) /* no discrepancy computed on last iteration */
+            /* form (u+1)th discrepancy */
+            if( u < mSyndromeCount ) /* no discrepancy computed on last iteration */
+            {
+                if ( s[ u + 1 ] != -1 )
                 {
-                    if ( s[ u + 1 ] != -1 )
-                    {
-                        d[ u + 1 ] = alpha_to[ s[ u + 1 ] ];
-                    }
-                    else
-                    {
-                        d[ u + 1 ] = 0;
-                    }
-                    for( int i = 1; i <= l[ u + 1 ]; i++ )
+                    d[ u + 1 ] = ALPHA_TO[ s[ u + 1 ] ];
+                }
+                else
+                {
+                    d[ u + 1 ] = 0;
+                }
+                for( int i = 1; i <= l[ u + 1 ]; i++ )
+                {
+                    if( ( s[ u + 1 - i ] != -1 ) && ( elp[ u + 1 ][ i]  != 0 ) )
                     {
-                        if( ( s[ u + 1 - i ] != -1 ) && ( elp[ u + 1 ][ i]  != 0 ) )
-                        {
-                            d[ u + 1 ] ^= alpha_to[ ( s[ u + 1 - i ]
-                                    + index_of[ elp[ u + 1 ][ i ] ] ) % NN ];
-                        }
+                        d[ u + 1 ] ^= ALPHA_TO[ s[ u + 1 - i ] + INDEX_OF[ elp[ u + 1 ][ i ] ] ];
                     }
-                    
-                    d[ u + 1 ] = index_of[ d[ u + 1 ] ]; /* put d[u+1] into index form */
                 }
-            } 
-            while( ( u < NN - KK ) && ( l[ u + 1 ] <= TT) );
+                
+                d[ u + 1 ] = INDEX_OF[ d[ u + 1 ] ]; /* put d[u+1] into index form */
+            }
+        } 
+        while( ( u < mSyndromeCount ) && ( l[ u + 1 ] <= TT) );
 
-            u++;
+        u++;
+        
+        /* elp has degree >tt hence cannot solve */
+        if( l[ u ] > TT )
+        {
+        	return -1;
+        }
+
+        /* put elp into index form */
+    	for( int i = 0; i <= l[u]; i++ )
+    	{
+        	elp[ u ][ i ] = INDEX_OF[ elp[ u ][ i ] ];
+    	}
+
+        /* find roots of the error location polynomial (Chien search).  Each
+         * register holds alpha**(i*j) times the coefficient, stepped by alpha**j
+         * for each trial root.  A polynomial of degree l[u] has at most l[u] 
+         * roots, so the search stops once they are all found. */
+    	for( int i = 1; i <= l[u]; i++ )
+    	{
+            reg[ i ] = elp[ u ][ i ];
+    	}
+    	
+        int count = 0;
+        
+        for( int i = 1; i <= NN && count < l[ u ]; i++ ) 
+        {
+            q = 1;
             
-            if( l[ u ] <= TT ) /* can correct error */
+            for( int j = 1; j <= l[u]; j++ )
             {
-                /* put elp into index form */
-            	for( int i = 0; i <= l[u]; i++ )
-            	{
-                	elp[ u ][ i ] = index_of[ elp[ u ][ i ] ];
-            	}
-
-                /* find roots of the error location polynomial */
-            	for( int i = 1; i <= l[u]; i++ )
-            	{
-                    reg[ i ] = elp[ u ][ i ];
-            	}
-            	
-                count = 0;
-                
-                for( int i = 1; i <= NN; i++ ) 
+                if( reg[ j ] != -1 ) 
                 {
-                    q = 1;
+                    reg[ j ] += j;
                     
-                    for( int j = 1; j <= l[u]; j++ )
+                    if( reg[ j ] >= NN )
                     {
-                        if( reg[ j ] != -1 ) 
-                        {
-                            reg[ j ] = ( reg[ j ] + j ) % NN;
-                            q ^= alpha_to[ reg[ j ] ];
-                        };
+                    	reg[ j ] -= NN;
                     }
                     
-                    if( q == 0 ) /* store root and error location number indices */
-                    {
-                        root[ count ] = i;
-                        loc[ count ] = NN - i;
-                        count++;
-                    };
+                    q ^= ALPHA_TO[ reg[ j ] ];
                 };
+            }
+            
+            if( q == 0 ) /* store root and error location number indices */
+            {
+                root[ count ] = i;
+                loc[ count ] = NN - i;
+                count++;
+            };
+        };
 
-                if( count == l[ u ] ) /* no. roots = degree of elp hence <= tt errors */
-                {
-                    /* form polynomial z(x) */
-                	for( int i = 1; i <= l[ u ]; i++ ) /* Z[0] = 1 always - do not need */
-                    {
-                        if( ( s[ i ] != -1 ) && ( elp[ u ][ i ] != -1 ) )
-                        {
-                            z[ i ] = alpha_to[ s[ i ] ] ^ alpha_to[ elp[ u ][ i ] ];
-                        }
-                        else if( ( s[ i ] != -1 ) && ( elp[ u ][ i ] == -1 ) )
-                        {
-                            z[ i ] = alpha_to[ s[ i ] ];
-                        }
-                        else if( ( s[ i ] == -1 ) && ( elp[ u ][ i ] != -1 ) )
-                        {
-                            z[ i ] = alpha_to[ elp[ u ][ i ] ];
-                        }
-                        else
-                        {
-                            z[ i ] = 0;
-                        }
-                        
-                        for( int j = 1; j < i; j++ )
-                        {
-                            if( ( s[ j ] != -1 ) && ( elp[ u ][ i - j ] != -1 ) )
-                            {
-                                z[ i ] ^= alpha_to[ ( elp[ u ][ i - j ] + s[ j ] ) % NN ];
-                            }
-                        }
-                        
-                        z[ i ] = index_of[ z[ i ] ]; /* put into index form */
-                    };
-
-                    /* evaluate errors at locations given by error location numbers loc[i] */
-                    for( int i = 0; i < NN; i++ ) 
-                    {
-                        err[ i ] = 0;
-                        
-                        if( output[ i ] != -1 ) /* convert recd[] to polynomial form */
-                        {
-                            output[ i ] = alpha_to[ output[ i ] ];
-                        }
-                        else
-                        {
-                            output[ i ] = 0;
-                        }
-                    }
-                    
-                    for( int i = 0; i < l[ u ]; i++ ) /* compute numerator of error term first */
-                    {
-                        err[ loc[ i ] ] = 1; /* accounts for z[0] */
-                        
-                        for( int j = 1; j <= l[ u ]; j++ )
-                        {
-                            if( z[ j ] != -1 )
-                            {
-                                err[ loc[ i ] ] ^= alpha_to[ ( z[ j ] + j * root[ i ] ) % NN ];
-                            }
-                        }
-                        
-                        if( err[ loc[ i ] ] != 0 ) 
-                        {
-                            err[ loc[ i ] ] = index_of[ err[ loc[ i ] ] ];
-                            
-                            q = 0; /* form denominator of error term */
-                            
-                            for (int j = 0; j < l[u]; j++)
-                            {
-                                if (j != i)
-                                {
-                                    q += index_of[1 ^ alpha_to[(loc[j] + root[i]) % NN]];
-                                }
-                            }
-                            
-                            q = q % NN;
-                            err[loc[i]] = alpha_to[(err[loc[i]] - q + NN) % NN];
-                            output[loc[i]] ^= err[loc[i]]; /*recd[i] must be in polynomial form */
-                        }
-                    }
-                } 
-                else 
-                {
-                    /* no. roots != degree of elp => >tt errors and cannot solve */
-                    irrecoverable_error = true;
-                }
-
-            } 
-            else 
+        /* no. roots != degree of elp => >tt errors and cannot solve */
+        if( count != l[ u ] )
+        {
+        	return -1;
+        }
+        
+        /* form polynomial z(x) */
+    	for( int i = 1; i <= l[ u ]; i++ ) /* Z[0] = 1 always - do not need */
+        {
+            if( ( s[ i ] != -1 ) && ( elp[ u ][ i ] != -1 ) )
             {
-                /* elp has degree >tt hence cannot solve */
-                irrecoverable_error = true;
+                z[ i ] = ALPHA_TO[ s[ i ] ] ^ ALPHA_TO[ elp[ u ][ i ] ];
             }
-        } 
-        else 
-        {
-            /* no non-zero syndromes => no errors: output received codeword */
-        	for (int i = 0; i < NN; i++)
-        	{
-                if (output[i] != -1) /* convert recd[] to polynomial form */
-                {
-                    output[i] = alpha_to[output[i]];
-                }
-                else
+            else if( ( s[ i ] != -1 ) && ( elp[ u ][ i ] == -1 ) )
+            {
+                z[ i ] = ALPHA_TO[ s[ i ] ];
+            }
+            else if( ( s[ i ] == -1 ) && ( elp[ u ][ i ] != -1 ) )
+            {
+                z[ i ] = ALPHA_TO[ elp[ u ][ i ] ];
+            }
+            else
+            {
+                z[ i ] = 0;
+            }
+            
+            for( int j = 1; j < i; j++ )
+            {
+                if( ( s[ j ] != -1 ) && ( elp[ u ][ i - j ] != -1 ) )
                 {
-                    output[i] = 0;
+                    z[ i ] ^= ALPHA_TO[ elp[ u ][ i - j ] + s[ j ] ];
                 }
-        	}
-        }
+            }
+            
+            z[ i ] = INDEX_OF[ z[ i ] ]; /* put into index form */
+        };
 
-        if( irrecoverable_error ) 
+        /* evaluate errors at locations given by error location numbers loc[i] */
+        for( int i = 0; i < l[ u ]; i++ ) /* compute numerator of error term first */
         {
-        	for (int i = 0; i < NN; i++) /* could return error flag if desired */
-        	{
-                if (output[i] != -1) /* convert recd[] to polynomial form */
+            err[ i ] = 1; /* accounts for z[0] */
+            
+            for( int j = 1; j <= l[ u ]; j++ )
+            {
+                if( z[ j ] != -1 )
                 {
-                    output[i] = alpha_to[output[i]];
+                    err[ i ] ^= ALPHA_TO[ ( z[ j ] + j * root[ i ] ) % NN ];
                 }
-                else
+            }
+            
+            if( err[ i ] != 0 ) 
+            {
+                err[ i ] = INDEX_OF[ err[ i ] ];
+                
+                q = 0; /* form denominator of error term */
+                
+                for (int j = 0; j < l[u]; j++)
                 {
-                    output[i] = 0; /* just output received codeword as is */
+                    if (j != i)
+                    {
+                        q += INDEX_OF[ 1 ^ ALPHA_TO[ loc[ j ] + root[ i ] ] ];
+                    }
                 }
-        	}
+                
+                q = q % NN;
+                err[ i ] = ALPHA_TO[ err[ i ] - q + NN ];
+            }
         }
-
-        return irrecoverable_error;
+        
+        return count;
+    }
+    
+    /**
+     * Reusable per-thread decoder work arrays
+     */
+    private static class Workspace
+    {
+    	int[] s;
+    	int[][] elp;
+    	int[] d;
+    	int[] l;
+    	int[] u_lu;
+    	int[] root;
+    	int[] loc;
+    	int[] z;
+    	int[] reg;
+    	int[] err;
+    	
+    	public Workspace( int tt )
+    	{
+    		int syndromes = 2 * tt;
+    		
+    		s = new int[ syndromes + 1 ];
+    		elp = new int[ syndromes + 2 ][ syndromes ];
+    		d = new int[ syndromes + 2 ];
+    		l = new int[ syndromes + 2 ];
+    		u_lu = new int[ syndromes + 2 ];
+    		root = new int[ tt ];
+    		loc = new int[ tt ];
+    		z = new int[ tt + 1 ];
+    		reg = new int[ tt + 1 ];
+    		err = new int[ tt ];
+    	}
     }
 }
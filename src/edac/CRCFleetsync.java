@@ -102,6 +102,8 @@ public class CRCFleetsync
 		0x0001  //Bit 62
 	};
 
+	private static final CRCTable sTABLE = CRCUtil.getTable( sCHECKSUMS );
+
 	/**
 	 * Determines if message bits 0 - 47 pass the Fleetsync CRC checksum 
 	 * contained in bits 48 - 63, using a lookup table of CRC checksum values
@@ -116,11 +118,10 @@ public class CRCFleetsync
 		//Check even parity
 		if( msg.cardinality() % 2 == 0 )
 		{
-			//Iterate bits that are set and XOR running checksum with lookup value
-			for (int i = msg.nextSetBit( 0 ); i >= 0 && i < 48; i = msg.nextSetBit( i+1 ) ) 
-			{
-				calculated ^= sCHECKSUMS[ i ];
-			}
+			long[] words = msg.toLongArray();
+
+			//XOR running checksum with lookup values a byte at a time
+			calculated ^= (int)sTABLE.getChecksum( words, 0, 0, 48 );
 			
 			if( calculated == getChecksum( msg ) )
 			{
@@ -175,12 +176,9 @@ public class CRCFleetsync
 		//Remove the initial fill value (1)
 		checksum ^= 1;
 		
-		//Iterate set message bits, removing their respective checksum value
-    	//from the transmitted checksum, to arrive at the remainder
-		for (int i = msg.nextSetBit( 0 ); i >= 0 && i < 48; i = msg.nextSetBit( i+1 ) ) 
-		{
-			checksum ^= sCHECKSUMS[ i ];
-		}
+		//Remove the checksum values of the set message bits from the 
+    	//transmitted checksum, to arrive at the remainder
+		checksum ^= (int)sTABLE.getChecksum( msg, 0, 48 );
 		
 		//If at this point the checksum is 0, then we have a parity bit error
 		if( checksum == 0 )
@@ -191,14 +189,13 @@ public class CRCFleetsync
 		//Otherwise, try to lookup the syndrome for a single bit error
 		else
 		{
-			for( int x = 0; x < 63; x++ )
+			int position = sTABLE.getBitError( checksum );
+
+			if( position >= 0 && position < 63 )
 			{
-				if( checksum == sCHECKSUMS[ x ] )
-				{
-					//return this bit position
-					retVal = new int[ 1 ];
-					retVal[ 0 ] = x;
-				}
+				//return this bit position
+				retVal = new int[ 1 ];
+				retVal[ 0 ] = position;
 			}
 		}
 
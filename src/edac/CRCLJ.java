@@ -104,23 +104,44 @@ public class CRCLJ
 		0x0001  //CRC 15
 	};
 
+	private static final CRCTable TABLE = CRCUtil.getTable( CHECKSUMS );
+
+	/**
+	 * Two-bit error syndromes mapped to the bit error pair, packed as
+	 * ( first << 8 ) | second, in the same search order as a pairwise scan
+	 */
+	private static final SyndromeIndex TWO_BIT_ERRORS = getTwoBitErrors();
+
+	private static SyndromeIndex getTwoBitErrors()
+	{
+		SyndromeIndex index = new SyndromeIndex( 48 * 47 );
+		
+		for( int x = 0; x < 48; x++ )
+		{
+			for( int y = 0; y < 48; y++ )
+			{
+				if( x != y )
+				{
+					index.add( CHECKSUMS[ x ] ^ CHECKSUMS[ y ], ( x << 8 ) | y );
+				}
+			}
+		}
+		
+		return index;
+	}
+
 	/**
 	 * Determines if FUNCTION AND ADDRESS bits pass the LJ CRC checksum 
 	 * using a lookup table of CRC checksum values derived from the CRC-16 value
 	 */
 	public static CRC checkAndCorrect( BinaryMessage message )
 	{
-		int calculated = 0; //Starting value
+		long[] words = message.toLongArray();
 
-		/* Iterate the set bits and XOR running checksum with lookup value */
-		for (int i = message.nextSetBit( MESSAGE_START ); 
-				 i >= MESSAGE_START && i < CRC_START; 
-				 i = message.nextSetBit( i+1 ) ) 
-		{
-			calculated ^= CHECKSUMS[ i - MESSAGE_START ];
-		}
+		int calculated = (int)TABLE.getChecksum( words, MESSAGE_START, 0, 
+				CRC_START - MESSAGE_START );
 
-		int checksum = getChecksum( message );
+		int checksum = (int)CRCUtil.getValue( words, CRC_START, 16 );
 		
 		if( calculated == checksum )
 		{
@@ -168,34 +189,28 @@ public class CRCLJ
     public static int[] findBitErrors( int checksumError )
     {
     	/* One bit errors */
-		for( int x = 0; x < 48; x++ )
+		int position = TABLE.getBitError( checksumError );
+
+		if( position >= 0 && position < 48 )
 		{
-			if( CHECKSUMS[ x ] == checksumError )
-			{
-				int[] errors = new int[ 1 ];
+			int[] errors = new int[ 1 ];
 
-				errors[ 0 ] = x;
-				
-				return errors;
-			}
+			errors[ 0 ] = position;
+			
+			return errors;
 		}
 
     	/* Two bit errors */
-		for( int x = 0; x < 48; x++ )
+		int pair = TWO_BIT_ERRORS.get( checksumError );
+		
+		if( pair != SyndromeIndex.NO_ENTRY )
 		{
-			for( int y = 0; y < 48; y++ )
-			{
-				if( x != y && 
-					( CHECKSUMS[ x ] ^ CHECKSUMS[ y ] ) == checksumError )
-				{
-					int[] errors = new int[ 2 ];
+			int[] errors = new int[ 2 ];
 
-					errors[ 0 ] = x;
-					errors[ 1 ] = y;
-					
-					return errors;
-				}
-			}
+			errors[ 0 ] = pair >> 8;
+			errors[ 1 ] = pair & 0xFF;
+			
+			return errors;
 		}
 		
 		return null;
@@ -63,6 +63,8 @@ public class CRCLTR
 		0x43  //Free 0 
 	};
 
+	private static final CRCTable sTABLE = CRCUtil.getTable( sCHECKSUMS );
+
 	/**
 	 * Determines if message bits 10 - 34 pass the LTR CRC checksum 
 	 * contained in bits 35 - 41, using a lookup table of CRC checksum values
@@ -106,15 +108,8 @@ public class CRCLTR
 
 	public static int getCalculatedChecksum( BitSet msg  )
 	{
-		int calculated = 0;
-		
-		//Iterate bits that are set and XOR running checksum with lookup value
-		for (int i = msg.nextSetBit( 9 ); i >= 9 && i < 33; i = msg.nextSetBit( i+1 ) ) 
-		{
-			calculated ^= sCHECKSUMS[ i - 9 ];
-		}
-		
-		return calculated;
+		//XOR running checksum with lookup values a byte at a time
+		return (int)sTABLE.getChecksum( msg, 9, 24 );
 	}
 	
 	/**
@@ -153,12 +148,9 @@ public class CRCLTR
 		//Remove the initial fill value (1)
 		checksum ^= 1;
 		
-		//Iterate set message bits, removing their respective checksum value
-    	//from the transmitted checksum, to arrive at the remainder
-		for (int i = msg.nextSetBit( 0 ); i >= 0 && i < 47; i = msg.nextSetBit( i+1 ) ) 
-		{
-			checksum ^= sCHECKSUMS[ i ];
-		}
+		//Remove the checksum values of the set message bits from the 
+    	//transmitted checksum, to arrive at the remainder
+		checksum ^= (int)sTABLE.getChecksum( msg, 0, sTABLE.size() );
 		
 		//If at this point the checksum is 0, then the errant bit is the parity
 		//bit
@@ -169,14 +161,13 @@ public class CRCLTR
 		//Otherwise, try to lookup the syndrome for a single bit error
 		else
 		{
-			for( int x = 0; x < 47; x++ )
+			int position = sTABLE.getBitError( checksum );
+
+			if( position >= 0 )
 			{
-				if( checksum == sCHECKSUMS[ x ] )
-				{
-					//return this bit position
-					retVal = new int[ 1 ];
-					retVal[ 0 ] = x;
-				}
+				//return this bit position
+				retVal = new int[ 1 ];
+				retVal[ 0 ] = position;
 			}
 		}
 
@@ -217,6 +217,16 @@ public class CRCP25
 	    0x01000000l, 0x02000000l, 0x04000000l, 0x08000000l, 0x10000000l, 
 	    0x20000000l, 0x40000000l, 0x80000000l 
 	};
+
+	/**
+	 * Table driven CRC engines for byte-wise checksum calculation and single
+	 * lookup mapping of checksum errors to bit error positions
+	 */
+	private static final CRCTable CCITT_80_TABLE = CRCUtil.getTable( CCITT_80_CHECKSUMS );
+	private static final CRCTable CRC9_TABLE = CRCUtil.getTable( CRC9_CHECKSUMS );
+	private static final CRCTable PDU1_TABLE = CRCUtil.getTable( PDU1_CHECKSUMS );
+	private static final CRCTable PDU2_TABLE = CRCUtil.getTable( PDU2_CHECKSUMS );
+	private static final CRCTable PDU3_TABLE = CRCUtil.getTable( PDU3_CHECKSUMS );
 	
 	/**
 	 * Performs error detection and single-bit error correction against the
@@ -224,7 +234,7 @@ public class CRCP25
 	 */
 	public static BinaryMessage correctPDU1( BinaryMessage message )
 	{
-		return correctPDU( message, PDU1_CHECKSUMS, 224 );
+		return correctPDU( message, PDU1_TABLE, 224 );
 	}
 
 	/**
@@ -233,7 +243,7 @@ public class CRCP25
 	 */
 	public static BinaryMessage correctPDU2( BinaryMessage message )
 	{
-		return correctPDU( message, PDU2_CHECKSUMS, 320 );
+		return correctPDU( message, PDU2_TABLE, 320 );
 	}
 
 	/**
@@ -242,24 +252,19 @@ public class CRCP25
 	 */
 	public static BinaryMessage correctPDU3( BinaryMessage message )
 	{
-		return correctPDU( message, PDU3_CHECKSUMS, 416 );
+		return correctPDU( message, PDU3_TABLE, 416 );
 	}
 
-	public static BinaryMessage correctPDU( BinaryMessage message, long[] checksums, int crcStart )
+	public static BinaryMessage correctPDU( BinaryMessage message, CRCTable table, int crcStart )
 	{
-		long calculated = 0; //Starting value
-		
 		int messageStart = 160;
 
-		/* Iterate the set bits and XOR running checksum with lookup value */
-		for (int i = message.nextSetBit( messageStart ); 
-				 i >= messageStart && i < crcStart; 
-				 i = message.nextSetBit( i+1 ) ) 
-		{
-			calculated ^= checksums[ i - messageStart ];
-		}
+		long[] words = message.toLongArray();
+
+		long calculated = table.getChecksum( words, messageStart, 0, 
+				crcStart - messageStart );
 		
-		long checksum = getLongChecksum( message, crcStart, 32 );
+		long checksum = CRCUtil.getValue( words, crcStart, 32 );
 
 		long error = calculated ^ checksum;
 		
@@ -271,7 +276,7 @@ public class CRCP25
 		}
 		else
 		{
-			int errorLocation = getBitError( error, checksums );
+			int errorLocation = table.getBitError( error );
 			
 			if( errorLocation >= 0 )
 			{
@@ -296,17 +301,12 @@ public class CRCP25
 												int messageStart,
 												int crcStart )
 	{
-		int calculated = 0; //Starting value
+		long[] words = message.toLongArray();
 
-		/* Iterate the set bits and XOR running checksum with lookup value */
-		for (int i = message.nextSetBit( messageStart ); 
-				 i >= messageStart && i < crcStart; 
-				 i = message.nextSetBit( i+1 ) ) 
-		{
-			calculated ^= CCITT_80_CHECKSUMS[ i - messageStart ];
-		}
+		int calculated = (int)CCITT_80_TABLE.getChecksum( words, messageStart, 
+				0, crcStart - messageStart );
 		
-		int checksum = getIntChecksum( message, crcStart, 16 );
+		int checksum = (int)CRCUtil.getValue( words, crcStart, 16 );
 
 		int residual = calculated ^ checksum;
 		
@@ -318,7 +318,7 @@ public class CRCP25
 		}
 		else
 		{
-			int errorLocation = getBitError( residual, CCITT_80_CHECKSUMS );
+			int errorLocation = CCITT_80_TABLE.getBitError( residual );
 			
 			if( errorLocation >= 0 )
 			{
@@ -344,26 +344,13 @@ public class CRCP25
 	 */
 	public static CRC checkCRC9( BinaryMessage message, int messageStart )
 	{
-		int calculated = 0x0; //Initial fill of all ones
+		long[] words = message.toLongArray();
 
-		/* Iterate the set bits and XOR running checksum with lookup value */
-		for (int i = message.nextSetBit( messageStart ); 
-				 i >= messageStart && i < messageStart + 144; 
-				 i = message.nextSetBit( i+1 ) ) 
-		{
-			/* message bits before the CRC */
-			if( i < ( messageStart + 7 ) )
-			{
-				calculated ^= CRC9_CHECKSUMS[ i - messageStart ];
-			}
-			/* message bits after the CRC */
-			else if( i > ( messageStart + 15 ) )
-			{
-				calculated ^= CRC9_CHECKSUMS[ i - messageStart - 9 ];
-			}
-		}
+		/* Message bits before and after the CRC field */
+		int calculated = (int)( CRC9_TABLE.getChecksum( words, messageStart, 0, 7 ) ^
+			CRC9_TABLE.getChecksum( words, messageStart + 16, 7, 128 ) );
 		
-		int checksum = message.getInt( messageStart + 7, messageStart + 15 );
+		int checksum = (int)CRCUtil.getValue( words, messageStart + 7, 9 );
 
 		int residual = calculated ^ checksum;
 		
@@ -410,7 +397,7 @@ public class CRCP25
     public static long getLongChecksum( BinaryMessage message, 
     				int crcStart, int crcLength )
     {
-    	return message.getLong( crcStart, crcStart + crcLength - 1 );
+    	return CRCUtil.getValue( message.toLongArray(), crcStart, crcLength );
     }
 
 	/**
@@ -419,7 +406,7 @@ public class CRCP25
     public static int getIntChecksum( BinaryMessage message, 
     				int crcStart, int crcLength )
     {
-    	return message.getInt( crcStart, crcStart + crcLength - 1 );
+    	return (int)CRCUtil.getValue( message.toLongArray(), crcStart, crcLength );
     }
 
     /**
@@ -92,6 +92,8 @@ public class CRCPassport
 		(byte)0x13 //FREE 0
 	};
 
+	private static final CRCTable sTABLE = CRCUtil.getTable( sCHECKSUMS );
+
 	/**
 	 * Determines if message bits 9 - 59 pass the CRC checksum 
 	 * contained in bits 60 - 68, using a lookup table of CRC checksum values
@@ -101,16 +103,9 @@ public class CRCPassport
 	{
 		CRC crc = CRC.UNKNOWN;
 		
-		byte calculated = 0x0; //Starting value for an OSW
-
-        //Iterate bits that are set and XOR running checksum with lookup value
-        for (int i = msg.nextSetBit( 9 ); i >= 9 && i <= 59; i = msg.nextSetBit( i+1 ) ) 
-		{
-			calculated ^= sCHECKSUMS[ i - 9 ];
-		}
-
-		//Apply the message checksum to derive the residual
-		calculated ^= getChecksum( msg );
+		//Calculated checksum (starting value 0 for an OSW) with the message
+		//checksum applied to derive the residual
+		byte calculated = getResidual( msg );
 		
 		switch( (byte)calculated )
 		{
@@ -126,17 +121,14 @@ public class CRCPassport
 	
     public static byte getResidual( BitSet msg )
     {
-        byte calculated = 0x0; //Initial fill of zero
+        long[] words = msg.toLongArray();
 
-        //Iterate bits that are set and XOR running checksum with lookup value
-        for (int i = msg.nextSetBit( 9 ); i >= 9 && i <= 59; i = msg.nextSetBit( i+1 ) ) 
-        {
-            calculated ^= sCHECKSUMS[ i - 9 ];
-        }
-        
-        calculated ^= getChecksum( msg );
+        //Initial fill of zero, XOR running checksum with lookup values a byte
+        //at a time and then apply the message checksum
+        long calculated = sTABLE.getChecksum( words, 9, 0, 51 ) ^ 
+        		CRCUtil.getValue( words, 60, 8 );
         
-        return calculated;
+        return (byte)calculated;
     }
     
 	public static byte[] getChecks()
@@ -0,0 +1,185 @@
+/*******************************************************************************
+ *     SDR Trunk
+ *     Copyright (C) 2014 Dennis Sheirer
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package edac;
+
+import java.util.BitSet;
+
+/**
+ * Table driven CRC engine built from a per-bit checksum lookup table (as
+ * produced by CRCUtil.generate()).
+ *
+ * The per-bit checksums are folded into 256-entry tables for each 8-bit chunk
+ * of the message so that the calculated checksum is produced a byte at a time
+ * from the packed message words instead of one XOR per set message bit.
+ *
+ * Each checksum value is also indexed in a SyndromeIndex so that a checksum 
+ * error (syndrome) can be mapped to the errant bit position with a single 
+ * lookup instead of a linear scan of the checksum array.
+ *
+ * Use CRCUtil.getTable() to create instances.
+ */
+public class CRCTable
+{
+	private long[] mChecksums;
+	private long[][] mByteTables;
+
+	private SyndromeIndex mSyndromeIndex;
+
+	/**
+	 * Constructs a CRC table
+	 *
+	 * @param checksums - per-bit checksum values where the array index is the
+	 * bit position relative to the start of the message
+	 */
+	public CRCTable( long[] checksums )
+	{
+		mChecksums = checksums;
+
+		createByteTables();
+		mSyndromeIndex = SyndromeIndex.create( checksums );
+	}
+
+	/**
+	 * Number of bit positions (message and check bits) in this table
+	 */
+	public int size()
+	{
+		return mChecksums.length;
+	}
+
+	/**
+	 * Per-bit checksum value for the bit position
+	 */
+	public long getChecksum( int position )
+	{
+		return mChecksums[ position ];
+	}
+
+	/**
+	 * Folds the per-bit checksums into a 256-entry table for each 8-bit chunk
+	 * of table positions.  Chunk values are in message bit order with the
+	 * first message bit of the chunk in the least significant bit, matching
+	 * the BitSet packed word format.
+	 */
+	private void createByteTables()
+	{
+		int chunks = ( mChecksums.length + 7 ) / 8;
+
+		mByteTables = new long[ chunks ][ 256 ];
+
+		for( int chunk = 0; chunk < chunks; chunk++ )
+		{
+			long[] table = mByteTables[ chunk ];
+
+			for( int value = 1; value < 256; value++ )
+			{
+				/* Each value is the previous value (lowest set bit cleared)
+				 * plus the checksum for the lowest set bit */
+				int bit = Integer.numberOfTrailingZeros( value );
+				int position = chunk * 8 + bit;
+
+				long checksum = position < mChecksums.length ?
+						mChecksums[ position ] : 0;
+
+				table[ value ] = table[ value & ( value - 1 ) ] ^ checksum;
+			}
+		}
+	}
+
+	/**
+	 * Identifies the single bit error position that matches the checksum
+	 * error value.
+	 *
+	 * @return bit position relative to the start of the message or -1 if the
+	 * syndrome does not match any single bit error
+	 */
+	public int getBitError( long syndrome )
+	{
+		return mSyndromeIndex.get( syndrome );
+	}
+
+	/**
+	 * Calculates the checksum for the message bits starting at messageStart
+	 * for the specified length.  The first message bit corresponds to table
+	 * position 0.
+	 */
+	public long getChecksum( BitSet message, int messageStart, int length )
+	{
+		return getChecksum( message.toLongArray(), messageStart, 0, length );
+	}
+
+	/**
+	 * Calculates the checksum for a range of message bits using the packed
+	 * (BitSet.toLongArray() format) message words.
+	 *
+	 * @param words - packed message words
+	 * @param messageStart - bit index of the first message bit to process
+	 * @param tablePosition - checksum table position of the first message bit
+	 * @param length - number of message bits to process
+	 *
+	 * @return XOR of the checksum values for each set message bit
+	 */
+	public long getChecksum( long[] words, int messageStart, int tablePosition,
+			int length )
+	{
+		long checksum = 0;
+
+		int position = tablePosition;
+		int end = tablePosition + length;
+		int bit = messageStart;
+
+		while( position < end )
+		{
+			int shift = position & 7;
+			int count = Math.min( 8 - shift, end - position );
+
+			int value = getBits( words, bit, count ) << shift;
+
+			checksum ^= mByteTables[ position >> 3 ][ value ];
+
+			position += count;
+			bit += count;
+		}
+
+		return checksum;
+	}
+
+	/**
+	 * Extracts up to 8 bits from the packed words starting at the bit index,
+	 * with the first bit in the least significant bit of the returned value.
+	 */
+	private static int getBits( long[] words, int bit, int count )
+	{
+		int index = bit >>> 6;
+		int offset = bit & 63;
+
+		if( index >= words.length )
+		{
+			return 0;
+		}
+
+		long value = words[ index ] >>> offset;
+
+		if( offset + count > 64 && index + 1 < words.length )
+		{
+			value |= words[ index + 1 ] << ( 64 - offset );
+		}
+
+		return (int)( value & ( ( 1 << count ) - 1 ) );
+	}
+}
@@ -102,6 +102,131 @@ public class CRCUtil
 		}
 	}
 	
+	/**
+	 * Creates a table driven CRC engine from a per-bit checksum table to
+	 * calculate checksums a byte at a time and to map checksum errors to bit
+	 * error positions with a single lookup.
+	 */
+	public static CRCTable getTable( long[] checksums )
+	{
+		return new CRCTable( checksums );
+	}
+
+	/**
+	 * Creates a table driven CRC engine from a per-bit checksum table
+	 */
+	public static CRCTable getTable( int[] checksums )
+	{
+		long[] values = new long[ checksums.length ];
+
+		for( int x = 0; x < checksums.length; x++ )
+		{
+			values[ x ] = checksums[ x ];
+		}
+
+		return new CRCTable( values );
+	}
+
+	/**
+	 * Creates a table driven CRC engine from a per-bit checksum table.  Values
+	 * are treated as unsigned 16-bit checksums.
+	 */
+	public static CRCTable getTable( short[] checksums )
+	{
+		long[] values = new long[ checksums.length ];
+
+		for( int x = 0; x < checksums.length; x++ )
+		{
+			values[ x ] = checksums[ x ] & 0xFFFF;
+		}
+
+		return new CRCTable( values );
+	}
+
+	/**
+	 * Creates a table driven CRC engine from a per-bit checksum table.  Values
+	 * are treated as unsigned 8-bit checksums.
+	 */
+	public static CRCTable getTable( byte[] checksums )
+	{
+		long[] values = new long[ checksums.length ];
+
+		for( int x = 0; x < checksums.length; x++ )
+		{
+			values[ x ] = checksums[ x ] & 0xFF;
+		}
+
+		return new CRCTable( values );
+	}
+
+	/**
+	 * Generates a table of calculated checksums for every possible message
+	 * value of a short message, so that a checksum can be calculated with a 
+	 * single lookup of the packed message value.
+	 * 
+	 * @param checksums - per-bit checksum values where index 0 is the message
+	 * MSB
+	 * @param messageSize - message length in bits (table size is 2^size)
+	 * @return table of checksums indexed by message value
+	 */
+	public static int[] getChecksumTable( int[] checksums, int messageSize )
+	{
+		int[] table = new int[ 1 << messageSize ];
+		
+		for( int value = 1; value < table.length; value++ )
+		{
+			/* Previous value (lowest set bit cleared) plus the checksum for 
+			 * the lowest set bit */
+			int bit = Integer.numberOfTrailingZeros( value );
+			
+			table[ value ] = table[ value & ( value - 1 ) ] ^ 
+					checksums[ messageSize - bit - 1 ];
+		}
+		
+		return table;
+	}
+
+	/**
+	 * Extracts a big-endian field value (MSB at the start index) of up to 64
+	 * bits from packed (BitSet.toLongArray() format) message words.
+	 *
+	 * @param words - packed message words
+	 * @param start - bit index of the field MSB
+	 * @param width - field width in bits
+	 * @return field value
+	 */
+	public static long getValue( long[] words, int start, int width )
+	{
+		long value = 0;
+
+		int bit = start;
+		int end = start + width;
+
+		while( bit < end )
+		{
+			int index = bit >>> 6;
+			int offset = bit & 63;
+			int count = Math.min( 64 - offset, end - bit );
+
+			long chunk = index < words.length ? words[ index ] >>> offset : 0;
+
+			if( count < 64 )
+			{
+				chunk &= ( 1l << count ) - 1;
+			}
+
+			/* Packed words hold the first bit in the LSB, so reverse the
+			 * chunk to place the first bit in the MSB of the field */
+			chunk = Long.reverse( chunk ) >>> ( 64 - count );
+
+			value = ( count == 64 ? 0 : value << count ) | chunk;
+
+			bit += count;
+		}
+
+		return value;
+	}
+
 	public enum Parity{ EVEN, ODD, NONE };
 
 	/* Determines the parity (number of 1 bits) for the value */
@@ -0,0 +1,576 @@
+/*******************************************************************************
+ *     SDR Trunk
+ *     Copyright (C) 2014 Dennis Sheirer
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package edac;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import bits.BinaryMessage;
+
+/**
+ * Compares the table driven CRC, Golay, Hamming and BCH decoders against
+ * bit-serial reference implementations.  The CRC tables and the Golay and
+ * Hamming decoders are checked exhaustively where the input space allows and
+ * with random inputs otherwise.  Run from the command line - prints each
+ * mismatch and the total mismatch count.
+ */
+public class EDACTableTest
+{
+	private static final Random RANDOM = new Random( 1 );
+
+	/* P25 NID BCH(63,16,23) generator polynomial (octal 6331141367235453) */
+	private static final long BCH_GENERATOR = 0xCD930BDD3B2BL;
+
+	private static int sFailures = 0;
+
+	public static void main( String[] args )
+	{
+		log( "START!" );
+
+		checkCRCTable( "CCITT 80", CRCUtil.getTable( CRCP25.CCITT_80_CHECKSUMS ) );
+		checkCRCTable( "CRC9", CRCUtil.getTable( CRCP25.CRC9_CHECKSUMS ) );
+		checkCRCTable( "PDU1", CRCUtil.getTable( CRCP25.PDU1_CHECKSUMS ) );
+		checkCRCTable( "PDU2", CRCUtil.getTable( CRCP25.PDU2_CHECKSUMS ) );
+		checkCRCTable( "PDU3", CRCUtil.getTable( CRCP25.PDU3_CHECKSUMS ) );
+		checkCRCTable( "LTR", CRCUtil.getTable( CRCLTR.getChecks() ) );
+		checkCRCTable( "Passport", CRCUtil.getTable( CRCPassport.getChecks() ) );
+		checkCRCTable( "Golay23", CRCUtil.getTable( Golay23.CHECKSUMS ) );
+
+		checkChecksumTable();
+		checkGolay23();
+		checkGolay24();
+		checkHamming( "Hamming10", 10, 6, new int[] { 0xE,0xD,0xB,0X7,0x3,0xC } );
+		checkHamming( "Hamming15", 15, 11, new int[] { 0xF,0xE,0xD,0xC,0xB,0XA,0x9,
+			0x7,0x6,0x5,0x3 } );
+		checkBCH();
+
+		log( "DONE! Mismatches: " + sFailures );
+	}
+
+	/**
+	 * Compares the byte-table checksum with the bit-serial checksum (XOR of
+	 * the per-bit checksums of each set message bit) for random messages,
+	 * offsets and lengths, and checks the single bit error syndrome index.
+	 */
+	private static void checkCRCTable( String name, CRCTable table )
+	{
+		int mismatches = 0;
+
+		for( int x = 0; x < 20000; x++ )
+		{
+			BitSet message = new BitSet();
+
+			int messageStart = RANDOM.nextInt( 80 );
+			int tablePosition = RANDOM.nextInt( table.size() );
+			int length = RANDOM.nextInt( table.size() - tablePosition + 1 );
+
+			for( int bit = 0; bit < messageStart + length + 64; bit++ )
+			{
+				if( RANDOM.nextBoolean() )
+				{
+					message.set( bit );
+				}
+			}
+
+			long expected = 0;
+
+			for( int bit = 0; bit < length; bit++ )
+			{
+				if( message.get( messageStart + bit ) )
+				{
+					expected ^= table.getChecksum( tablePosition + bit );
+				}
+			}
+
+			long actual = table.getChecksum( message.toLongArray(),
+					messageStart, tablePosition, length );
+
+			if( actual != expected )
+			{
+				mismatches++;
+			}
+		}
+
+		for( int position = 0; position < table.size(); position++ )
+		{
+			long syndrome = table.getChecksum( position );
+
+			int expected = -1;
+
+			for( int y = 0; y < table.size() && expected == -1; y++ )
+			{
+				if( table.getChecksum( y ) == syndrome )
+				{
+					expected = y;
+				}
+			}
+
+			if( table.getBitError( syndrome ) != expected )
+			{
+				mismatches++;
+			}
+		}
+
+		report( name + " CRC table", mismatches );
+	}
+
+	/**
+	 * Compares the per-value checksum table with the bit-serial checksum for
+	 * every 12-bit Golay data word
+	 */
+	private static void checkChecksumTable()
+	{
+		int[] table = CRCUtil.getChecksumTable( Golay23.CHECKSUMS, 12 );
+
+		int mismatches = 0;
+
+		for( int value = 0; value < 4096; value++ )
+		{
+			if( table[ value ] != serialChecksum( value, 12, Golay23.CHECKSUMS ) )
+			{
+				mismatches++;
+			}
+		}
+
+		report( "Golay23 checksum table", mismatches );
+	}
+
+	/**
+	 * Golay(23,12,7) is a perfect code: every 23-bit word is within 3 bits of
+	 * exactly one codeword.  Builds the nearest codeword for every 23-bit word
+	 * from the bit-serial encoder and compares the decoder for every input.
+	 */
+	private static void checkGolay23()
+	{
+		int[] nearest = getGolay23Nearest();
+
+		int mismatches = 0;
+
+		for( int word = 0; word < ( 1 << 23 ); word++ )
+		{
+			if( Golay23.correct( word ) != nearest[ word ] )
+			{
+				mismatches++;
+			}
+		}
+
+		/* Bit-level decoder at a non-zero offset, random inputs */
+		for( int x = 0; x < 20000; x++ )
+		{
+			int word = RANDOM.nextInt( 1 << 23 );
+			int offset = RANDOM.nextInt( 40 );
+
+			BinaryMessage message = new BinaryMessage( 96 );
+			message.load( offset, 23, word );
+
+			int errors = Golay23.checkAndCorrect( message, offset );
+
+			if( message.getInt( offset, offset + 22 ) != nearest[ word ] ||
+				errors != Integer.bitCount( word ^ nearest[ word ] ) ||
+				message.cardinality() != Integer.bitCount( nearest[ word ] ) )
+			{
+				mismatches++;
+			}
+		}
+
+		report( "Golay23 decoder", mismatches );
+	}
+
+	/**
+	 * Checks the Golay24 decoder against the baseline bit-wise decoder for
+	 * codewords with 0 to 3 bit errors, and checks that every 4 bit error
+	 * pattern is detected: the CRC is set to failed and the message is left
+	 * intact.
+	 */
+	private static void checkGolay24()
+	{
+		int mismatches = 0;
+
+		for( int x = 0; x < 64; x++ )
+		{
+			int data = RANDOM.nextInt( 4096 );
+			int golay = ( data << 11 ) | serialChecksum( data, 12, Golay23.CHECKSUMS );
+			int codeword = ( golay << 1 ) | ( Integer.bitCount( golay ) & 1 );
+
+			for( int a = -1; a < 24; a++ )
+			{
+				for( int b = a; b < 24; b++ )
+				{
+					for( int c = b; c < 24; c++ )
+					{
+						int pattern = ( a < 0 ? 0 : 1 << a ) |
+								( b < 0 ? 0 : 1 << b ) |
+								( c < 0 ? 0 : 1 << c );
+
+						int word = codeword ^ pattern;
+
+						BinaryMessage message = new BinaryMessage( 24 );
+						message.load( 0, 24, word );
+						Golay24.checkAndCorrect( message, 0 );
+
+						BinaryMessage baseline = new BinaryMessage( 24 );
+						baseline.load( 0, 24, word );
+						baselineCheckAndCorrect( baseline, 0 );
+
+						if( message.getInt( 0, 23 ) != codeword ||
+							message.getCRC() != CRC.PASSED ||
+							baseline.getCRC() != CRC.PASSED ||
+							message.getInt( 0, 22 ) != baseline.getInt( 0, 22 ) )
+						{
+							mismatches++;
+						}
+					}
+				}
+			}
+
+			for( int a = 0; a < 24; a++ )
+			{
+				for( int b = a + 1; b < 24; b++ )
+				{
+					for( int c = b + 1; c < 24; c++ )
+					{
+						for( int d = c + 1; d < 24; d++ )
+						{
+							int word = codeword ^ ( 1 << a ) ^ ( 1 << b ) ^
+									( 1 << c ) ^ ( 1 << d );
+
+							int offset = RANDOM.nextInt( 40 );
+
+							BinaryMessage message = new BinaryMessage( 96 );
+							message.load( offset, 24, word );
+							Golay24.checkAndCorrect( message, offset );
+
+							if( message.getCRC() != CRC.FAILED_CRC ||
+								message.getInt( offset, offset + 23 ) != word ||
+								Golay24.correct( word ) != word )
+							{
+								mismatches++;
+							}
+						}
+					}
+				}
+			}
+		}
+
+		/* Correction at a non-zero offset, random inputs */
+		for( int x = 0; x < 20000; x++ )
+		{
+			int word = RANDOM.nextInt( 1 << 24 );
+			int offset = RANDOM.nextInt( 40 );
+
+			BinaryMessage message = new BinaryMessage( 96 );
+			message.load( offset, 24, word );
+
+			Golay24.checkAndCorrect( message, offset );
+
+			if( message.getInt( offset, offset + 23 ) != Golay24.correct( word ) ||
+				message.cardinality() != Integer.bitCount( Golay24.correct( word ) ) )
+			{
+				mismatches++;
+			}
+		}
+
+		report( "Golay24 decoder", mismatches );
+	}
+
+	/**
+	 * Baseline bit-wise Golay24 decoder (error trapping), as it was before the
+	 * syndrome lookup table decoder.  Only valid for a 24-bit message at
+	 * offset 0 - it checks the parity of the whole message and corrects at 
+	 * absolute bit positions.
+	 */
+	private static void baselineCheckAndCorrect( BinaryMessage message, int startIndex )
+	{
+		boolean parityError = message.cardinality() % 2 != 0;
+		
+		int syndrome = baselineSyndrome( message, startIndex );
+		
+		if( syndrome == 0 )
+		{
+			if( parityError )
+			{
+				message.flip( startIndex + 23 );
+			}
+
+			message.setCRC( CRC.PASSED );
+			
+			return;
+		}
+
+		int original = message.getInt( 0, 22 );
+		
+		int index = -1;
+		int syndromeWeight = 3;
+		int errors = 0;
+		
+		while( index < 23 )
+		{
+			if( index != -1 )
+			{
+				if( index > 0 )
+				{
+					message.flip( index - 1 );
+				}
+				
+				message.flip( index );
+				
+				syndromeWeight = 2;
+			}
+			
+			syndrome = baselineSyndrome( message, startIndex );
+			
+			if( syndrome > 0 )
+			{
+				for( int i = 0; i < 23; i++ )
+				{
+					errors = Integer.bitCount( syndrome );
+					
+					if( errors <= syndromeWeight )
+					{
+						message.xor( 12, 11, syndrome );
+						
+						message.rotateRight( i, startIndex, startIndex + 22 );
+
+						int corrected = message.getInt( 0, 22 );
+						
+						if( Integer.bitCount( original ^ corrected ) > 3 )
+						{
+							message.setCRC( CRC.FAILED_CRC );
+							
+							return;
+						}
+						
+						message.setCRC( CRC.PASSED );
+						
+						return;
+					}
+					else
+					{
+						message.rotateLeft( startIndex, startIndex + 22 );
+						syndrome = baselineSyndrome( message, startIndex );
+					}
+				}
+				
+				index++;
+			}
+		}
+
+		message.setCRC( CRC.FAILED_CRC );
+	}
+
+	private static int baselineSyndrome( BinaryMessage message, int startIndex )
+	{
+		int calculated = 0;
+
+		for( int i = message.nextSetBit( startIndex ); 
+				 i >= startIndex && i < startIndex + 12; 
+				 i = message.nextSetBit( i + 1 ) ) 
+		{
+			calculated ^= Golay24.CHECKSUMS[ i - startIndex ];
+		}
+		
+		return message.getInt( startIndex + 12, startIndex + 22 ) ^ calculated;
+	}
+
+	private static int[] sGolay23Nearest;
+
+	private static int[] getGolay23Nearest()
+	{
+		if( sGolay23Nearest == null )
+		{
+			sGolay23Nearest = new int[ 1 << 23 ];
+
+			for( int data = 0; data < 4096; data++ )
+			{
+				int codeword = ( data << 11 ) |
+						serialChecksum( data, 12, Golay23.CHECKSUMS );
+
+				for( int x = -1; x < 23; x++ )
+				{
+					for( int y = x; y < 23; y++ )
+					{
+						for( int z = y; z < 23; z++ )
+						{
+							int pattern = ( x < 0 ? 0 : 1 << x ) |
+									( y < 0 ? 0 : 1 << y ) |
+									( z < 0 ? 0 : 1 << z );
+
+							sGolay23Nearest[ codeword ^ pattern ] = codeword;
+						}
+					}
+				}
+			}
+		}
+
+		return sGolay23Nearest;
+	}
+
+	/**
+	 * Compares the Hamming decoder for every input word with a bit-serial
+	 * syndrome and a search for the single bit flip that clears it.
+	 */
+	private static void checkHamming( String name, int size, int dataBits,
+			int[] checksums )
+	{
+		int checkBits = size - dataBits;
+		int mismatches = 0;
+
+		for( int word = 0; word < ( 1 << size ); word++ )
+		{
+			int expected = word;
+			int expectedErrors = 0;
+
+			if( serialSyndrome( word, dataBits, checkBits, checksums ) != 0 )
+			{
+				expectedErrors = 2;
+
+				for( int bit = 0; bit < size; bit++ )
+				{
+					int flipped = word ^ ( 1 << bit );
+
+					if( serialSyndrome( flipped, dataBits, checkBits, checksums ) == 0 )
+					{
+						expected = flipped;
+						expectedErrors = 1;
+						break;
+					}
+				}
+			}
+
+			int offset = word % 37;
+
+			BinaryMessage message = new BinaryMessage( 64 );
+			message.load( offset, size, word );
+
+			int errors = size == 10 ? Hamming10.checkAndCorrect( message, offset ) :
+				Hamming15.checkAndCorrect( message, offset );
+
+			if( errors != expectedErrors ||
+				message.getInt( offset, offset + size - 1 ) != expected ||
+				message.cardinality() != Integer.bitCount( expected ) )
+			{
+				mismatches++;
+			}
+		}
+
+		report( name + " decoder", mismatches );
+	}
+
+	/**
+	 * Encodes random NID data words with the BCH generator polynomial, adds
+	 * random errors and checks that the decoder restores every codeword with
+	 * up to 11 errors, and never returns a non-codeword or a codeword more
+	 * than 11 bits away for heavier errors.
+	 */
+	private static void checkBCH()
+	{
+		BCH_63_16_11 bch = new BCH_63_16_11();
+
+		int mismatches = 0;
+
+		for( int x = 0; x < 50000; x++ )
+		{
+			long codeword = bchEncode( RANDOM.nextInt( 1 << 16 ) );
+
+			int errorCount = RANDOM.nextInt( 16 );
+
+			long received = codeword;
+
+			while( Long.bitCount( received ^ codeword ) < errorCount )
+			{
+				received ^= 1L << RANDOM.nextInt( 63 );
+			}
+
+			long corrected = bch.correct( received );
+
+			if( errorCount <= 11 )
+			{
+				if( corrected != codeword )
+				{
+					mismatches++;
+				}
+			}
+			else if( corrected != BerlekempMassey_63.IRRECOVERABLE &&
+					 ( bchEncode( (int)( corrected >>> 47 ) ) != corrected ||
+					   Long.bitCount( corrected ^ received ) > 11 ) )
+			{
+				mismatches++;
+			}
+		}
+
+		report( "BCH(63,16,11) decoder", mismatches );
+	}
+
+	/**
+	 * Systematic BCH encoder - 16 data bits in the MSBs of the 63-bit codeword
+	 * followed by the 47-bit remainder of the polynomial division.
+	 */
+	private static long bchEncode( int data )
+	{
+		long shifted = ( (long)data ) << 47;
+		long remainder = shifted;
+
+		for( int bit = 62; bit >= 47; bit-- )
+		{
+			if( ( ( remainder >>> bit ) & 1 ) == 1 )
+			{
+				remainder ^= BCH_GENERATOR << ( bit - 47 );
+			}
+		}
+
+		return shifted | remainder;
+	}
+
+	/**
+	 * Bit-serial checksum: XOR of the checksum of each set data bit, where
+	 * checksum index 0 is the data MSB.
+	 */
+	private static int serialChecksum( int data, int dataBits, int[] checksums )
+	{
+		int checksum = 0;
+
+		for( int bit = 0; bit < dataBits; bit++ )
+		{
+			if( ( ( data >>> ( dataBits - bit - 1 ) ) & 1 ) == 1 )
+			{
+				checksum ^= checksums[ bit ];
+			}
+		}
+
+		return checksum;
+	}
+
+	private static int serialSyndrome( int word, int dataBits, int checkBits,
+			int[] checksums )
+	{
+		return serialChecksum( word >>> checkBits, dataBits, checksums ) ^
+				( word & ( ( 1 << checkBits ) - 1 ) );
+	}
+
+	private static void report( String name, int mismatches )
+	{
+		sFailures += mismatches;
+
+		log( name + ( mismatches == 0 ? " OK" : " MISMATCHES: " + mismatches ) );
+	}
+
+	public static void log( String message )
+	{
+		System.out.println( message );
+	}
+}
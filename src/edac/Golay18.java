@@ -42,13 +42,12 @@ public class Golay18
 	{
 		int value = message.getInt( startIndex, startIndex + 17 );
 
-		BinaryMessage temp = new BinaryMessage( 24 );
-		temp.load( 6, 18, value );
-
-		BinaryMessage corrected = Golay24.checkAndCorrect( temp, 0 );
-
-		int correctedValue = corrected.getInt( 6, 23 );
+		/* Golay 24 codeword with the left-most 6 bits set to zero */
+		int correctedValue = Golay24.correct( value ) & 0x3FFFF;
 		
-		message.load( startIndex, 18, correctedValue );
+		if( correctedValue != value )
+		{
+			message.xor( startIndex, 18, value ^ correctedValue );
+		}
 	}
 }
@@ -14,115 +14,102 @@ public class Golay23
 	};
 
 	/**
-	 * Implements Golay(23,12,7) error detection and correction.  Returns the
-	 * number of detected errors.  If the error count is less than or equal to
-	 * the max correctable errors (3), then the error bits are corrected.  
-	 * Otherwise the message is left intact and an error count greater than 3
-	 * is returned.
-	 * 
-	 * @param frame - message frame bitset
-	 * @param startIndex - first bit index of the golay protected bit sequence
-	 * 
-	 * @return - number of detected errors
+	 * Calculated 11-bit checksum for each 12-bit data word value
 	 */
-	public static int checkAndCorrect( BinaryMessage frame, int startIndex )
-	{
-		int syndrome = getSyndrome( frame, startIndex );
-		
-		/* No errors */
-		if( syndrome == 0 )
-		{
-			return 0;
-		}
-		
-		BinaryMessage copy = frame.getSubMessage( startIndex, startIndex + 23 );
+	private static final int[] ENCODE = CRCUtil.getChecksumTable( CHECKSUMS, 12 );
+	
+	/**
+	 * Error pattern for each 11-bit syndrome.  Golay(23,12,7) is a perfect 
+	 * code, so every syndrome maps to exactly one error pattern of 3 or fewer 
+	 * bits.
+	 */
+	private static final int[] ERRORS = createErrorTable();
 
-		int index = -1;
-		int syndromeWeight = MAX_CORRECTABLE_ERRORS;
-		int errors = 0;
+	private static int[] createErrorTable()
+	{
+		int[] errors = new int[ 2048 ];
 		
-		while( index < 23 )
+		for( int x = 0; x < 23; x++ )
 		{
-			if( index != -1 )
-			{
-				/* restore the previous flipped bit */
-				if( index > 0 )
-				{
-					copy.flip( index - 1 );
-				}
-				
-				copy.flip( index );
-				
-				syndromeWeight = MAX_CORRECTABLE_ERRORS - 1;
-			}
-			
-			syndrome = getSyndrome( copy, 0 );
-			
-			if( syndrome > 0 )
+			for( int y = x; y < 23; y++ )
 			{
-				for( int i = 0; i < 23; i++ )
+				for( int z = y; z < 23; z++ )
 				{
-					errors = Integer.bitCount( syndrome );
+					int pattern = ( 1 << x ) | ( 1 << y ) | ( 1 << z );
 					
-					if( errors <= syndromeWeight )
-					{
-						copy.xor( 12, 11, syndrome );
-						
-						copy.rotateRight( i, 0, 22 );
-
-						if( index >= 0 )
-						{
-							errors ++;
-						}
-
-						int corrected = copy.getInt( 0, 22 );
-						int original = frame.getInt( startIndex, startIndex + 22 );
-						
-						int errorCount = Integer.bitCount( original ^ corrected );
-						
-						if( errorCount <= 3 )
-						{
-							frame.load( startIndex, 23, corrected );
-						}
+					int syndrome = getSyndrome( pattern );
 
-						return errorCount;
-					}
-					else
+					if( errors[ syndrome ] == 0 || 
+						Integer.bitCount( pattern ) < Integer.bitCount( errors[ syndrome ] ) )
 					{
-						copy.rotateLeft( 0, 22 );
-						syndrome = getSyndrome( copy, 0 );
+						errors[ syndrome ] = pattern;
 					}
 				}
-				
-				index++;
 			}
 		}
-
-		/* Return an error count greater than 3 to indicate failed correction attempt */
-		return 4;
+		
+		errors[ 0 ] = 0;
+		
+		return errors;
 	}
 
-	private static int getSyndrome( BinaryMessage frame, int startIndex )
+	/**
+	 * Implements Golay(23,12,7) error detection and correction.  Golay(23,12,7)
+	 * is a perfect code, so every 23-bit word is within 3 bits of exactly one
+	 * codeword: the word is always corrected to the nearest codeword and the
+	 * number of corrected bits (0 to 3) is returned.  Words with more than 3
+	 * errors are miscorrected and can't be detected by this code alone.
+	 * 
+	 * @param frame - message frame bitset
+	 * @param startIndex - first bit index of the golay protected bit sequence
+	 * 
+	 * @return - number of corrected errors ( 0 - 3 )
+	 */
+	public static int checkAndCorrect( BinaryMessage frame, int startIndex )
 	{
-		int calculated = calculateChecksum( frame, startIndex );
+		int codeword = frame.getInt( startIndex, startIndex + 22 );
 		
-		int checksum = frame.getInt( startIndex + 12, startIndex + 22 );
+		int syndrome = getSyndrome( codeword );
+		
+		/* No errors */
+		if( syndrome == 0 )
+		{
+			return 0;
+		}
+		
+		int errors = ERRORS[ syndrome ];
+		
+		frame.xor( startIndex, 23, errors );
+		
+		return Integer.bitCount( errors );
+	}
 
-		return ( checksum ^ calculated );
+	/**
+	 * Calculates the syndrome for a packed 23-bit codeword (first bit in the
+	 * MSB).
+	 * 
+	 * @return 11-bit syndrome - 0 indicates no errors
+	 */
+	public static int getSyndrome( int codeword )
+	{
+		return ENCODE[ ( codeword >>> 11 ) & 0xFFF ] ^ ( codeword & 0x7FF );
 	}
 	
-	private static int calculateChecksum( BinaryMessage frame, int startIndex )
+	/**
+	 * Error pattern (3 or fewer bits) for the 11-bit syndrome
+	 */
+	public static int getErrorPattern( int syndrome )
 	{
-		int calculated = 0; //Starting value
-
-		/* Iterate the set bits and XOR running checksum with lookup value */
-		for (int i = frame.nextSetBit( startIndex ); 
-				 i >= startIndex && i < startIndex + 12; 
-				 i = frame.nextSetBit( i+1 ) ) 
-		{
-			calculated ^= CHECKSUMS[ i - startIndex ];
-		}
-		
-		return calculated;
+		return ERRORS[ syndrome ];
+	}
+	
+	/**
+	 * Corrects the packed 23-bit codeword (first bit in the MSB)
+	 * 
+	 * @return corrected codeword
+	 */
+	public static int correct( int codeword )
+	{
+		return codeword ^ ERRORS[ getSyndrome( codeword ) ];
 	}
 }
@@ -45,124 +45,76 @@ public class Golay24
 	    0x040, 0x020, 0x010, 0x008, 0x004, 0x002, 0x001 
 	};
 
-	private static int calculateChecksum( BinaryMessage message, int startIndex )
-	{
-		int calculated = 0; //Starting value
+	public static final int MAX_CORRECTABLE_ERRORS = 3;
 
-		/* Iterate the set bits and XOR running checksum with lookup value */
-		for (int i = message.nextSetBit( startIndex ); 
-				 i >= startIndex && i < startIndex + 12; 
-				 i = message.nextSetBit( i+1 ) ) 
-		{
-			calculated ^= CHECKSUMS[ i - startIndex ];
-		}
-		
-		return calculated;
-	}
-	
 	/**
-	 * Performs error detection and returns a corrected copy of the 24-bit
-	 * message that starts at the start index.
+	 * Performs error detection and correction of the 24-bit message that 
+	 * starts at the start index.  Sets the message CRC to passed when the 
+	 * codeword is corrected (3 or fewer errors), or to failed and leaves the
+	 * message intact when the codeword can't be corrected (4 errors).
+	 * 
 	 * @param message - source message containing startIndex + 24 bits length
 	 * @param startIndex - start of the 24-bit galois 24 protected bit set
-	 * @return - corrected 24-bit galois value
+	 * @return - message with corrected 24-bit galois value
 	 */
 	public static BinaryMessage checkAndCorrect( BinaryMessage message, int startIndex )
 	{
-		boolean parityError = message.cardinality() % 2 != 0;
+		int codeword = message.getInt( startIndex, startIndex + 23 );
 		
-		int syndrome = getSyndrome( message, startIndex );
+		int errors = getErrorPattern( codeword );
 		
-		/* No errors */
-		if( syndrome == 0 )
+		if( Integer.bitCount( errors ) > MAX_CORRECTABLE_ERRORS )
 		{
-			if( parityError )
-			{
-				message.flip( startIndex + 23 );
-			}
-
-			message.setCRC( CRC.PASSED );
+			message.setCRC( CRC.FAILED_CRC );
 			
 			return message;
 		}
-
-		/* Get original message value */
-		int original = message.getInt( 0, 22 );
-		
-		int index = -1;
-		int syndromeWeight = 3;
-		int errors = 0;
 		
-		while( index < 23 )
+		if( errors != 0 )
 		{
-			if( index != -1 )
-			{
-				/* restore the previous flipped bit */
-				if( index > 0 )
-				{
-					message.flip( index - 1 );
-				}
-				
-				message.flip( index );
-				
-				syndromeWeight = 2;
-			}
-			
-			syndrome = getSyndrome( message, startIndex );
-			
-			if( syndrome > 0 )
-			{
-				for( int i = 0; i < 23; i++ )
-				{
-				
-					errors = Integer.bitCount( syndrome );
-					
-					if( errors <= syndromeWeight )
-					{
-						message.xor( 12, 11, syndrome );
-						
-						message.rotateRight( i, startIndex, startIndex + 22 );
-
-						if( index >= 0 )
-						{
-							errors ++;
-						}
-
-						int corrected = message.getInt( 0, 22 );
-						
-						if( Integer.bitCount( original ^ corrected ) > 3 )
-						{
-							message.setCRC( CRC.FAILED_CRC );
-							
-							return message;
-						}
-						
-						message.setCRC( CRC.PASSED );
-						
-						return message;
-					}
-					else
-					{
-						message.rotateLeft( startIndex, startIndex + 22 );
-						syndrome = getSyndrome( message, startIndex );
-					}
-				}
-				
-				index++;
-			}
+			message.xor( startIndex, 24, errors );
 		}
 
-		message.setCRC( CRC.FAILED_CRC );
+		message.setCRC( CRC.PASSED );
 		
 		return message;
 	}
 
-	private static int getSyndrome( BinaryMessage message, int startIndex )
+	/**
+	 * Corrects the packed 24-bit codeword (first bit in the MSB, parity bit in
+	 * the LSB).
+	 * 
+	 * @return corrected codeword, or the original codeword when it can't be
+	 * corrected
+	 */
+	public static int correct( int codeword )
 	{
-		int calculated = calculateChecksum( message, startIndex );
+		int errors = getErrorPattern( codeword );
 		
-		int checksum = message.getInt( startIndex + 12, startIndex + 22 );
+		if( Integer.bitCount( errors ) > MAX_CORRECTABLE_ERRORS )
+		{
+			return codeword;
+		}
+		
+		return codeword ^ errors;
+	}
 
-		return ( checksum ^ calculated );
+	/**
+	 * Error pattern for the packed 24-bit codeword.  The first 23 bits are 
+	 * corrected as a Golay(23,12,7) codeword using the syndrome lookup table
+	 * and the parity bit is then corrected so that the overall parity is 
+	 * even.  An error pattern with more than 3 bits means that the codeword 
+	 * has 4 errors, which the extended code detects but can't correct.
+	 */
+	private static int getErrorPattern( int codeword )
+	{
+		int errors = Golay23.getErrorPattern( Golay23.getSyndrome( codeword >>> 1 ) ) << 1;
+		
+		if( Integer.bitCount( codeword ^ errors ) % 2 != 0 )
+		{
+			errors ^= 0x1;
+		}
+		
+		return errors;
 	}
 }
@@ -1,5 +1,7 @@
 package edac;
 
+import java.util.Arrays;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -11,6 +13,36 @@ public class Hamming10
 	
 	private static int[] CHECKSUMS = new int[] { 0xE,0xD,0xB,0X7,0x3,0xC };
 
+	private static final int UNCORRECTABLE = -1;
+
+	/**
+	 * Calculated 4-bit checksum (Parity 8,4,2,1) for each 6-bit data value
+	 */
+	private static final int[] ENCODE = CRCUtil.getChecksumTable( CHECKSUMS, 6 );
+
+	/**
+	 * Single bit error pattern for each 4-bit syndrome
+	 */
+	private static final int[] ERRORS = createErrorTable();
+
+	private static int[] createErrorTable()
+	{
+		int[] errors = new int[ 16 ];
+		
+		Arrays.fill( errors, UNCORRECTABLE );
+
+		errors[ 0 ] = 0;
+
+		for( int x = 0; x < 10; x++ )
+		{
+			int pattern = 1 << x;
+			
+			errors[ getSyndrome( pattern ) ] = pattern;
+		}
+		
+		return errors;
+	}
+
 	/**
 	 * Performs error detection and correction of any single-bit errors.  This 
 	 * is a truncated version of the Hamming15 class.
@@ -24,93 +56,35 @@ public class Hamming10
 	 */
 	public static int checkAndCorrect( BinaryMessage frame, int startIndex )
 	{
-		int syndrome = getSyndrome( frame, startIndex );
-
-		switch( syndrome )
+		int codeword = frame.getInt( startIndex, startIndex + 9 );
+		
+		int syndrome = getSyndrome( codeword );
+		
+		if( syndrome == 0 )
 		{
-			case 0:
-				return 0;
-			case 1:
-				frame.flip( startIndex + 9 ); //Parity 1
-				return 1;
-			case 2:
-				frame.flip( startIndex + 8 ); //Parity 2
-				return 1;
-			case 3:
-				frame.flip( startIndex + 4 ); //Data 2
-				return 1;
-			case 4:
-				frame.flip( startIndex + 7 ); //Parity 4
-				return 1;
-			case 5:
-				return 2;
-			case 6:
-				return 2;
-			case 7:
-				frame.flip( startIndex + 3 ); //Data 3
-				return 1;
-			case 8:
-				frame.flip( startIndex + 6 ); //Parity 8
-				return 1;
-			case 9:
-				return 2;
-			case 10:
-				return 2;
-			case 11:
-				frame.flip( startIndex + 2 ); //Data 4
-				return 1;
-			case 12:
-				frame.flip( startIndex + 5 ); //Data 1
-				return 1;
-			case 13:
-				frame.flip( startIndex + 1 ); //Data 5
-				return 1;
-			case 14:
-				frame.flip( startIndex + 0 ); //Data 6
-				return 1;
-			case 15:
-				return 2;
+			return 0;
 		}
 
-		/* We'll never get to here */
-		return 2;
-	}
-
-	/**
-	 * Calculates the checksum (Parity 8,4,2,1) for data (6 <> 1 ) bits.
-	 * @param frame - frame containing hamming(10) protected word
-	 * @param startIndex - start bit index of the hamming protected word
-	 * @return parity value, 0 - 15
-	 */
-	private static int calculateChecksum( BinaryMessage frame, int startIndex )
-	{
-		int calculated = 0; //Starting value
-
-		/* Iterate the set bits and XOR running checksum with lookup value */
-		for (int i = frame.nextSetBit( startIndex ); 
-				 i >= startIndex && i < startIndex + 6; 
-				 i = frame.nextSetBit( i+1 ) ) 
+		int errors = ERRORS[ syndrome ];
+		
+		if( errors == UNCORRECTABLE )
 		{
-			calculated ^= CHECKSUMS[ i - startIndex ];
+			return 2;
 		}
 		
-		return calculated;
+		frame.xor( startIndex, 10, errors );
+		
+		return 1;
 	}
 
 	/**
-	 * Calculates the syndrome - xor of the calculated checksum and the actual
-	 * checksum.
+	 * Calculates the syndrome for a packed 10-bit codeword (first bit in the
+	 * MSB).
 	 * 
-	 * @param frame - binary frame containing a hamming(15,11,4) protected word
-	 * @param startIndex - of bit 0 of the hamming protected word
-	 * @return - 0 (no errors) or 1 (single bit error corrected)
+	 * @return syndrome, 0 - 15 where 0 indicates no errors
 	 */
-	private static int getSyndrome( BinaryMessage frame, int startIndex )
+	public static int getSyndrome( int codeword )
 	{
-		int calculated = calculateChecksum( frame, startIndex );
-		
-		int checksum = frame.getInt( startIndex + 6, startIndex + 9 );
-
-		return ( checksum ^ calculated );
+		return ENCODE[ ( codeword >>> 4 ) & 0x3F ] ^ ( codeword & 0xF );
 	}
 }
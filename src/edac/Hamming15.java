@@ -1,5 +1,7 @@
 package edac;
 
+import java.util.Arrays;
+
 import bits.BinaryMessage;
 
 public class Hamming15
@@ -7,6 +9,36 @@ public class Hamming15
 	private static int[] CHECKSUMS = new int[] { 0xF,0xE,0xD,0xC,0xB,0XA,0x9,
 		0x7,0x6,0x5,0x3 };
 
+	private static final int UNCORRECTABLE = -1;
+
+	/**
+	 * Calculated 4-bit checksum (Parity 8,4,2,1) for each 11-bit data value
+	 */
+	private static final int[] ENCODE = CRCUtil.getChecksumTable( CHECKSUMS, 11 );
+
+	/**
+	 * Single bit error pattern for each 4-bit syndrome
+	 */
+	private static final int[] ERRORS = createErrorTable();
+
+	private static int[] createErrorTable()
+	{
+		int[] errors = new int[ 16 ];
+		
+		Arrays.fill( errors, UNCORRECTABLE );
+
+		errors[ 0 ] = 0;
+
+		for( int x = 0; x < 15; x++ )
+		{
+			int pattern = 1 << x;
+			
+			errors[ getSyndrome( pattern ) ] = pattern;
+		}
+		
+		return errors;
+	}
+
 	/**
 	 * Performs error detection and correction of any single-bit errors.
 	 * 
@@ -20,98 +52,35 @@ public class Hamming15
 	 */
 	public static int checkAndCorrect( BinaryMessage frame, int startIndex )
 	{
-		int syndrome = getSyndrome( frame, startIndex );
-
-		switch( syndrome )
+		int codeword = frame.getInt( startIndex, startIndex + 14 );
+		
+		int syndrome = getSyndrome( codeword );
+		
+		if( syndrome == 0 )
 		{
-			case 0:
-				return 0;
-			case 1:
-				frame.flip( startIndex + 14 ); //Parity 1
-				return 1;
-			case 2:
-				frame.flip( startIndex + 13 ); //Parity 2
-				return 1;
-			case 3:
-				frame.flip( startIndex + 10 ); //Data 1
-				return 1;
-			case 4:
-				frame.flip( startIndex + 12 ); //Parity 4
-				return 1;
-			case 5:
-				frame.flip( startIndex + 9 ); //Data 2
-				return 1;
-			case 6:
-				frame.flip( startIndex + 8 ); //Data 3
-				return 1;
-			case 7:
-				frame.flip( startIndex + 7 ); //Data 4
-				return 1;
-			case 8:
-				frame.flip( startIndex + 11 ); //Parity 8
-				return 1;
-			case 9:
-				frame.flip( startIndex + 6 ); //Data 5
-				return 1;
-			case 10:
-				frame.flip( startIndex + 5 ); //Data 6
-				return 1;
-			case 11:
-				frame.flip( startIndex + 4 ); //Data 7
-				return 1;
-			case 12:
-				frame.flip( startIndex + 3 ); //Data 8
-				return 1;
-			case 13:
-				frame.flip( startIndex + 2 ); //Data 9
-				return 1;
-			case 14:
-				frame.flip( startIndex + 1 ); //Data 10
-				return 1;
-			case 15:
-				frame.flip( startIndex ); //Data 11
-				return 1;
+			return 0;
 		}
 
-		/* We'll never get to here */
-		return 2;
-	}
-
-	/**
-	 * Calculates the checksum (Parity 8,4,2,1) for data (11 <> 1 ) bits.
-	 * @param frame - frame containing hamming(15) protected word
-	 * @param startIndex - start bit index of the hamming protected word
-	 * @return parity value, 0 - 15
-	 */
-	private static int calculateChecksum( BinaryMessage frame, int startIndex )
-	{
-		int calculated = 0; //Starting value
-
-		/* Iterate the set bits and XOR running checksum with lookup value */
-		for (int i = frame.nextSetBit( startIndex ); 
-				 i >= startIndex && i < startIndex + 11; 
-				 i = frame.nextSetBit( i+1 ) ) 
+		int errors = ERRORS[ syndrome ];
+		
+		if( errors == UNCORRECTABLE )
 		{
-			calculated ^= CHECKSUMS[ i - startIndex ];
+			return 2;
 		}
 		
-		return calculated;
+		frame.xor( startIndex, 15, errors );
+		
+		return 1;
 	}
 
 	/**
-	 * Calculates the syndrome - xor of the calculated checksum and the actual
-	 * checksum.
+	 * Calculates the syndrome for a packed 15-bit codeword (first bit in the
+	 * MSB).
 	 * 
-	 * @param frame - binary frame containing a hamming(15,11,4) protected word
-	 * @param startIndex - of bit 0 of the hamming protected word
-	 * @return - 0 (no errors) or 1 (single bit error corrected)
+	 * @return syndrome, 0 - 15 where 0 indicates no errors
 	 */
-	private static int getSyndrome( BinaryMessage frame, int startIndex )
+	public static int getSyndrome( int codeword )
 	{
-		int calculated = calculateChecksum( frame, startIndex );
-		
-		int checksum = frame.getInt( startIndex + 11, startIndex + 14 );
-
-		return ( checksum ^ calculated );
+		return ENCODE[ ( codeword >>> 4 ) & 0x7FF ] ^ ( codeword & 0xF );
 	}
 }
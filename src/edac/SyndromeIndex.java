@@ -0,0 +1,116 @@
+/*******************************************************************************
+ *     SDR Trunk
+ *     Copyright (C) 2014 Dennis Sheirer
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package edac;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash index of syndrome (checksum error) values to integer
+ * values (e.g. bit error positions).  Lookups are allocation free.
+ *
+ * When a syndrome is added more than once, the first value is retained, which
+ * matches the behavior of a linear scan of a checksum array.
+ */
+public class SyndromeIndex
+{
+	public static final int NO_ENTRY = -1;
+
+	private long[] mSyndromes;
+	private int[] mValues;
+	private int mMask;
+
+	/**
+	 * Constructs an index sized for the expected number of entries
+	 */
+	public SyndromeIndex( int entries )
+	{
+		int capacity = Integer.highestOneBit( Math.max( entries, 1 ) * 4 );
+
+		mSyndromes = new long[ capacity ];
+		mValues = new int[ capacity ];
+		mMask = capacity - 1;
+
+		Arrays.fill( mValues, NO_ENTRY );
+	}
+
+	/**
+	 * Creates an index of checksum value to array index (bit position)
+	 */
+	public static SyndromeIndex create( long[] checksums )
+	{
+		SyndromeIndex index = new SyndromeIndex( checksums.length );
+
+		for( int x = 0; x < checksums.length; x++ )
+		{
+			index.add( checksums[ x ], x );
+		}
+
+		return index;
+	}
+
+	/**
+	 * Adds the syndrome and value, unless the syndrome is already indexed.
+	 *
+	 * @param syndrome to index
+	 * @param value - non-negative value
+	 */
+	public void add( long syndrome, int value )
+	{
+		int slot = hash( syndrome );
+
+		while( mValues[ slot ] != NO_ENTRY )
+		{
+			if( mSyndromes[ slot ] == syndrome )
+			{
+				return;
+			}
+
+			slot = ( slot + 1 ) & mMask;
+		}
+
+		mSyndromes[ slot ] = syndrome;
+		mValues[ slot ] = value;
+	}
+
+	/**
+	 * Returns the value indexed for the syndrome or NO_ENTRY (-1)
+	 */
+	public int get( long syndrome )
+	{
+		int slot = hash( syndrome );
+
+		while( mValues[ slot ] != NO_ENTRY )
+		{
+			if( mSyndromes[ slot ] == syndrome )
+			{
+				return mValues[ slot ];
+			}
+
+			slot = ( slot + 1 ) & mMask;
+		}
+
+		return NO_ENTRY;
+	}
+
+	private int hash( long value )
+	{
+		long h = value * 0x9E3779B97F4A7C15l;
+
+		return (int)( h >>> 32 ) & mMask;
+	}
+}
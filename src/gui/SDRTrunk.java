@@ -23,6 +23,8 @@ import alias.action.AliasActionManager;
 import audio.AudioManager;
 import audio.broadcast.BroadcastModel;
 import audio.broadcast.BroadcastStatusPanel;
+import audio.vad.VoiceActivityFilter;
+import channel.latency.LatencyPanel;
 import com.jidesoft.swing.JideSplitPane;
 import controller.ControllerPanel;
 import controller.channel.ChannelModel;
@@ -46,6 +48,7 @@ import source.tuner.TunerModel;
 import source.tuner.TunerSpectralDisplayManager;
 import source.tuner.configuration.TunerConfigurationModel;
 import spectrum.SpectralDisplayPanel;
+import util.ResourceMonitor;
 import util.ThreadPool;
 import util.TimeStamp;
 
@@ -65,6 +68,7 @@ public class SDRTrunk implements Listener<TunerEvent>
 {
     private final static Logger mLog = LoggerFactory.getLogger(SDRTrunk.class);
     private static final String PROPERTY_BROADCAST_STATUS_VISIBLE = "main.broadcast.status.visible";
+    private static final String ARGUMENT_HEADLESS = "-headless";
     private boolean mBroadcastStatusVisible;
 
     private IconManager mIconManager;
@@ -73,12 +77,24 @@ public class SDRTrunk implements Listener<TunerEvent>
     private ControllerPanel mControllerPanel;
     private SettingsManager mSettingsManager;
     private SpectralDisplayPanel mSpectralPanel;
-    private JFrame mMainGui = new JFrame();
+    private JFrame mMainGui;
     private JideSplitPane mSplitPane;
+    private ResourceMonitor mResourceMonitor;
 
     private String mTitle;
 
     public SDRTrunk()
+    {
+        this(false);
+    }
+
+    /**
+     * Constructs the application.
+     *
+     * @param headless true to run without a user interface.  Channel processing, tuners, recorders, audio
+     * broadcasting and event logging are started from the playlist without constructing any Swing components.
+     */
+    public SDRTrunk(boolean headless)
     {
         mLog.info("");
         mLog.info("*******************************************************************");
@@ -110,7 +126,11 @@ public class SDRTrunk implements Listener<TunerEvent>
         TunerConfigurationModel tunerConfigurationModel = new TunerConfigurationModel();
         TunerModel tunerModel = new TunerModel(tunerConfigurationModel);
 
-        mIconManager = new IconManager();
+        //Icons are only displayed by the user interface
+        if(!headless)
+        {
+            mIconManager = new IconManager();
+        }
 
         mSettingsManager = new SettingsManager(tunerConfigurationModel);
 
@@ -128,24 +148,60 @@ public class SDRTrunk implements Listener<TunerEvent>
 
         ChannelProcessingManager channelProcessingManager = new ChannelProcessingManager(
             channelModel, channelMapModel, aliasModel, eventLogManager, recorderManager, sourceManager);
-        channelProcessingManager.addAudioPacketListener(recorderManager);
+
+        //Recorded and streamed audio optionally passes through the voice activity filter to drop silence
+        VoiceActivityFilter voiceActivityFilter = null;
+
+        if(VoiceActivityFilter.isEnabled())
+        {
+            voiceActivityFilter = new VoiceActivityFilter(channelProcessingManager);
+            channelProcessingManager.addAudioPacketListener(voiceActivityFilter);
+            channelModel.addListener(voiceActivityFilter);
+            voiceActivityFilter.addListener(recorderManager);
+        }
+        else
+        {
+            channelProcessingManager.addAudioPacketListener(recorderManager);
+        }
 
         channelModel.addListener(channelProcessingManager);
 
+        AliasActionManager aliasActionManager = new AliasActionManager();
+        channelProcessingManager.addMessageListener(aliasActionManager);
+
+        mBroadcastModel = new BroadcastModel(mIconManager);
+
+        if(voiceActivityFilter != null)
+        {
+            voiceActivityFilter.addListener(mBroadcastModel);
+        }
+        else
+        {
+            channelProcessingManager.addAudioPacketListener(mBroadcastModel);
+        }
+
+        mResourceMonitor = new ResourceMonitor(headless ? "HEADLESS" : "GUI");
+        mResourceMonitor.start(ResourceMonitor.DEFAULT_INTERVAL_SECONDS);
+
+        PlaylistManager playlistManager = new PlaylistManager(aliasModel, mBroadcastModel, channelModel,
+            channelMapModel, channelProcessingManager);
+
+        if(headless)
+        {
+            playlistManager.init();
+
+            mLog.info("started in headless mode - no user interface");
+
+            return;
+        }
+
         ChannelSelectionManager channelSelectionManager =
             new ChannelSelectionManager(channelModel);
         channelModel.addListener(channelSelectionManager);
 
-        AliasActionManager aliasActionManager = new AliasActionManager();
-        channelProcessingManager.addMessageListener(aliasActionManager);
-
         AudioManager audioManager = new AudioManager(sourceManager.getMixerManager());
         channelProcessingManager.addAudioPacketListener(audioManager);
 
-        mBroadcastModel = new BroadcastModel(mIconManager);
-
-        channelProcessingManager.addAudioPacketListener(mBroadcastModel);
-
         MapService mapService = new MapService(mIconManager);
         channelProcessingManager.addMessageListener(mapService);
 
@@ -162,9 +218,6 @@ public class SDRTrunk implements Listener<TunerEvent>
         tunerModel.addListener(tunerSpectralDisplayManager);
         tunerModel.addListener(this);
 
-        PlaylistManager playlistManager = new PlaylistManager(aliasModel, mBroadcastModel, channelModel,
-            channelMapModel);
-
         playlistManager.init();
 
         mLog.info("starting main application gui");
@@ -192,11 +245,27 @@ public class SDRTrunk implements Listener<TunerEvent>
     }
 
     /**
-     * Launch the application.
+     * Launch the application.  Use the -headless argument to run without a user interface.
      */
     public static void main(String[] args)
     {
-        new SDRTrunk();
+        boolean headless = false;
+
+        for(String arg : args)
+        {
+            if(arg.equalsIgnoreCase(ARGUMENT_HEADLESS))
+            {
+                headless = true;
+            }
+        }
+
+        if(headless)
+        {
+            //Must be set before any AWT classes are loaded
+            System.setProperty("java.awt.headless", "true");
+        }
+
+        new SDRTrunk(headless);
     }
 
     /**
@@ -204,6 +273,7 @@ public class SDRTrunk implements Listener<TunerEvent>
      */
     private void initGUI()
     {
+        mMainGui = new JFrame();
         mMainGui.setLayout(new MigLayout("insets 0 0 0 0 ", "[grow,fill]", "[grow,fill]"));
 
         /**
@@ -296,6 +366,22 @@ public class SDRTrunk implements Listener<TunerEvent>
 
         viewMenu.add(new BroadcastStatusVisibleMenuItem(mControllerPanel));
 
+        JMenuItem latencyMenuItem = new JMenuItem("Call Following Latency");
+        latencyMenuItem.addActionListener(new ActionListener()
+        {
+            @Override
+            public void actionPerformed(ActionEvent arg0)
+            {
+                JFrame latencyFrame = new JFrame("Call Following Latency");
+                latencyFrame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+                latencyFrame.add(new LatencyPanel());
+                latencyFrame.setSize(new Dimension(700, 220));
+                latencyFrame.setLocationRelativeTo(mMainGui);
+                latencyFrame.setVisible(true);
+            }
+        });
+        viewMenu.add(latencyMenuItem);
+
         menuBar.add(viewMenu);
 
         JMenuItem screenCaptureItem = new JMenuItem("Screen Capture");
@@ -481,7 +567,7 @@ public class SDRTrunk implements Listener<TunerEvent>
     @Override
     public void receive(TunerEvent event)
     {
-        if(event.getEvent() == TunerEvent.Event.REQUEST_MAIN_SPECTRAL_DISPLAY)
+        if(event.getEvent() == TunerEvent.Event.REQUEST_MAIN_SPECTRAL_DISPLAY && mMainGui != null)
         {
             mMainGui.setTitle(mTitle + " - " + event.getTuner().getName());
         }
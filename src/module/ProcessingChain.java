@@ -43,10 +43,12 @@ import message.IMessageListener;
 import message.IMessageProvider;
 import message.Message;
 import module.decode.event.CallEvent;
+import module.decode.event.CallEventHistory;
 import module.decode.event.CallEventModel;
 import module.decode.event.ICallEventListener;
 import module.decode.event.ICallEventProvider;
 import module.decode.event.MessageActivityModel;
+import module.decode.event.MessageHistory;
 import module.log.EventLogger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -69,6 +71,7 @@ import source.tuner.frequency.IFrequencyChangeListener;
 import source.tuner.frequency.IFrequencyChangeProvider;
 import util.ThreadPool;
 
+import java.awt.GraphicsEnvironment;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -113,8 +116,12 @@ public class ProcessingChain implements IChannelEventListener
     protected Source mSource;
     private List<Module> mModules = new ArrayList<>();
     private CallEventModel mCallEventModel;
+    private CallEventHistory mCallEventHistory;
     private ChannelState mChannelState;
     private MessageActivityModel mMessageActivityModel;
+    private MessageHistory mMessageHistory;
+    private Listener<Long> mFirstSampleListener;
+    private FirstSampleMonitor<?> mFirstSampleMonitor;
 
     /**
      * Creates a processing chain for managing a set of modules
@@ -126,20 +133,44 @@ public class ProcessingChain implements IChannelEventListener
         mChannelState = new ChannelState(channelType);
         addModule(mChannelState);
 
-        mCallEventModel = new CallEventModel();
-        addCallEventListener(mCallEventModel);
+        //Without a display, call events are held in a plain bounded history instead of a table model
+        if(GraphicsEnvironment.isHeadless())
+        {
+            mCallEventHistory = new CallEventHistory(CallEventHistory.DEFAULT_CAPACITY);
+            addCallEventListener(mCallEventHistory);
+        }
+        else
+        {
+            mCallEventModel = new CallEventModel();
+            mCallEventHistory = mCallEventModel.getHistory();
+            addCallEventListener(mCallEventModel);
+        }
     }
 
+    /**
+     * Call event table model, or null when running headless
+     */
     public CallEventModel getCallEventModel()
     {
         return mCallEventModel;
     }
 
+    /**
+     * Call event history for this processing chain
+     */
+    public CallEventHistory getCallEventHistory()
+    {
+        return mCallEventHistory;
+    }
+
     public ChannelState getChannelState()
     {
         return mChannelState;
     }
 
+    /**
+     * Message activity table model, or null when running headless
+     */
     public MessageActivityModel getMessageActivityModel()
     {
         return mMessageActivityModel;
@@ -148,10 +179,29 @@ public class ProcessingChain implements IChannelEventListener
     public void setMessageActivityModel(MessageActivityModel model)
     {
         mMessageActivityModel = model;
+        mMessageHistory = model.getHistory();
 
         addMessageListener(mMessageActivityModel);
     }
 
+    /**
+     * Message history for this processing chain
+     */
+    public MessageHistory getMessageHistory()
+    {
+        return mMessageHistory;
+    }
+
+    /**
+     * Sets a message history without a table model, for use when running headless
+     */
+    public void setMessageHistory(MessageHistory history)
+    {
+        mMessageHistory = history;
+
+        addMessageListener(mMessageHistory);
+    }
+
     public void dispose()
     {
         stop();
@@ -211,6 +261,15 @@ public class ProcessingChain implements IChannelEventListener
         addModule(mSource);
     }
 
+    /**
+     * Sets a one-time listener to receive the timestamp (milliseconds) when the first sample buffer arrives from the
+     * source after the next invocation of start().  Used for measuring channel startup latency.
+     */
+    public void setFirstSampleListener(Listener<Long> listener)
+    {
+        mFirstSampleListener = listener;
+    }
+
     /**
      * List of current modules for this processing chain
      */
@@ -571,15 +630,27 @@ public class ProcessingChain implements IChannelEventListener
                 switch(mSource.getSampleType())
                 {
                     case COMPLEX:
+                        if(mFirstSampleListener != null)
+                        {
+                            mFirstSampleMonitor = new FirstSampleMonitor<>(mComplexBufferBroadcaster,
+                                mFirstSampleListener);
+                        }
                         ((ComplexSource) mSource).setListener(mComplexBufferBroadcaster);
                         break;
                     case REAL:
+                        if(mFirstSampleListener != null)
+                        {
+                            mFirstSampleMonitor = new FirstSampleMonitor<>(mFilteredRealBufferBroadcaster,
+                                mFirstSampleListener);
+                        }
                         ((RealSource) mSource).setListener(mFilteredRealBufferBroadcaster);
                         break;
                     default:
                         throw new IllegalArgumentException("Unrecognized source "
                             + "sample type - cannot start processing chain");
                 }
+
+                mFirstSampleListener = null;
 				
 				/* Start each of the modules */
                 for(Module module : mModules)
@@ -615,6 +686,12 @@ public class ProcessingChain implements IChannelEventListener
                 module.stop();
             }
 
+            if(mFirstSampleMonitor != null)
+            {
+                mFirstSampleMonitor.dispose();
+                mFirstSampleMonitor = null;
+            }
+
             if(mSource != null)
             {
                 removeModule(mSource);
@@ -811,4 +888,38 @@ public class ProcessingChain implements IChannelEventListener
     {
         return mChannelEventBroadcaster;
     }
+
+    /**
+     * Monitors a sample buffer broadcaster and notifies a listener with the arrival time of the first buffer, then
+     * deregisters itself.
+     */
+    private static class FirstSampleMonitor<T> implements Listener<T>
+    {
+        private Broadcaster<T> mBroadcaster;
+        private Listener<Long> mListener;
+        private AtomicBoolean mReceived = new AtomicBoolean();
+
+        public FirstSampleMonitor(Broadcaster<T> broadcaster, Listener<Long> listener)
+        {
+            mBroadcaster = broadcaster;
+            mListener = listener;
+            mBroadcaster.addListener(this);
+        }
+
+        @Override
+        public void receive(T t)
+        {
+            if(mReceived.compareAndSet(false, true))
+            {
+                mListener.receive(System.currentTimeMillis());
+                mBroadcaster.removeListener(this);
+            }
+        }
+
+        public void dispose()
+        {
+            mReceived.set(true);
+            mBroadcaster.removeListener(this);
+        }
+    }
 }
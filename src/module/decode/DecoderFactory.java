@@ -251,11 +251,12 @@ public class DecoderFactory
                         modules.add(new DemodulatedAudioFilterModule(P25_C4FM_DEMOD_FILTER, 1.0f));
                         modules.add(new P25_C4FMDecoder(aliasList, decodeConfig.getAFCMaximumCorrection()));
                         modules.add(new P25DecoderState(aliasList, channelType, Modulation.C4FM,
-                            p25Config.getIgnoreDataCalls()));
+                            p25Config.getIgnoreDataCalls(), p25Config.getDuplicateMessageWindow()));
                         break;
                     case CQPSK:
                         modules.add(new P25_LSMDecoder(aliasList));
-                        modules.add(new P25DecoderState(aliasList, channelType, Modulation.CQPSK, p25Config.getIgnoreDataCalls()));
+                        modules.add(new P25DecoderState(aliasList, channelType, Modulation.CQPSK,
+                            p25Config.getIgnoreDataCalls(), p25Config.getDuplicateMessageWindow()));
                         break;
                     default:
                         throw new IllegalArgumentException("Unrecognized P25 Phase 1 Modulation [" + modulation + "]");
@@ -495,6 +496,7 @@ public class DecoderFactory
                     copyP25.setAFC(originalP25.getAFC());
                     copyP25.setAFCMaximumCorrection(originalP25.getAFCMaximumCorrection());
                     copyP25.setIgnoreDataCalls(originalP25.getIgnoreDataCalls());
+                    copyP25.setDuplicateMessageWindow(originalP25.getDuplicateMessageWindow());
                     copyP25.setModulation(originalP25.getModulation());
                     copyP25.setTrafficChannelPoolSize(originalP25.getTrafficChannelPoolSize());
                     return copyP25;
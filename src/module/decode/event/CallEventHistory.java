@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package module.decode.event;
+
+import buffer.HistoryBuffer;
+import sample.Listener;
+
+/**
+ * Bounded, thread safe history of call events ordered newest first.  Producers can send the same call event multiple
+ * times to indicate that information in the event is updated, and an event that is marked invalid is removed.
+ *
+ * Backs the call event table model and is used on its own, without any swing components, when running headless.
+ */
+public class CallEventHistory implements Listener<CallEvent>
+{
+    public static final int DEFAULT_CAPACITY = 500;
+
+    private HistoryBuffer<CallEvent> mEvents;
+
+    /**
+     * Constructs an instance
+     *
+     * @param capacity maximum number of call events retained
+     */
+    public CallEventHistory(int capacity)
+    {
+        mEvents = new HistoryBuffer<>(capacity);
+    }
+
+    @Override
+    public void receive(CallEvent event)
+    {
+        apply(event);
+    }
+
+    /**
+     * Adds the event when it is valid and not already in the history, or removes the event when it is invalid
+     *
+     * @return true if the event was added to the history, false if it was updated or removed
+     */
+    public synchronized boolean apply(CallEvent event)
+    {
+        int index = mEvents.indexOf(event);
+
+        if(event.isValid())
+        {
+            if(index < 0)
+            {
+                mEvents.add(event);
+
+                return true;
+            }
+        }
+        else if(index >= 0)
+        {
+            mEvents.remove(index);
+        }
+
+        return false;
+    }
+
+    /**
+     * Call event at the index where index 0 is the newest event
+     *
+     * @return event or null if the index is out of range
+     */
+    public synchronized CallEvent get(int index)
+    {
+        return mEvents.get(index);
+    }
+
+    /**
+     * Number of call events in this history
+     */
+    public synchronized int size()
+    {
+        return mEvents.size();
+    }
+
+    /**
+     * Maximum number of call events retained
+     */
+    public synchronized int getCapacity()
+    {
+        return mEvents.getCapacity();
+    }
+
+    /**
+     * Changes the capacity, retaining the newest events that fit within the new capacity
+     */
+    public synchronized void setCapacity(int capacity)
+    {
+        mEvents.setCapacity(capacity);
+    }
+
+    /**
+     * Removes all call events
+     */
+    public synchronized void clear()
+    {
+        mEvents.clear();
+    }
+}
@@ -20,11 +20,11 @@ package module.decode.event;
 import alias.Alias;
 import module.decode.event.CallEvent.CallEventType;
 import sample.Listener;
+import util.SwingUpdateCoalescer;
 
 import javax.swing.table.AbstractTableModel;
 import java.text.DecimalFormat;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.List;
 
 public class CallEventModel extends AbstractTableModel implements Listener<CallEvent>
@@ -43,9 +43,20 @@ public class CallEventModel extends AbstractTableModel implements Listener<CallE
     public static final int FREQUENCY = 7;
     public static final int DETAILS = 8;
 
-    protected int mMaxMessages = 500;
+    protected int mMaxMessages = CallEventHistory.DEFAULT_CAPACITY;
 
-    protected List<CallEvent> mEvents = new ArrayList<CallEvent>();
+    protected CallEventHistory mEvents = new CallEventHistory(mMaxMessages);
+
+    //Call events are queued and applied to the history in batches on the swing thread at a limited rate
+    private SwingUpdateCoalescer<CallEvent> mUpdateCoalescer = new SwingUpdateCoalescer<>(
+        new Listener<List<CallEvent>>()
+        {
+            @Override
+            public void receive(List<CallEvent> callEvents)
+            {
+                update(callEvents);
+            }
+        });
 
     protected String[] mHeaders = new String[]{"Time",
         "Event",
@@ -65,11 +76,26 @@ public class CallEventModel extends AbstractTableModel implements Listener<CallE
 
     public void dispose()
     {
+        mUpdateCoalescer.clear();
+
         mEvents.clear();
     }
 
+    /**
+     * Call event history that backs this model
+     */
+    public CallEventHistory getHistory()
+    {
+        return mEvents;
+    }
+
+    /**
+     * Clears the call event history.  Must be invoked on the swing event thread.
+     */
     public void reset()
     {
+        mUpdateCoalescer.clear();
+
         mEvents.clear();
 
         fireTableDataChanged();
@@ -80,9 +106,16 @@ public class CallEventModel extends AbstractTableModel implements Listener<CallE
         return mMaxMessages;
     }
 
+    /**
+     * Sets the maximum call event history size.  Must be invoked on the swing event thread.
+     */
     public void setMaxMessageCount(int count)
     {
         mMaxMessages = count;
+
+        mEvents.setCapacity(count);
+
+        fireTableDataChanged();
     }
 
     /**
@@ -93,44 +126,58 @@ public class CallEventModel extends AbstractTableModel implements Listener<CallE
      */
     public void receive(final CallEvent event)
     {
-        if(event.isValid())
-        {
-            if(!mEvents.contains(event))
-            {
-                mEvents.add(0, event);
+        mUpdateCoalescer.receive(event);
+    }
 
-                fireTableRowsInserted(0, 0);
+    /**
+     * Applies a batch of call events (oldest first) and fires batched table events.  Invoked on the swing event
+     * thread.
+     */
+    private void update(List<CallEvent> callEvents)
+    {
+        int previousCount = mEvents.size();
+        int added = 0;
+        boolean removed = false;
+        boolean updated = false;
 
-                prune();
+        for(CallEvent event : callEvents)
+        {
+            if(mEvents.apply(event))
+            {
+                added++;
+            }
+            else if(event.isValid())
+            {
+                updated = true;
             }
             else
             {
-                int row = mEvents.indexOf(event);
-
-                fireTableRowsUpdated(row, row);
+                removed = true;
             }
         }
-        else
+
+        if(removed || added > mEvents.getCapacity())
         {
-            if(mEvents.contains(event))
-            {
-                int row = mEvents.indexOf(event);
+            fireTableDataChanged();
+            return;
+        }
 
-                mEvents.remove(event);
+        int evicted = previousCount + added - mEvents.size();
 
-                fireTableRowsDeleted(row, row);
-            }
+        if(added > 0)
+        {
+            fireTableRowsInserted(0, added - 1);
         }
-    }
 
-    private void prune()
-    {
-        while(mEvents.size() > mMaxMessages)
+        if(evicted > 0)
         {
-            int index = mEvents.size() - 1;
-            mEvents.remove(index);
+            fireTableRowsDeleted(mEvents.size(), mEvents.size() + evicted - 1);
+        }
 
-            fireTableRowsDeleted(index, index);
+        //Previously listed events that were updated are refreshed with a single update event
+        if(updated && added < mEvents.size())
+        {
+            fireTableRowsUpdated(added, mEvents.size() - 1);
         }
     }
 
@@ -154,7 +201,9 @@ public class CallEventModel extends AbstractTableModel implements Listener<CallE
     @Override
     public Object getValueAt(int rowIndex, int columnIndex)
     {
-        synchronized(mEvents)
+        CallEvent event = mEvents.get(rowIndex);
+
+        if(event != null)
         {
             switch(columnIndex)
             {
@@ -162,15 +211,15 @@ public class CallEventModel extends AbstractTableModel implements Listener<CallE
                     StringBuilder sb = new StringBuilder();
 
                     sb.append(mSDFTime.format(
-                        mEvents.get(rowIndex).getEventStartTime()));
+                        event.getEventStartTime()));
 
-                    if(mEvents.get(rowIndex).getEventEndTime() != 0)
+                    if(event.getEventEndTime() != 0)
                     {
                         sb.append(" - ");
                         sb.append(mSDFTime.format(
-                            mEvents.get(rowIndex).getEventEndTime()));
+                            event.getEventEndTime()));
                     }
-                    else if(mEvents.get(rowIndex)
+                    else if(event
                         .getCallEventType() == CallEventType.CALL)
                     {
                         sb.append(" - In Progress");
@@ -178,19 +227,19 @@ public class CallEventModel extends AbstractTableModel implements Listener<CallE
 
                     return sb.toString();
                 case EVENT:
-                    return mEvents.get(rowIndex).getCallEventType();
+                    return event.getCallEventType();
                 case FROM_ID:
-                    return mEvents.get(rowIndex).getFromID();
+                    return event.getFromID();
                 case FROM_ALIAS:
-                    return mEvents.get(rowIndex).getFromIDAlias();
+                    return event.getFromIDAlias();
                 case TO_ID:
-                    return mEvents.get(rowIndex).getToID();
+                    return event.getToID();
                 case TO_ALIAS:
-                    return mEvents.get(rowIndex).getToIDAlias();
+                    return event.getToIDAlias();
                 case CHANNEL:
-                    return mEvents.get(rowIndex).getChannel();
+                    return event.getChannel();
                 case FREQUENCY:
-                    long frequency = mEvents.get(rowIndex).getFrequency();
+                    long frequency = event.getFrequency();
 
                     if(frequency != 0)
                     {
@@ -201,7 +250,7 @@ public class CallEventModel extends AbstractTableModel implements Listener<CallE
                         return null;
                     }
                 case DETAILS:
-                    return mEvents.get(rowIndex).getDetails();
+                    return event.getDetails();
             }
         }
 
@@ -20,12 +20,13 @@ package module.decode.event;
 import java.awt.EventQueue;
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.LinkedList;
+import java.util.List;
 
 import javax.swing.table.AbstractTableModel;
 
 import message.Message;
 import sample.Listener;
+import util.SwingUpdateCoalescer;
 import filter.FilterSet;
 
 public class MessageActivityModel extends AbstractTableModel
@@ -38,8 +39,20 @@ public class MessageActivityModel extends AbstractTableModel
     private static final int MESSAGE = 3;
     private static final int MESSAGE_BITS = 4;
 
-	protected int mMaxMessages = 500;
-	protected LinkedList<Message> mMessages = new LinkedList<Message>();
+	protected int mMaxMessages = MessageHistory.DEFAULT_CAPACITY;
+	protected MessageHistory mMessages;
+
+	/* Messages are queued and added to the history in batches on the swing
+	 * thread at a limited rate, independent of the message rate */
+	private SwingUpdateCoalescer<Message> mUpdateCoalescer = 
+			new SwingUpdateCoalescer<Message>( new Listener<List<Message>>()
+	{
+		@Override
+		public void receive( List<Message> messages )
+		{
+			add( messages );
+		}
+	} );
 
 	protected int[] mColumnWidths = { 110, 110, 110, -1, -1 };
 
@@ -53,15 +66,14 @@ public class MessageActivityModel extends AbstractTableModel
 	
 	private boolean mNewMessagesFirst = true;
 	
-	private FilterSet<Message> mMessageFilter;
-	
 	public MessageActivityModel( FilterSet<Message> messageFilter )
 	{
-		mMessageFilter = messageFilter;
+		mMessages = new MessageHistory( messageFilter, mMaxMessages );
 	}
 	
 	public MessageActivityModel()
 	{
+		this( null );
 	}
 	
 	/**
@@ -74,22 +86,32 @@ public class MessageActivityModel extends AbstractTableModel
 			@Override
             public void run()
             {
-				int messageCount = mMessages.size();
-				
+				mUpdateCoalescer.clear();
+
 				mMessages.clear();
 
-				fireTableRowsDeleted( 0, messageCount - 1 );
+				fireTableDataChanged();
             }
 		});
 	}
 	
 	public FilterSet<Message> getMessageFilter()
 	{
-		return mMessageFilter;
+		return mMessages.getMessageFilter();
+	}
+	
+	/**
+	 * Message history that backs this model
+	 */
+	public MessageHistory getHistory()
+	{
+		return mMessages;
 	}
 	
 	public void dispose()
 	{
+		mUpdateCoalescer.clear();
+
 		mMessages.clear();
 	}
 	
@@ -116,37 +138,53 @@ public class MessageActivityModel extends AbstractTableModel
 		return mMaxMessages;
 	}
 
+	/**
+	 * Sets the maximum message history size.  Must be invoked on the swing 
+	 * event thread.
+	 */
 	public void setMaxMessageCount( int count )
 	{
 		mMaxMessages = count;
+
+		mMessages.setCapacity( count );
+
+		fireTableDataChanged();
 	}
 	
 	public void receive( final Message message )
 	{
-		if( message.isValid() && mMessageFilter.passes( message ) )
+		if( mMessages.accepts( message ) )
 		{
-			EventQueue.invokeLater( new Runnable() 
-			{
-				@Override
-	            public void run()
-	            {
-					mMessages.addFirst( message );
-
-					MessageActivityModel.this.fireTableRowsInserted( 0, 0 );
-
-					prune();
-	            }
-			} );
+			mUpdateCoalescer.receive( message );
 		}
 	}
 	
-	private void prune()
+	/**
+	 * Adds a batch of messages (oldest first) to the history and fires a 
+	 * single table insert event, plus a single delete event for any older 
+	 * messages that were removed to enforce the maximum history size.
+	 * Invoked on the swing event thread.
+	 */
+	private void add( List<Message> messages )
 	{
-		while( mMessages.size() > mMaxMessages )
+		int previousCount = mMessages.size();
+
+		//Only the newest messages that fit in the history are retained
+		int start = Math.max( 0, messages.size() - mMessages.getCapacity() );
+
+		for( int x = start; x < messages.size(); x++ )
 		{
-			mMessages.removeLast();
-			
-			super.fireTableRowsDeleted( mMessages.size() - 1, mMessages.size() - 1 );
+			mMessages.add( messages.get( x ) );
+		}
+
+		int added = messages.size() - start;
+		int removed = previousCount + added - mMessages.size();
+
+		fireTableRowsInserted( 0, added - 1 );
+
+		if( removed > 0 )
+		{
+			fireTableRowsDeleted( mMessages.size(), mMessages.size() + removed - 1 );
 		}
 	}
 
@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package module.decode.event;
+
+import buffer.HistoryBuffer;
+import filter.FilterSet;
+import message.Message;
+import sample.Listener;
+
+/**
+ * Bounded, thread safe history of decoded messages ordered newest first.  Only valid messages that pass the optional
+ * message filter are retained.
+ *
+ * Backs the message activity table model and is used on its own, without any swing components, when running
+ * headless.
+ */
+public class MessageHistory implements Listener<Message>
+{
+    public static final int DEFAULT_CAPACITY = 500;
+
+    private HistoryBuffer<Message> mMessages;
+    private FilterSet<Message> mMessageFilter;
+
+    /**
+     * Constructs an instance
+     *
+     * @param messageFilter to select the retained messages, or null to retain all valid messages
+     * @param capacity maximum number of messages retained
+     */
+    public MessageHistory(FilterSet<Message> messageFilter, int capacity)
+    {
+        mMessageFilter = messageFilter;
+        mMessages = new HistoryBuffer<>(capacity);
+    }
+
+    /**
+     * Message filter or null
+     */
+    public FilterSet<Message> getMessageFilter()
+    {
+        return mMessageFilter;
+    }
+
+    /**
+     * Indicates if the message is valid and passes the message filter
+     */
+    public boolean accepts(Message message)
+    {
+        return message.isValid() && (mMessageFilter == null || mMessageFilter.passes(message));
+    }
+
+    @Override
+    public void receive(Message message)
+    {
+        if(accepts(message))
+        {
+            add(message);
+        }
+    }
+
+    /**
+     * Adds the message as the newest message, without filtering
+     *
+     * @return true if the oldest message was removed to make room for the message
+     */
+    public synchronized boolean add(Message message)
+    {
+        return mMessages.add(message);
+    }
+
+    /**
+     * Message at the index where index 0 is the newest message
+     *
+     * @return message or null if the index is out of range
+     */
+    public synchronized Message get(int index)
+    {
+        return mMessages.get(index);
+    }
+
+    /**
+     * Number of messages in this history
+     */
+    public synchronized int size()
+    {
+        return mMessages.size();
+    }
+
+    /**
+     * Maximum number of messages retained
+     */
+    public synchronized int getCapacity()
+    {
+        return mMessages.getCapacity();
+    }
+
+    /**
+     * Changes the capacity, retaining the newest messages that fit within the new capacity
+     */
+    public synchronized void setCapacity(int capacity)
+    {
+        mMessages.setCapacity(capacity);
+    }
+
+    /**
+     * Removes all messages
+     */
+    public synchronized void clear()
+    {
+        mMessages.clear();
+    }
+}
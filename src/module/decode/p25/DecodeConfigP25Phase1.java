@@ -31,6 +31,7 @@ public class DecodeConfigP25Phase1 extends DecodeConfiguration
 	private int mCallTimeout = 1;
 	private int mTrafficChannelPoolSize = TRAFFIC_CHANNEL_LIMIT_DEFAULT;
 	private boolean mIgnoreDataCalls = true;
+	private int mDuplicateMessageWindow = DuplicateMessageCache.WINDOW_DEFAULT;
 	
 	public DecodeConfigP25Phase1()
     {
@@ -66,6 +67,22 @@ public class DecodeConfigP25Phase1 extends DecodeConfiguration
 		mIgnoreDataCalls = ignore;
 	}
 
+	@XmlAttribute( name = "duplicate_message_window" )
+	public int getDuplicateMessageWindow()
+	{
+		return mDuplicateMessageWindow;
+	}
+	
+	/**
+	 * Sets the window in milliseconds where exact repeats of control channel
+	 * broadcast messages are ignored by the decoder state.  A value of zero
+	 * disables duplicate message detection.
+	 */
+	public void setDuplicateMessageWindow( int window )
+	{
+		mDuplicateMessageWindow = window;
+	}
+
 	/**
 	 * Note: this field is now deprecated.
 	 * @return
@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package module.decode.p25;
+
+import bits.BinaryMessage;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Recently processed message cache for detecting exact repeats of control channel broadcast messages.
+ *
+ * Messages are keyed on the (error corrected) message bits.  A message is a duplicate when an identical message was
+ * processed within the window.  Duplicates do not refresh the cached timestamp, so an identical message is always
+ * processed at least once per window interval.
+ */
+public class DuplicateMessageCache
+{
+    public static final int WINDOW_DEFAULT = 2000;
+    public static final int WINDOW_MAXIMUM = 4000;
+    public static final int MAXIMUM_ENTRIES = 256;
+
+    private Map<BinaryMessage,Long> mMessages = new LinkedHashMap<BinaryMessage,Long>()
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<BinaryMessage,Long> eldest)
+        {
+            return size() > MAXIMUM_ENTRIES;
+        }
+    };
+
+    private long mWindow;
+    private long mHitCount;
+    private long mMissCount;
+
+    /**
+     * Constructs a cache.
+     *
+     * @param window in milliseconds that an identical message is considered a duplicate.  A window of zero disables
+     * duplicate detection.  Values are limited to the maximum window so that repeated messages that refresh decoder
+     * state (e.g. patch groups that expire after 5 seconds) are still processed often enough.
+     */
+    public DuplicateMessageCache(long window)
+    {
+        mWindow = Math.max(0, Math.min(window, WINDOW_MAXIMUM));
+    }
+
+    /**
+     * Indicates if the message is an exact repeat of a message processed within the window.  When the message is not
+     * a duplicate, it is added to the cache with the current timestamp.
+     *
+     * @param message bits to check
+     * @param timestamp of the message in milliseconds
+     * @return true if the message is a duplicate and can be ignored
+     */
+    public boolean isDuplicate(BinaryMessage message, long timestamp)
+    {
+        if(mWindow == 0 || message == null)
+        {
+            return false;
+        }
+
+        purge(timestamp);
+
+        if(mMessages.containsKey(message))
+        {
+            mHitCount++;
+            return true;
+        }
+
+        mMessages.put(message, timestamp);
+        mMissCount++;
+
+        return false;
+    }
+
+    /**
+     * Removes expired entries.  Entries are held in insertion (timestamp) order, so removal stops at the first entry
+     * that is still within the window.
+     */
+    private void purge(long timestamp)
+    {
+        Iterator<Long> it = mMessages.values().iterator();
+
+        while(it.hasNext())
+        {
+            if(timestamp - it.next() >= mWindow)
+            {
+                it.remove();
+            }
+            else
+            {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Removes all cached messages.  Hit and miss counts are retained.
+     */
+    public void clear()
+    {
+        mMessages.clear();
+    }
+
+    /**
+     * Duplicate detection window in milliseconds
+     */
+    public long getWindow()
+    {
+        return mWindow;
+    }
+
+    /**
+     * Number of messages identified as duplicates
+     */
+    public long getHitCount()
+    {
+        return mHitCount;
+    }
+
+    /**
+     * Number of messages checked that were not duplicates
+     */
+    public long getMissCount()
+    {
+        return mMissCount;
+    }
+
+    /**
+     * Ratio (0.0 - 1.0) of checked messages that were duplicates
+     */
+    public double getHitRatio()
+    {
+        long total = mHitCount + mMissCount;
+
+        return total > 0 ? (double)mHitCount / (double)total : 0.0d;
+    }
+}
@@ -127,6 +127,13 @@ public class P25DecoderEditor extends ValidatingEditor<Channel>
 			p25.setModulation( (Modulation)mComboModulation.getSelectedItem() );
 			p25.setIgnoreDataCalls( mIgnoreDataCalls.isSelected() );
 			p25.setTrafficChannelPoolSize( mTrafficChannelPoolSize.getValue() );
+
+			/* Duplicate message window is not editable - carry it forward */
+			if( getItem().getDecodeConfiguration() instanceof DecodeConfigP25Phase1 )
+			{
+				p25.setDuplicateMessageWindow( ((DecodeConfigP25Phase1)getItem()
+					.getDecodeConfiguration()).getDuplicateMessageWindow() );
+			}
 			
 			getItem().setDecodeConfiguration( p25 );
 		}
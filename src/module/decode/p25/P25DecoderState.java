@@ -187,16 +187,37 @@ public class P25DecoderState extends DecoderState
     private List<String> mCallDetectTalkgroups = new ArrayList<>();
     private Map<String,P25CallEvent> mChannelCallMap = new HashMap<>();
     private PatchGroupManager mPatchGroupManager;
+    private DuplicateMessageCache mDuplicateMessageCache;
 
     public P25DecoderState(AliasList aliasList,
                            ChannelType channelType,
                            Modulation modulation,
                            boolean ignoreDataCalls)
+    {
+        this(aliasList, channelType, modulation, ignoreDataCalls, DuplicateMessageCache.WINDOW_DEFAULT);
+    }
+
+    /**
+     * Constructs a P25 decoder state.
+     *
+     * @param aliasList for aliasing identifiers
+     * @param channelType of the channel
+     * @param modulation used by the channel
+     * @param ignoreDataCalls to ignore data channel grants
+     * @param duplicateMessageWindow in milliseconds where exact repeats of control channel broadcast messages are
+     * ignored, or zero to process every message
+     */
+    public P25DecoderState(AliasList aliasList,
+                           ChannelType channelType,
+                           Modulation modulation,
+                           boolean ignoreDataCalls,
+                           int duplicateMessageWindow)
     {
         super(aliasList);
         mChannelType = channelType;
         mModulation = modulation;
         mIgnoreDataCalls = ignoreDataCalls;
+        mDuplicateMessageCache = new DuplicateMessageCache(duplicateMessageWindow);
 
         mPatchGroupManager = new PatchGroupManager(aliasList, getCallEventBroadcaster());
         mSiteAttributeMonitor = new AliasedStringAttributeMonitor(Attribute.NETWORK_ID_2,
@@ -215,6 +236,14 @@ public class P25DecoderState extends DecoderState
         return mModulation;
     }
 
+    /**
+     * Cache of recently processed control channel broadcast messages, with hit and miss statistics
+     */
+    public DuplicateMessageCache getDuplicateMessageCache()
+    {
+        return mDuplicateMessageCache;
+    }
+
     @Override
     public DecoderType getDecoderType()
     {
@@ -237,6 +266,7 @@ public class P25DecoderState extends DecoderState
         mNAC = null;
         mSiteAttributeMonitor.reset();
         mSystem = null;
+        mDuplicateMessageCache.clear();
     }
 
     /**
@@ -1507,6 +1537,11 @@ public class P25DecoderState extends DecoderState
 		/* Trunking Signalling Block Messages - indicates Control Channel */
         broadcast(new DecoderStateEvent(this, Event.CONTINUATION, State.CONTROL));
 
+        if(isRepeatable(tsbk) && mDuplicateMessageCache.isDuplicate(tsbk.getSourceMessage(), tsbk.getTimeReceived()))
+        {
+            return;
+        }
+
         if(tsbk.getVendor() == Vendor.STANDARD)
         {
             switch(tsbk.getOpcode())
@@ -1634,6 +1669,45 @@ public class P25DecoderState extends DecoderState
         }
     }
 
+    /**
+     * Indicates if the message is a control channel broadcast that is continuously repeated by the system and whose
+     * exact repeats can be ignored without loss of information.  Channel grants, responses and commands are always
+     * processed since repeats of those messages update call events and traffic channel allocations.
+     */
+    private boolean isRepeatable(TSBKMessage tsbk)
+    {
+        if(tsbk.getVendor() == Vendor.STANDARD)
+        {
+            switch(tsbk.getOpcode())
+            {
+                case ADJACENT_STATUS_BROADCAST:
+                case IDENTIFIER_UPDATE_NON_VUHF:
+                case IDENTIFIER_UPDATE_VHF_UHF_BANDS:
+                case IDENTIFIER_UPDATE_TDMA:
+                case NETWORK_STATUS_BROADCAST:
+                case RFSS_STATUS_BROADCAST:
+                case SECONDARY_CONTROL_CHANNEL_BROADCAST:
+                case SNDCP_DATA_CHANNEL_ANNOUNCEMENT_EXPLICIT:
+                    return true;
+                default:
+                    return false;
+            }
+        }
+        else if(tsbk.getVendor() == Vendor.MOTOROLA)
+        {
+            switch(tsbk.getMotorolaOpcode())
+            {
+                case PATCH_GROUP_ADD:
+                case PATCH_GROUP_DELETE:
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        return false;
+    }
+
     /**
      * Process a Packet Data Unit message
      */
@@ -3581,6 +3655,20 @@ public class P25DecoderState extends DecoderState
             }
         }
 
+        sb.append(DIVIDER2).append("DUPLICATE MESSAGE CACHE: ");
+
+        if(mDuplicateMessageCache.getWindow() > 0)
+        {
+            sb.append("WINDOW:").append(mDuplicateMessageCache.getWindow()).append("ms");
+            sb.append(" HITS:").append(mDuplicateMessageCache.getHitCount());
+            sb.append(" MISSES:").append(mDuplicateMessageCache.getMissCount());
+            sb.append(" HIT RATIO:").append(Math.round(mDuplicateMessageCache.getHitRatio() * 100.0d)).append("%\n");
+        }
+        else
+        {
+            sb.append("DISABLED\n");
+        }
+
         return sb.toString();
     }
 
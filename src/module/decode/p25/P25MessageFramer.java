@@ -252,8 +252,18 @@ public class P25MessageFramer implements Listener<Dibit>
         public void reset()
         {
         	mDUID = DataUnitID.NID;
-        	mMessage.setSize( mDUID.getMessageLength() );
-        	mMessage.clear();
+
+        	if( mMessage == null )
+        	{
+        		/* The previous buffer was handed off to a dispatched message */
+        		mMessage = new BinaryMessage( mDUID.getMessageLength() );
+        	}
+        	else
+        	{
+        		mMessage.setSize( mDUID.getMessageLength() );
+        		mMessage.clear();
+        	}
+
         	mStatusSymbolPointer = 24;
             mComplete = false;
             mActive = false;
@@ -271,6 +281,23 @@ public class P25MessageFramer implements Listener<Dibit>
         	mMessage.setSize( mMessageLength );
         }
 
+        /**
+         * Hands the assembled message buffer over to the message that is being
+         * dispatched, instead of copying it.  The dispatched message is then 
+         * the only holder of the buffer, which is never modified by the 
+         * assembler again, so it can be shared with any listener thread.  The
+         * next message is assembled into a new buffer.  Only invoked once the 
+         * assembler is finished with the current message.
+         */
+        private BinaryMessage handoff()
+        {
+        	BinaryMessage message = mMessage;
+        	
+        	mMessage = null;
+        	
+        	return message;
+        }
+
         private void checkComplete()
         {
         	switch( mDUID )
@@ -291,7 +318,7 @@ public class P25MessageFramer implements Listener<Dibit>
 						else
 						{
 							mComplete = true;
-		                    dispatch( new P25Message( mMessage.copy(), mDUID, mAliasList ) );
+		                    dispatch( new P25Message( handoff(), mDUID, mAliasList ) );
 						}
 					}
 					else
@@ -301,7 +328,7 @@ public class P25MessageFramer implements Listener<Dibit>
 					break;
 				case HDU:
 					mComplete = true;
-                    dispatch( new HDUMessage( mMessage.copy(), mDUID, mAliasList ) );
+                    dispatch( new HDUMessage( handoff(), mDUID, mAliasList ) );
                     
                     /* We're in a call now, lower the sync match threshold */
                     mPrimarySyncDetector.setThreshold( SYNC_IN_CALL_THRESHOLD );
@@ -309,7 +336,7 @@ public class P25MessageFramer implements Listener<Dibit>
 				case LDU1:
 					mComplete = true;
 					
-					LDU1Message ldu1 = new LDU1Message( mMessage.copy(), 
+					LDU1Message ldu1 = new LDU1Message( handoff(), 
 							mDUID, mAliasList );
 
 					/* Convert the LDU1 message into a link control LDU1 message */
@@ -320,7 +347,7 @@ public class P25MessageFramer implements Listener<Dibit>
 					break;
 				case LDU2:
 					mComplete = true;
-                    dispatch( new LDU2Message( mMessage.copy(), mDUID, mAliasList ) );
+                    dispatch( new LDU2Message( handoff(), mDUID, mAliasList ) );
 
                     /* We're in a call now, lower the sync match threshold */
                     mPrimarySyncDetector.setThreshold( SYNC_IN_CALL_THRESHOLD );
@@ -381,7 +408,7 @@ public class P25MessageFramer implements Listener<Dibit>
 							mMessage.setSize( PDU2_BEGIN );
 							
 		                    PDUMessage pduMessage1 = PDUMessageFactory.getMessage( 
-		                    		mMessage.copy(), DataUnitID.PDU1, mAliasList ); 
+		                    		handoff(), DataUnitID.PDU1, mAliasList ); 
 
 		                    dispatch( pduMessage1 );
 							
@@ -412,7 +439,7 @@ public class P25MessageFramer implements Listener<Dibit>
 							mMessage.setSize( PDU3_BEGIN );
 							
 		                    PDUMessage pduMessage2 = PDUMessageFactory.getMessage( 
-		                    		mMessage.copy(), DataUnitID.PDU2, mAliasList ); 
+		                    		handoff(), DataUnitID.PDU2, mAliasList ); 
 
 		                    dispatch( pduMessage2 );
 							
@@ -444,7 +471,7 @@ public class P25MessageFramer implements Listener<Dibit>
 						mMessage.setSize( PDU3_DECODED_END );
 						
 	                    PDUMessage pduMessage3 = PDUMessageFactory.getMessage( 
-	                    		mMessage.copy(), DataUnitID.PDU3, mAliasList ); 
+	                    		handoff(), DataUnitID.PDU3, mAliasList ); 
 
 	                    dispatch( pduMessage3 );
 					}
@@ -477,7 +504,7 @@ public class P25MessageFramer implements Listener<Dibit>
 						else
 						{
 							PDUConfirmedMessage pducm = 
-								new PDUConfirmedMessage( mMessage.copy(), 
+								new PDUConfirmedMessage( handoff(), 
 									mAliasList );
 
 							/* Translate into correct subclass */
@@ -490,7 +517,7 @@ public class P25MessageFramer implements Listener<Dibit>
 					else
 					{
 						PDUConfirmedMessage pducm = 
-								new PDUConfirmedMessage( mMessage.copy(), 
+								new PDUConfirmedMessage( handoff(), 
 									mAliasList );
 
 						/* Translate into correct subclass */
@@ -503,7 +530,7 @@ public class P25MessageFramer implements Listener<Dibit>
                     mPrimarySyncDetector.setThreshold( SYNC_MATCH_THRESHOLD );
 					break;
 				case TDU:
-                    dispatch( new TDUMessage( mMessage.copy(), mDUID, mAliasList ) );
+                    dispatch( new TDUMessage( handoff(), mDUID, mAliasList ) );
 					mComplete = true;
 
 					/* Set sync match threshold to normal */
@@ -511,7 +538,7 @@ public class P25MessageFramer implements Listener<Dibit>
 					break;
 				case TDULC:
 					TDULinkControlMessage tdulc =  new TDULinkControlMessage( 
-							mMessage.copy(), mDUID, mAliasList );
+							handoff(), mDUID, mAliasList );
 
 					/* Convert to an appropriate link control message */
 					tdulc = TDULCMessageFactory.getMessage( tdulc );
@@ -536,7 +563,10 @@ public class P25MessageFramer implements Listener<Dibit>
 
 						if( mMessage.getCRC() != CRC.FAILED_CRC )
 						{
-							BinaryMessage tsbkBuffer1 = mMessage.copy();
+							/* Hand off the buffer with the last block, otherwise
+							 * the next block is decoded into the buffer */
+							BinaryMessage tsbkBuffer1 = mMessage.get( 
+									TSBKMessage.LAST_BLOCK_FLAG ) ? handoff() : mMessage.copy();
 							tsbkBuffer1.setSize( TSBK_DECODED_END );
 							
 		                    TSBKMessage tsbkMessage1 = TSBKMessageFactory.getMessage( 
@@ -580,7 +610,8 @@ public class P25MessageFramer implements Listener<Dibit>
 						
 						if( mMessage.getCRC() != CRC.FAILED_CRC )
 						{
-							BinaryMessage tsbkBuffer2 = mMessage.copy();
+							BinaryMessage tsbkBuffer2 = mMessage.get( 
+									TSBKMessage.LAST_BLOCK_FLAG ) ? handoff() : mMessage.copy();
 							tsbkBuffer2.setSize( TSBK_DECODED_END );
 							
 		                    TSBKMessage tsbkMessage2 = TSBKMessageFactory.getMessage( 
@@ -621,7 +652,7 @@ public class P25MessageFramer implements Listener<Dibit>
 						
 						if( mMessage.getCRC() != CRC.FAILED_CRC )
 						{
-		                    BinaryMessage tsbkBuffer3 = mMessage.copy();
+		                    BinaryMessage tsbkBuffer3 = handoff();
 							tsbkBuffer3.setSize( TSBK_DECODED_END );
 		                    
 		                    TSBKMessage tsbkMessage3 = TSBKMessageFactory.getMessage( 
@@ -635,15 +666,15 @@ public class P25MessageFramer implements Listener<Dibit>
 					break;
 				case VSELP1:
 					mComplete = true;
-                    dispatch( new VSELP1Message( mMessage.copy(), mDUID, mAliasList ) );
+                    dispatch( new VSELP1Message( handoff(), mDUID, mAliasList ) );
 					break;
 				case VSELP2:
 					mComplete = true;
-                    dispatch( new VSELP2Message( mMessage.copy(), mDUID, mAliasList ) );
+                    dispatch( new VSELP2Message( handoff(), mDUID, mAliasList ) );
 					break;
 				case UNKN:
 					mComplete = true;
-                    dispatch( new P25Message( mMessage.copy(), mDUID, mAliasList ) );
+                    dispatch( new P25Message( handoff(), mDUID, mAliasList ) );
 					break;
 				default:
 					mComplete = true;
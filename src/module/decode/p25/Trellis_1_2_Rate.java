@@ -405,11 +405,13 @@ public class Trellis_1_2_Rate
 			return mTransmittedValue;
 		}
 		
+		private static final Constellation[] VALUES = values();
+
 		public static Constellation fromTransmittedValue( int value )
 		{
 			if( 0 <= value && value <= 15 )
 			{
-				return values()[ value ];
+				return VALUES[ value ];
 			}
 			
 			return null;
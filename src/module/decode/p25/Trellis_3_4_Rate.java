@@ -571,11 +571,13 @@ public class Trellis_3_4_Rate
 			return mTransmittedValue;
 		}
 		
+		private static final Con[] VALUES = values();
+
 		public static Con fromTransmittedValue( int value )
 		{
 			if( 0 <= value && value <= 15 )
 			{
-				return values()[ value ];
+				return VALUES[ value ];
 			}
 			
 			return null;
@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package module.decode.p25.audio;
+
+import controller.NamingThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import properties.SystemProperties;
+import util.ThreadPool;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared worker pool for decoding IMBE voice frames off of the channel processing threads.
+ *
+ * Each P25 audio module submits at most one decode task at a time, and that task decodes the module's queued voice
+ * frame batches in order, so the pool never decodes frames from the same call concurrently and the number of queued
+ * tasks is bounded by the number of active audio modules.  The worker thread count is set by system property and
+ * defaults to half of the available processors.
+ *
+ * The pool tracks the decode time per frame, the number of queued voice frame batches and the number of frames that
+ * were dropped because a call's queue was full.
+ */
+public class IMBEDecoderPool
+{
+    private final static Logger mLog = LoggerFactory.getLogger(IMBEDecoderPool.class);
+
+    public static final String PROPERTY_THREAD_COUNT = "p25.audio.decoder.threads";
+    public static final String PROPERTY_QUEUE_SIZE = "p25.audio.decoder.queue.size";
+    public static final String PROPERTY_BACKPRESSURE_MS = "p25.audio.decoder.backpressure.ms";
+
+    /* Voice frame batches (LDUs) queued per call - each LDU carries 180 ms of audio */
+    public static final int DEFAULT_QUEUE_SIZE = 10;
+    public static final int DEFAULT_BACKPRESSURE_MS = 10;
+    public static final long METRICS_INTERVAL_MS = 10000;
+
+    private static IMBEDecoderPool sInstance;
+
+    private ExecutorService mExecutor;
+    private int mQueueSize;
+    private long mBackpressure;
+
+    private AtomicInteger mQueueDepth = new AtomicInteger();
+    private AtomicLong mDecodedFrames = new AtomicLong();
+    private AtomicLong mDecodeNanos = new AtomicLong();
+    private AtomicLong mDroppedFrames = new AtomicLong();
+    private volatile int mPeakQueueDepth;
+    private volatile long mAverageDecodeNanos;
+
+    private IMBEDecoderPool()
+    {
+        int threads = SystemProperties.getInstance().get(PROPERTY_THREAD_COUNT,
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        mQueueSize = Math.max(1, SystemProperties.getInstance().get(PROPERTY_QUEUE_SIZE, DEFAULT_QUEUE_SIZE));
+        mBackpressure = SystemProperties.getInstance().get(PROPERTY_BACKPRESSURE_MS, DEFAULT_BACKPRESSURE_MS);
+
+        mExecutor = new ThreadPoolExecutor(threads, threads, 0l, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<Runnable>(), new NamingThreadFactory("sdrtrunk imbe decoder"));
+
+        ThreadPool.SCHEDULED.scheduleAtFixedRate(new MetricsLogger(), METRICS_INTERVAL_MS, METRICS_INTERVAL_MS,
+            TimeUnit.MILLISECONDS);
+
+        mLog.info("IMBE audio decoder pool created with [" + threads + "] threads");
+    }
+
+    /**
+     * Shared IMBE decoder pool
+     */
+    public static synchronized IMBEDecoderPool getInstance()
+    {
+        if(sInstance == null)
+        {
+            sInstance = new IMBEDecoderPool();
+        }
+
+        return sInstance;
+    }
+
+    /**
+     * Maximum number of voice frame batches queued per call
+     */
+    public int getQueueSize()
+    {
+        return mQueueSize;
+    }
+
+    /**
+     * Milliseconds that a channel thread waits for space in a full call queue before the oldest queued batch is
+     * dropped
+     */
+    public long getBackpressure()
+    {
+        return mBackpressure;
+    }
+
+    /**
+     * Submits an audio module's decode task to the pool
+     */
+    public void execute(Runnable decodeTask)
+    {
+        mExecutor.execute(decodeTask);
+    }
+
+    /**
+     * Records that a voice frame batch was queued for decoding
+     */
+    public void batchQueued()
+    {
+        int depth = mQueueDepth.incrementAndGet();
+
+        if(depth > mPeakQueueDepth)
+        {
+            mPeakQueueDepth = depth;
+        }
+    }
+
+    /**
+     * Records that a voice frame batch was removed from a queue, either for decoding or because it was dropped
+     */
+    public void batchDequeued()
+    {
+        mQueueDepth.decrementAndGet();
+    }
+
+    /**
+     * Records the number of frames decoded and the elapsed decode time
+     */
+    public void framesDecoded(int frames, long nanos)
+    {
+        mDecodedFrames.addAndGet(frames);
+        mDecodeNanos.addAndGet(nanos);
+    }
+
+    /**
+     * Records the number of frames dropped from a full queue
+     */
+    public void framesDropped(int frames)
+    {
+        mDroppedFrames.addAndGet(frames);
+    }
+
+    /**
+     * Number of voice frame batches queued for decoding across all calls
+     */
+    public int getQueueDepth()
+    {
+        return mQueueDepth.get();
+    }
+
+    /**
+     * Largest queue depth observed
+     */
+    public int getPeakQueueDepth()
+    {
+        return mPeakQueueDepth;
+    }
+
+    /**
+     * Average decode time per frame in nanoseconds over the latest metrics interval
+     */
+    public long getAverageDecodeNanos()
+    {
+        return mAverageDecodeNanos;
+    }
+
+    /**
+     * Total number of frames dropped because a call's decode queue was full
+     */
+    public long getDroppedFrameCount()
+    {
+        return mDroppedFrames.get();
+    }
+
+    /**
+     * Calculates the average decode time and logs the decoder metrics for the latest interval
+     */
+    public class MetricsLogger implements Runnable
+    {
+        @Override
+        public void run()
+        {
+            long frames = mDecodedFrames.getAndSet(0);
+            long nanos = mDecodeNanos.getAndSet(0);
+
+            if(frames > 0)
+            {
+                mAverageDecodeNanos = nanos / frames;
+
+                mLog.debug("IMBE frames decoded [" + frames + "] average decode time [" +
+                    (mAverageDecodeNanos / 1000) + " us] queue depth [" + mQueueDepth.get() + "] peak [" +
+                    mPeakQueueDepth + "] dropped frames [" + mDroppedFrames.get() + "]");
+            }
+        }
+    }
+}
@@ -5,6 +5,7 @@ import audio.AudioPacket;
 import audio.IAudioPacketProvider;
 import audio.squelch.ISquelchStateListener;
 import audio.squelch.SquelchState;
+import channel.latency.LatencyStage;
 import channel.metadata.Metadata;
 import dsp.gain.NonClippingGain;
 import jmbe.iface.AudioConversionLibrary;
@@ -20,8 +21,21 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sample.Listener;
 
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
-
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Decodes P25 IMBE voice frames to PCM audio packets.
+ *
+ * Voice frames are queued in batches (one batch per LDU) and decoded in order by the shared IMBE decoder pool, so
+ * that the vocoder doesn't block the channel processing thread.  The call end packet is queued behind the call's
+ * voice frames.  When the decoder pool falls behind and a call's queue is full, the channel thread waits briefly
+ * (backpressure) and then drops the oldest queued voice frames so that the audio stays current.
+ */
 public class P25AudioModule extends Module implements Listener<Message>, IAudioPacketProvider, IMessageListener,
     ISquelchStateListener
 {
@@ -34,17 +48,28 @@ public class P25AudioModule extends Module implements Listener<Message>, IAudioP
     private boolean mEncryptedCall = false;
     private boolean mEncryptedCallStateEstablished = false;
 
-    private AudioConverter mAudioConverter;
-    private Listener<AudioPacket> mAudioPacketListener;
+    private volatile AudioConverter mAudioConverter;
+    private volatile Listener<AudioPacket> mAudioPacketListener;
     private SquelchStateListener mSquelchStateListener = new SquelchStateListener();
     private NonClippingGain mGain = new NonClippingGain(5.0f, 0.95f);
     private Metadata mMetadata;
     private LDU1Message mCachedLDU1Message = null;
 
+    private IMBEDecoderPool mDecoderPool;
+    private LinkedBlockingQueue<VoiceBatch> mVoiceBatches;
+    private AtomicBoolean mDecodeScheduled = new AtomicBoolean();
+    private DecodeTask mDecodeTask = new DecodeTask();
+
     public P25AudioModule(Metadata metadata)
     {
         mMetadata = metadata;
         loadConverter();
+
+        if(mCanConvertAudio)
+        {
+            mDecoderPool = IMBEDecoderPool.getInstance();
+            mVoiceBatches = new LinkedBlockingQueue<>(mDecoderPool.getQueueSize());
+        }
     }
 
     @Override
@@ -63,6 +88,13 @@ public class P25AudioModule extends Module implements Listener<Message>, IAudioP
     public void dispose()
     {
         mAudioConverter = null;
+
+        if(mVoiceBatches != null)
+        {
+            //Queued voice frames are discarded by the decode task once it finds the converter disposed, but a queued
+            //end of call batch is still delivered so that the call is closed out downstream
+            scheduleDecoding();
+        }
     }
 
     @Override
@@ -136,20 +168,119 @@ public class P25AudioModule extends Module implements Listener<Message>, IAudioP
      */
     private void processAudio(LDUMessage ldu)
     {
+        if(mMetadata.hasCallLatency())
+        {
+            mMetadata.getCallLatency().mark(LatencyStage.FIRST_VOICE_FRAME);
+        }
+
         if(!mEncryptedCall)
         {
-            for(byte[] frame : ldu.getIMBEFrames())
+            enqueue(new VoiceBatch(ldu.getIMBEFrames(), mMetadata.copyOf()));
+        }
+        else
+        {
+            //Encrypted audio processing not implemented
+        }
+    }
+
+    /**
+     * Queues the voice frame batch for decoding.  When the queue is full, waits up to the backpressure interval for
+     * the decoder to catch up and then drops the oldest queued voice frames.  End of call batches are always queued
+     * and never wait for the decoder.
+     */
+    private void enqueue(VoiceBatch batch)
+    {
+        try
+        {
+            if(batch.isEnd())
             {
-                float[] audio = mAudioConverter.decode(frame);
+                while(!mVoiceBatches.offer(batch))
+                {
+                    if(!dropOldestAudio())
+                    {
+                        //The queue only holds end of call batches - deliver the oldest one here to make room
+                        VoiceBatch oldest = mVoiceBatches.poll();
+
+                        if(oldest != null)
+                        {
+                            mDecoderPool.batchDequeued();
+                            deliverEnd(oldest);
+                        }
+                    }
+                }
+            }
+            else if(!mVoiceBatches.offer(batch, mDecoderPool.getBackpressure(), TimeUnit.MILLISECONDS))
+            {
+                dropOldestAudio();
 
-                audio = mGain.apply(audio);
+                if(!mVoiceBatches.offer(batch))
+                {
+                    mDecoderPool.framesDropped(batch.getFrames().size());
+                    scheduleDecoding();
+                    return;
+                }
+            }
+        }
+        catch(InterruptedException ie)
+        {
+            mLog.debug("Interrupted while queueing IMBE voice frames for decoding");
+            return;
+        }
+
+        mDecoderPool.batchQueued();
+        scheduleDecoding();
+    }
+
+    /**
+     * Removes the oldest queued voice frame batch, leaving end of call batches in place
+     *
+     * @return false if the queue holds no voice frame batches
+     */
+    private boolean dropOldestAudio()
+    {
+        Iterator<VoiceBatch> it = mVoiceBatches.iterator();
+
+        while(it.hasNext())
+        {
+            VoiceBatch oldest = it.next();
+
+            if(!oldest.isEnd())
+            {
+                //The decode task may have taken the batch in the meantime
+                if(mVoiceBatches.remove(oldest))
+                {
+                    mDecoderPool.batchDequeued();
+                    mDecoderPool.framesDropped(oldest.getFrames().size());
+                }
 
-                mAudioPacketListener.receive(new AudioPacket(audio, mMetadata.copyOf()));
+                return true;
             }
         }
-        else
+
+        return false;
+    }
+
+    /**
+     * Sends the end of call audio packet for the batch to the audio packet listener
+     */
+    private void deliverEnd(VoiceBatch batch)
+    {
+        Listener<AudioPacket> listener = mAudioPacketListener;
+
+        if(listener != null)
         {
-            //Encrypted audio processing not implemented
+            listener.receive(new AudioPacket(AudioPacket.Type.END, batch.getMetadata()));
+        }
+    }
+
+    /**
+     * Submits the decode task to the decoder pool unless it is already scheduled or running
+     */
+    private void scheduleDecoding()
+    {
+        if(mDecodeScheduled.compareAndSet(false, true))
+        {
+            mDecoderPool.execute(mDecodeTask);
         }
     }
 
@@ -255,7 +386,12 @@ public class P25AudioModule extends Module implements Listener<Message>, IAudioP
         {
             if(state == SquelchState.SQUELCH)
             {
-                if(mAudioPacketListener != null)
+                if(mVoiceBatches != null)
+                {
+                    //Queue the end packet behind any voice frames that are still being decoded
+                    enqueue(new VoiceBatch(null, mMetadata.copyOf()));
+                }
+                else if(mAudioPacketListener != null)
                 {
                     mAudioPacketListener.receive(new AudioPacket(AudioPacket.Type.END, mMetadata.copyOf()));
                 }
@@ -266,4 +402,101 @@ public class P25AudioModule extends Module implements Listener<Message>, IAudioP
             }
         }
     }
+
+    /**
+     * Decodes this module's queued voice frame batches in order on a decoder pool thread.  Only one decode task per
+     * module is scheduled or running at any time.
+     */
+    public class DecodeTask implements Runnable
+    {
+        @Override
+        public void run()
+        {
+            do
+            {
+                VoiceBatch batch;
+
+                while((batch = mVoiceBatches.poll()) != null)
+                {
+                    mDecoderPool.batchDequeued();
+
+                    try
+                    {
+                        decode(batch);
+                    }
+                    catch(Throwable t)
+                    {
+                        mLog.error("Error decoding IMBE voice frames", t);
+                    }
+                }
+
+                mDecodeScheduled.set(false);
+
+                //Reschedule if a batch was queued after the queue was found empty but before the flag was cleared
+            }
+            while(!mVoiceBatches.isEmpty() && mDecodeScheduled.compareAndSet(false, true));
+        }
+
+        private void decode(VoiceBatch batch)
+        {
+            //End of call batches don't need the converter, so they are delivered after the module is disposed
+            if(batch.isEnd())
+            {
+                deliverEnd(batch);
+                return;
+            }
+
+            AudioConverter converter = mAudioConverter;
+            Listener<AudioPacket> listener = mAudioPacketListener;
+
+            if(converter == null || listener == null)
+            {
+                return;
+            }
+
+            for(byte[] frame : batch.getFrames())
+            {
+                long start = System.nanoTime();
+
+                float[] audio = converter.decode(frame);
+
+                mDecoderPool.framesDecoded(1, System.nanoTime() - start);
+
+                audio = mGain.apply(audio);
+
+                listener.receive(new AudioPacket(audio, batch.getMetadata()));
+            }
+        }
+    }
+
+    /**
+     * IMBE voice frames from a single LDU, or an end of call marker when there are no frames, and the metadata
+     * snapshot for the resulting audio packets
+     */
+    public static class VoiceBatch
+    {
+        private List<byte[]> mFrames;
+        private Metadata mMetadata;
+
+        public VoiceBatch(List<byte[]> frames, Metadata metadata)
+        {
+            mFrames = frames;
+            mMetadata = metadata;
+        }
+
+        public boolean isEnd()
+        {
+            return mFrames == null;
+        }
+
+        public List<byte[]> getFrames()
+        {
+            return mFrames;
+        }
+
+        public Metadata getMetadata()
+        {
+            return mMetadata;
+        }
+    }
 }
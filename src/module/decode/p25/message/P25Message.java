@@ -38,14 +38,14 @@ public class P25Message extends Message
     public static final int[] BCH = {16, 17, 18, 19, 20, 21, 22, 23, 24, 25, 26, 27, 28, 29, 30, 31, 32, 33, 34, 35,
         36, 37, 38, 39, 40, 41, 42, 43, 44, 45, 46, 47, 48, 49, 50, 51, 52, 53, 54, 55, 56, 57, 58, 59, 60, 61, 62, 63};
 
-    protected SimpleDateFormat mTimeDurationFormat = new SimpleDateFormat("HH:mm:ss.SSS");
-
     protected BinaryMessage mMessage;
     protected DataUnitID mDUID;
     protected AliasList mAliasList;
 
     protected CRC[] mCRC;
 
+    private SimpleDateFormat mTimeDurationFormat;
+
     public P25Message(BinaryMessage message, DataUnitID duid, AliasList aliasList)
     {
         super();
@@ -55,6 +55,20 @@ public class P25Message extends Message
         mAliasList = aliasList;
     }
 
+    /**
+     * Time duration formatter, created on first use since most messages are
+     * never displayed.
+     */
+    protected SimpleDateFormat getTimeDurationFormat()
+    {
+        if(mTimeDurationFormat == null)
+        {
+            mTimeDurationFormat = new SimpleDateFormat("HH:mm:ss.SSS");
+        }
+
+        return mTimeDurationFormat;
+    }
+
     public CRC[] getCRCResults()
     {
         return mCRC;
@@ -82,7 +82,7 @@ public class TelephoneInterconnectChannelGrantExplicit extends PDUMessage implem
         sb.append(getAddress());
 
         sb.append(" CALL TIMER:");
-        sb.append(mTimeDurationFormat.format(new Date(getCallTimer())));
+        sb.append(getTimeDurationFormat().format(new Date(getCallTimer())));
 
         sb.append(" CHAN DN:" + getTransmitChannelIdentifier() + "-" + getTransmitChannelNumber());
         sb.append(" " + getDownlinkFrequency());
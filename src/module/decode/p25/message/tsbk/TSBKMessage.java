@@ -32,6 +32,10 @@ public class TSBKMessage extends P25Message
 	public static final int[] BLOCK12 = { 152,153,154,155,156,157,158,159 };
 	public static final int CRC_START = 144;
 
+	/* Vendor and opcode are decoded on first access and then reused */
+	private Vendor mVendor;
+	private int mOpcodeValue = -1;
+
     public TSBKMessage( BinaryMessage message, DataUnitID duid, AliasList aliasList )
     {
 	    super( message, duid, aliasList );
@@ -53,22 +57,40 @@ public class TSBKMessage extends P25Message
 	
 	public Vendor getVendor()
 	{
-		return Vendor.fromValue( mMessage.getInt( VENDOR_ID ) );
+		if( mVendor == null )
+		{
+			mVendor = Vendor.fromValue( mMessage.getInt( VENDOR_ID ) );
+		}
+		
+		return mVendor;
+	}
+	
+	/**
+	 * Raw 6-bit opcode value
+	 */
+	protected int getOpcodeValue()
+	{
+		if( mOpcodeValue < 0 )
+		{
+			mOpcodeValue = mMessage.getInt( OPCODE );
+		}
+		
+		return mOpcodeValue;
 	}
 	
 	public Opcode getOpcode()
 	{
-		return Opcode.fromValue( mMessage.getInt( OPCODE ) );
+		return Opcode.fromValue( getOpcodeValue() );
 	}
 	
 	public MotorolaOpcode getMotorolaOpcode()
 	{
-		return MotorolaOpcode.fromValue( mMessage.getInt( OPCODE ) );
+		return MotorolaOpcode.fromValue( getOpcodeValue() );
 	}
 	
 	public VendorOpcode getVendorOpcode()
 	{
-		return VendorOpcode.fromValue( mMessage.getInt( OPCODE ) );
+		return VendorOpcode.fromValue( getOpcodeValue() );
 	}
 	
 	@Override
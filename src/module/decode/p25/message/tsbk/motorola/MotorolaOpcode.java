@@ -99,11 +99,13 @@ public enum MotorolaOpcode
 		return mCode;
 	}
 	
+	private static final MotorolaOpcode[] VALUES = values();
+
 	public static MotorolaOpcode fromValue( int value )
 	{
 		if( 0 <= value && value <= 0x3F )
 		{
-			return MotorolaOpcode.values()[ value ];
+			return VALUES[ value ];
 		}
 		
 		return UNKNOWN;
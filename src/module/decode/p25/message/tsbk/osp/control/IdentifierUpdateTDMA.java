@@ -143,11 +143,13 @@ public class IdentifierUpdateTDMA extends IdentifierUpdate
     		return sb.toString();
     	}
     	
+    	private static final ChannelType[] VALUES = values();
+
     	public static ChannelType fromValue( int value )
     	{
     		if( 0 <= value && value <= 5 )
     		{
-    			return ChannelType.values()[ value ];
+    			return VALUES[ value ];
     		}
     		
     		return ChannelType.UNKNOWN;
@@ -41,11 +41,13 @@ public enum Digit
         return mEscapedValue;
     }
     
+    private static final Digit[] VALUES = values();
+
     public static Digit fromValue( int value )
     {
         if( 0 <= value && value <= 15 )
         {
-            return values()[ value ];
+            return VALUES[ value ];
         }
         
         return DUNK;
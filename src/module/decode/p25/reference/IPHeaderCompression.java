@@ -26,11 +26,13 @@ public enum IPHeaderCompression
 		return mLabel;
 	}
 	
+	private static final IPHeaderCompression[] VALUES = values();
+
 	public static IPHeaderCompression fromValue( int value )
 	{
 		if( 0 <= value && value <= 2 )
 		{
-			return values()[ value ];
+			return VALUES[ value ];
 		}
 		
 		return IPHeaderCompression.UNKNOWN;
@@ -166,11 +166,13 @@ public enum IPProtocol
 		return mLabel;
 	}
 	
+	private static final IPProtocol[] VALUES = values();
+
 	public static IPProtocol fromValue( int value )
 	{
 		if( 0 <= value && value <= 142 )
 		{
-			return values()[ value ];
+			return VALUES[ value ];
 		}
 		
 		return IPProtocol.UNKNOWN;
@@ -94,11 +94,13 @@ public enum LinkControlOpcode
 		return mCode;
 	}
 	
+	private static final LinkControlOpcode[] VALUES = values();
+
 	public static LinkControlOpcode fromValue( int value )
 	{
 		if( 0 <= value && value <= 63 )
 		{
-			return values()[ value ];
+			return VALUES[ value ];
 		}
 		
 		return UNKNOWN;
@@ -26,11 +26,13 @@ public enum MDPConfigurationOption
 		return mValue;
 	}
 	
+	private static final MDPConfigurationOption[] VALUES = values();
+
 	public static MDPConfigurationOption fromValue( int value )
 	{
 		if( 0 <= value && value <= 2 )
 		{
-			return values()[ value ];
+			return VALUES[ value ];
 		}
 		
 		return UNKNOWN;
@@ -94,11 +94,13 @@ public enum Opcode
 		return mCode;
 	}
 	
+	private static final Opcode[] VALUES = values();
+
 	public static Opcode fromValue( int value )
 	{
 		if( 0 <= value && value <= 63 )
 		{
-			return values()[ value ];
+			return VALUES[ value ];
 		}
 		
 		return UNKNOWN;
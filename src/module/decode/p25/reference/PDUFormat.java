@@ -55,11 +55,13 @@ public enum PDUFormat
 		return mValue;
 	}
 	
+	private static final PDUFormat[] VALUES = values();
+
 	public static PDUFormat fromValue( int value )
 	{
 		if( 0 <= value && value <= 31 )
 		{
-			return values()[ value ];
+			return VALUES[ value ];
 		}
 		
 		return UNKNOWN;
@@ -40,11 +40,13 @@ public enum PDUType
 		return mValue;
 	}
 	
+	private static final PDUType[] VALUES = values();
+
 	public static PDUType fromValue( int value, boolean outbound )
 	{
 		if( outbound && 0 <= value && value <= 11 )
 		{
-			return values()[ value ];
+			return VALUES[ value ];
 		}
 		else if( value == 0 && !outbound )
 		{
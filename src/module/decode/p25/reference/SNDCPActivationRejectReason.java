@@ -41,11 +41,13 @@ public enum SNDCPActivationRejectReason
     	return getLabel();
     }
     
+    private static final SNDCPActivationRejectReason[] VALUES = values();
+
     public static SNDCPActivationRejectReason fromValue( int value )
     {
     	if( 0 <= value && value <= 12 )
     	{
-    		return values()[ value ];
+    		return VALUES[ value ];
     	}
     	
         return UNKNOWN;
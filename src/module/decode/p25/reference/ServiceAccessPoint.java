@@ -87,11 +87,13 @@ public enum ServiceAccessPoint
 		return mValue;
 	}
 	
+	private static final ServiceAccessPoint[] VALUES = values();
+
 	public static ServiceAccessPoint fromValue( int value )
 	{
 		if( 0 <= value && value <= 63 )
 		{
-			return values()[ value ];
+			return VALUES[ value ];
 		}
 		
 		return UKNOWN;
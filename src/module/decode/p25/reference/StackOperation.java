@@ -8,11 +8,13 @@ public enum StackOperation
 	READ,
 	UNKNOWN;
 	
+	private static final StackOperation[] VALUES = values();
+
 	public static StackOperation fromValue( int value )
 	{
 		if( 0 <= value && value <= 3 )
 		{
-			return values()[ value ];
+			return VALUES[ value ];
 		}
 		
 		return UNKNOWN;
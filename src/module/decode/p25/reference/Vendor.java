@@ -286,11 +286,13 @@ public enum Vendor
 		return mValue;
 	}
 
+	private static final Vendor[] VALUES = values();
+
 	public static Vendor fromValue( int value )
 	{
 		if( 0 <= value && value <= 255 )
 		{
-			return values()[ value ];
+			return VALUES[ value ];
 		}
 		
 		return VUNK;
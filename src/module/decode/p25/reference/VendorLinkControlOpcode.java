@@ -94,11 +94,13 @@ public enum VendorLinkControlOpcode
 		return mCode;
 	}
 	
+	private static final VendorLinkControlOpcode[] VALUES = values();
+
 	public static VendorLinkControlOpcode fromValue( int value )
 	{
 		if( 0 <= value && value <= 63 )
 		{
-			return values()[ value ];
+			return VALUES[ value ];
 		}
 		
 		return UNKNOWN;
@@ -0,0 +1,479 @@
+/*******************************************************************************
+ *     SDR Trunk
+ *     Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package playlist;
+
+import alias.Alias;
+import audio.broadcast.BroadcastConfiguration;
+import controller.channel.Channel;
+import controller.channel.map.ChannelMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.namespace.QName;
+import javax.xml.transform.stream.StreamSource;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of playlist changes made since the playlist XML was last saved.  Each alias, channel, channel
+ * map or stream configuration change is appended as a small record holding the changed item, so that an edit doesn't
+ * require rewriting the full playlist.  The playlist manager periodically compacts the journal by saving the full
+ * playlist and starting a new, empty journal.
+ *
+ * Each item is identified by a key that is assigned in playlist order when the journal is started and to each item
+ * that is added afterwards.  On startup, the journal records are replayed onto the loaded playlist to recover the
+ * changes that were made after the last save, when the journal was started from that same playlist XML.
+ *
+ * File layout (big-endian):
+ *
+ *   header: int magic, int version, long CRC32 of the playlist XML that the journal applies to
+ *   record: int payload length, long payload CRC32, payload: byte operation, byte item type, int key, XML fragment
+ *
+ * Replay stops at the first incomplete or corrupt record, which can only be a partially written final record.
+ */
+public class PlaylistJournal
+{
+    private final static Logger mLog = LoggerFactory.getLogger(PlaylistJournal.class);
+
+    public static final int MAGIC = 0x53444A4C; //SDJL
+    public static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_HEADER_SIZE = 12;
+
+    public enum Operation
+    {
+        ADD,
+        CHANGE,
+        DELETE;
+    }
+
+    public enum ItemType
+    {
+        ALIAS(Alias.class, "alias"),
+        CHANNEL(Channel.class, "channel"),
+        CHANNEL_MAP(ChannelMap.class, "channel_map"),
+        STREAM(BroadcastConfiguration.class, "stream");
+
+        private Class<?> mItemClass;
+        private QName mElementName;
+
+        ItemType(Class<?> itemClass, String elementName)
+        {
+            mItemClass = itemClass;
+            mElementName = new QName(elementName);
+        }
+
+        public Class<?> getItemClass()
+        {
+            return mItemClass;
+        }
+
+        public QName getElementName()
+        {
+            return mElementName;
+        }
+    }
+
+    private Path mJournalPath;
+    private FileChannel mFileChannel;
+    private Map<ItemType,Map<Object,Integer>> mKeys = new EnumMap<>(ItemType.class);
+    private int mNextKey;
+    private int mRecordCount;
+
+    /**
+     * Constructs a journal stored at the path.  The journal doesn't record changes until it is started or replayed.
+     */
+    public PlaylistJournal(Path journalPath)
+    {
+        mJournalPath = journalPath;
+    }
+
+    /**
+     * Number of change records in the journal
+     */
+    public synchronized int getRecordCount()
+    {
+        return mRecordCount;
+    }
+
+    /**
+     * Starts a new, empty journal for the playlist that was saved to the playlist XML, replacing the current journal.
+     *
+     * @param playlist that was saved
+     * @param xmlCRC CRC32 of the saved playlist XML
+     */
+    public synchronized void start(PlaylistV2 playlist, long xmlCRC) throws IOException
+    {
+        close();
+
+        mKeys.clear();
+        mNextKey = 0;
+        mRecordCount = 0;
+
+        for(ItemType type : ItemType.values())
+        {
+            Map<Object,Integer> keys = new IdentityHashMap<>();
+
+            for(Object item : getItems(playlist, type))
+            {
+                keys.put(item, mNextKey++);
+            }
+
+            mKeys.put(type, keys);
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putLong(xmlCRC);
+        header.flip();
+
+        Path tempPath = mJournalPath.resolveSibling(mJournalPath.getFileName().toString() + ".tmp");
+
+        try(FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            while(header.hasRemaining())
+            {
+                channel.write(header);
+            }
+        }
+
+        try
+        {
+            Files.move(tempPath, mJournalPath, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch(AtomicMoveNotSupportedException amnse)
+        {
+            Files.move(tempPath, mJournalPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        mFileChannel = FileChannel.open(mJournalPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Appends a change record for the item.  Changes are ignored until the journal is started or replayed.
+     *
+     * @param operation performed on the item
+     * @param type of item
+     * @param item that was added, changed or deleted
+     * @param context JAXB context for the playlist classes
+     */
+    public synchronized void record(Operation operation, ItemType type, Object item, JAXBContext context)
+        throws JAXBException, IOException
+    {
+        if(mFileChannel == null)
+        {
+            return;
+        }
+
+        Map<Object,Integer> keys = mKeys.get(type);
+        Integer key = keys.get(item);
+
+        if(operation == Operation.DELETE)
+        {
+            if(key == null)
+            {
+                //Item was never recorded in the playlist
+                return;
+            }
+
+            keys.remove(item);
+        }
+        else if(key == null)
+        {
+            key = mNextKey++;
+            keys.put(item, key);
+            operation = Operation.ADD;
+        }
+
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        payload.write(operation.ordinal());
+        payload.write(type.ordinal());
+        payload.write(ByteBuffer.allocate(4).putInt(key).array());
+
+        if(operation != Operation.DELETE)
+        {
+            Marshaller marshaller = context.createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+            marshaller.marshal(toElement(type, item), payload);
+        }
+
+        byte[] bytes = payload.toByteArray();
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        header.putInt(bytes.length);
+        header.putLong(crc.getValue());
+        header.flip();
+
+        ByteBuffer body = ByteBuffer.wrap(bytes);
+
+        while(header.hasRemaining() || body.hasRemaining())
+        {
+            mFileChannel.write(new ByteBuffer[]{header, body});
+        }
+
+        mRecordCount++;
+    }
+
+    /**
+     * Replays the journal onto the playlist loaded from the playlist XML and continues the journal so that further
+     * changes are appended to it.  A journal that was started from a different playlist XML is discarded and a new
+     * journal is started.
+     *
+     * @param playlist loaded from the playlist XML
+     * @param xmlCRC CRC32 of the playlist XML
+     * @param context JAXB context for the playlist classes
+     * @return playlist with the journal changes applied
+     */
+    public synchronized PlaylistV2 replay(PlaylistV2 playlist, long xmlCRC, JAXBContext context) throws IOException
+    {
+        if(!Files.exists(mJournalPath))
+        {
+            start(playlist, xmlCRC);
+            return playlist;
+        }
+
+        Map<ItemType,LinkedHashMap<Integer,Object>> items = new EnumMap<>(ItemType.class);
+
+        int nextKey = 0;
+
+        for(ItemType type : ItemType.values())
+        {
+            LinkedHashMap<Integer,Object> typeItems = new LinkedHashMap<>();
+
+            for(Object item : getItems(playlist, type))
+            {
+                typeItems.put(nextKey++, item);
+            }
+
+            items.put(type, typeItems);
+        }
+
+        int records = 0;
+        long validLength = HEADER_SIZE;
+        boolean applies = false;
+        long journalSize = Files.size(mJournalPath);
+
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(mJournalPath))))
+        {
+            try
+            {
+                applies = in.readInt() == MAGIC && in.readInt() == VERSION && in.readLong() == xmlCRC;
+            }
+            catch(EOFException eofe)
+            {
+                //Incomplete journal header
+            }
+
+            if(applies)
+            {
+                Unmarshaller unmarshaller = context.createUnmarshaller();
+
+                while(true)
+                {
+                    byte[] bytes;
+
+                    try
+                    {
+                        int length = in.readInt();
+                        long crcValue = in.readLong();
+
+                        if(length < 6 || validLength + RECORD_HEADER_SIZE + length > journalSize)
+                        {
+                            //Partially written final record
+                            break;
+                        }
+
+                        bytes = new byte[length];
+                        in.readFully(bytes);
+
+                        CRC32 crc = new CRC32();
+                        crc.update(bytes);
+
+                        if(crc.getValue() != crcValue)
+                        {
+                            mLog.warn("Playlist journal record [" + (records + 1) + "] is corrupt - ignoring the " +
+                                "remainder of the journal");
+                            break;
+                        }
+                    }
+                    catch(EOFException eofe)
+                    {
+                        break;
+                    }
+
+                    ByteBuffer record = ByteBuffer.wrap(bytes);
+                    Operation operation = Operation.values()[record.get()];
+                    ItemType type = ItemType.values()[record.get()];
+                    int key = record.getInt();
+
+                    if(operation == Operation.DELETE)
+                    {
+                        items.get(type).remove(key);
+                    }
+                    else
+                    {
+                        Object item = unmarshaller.unmarshal(new StreamSource(new ByteArrayInputStream(bytes,
+                            record.position(), record.remaining())), type.getItemClass()).getValue();
+
+                        items.get(type).put(key, item);
+                    }
+
+                    nextKey = Math.max(nextKey, key + 1);
+                    records++;
+                    validLength += RECORD_HEADER_SIZE + bytes.length;
+                }
+            }
+        }
+        catch(JAXBException | RuntimeException e)
+        {
+            mLog.error("Error replaying playlist journal - discarding journal changes", e);
+            start(playlist, xmlCRC);
+            return playlist;
+        }
+
+        if(!applies)
+        {
+            mLog.info("Playlist journal doesn't apply to the current playlist XML - discarding journal");
+            start(playlist, xmlCRC);
+            return playlist;
+        }
+
+        PlaylistV2 replayed = new PlaylistV2();
+        replayed.setAliases(toList(items.get(ItemType.ALIAS), Alias.class));
+        replayed.setChannels(toList(items.get(ItemType.CHANNEL), Channel.class));
+        replayed.setChannelMaps(toList(items.get(ItemType.CHANNEL_MAP), ChannelMap.class));
+        replayed.setBroadcastConfigurations(toList(items.get(ItemType.STREAM), BroadcastConfiguration.class));
+
+        //Continue the journal after the last complete record
+        close();
+
+        mKeys.clear();
+
+        for(ItemType type : ItemType.values())
+        {
+            Map<Object,Integer> keys = new IdentityHashMap<>();
+
+            for(Map.Entry<Integer,Object> entry : items.get(type).entrySet())
+            {
+                keys.put(entry.getValue(), entry.getKey());
+            }
+
+            mKeys.put(type, keys);
+        }
+
+        mNextKey = nextKey;
+        mRecordCount = records;
+
+        mFileChannel = FileChannel.open(mJournalPath, StandardOpenOption.WRITE);
+        mFileChannel.truncate(validLength);
+        mFileChannel.position(validLength);
+
+        if(records > 0)
+        {
+            mLog.info("Recovered [" + records + "] playlist changes from the playlist journal");
+        }
+
+        return replayed;
+    }
+
+    /**
+     * Closes the journal file.  Changes are ignored until the journal is started again.
+     */
+    public synchronized void close()
+    {
+        if(mFileChannel != null)
+        {
+            try
+            {
+                mFileChannel.close();
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Error closing playlist journal", ioe);
+            }
+
+            mFileChannel = null;
+        }
+    }
+
+    /**
+     * Items of the type contained in the playlist
+     */
+    private static List<?> getItems(PlaylistV2 playlist, ItemType type)
+    {
+        switch(type)
+        {
+            case ALIAS:
+                return playlist.getAliases();
+            case CHANNEL:
+                return playlist.getChannels();
+            case CHANNEL_MAP:
+                return playlist.getChannelMaps();
+            case STREAM:
+                return playlist.getBroadcastConfigurations();
+            default:
+                throw new IllegalArgumentException("Unrecognized playlist item type [" + type + "]");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static JAXBElement<?> toElement(ItemType type, Object item)
+    {
+        return new JAXBElement<>(type.getElementName(), (Class<Object>)type.getItemClass(), item);
+    }
+
+    private static <T> List<T> toList(Map<Integer,Object> items, Class<T> itemClass)
+    {
+        List<T> list = new ArrayList<>();
+
+        for(Object item : items.values())
+        {
+            list.add(itemClass.cast(item));
+        }
+
+        return list;
+    }
+}
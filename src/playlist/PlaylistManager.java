@@ -21,48 +21,84 @@ import alias.AliasEvent;
 import alias.AliasModel;
 import audio.broadcast.BroadcastEvent;
 import audio.broadcast.BroadcastModel;
+import controller.NamingThreadFactory;
+import controller.channel.Channel;
 import controller.channel.Channel.ChannelType;
 import controller.channel.ChannelEvent;
 import controller.channel.ChannelEventListener;
 import controller.channel.ChannelModel;
+import controller.channel.ChannelProcessingManager;
 import controller.channel.map.ChannelMapEvent;
 import controller.channel.map.ChannelMapModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import playlist.PlaylistJournal.ItemType;
+import playlist.PlaylistJournal.Operation;
 import playlist.version1.PlaylistConverterV1ToV2;
 import properties.SystemProperties;
 import sample.Listener;
-import util.ThreadPool;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
 
 public class PlaylistManager implements ChannelEventListener
 {
     private final static Logger mLog = LoggerFactory.getLogger(PlaylistManager.class);
 
+    private static JAXBContext sJAXBContext;
+
     private AliasModel mAliasModel;
     private BroadcastModel mBroadcastModel;
     private ChannelModel mChannelModel;
     private ChannelMapModel mChannelMapModel;
+    private ChannelProcessingManager mChannelProcessingManager;
 
     private Path mPlaylistFolderPath;
     private Path mPlaylistCurrentPath;
     private Path mPlaylistBackupPath;
     private Path mPlaylistLockPath;
+    private Path mPlaylistTempPath;
+    private PlaylistSnapshot mPlaylistSnapshot;
+    private PlaylistJournal mPlaylistJournal;
+
+    private static final int BUFFER_SIZE = 65536;
+
+    //Each change is appended to the playlist journal as it occurs, so the full playlist is only rewritten (compacting
+    //the journal) once changes have stopped for the quiet period, after the maximum delay, or once the journal holds
+    //the maximum number of records
+    private static final long SAVE_QUIET_PERIOD_MS = 30000;
+    private static final long SAVE_MAXIMUM_DELAY_MS = 300000;
+    private static final int JOURNAL_MAXIMUM_RECORDS = 1000;
 
     private AtomicBoolean mPlaylistSavePending = new AtomicBoolean();
-    private boolean mPlaylistLoading = false;
+    private volatile long mFirstChangeTimestamp;
+    private volatile long mLastChangeTimestamp;
+
+    //Playlist saves run on a dedicated thread so that they don't tie up the shared application thread pool
+    private ScheduledThreadPoolExecutor mSaveExecutor =
+        new ScheduledThreadPoolExecutor(1, new NamingThreadFactory("sdrtrunk playlist"));
+
+    private volatile boolean mPlaylistLoading = false;
 
     /**
      * Playlist manager - manages all channel configurations, channel maps, and
@@ -75,11 +111,29 @@ public class PlaylistManager implements ChannelEventListener
      */
     public PlaylistManager(AliasModel aliasModel, BroadcastModel broadcastModel, ChannelModel channelModel, ChannelMapModel channelMapModel)
     {
+        this(aliasModel, broadcastModel, channelModel, channelMapModel, null);
+    }
+
+    /**
+     * Playlist manager that uses the channel processing manager to start all enabled channels concurrently once the
+     * playlist is loaded.
+     *
+     * @param channelProcessingManager for bulk start of enabled channels, or null to start each enabled channel as
+     * it is added to the channel model
+     */
+    public PlaylistManager(AliasModel aliasModel, BroadcastModel broadcastModel, ChannelModel channelModel,
+                           ChannelMapModel channelMapModel, ChannelProcessingManager channelProcessingManager)
+    {
+        mChannelProcessingManager = channelProcessingManager;
         mAliasModel = aliasModel;
         mBroadcastModel = broadcastModel;
         mChannelModel = channelModel;
         mChannelMapModel = channelMapModel;
 
+        //Allow the save thread to terminate when idle
+        mSaveExecutor.setKeepAliveTime(SAVE_MAXIMUM_DELAY_MS, TimeUnit.MILLISECONDS);
+        mSaveExecutor.allowCoreThreadTimeOut(true);
+
         //Register for alias, channel and channel map events so that we can
         //save the playlist when there are any changes
         mChannelModel.addListener(this);
@@ -90,7 +144,18 @@ public class PlaylistManager implements ChannelEventListener
             public void receive(AliasEvent t)
             {
                 //Save the playlist for all alias events
-                schedulePlaylistSave();
+                switch(t.getEvent())
+                {
+                    case ADD:
+                        playlistChanged(Operation.ADD, ItemType.ALIAS, t.getAlias());
+                        break;
+                    case CHANGE:
+                        playlistChanged(Operation.CHANGE, ItemType.ALIAS, t.getAlias());
+                        break;
+                    case DELETE:
+                        playlistChanged(Operation.DELETE, ItemType.ALIAS, t.getAlias());
+                        break;
+                }
             }
         });
 
@@ -100,7 +165,19 @@ public class PlaylistManager implements ChannelEventListener
             public void receive(ChannelMapEvent t)
             {
                 //Save the playlist for all channel map events
-                schedulePlaylistSave();
+                switch(t.getEvent())
+                {
+                    case ADD:
+                        playlistChanged(Operation.ADD, ItemType.CHANNEL_MAP, t.getChannelMap());
+                        break;
+                    case CHANGE:
+                    case RENAME:
+                        playlistChanged(Operation.CHANGE, ItemType.CHANNEL_MAP, t.getChannelMap());
+                        break;
+                    case DELETE:
+                        playlistChanged(Operation.DELETE, ItemType.CHANNEL_MAP, t.getChannelMap());
+                        break;
+                }
             }
         });
 
@@ -112,9 +189,15 @@ public class PlaylistManager implements ChannelEventListener
                 switch(broadcastEvent.getEvent())
                 {
                     case CONFIGURATION_ADD:
+                        playlistChanged(Operation.ADD, ItemType.STREAM, broadcastEvent.getBroadcastConfiguration());
+                        break;
                     case CONFIGURATION_CHANGE:
+                        playlistChanged(Operation.CHANGE, ItemType.STREAM,
+                            broadcastEvent.getBroadcastConfiguration());
+                        break;
                     case CONFIGURATION_DELETE:
-                        schedulePlaylistSave();
+                        playlistChanged(Operation.DELETE, ItemType.STREAM,
+                            broadcastEvent.getBroadcastConfiguration());
                         break;
                     case BROADCASTER_ADD:
                     case BROADCASTER_QUEUE_CHANGE:
@@ -128,6 +211,29 @@ public class PlaylistManager implements ChannelEventListener
                 }
             }
         });
+
+        //Save any pending playlist changes when the application exits, before the quiet period has elapsed
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                flush();
+            }
+        }, "sdrtrunk playlist shutdown"));
+    }
+
+    /**
+     * Immediately saves the playlist when there are unsaved changes waiting for a scheduled save
+     */
+    public void flush()
+    {
+        if(mPlaylistSavePending.compareAndSet(true, false))
+        {
+            mLog.info("Saving pending playlist changes");
+
+            save();
+        }
     }
 
     /**
@@ -158,6 +264,12 @@ public class PlaylistManager implements ChannelEventListener
             saveRequired = true;
         }
 
+        //Compact the changes recovered from the playlist journal into the playlist
+        if(getPlaylistJournal().getRecordCount() > 0)
+        {
+            saveRequired = true;
+        }
+
         transferPlaylistToModels(playlist);
 
         if(saveRequired)
@@ -175,17 +287,51 @@ public class PlaylistManager implements ChannelEventListener
         {
             mPlaylistLoading = true;
 
+            long start = System.currentTimeMillis();
+
             mAliasModel.addAliases(playlist.getAliases());
             mBroadcastModel.addBroadcastConfigurations(playlist.getBroadcastConfigurations());
             mChannelMapModel.addChannelMaps(playlist.getChannelMaps());
 
             //Channel model has to be loaded last since it will auto-start channels that are enabled
-            mChannelModel.addChannels(playlist.getChannels());
+            if(mChannelProcessingManager != null)
+            {
+                mChannelModel.addChannels(playlist.getChannels(), false);
+
+                logTransfer(playlist, start);
+
+                List<Channel> enabledChannels = new ArrayList<>();
+
+                for(Channel channel : playlist.getChannels())
+                {
+                    if(channel.getEnabled())
+                    {
+                        enabledChannels.add(channel);
+                    }
+                }
+
+                mChannelProcessingManager.startChannels(enabledChannels);
+            }
+            else
+            {
+                mChannelModel.addChannels(playlist.getChannels());
+
+                logTransfer(playlist, start);
+            }
 
             mPlaylistLoading = false;
         }
     }
 
+    /**
+     * Logs the playlist size and the time taken to transfer the playlist into the system models
+     */
+    private void logTransfer(PlaylistV2 playlist, long start)
+    {
+        mLog.info("Playlist with [" + playlist.getAliases().size() + "] aliases and [" +
+            playlist.getChannels().size() + "] channels transferred to models in [" +
+            (System.currentTimeMillis() - start) + "ms]");
+    }
 
     /**
      * Channel event listener method.  Monitors channel events for events that indicate that the playlist has changed
@@ -200,9 +346,13 @@ public class PlaylistManager implements ChannelEventListener
             switch(event.getEvent())
             {
                 case NOTIFICATION_ADD:
+                    playlistChanged(Operation.ADD, ItemType.CHANNEL, event.getChannel());
+                    break;
                 case NOTIFICATION_CONFIGURATION_CHANGE:
+                    playlistChanged(Operation.CHANGE, ItemType.CHANNEL, event.getChannel());
+                    break;
                 case NOTIFICATION_DELETE:
-                    schedulePlaylistSave();
+                    playlistChanged(Operation.DELETE, ItemType.CHANNEL, event.getChannel());
                     break;
             }
         }
@@ -264,8 +414,50 @@ public class PlaylistManager implements ChannelEventListener
     }
 
     /**
-     * Path to playlist lock file that is created prior to saving a playlist and removed immediately thereafter.
-     * Presence of a lock file indicates an incomplete or corrupt playlist file on startup.
+     * Path to temporary playlist file used while saving the playlist
+     */
+    private Path getPlaylistTempPath()
+    {
+        if(mPlaylistTempPath == null)
+        {
+            mPlaylistTempPath = getPlaylistPath().resolveSibling(getPlaylistPath().getFileName().toString()
+                .replace(".xml", ".tmp"));
+        }
+
+        return mPlaylistTempPath;
+    }
+
+    /**
+     * Binary snapshot of the current playlist, written after each save for fast loading at startup
+     */
+    private PlaylistSnapshot getPlaylistSnapshot()
+    {
+        if(mPlaylistSnapshot == null)
+        {
+            mPlaylistSnapshot = new PlaylistSnapshot(getPlaylistPath().resolveSibling(getPlaylistPath().getFileName()
+                .toString().replace(".xml", ".snapshot")));
+        }
+
+        return mPlaylistSnapshot;
+    }
+
+    /**
+     * Journal of the playlist changes made since the playlist was last saved
+     */
+    private PlaylistJournal getPlaylistJournal()
+    {
+        if(mPlaylistJournal == null)
+        {
+            mPlaylistJournal = new PlaylistJournal(getPlaylistPath().resolveSibling(getPlaylistPath().getFileName()
+                .toString().replace(".xml", ".journal")));
+        }
+
+        return mPlaylistJournal;
+    }
+
+    /**
+     * Path to playlist lock file that was created by earlier versions prior to saving a playlist and removed
+     * immediately thereafter.  Presence of a lock file indicates an incomplete or corrupt playlist file on startup.
      */
     private Path getPlaylistLockPath()
     {
@@ -286,9 +478,10 @@ public class PlaylistManager implements ChannelEventListener
     }
 
     /**
-     * Saves the current playlist
+     * Saves the current playlist.  Saves are serialized so that a save from the shutdown flush can't overlap a
+     * scheduled save that is writing the same temporary file.
      */
-    private void save()
+    private synchronized void save()
     {
         PlaylistV2 playlist = new PlaylistV2();
 
@@ -297,66 +490,108 @@ public class PlaylistManager implements ChannelEventListener
         playlist.setChannels(mChannelModel.getChannels());
         playlist.setChannelMaps(mChannelMapModel.getChannelMaps());
 
-        JAXBContext context = null;
+        long saveStart = System.currentTimeMillis();
 
-        //Create a backup copy of the current playlist
-        if(Files.exists(getPlaylistPath()))
+        CRC32 crc = new CRC32();
+
+        //Write the complete playlist to a temporary file so that the current playlist is never partially written
+        try(OutputStream out = new BufferedOutputStream(new CheckedOutputStream(
+            Files.newOutputStream(getPlaylistTempPath()), crc), BUFFER_SIZE))
         {
-            try
-            {
-                Files.copy(getPlaylistPath(), getPlaylistBackupPath(), StandardCopyOption.REPLACE_EXISTING);
-            }
-            catch(Exception e)
-            {
-                mLog.error("Error creating backup copy of current playlist prior to saving updates [" +
-                    getPlaylistPath().toString() + "]", e);
-            }
+            Marshaller m = getJAXBContext().createMarshaller();
+
+            m.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+
+            m.marshal(playlist, out);
+
+            out.flush();
+        }
+        catch(JAXBException je)
+        {
+            mLog.error("JAXB exception while serializing the playlist to a file [" + getPlaylistTempPath().toString() +
+                "]", je);
+            return;
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("IO error while writing the playlist to a file [" + getPlaylistTempPath().toString() + "]", ioe);
+            return;
         }
 
-        //Create a temporary lock file to signify that we're in the process of updating the playlist
-        if(!Files.exists(getPlaylistLockPath()))
+        //Rename the current playlist to the backup and the temporary file to the current playlist
+        try
         {
+            if(Files.exists(getPlaylistPath()))
+            {
+                Files.move(getPlaylistPath(), getPlaylistBackupPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+
             try
             {
-                Files.createFile(getPlaylistLockPath());
+                Files.move(getPlaylistTempPath(), getPlaylistPath(), StandardCopyOption.ATOMIC_MOVE);
             }
-            catch(IOException e)
+            catch(AtomicMoveNotSupportedException amnse)
             {
-                mLog.error("Error creating temporary lock file prior to saving playlist [" +
-                    getPlaylistLockPath().toString() + "]", e);
+                Files.move(getPlaylistTempPath(), getPlaylistPath(), StandardCopyOption.REPLACE_EXISTING);
             }
+
+            mLog.debug("Playlist saved in [" + (System.currentTimeMillis() - saveStart) + "ms]");
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("IO error while replacing the playlist file [" + getPlaylistPath().toString() + "]", ioe);
+            return;
+        }
+        catch(Exception e)
+        {
+            mLog.error("Error while saving playlist [" + getPlaylistPath().toString() + "]", e);
+            return;
         }
 
-        try(OutputStream out = Files.newOutputStream(getPlaylistPath()))
+        //Snapshot of the saved playlist, validated against the checksum of the playlist XML when it is loaded
+        try
         {
-            context = JAXBContext.newInstance(PlaylistV2.class);
+            getPlaylistSnapshot().write(playlist, getJAXBContext(), Files.size(getPlaylistPath()), crc.getValue());
+        }
+        catch(JAXBException | IOException e)
+        {
+            mLog.error("Error while writing playlist snapshot [" + getPlaylistSnapshot().getPath().toString() + "]", e);
 
-            Marshaller m = context.createMarshaller();
+            getPlaylistSnapshot().delete();
+        }
 
-            m.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+        //The saved playlist contains every journaled change, so start a new journal from the saved playlist
+        try
+        {
+            getPlaylistJournal().start(playlist, crc.getValue());
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error while starting the playlist journal - changes will be saved with the full playlist only",
+                ioe);
 
-            m.marshal(playlist, out);
+            getPlaylistJournal().close();
+        }
+    }
 
-            out.flush();
+    /**
+     * Appends the change to the playlist journal.  Changes are journaled under the playlist manager lock so that a
+     * change is either included in a concurrent full save or journaled after it.
+     */
+    private synchronized void journal(Operation operation, ItemType type, Object item)
+    {
+        try
+        {
+            getPlaylistJournal().record(operation, type, item, getJAXBContext());
 
-            //Remove the playlist lock file to indicate that we successfully saved the file
-            if(Files.exists(getPlaylistLockPath()))
+            if(getPlaylistJournal().getRecordCount() >= JOURNAL_MAXIMUM_RECORDS)
             {
-                Files.delete(getPlaylistLockPath());
+                flush();
             }
         }
-        catch(JAXBException je)
+        catch(JAXBException | IOException e)
         {
-            mLog.error("JAXB exception while serializing the playlist to a file [" + getPlaylistPath().toString() +
-                "]", je);
-        }
-        catch(IOException ioe)
-        {
-            mLog.error("IO error while writing the playlist to a file [" + getPlaylistPath().toString() + "]", ioe);
-        }
-        catch(Exception e)
-        {
-            mLog.error("Error while saving playlist [" + getPlaylistPath().toString() + "]", e);
+            mLog.error("Error while appending a change to the playlist journal", e);
         }
     }
 
@@ -393,26 +628,73 @@ public class PlaylistManager implements ChannelEventListener
             }
         }
 
+        //Check for a temporary file that indicates the previous save attempt didn't complete.  The current playlist
+        //is only replaced once the temporary file is complete, so the temporary file is discarded and the backup is
+        //restored only when the save was interrupted between renaming the current playlist and the temporary file.
+        if(Files.exists(getPlaylistTempPath()))
+        {
+            try
+            {
+                Files.delete(getPlaylistTempPath());
+
+                if(!Files.exists(getPlaylistPath()) && Files.exists(getPlaylistBackupPath()))
+                {
+                    Files.copy(getPlaylistBackupPath(), getPlaylistPath());
+                }
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Previous playlist save attempt was incomplete and there was an error recovering the " +
+                    "playlist", ioe);
+            }
+        }
+
         if(Files.exists(getPlaylistPath()))
         {
-            JAXBContext context = null;
+            long start = System.currentTimeMillis();
+
+            long xmlLength = 0;
+            long xmlCRC = 0;
 
-            try(InputStream in = Files.newInputStream(getPlaylistPath()))
+            try(FileChannel xmlChannel = FileChannel.open(getPlaylistPath(), StandardOpenOption.READ))
             {
-                context = JAXBContext.newInstance(PlaylistV2.class);
+                xmlLength = xmlChannel.size();
+                xmlCRC = PlaylistSnapshot.getCRC(xmlChannel);
 
-                Unmarshaller m = context.createUnmarshaller();
+                playlist = getPlaylistSnapshot().read(xmlLength, xmlCRC, getJAXBContext());
 
-                playlist = (PlaylistV2) m.unmarshal(in);
+                if(playlist != null)
+                {
+                    mLog.info("Playlist loaded from snapshot in [" + (System.currentTimeMillis() - start) + "ms]");
+                }
             }
             catch(JAXBException je)
             {
-                mLog.error("JAXB exception while loading/unmarshalling playlist", je);
+                mLog.error("JAXB exception while creating the playlist context", je);
             }
             catch(IOException ioe)
             {
                 mLog.error("IO error while reading playlist file", ioe);
             }
+
+            if(playlist == null)
+            {
+                mLog.info("Playlist snapshot miss - parsing playlist XML");
+
+                playlist = parse();
+            }
+
+            if(playlist != null)
+            {
+                try
+                {
+                    playlist = getPlaylistJournal().replay(playlist, xmlCRC, getJAXBContext());
+                }
+                catch(JAXBException | IOException e)
+                {
+                    mLog.error("Error while replaying the playlist journal", e);
+                }
+            }
         }
         else
         {
@@ -423,31 +705,122 @@ public class PlaylistManager implements ChannelEventListener
     }
 
     /**
-     * Schedules a playlist save task.  Subsequent calls to this method will be ignored until the save event occurs,
-     * thus limiting repetitive playlist saving to a minimum.
+     * Parses the playlist XML
+     *
+     * @return playlist or null if the playlist couldn't be parsed
+     */
+    private PlaylistV2 parse()
+    {
+        PlaylistV2 playlist = null;
+
+        long start = System.currentTimeMillis();
+
+        try(InputStream in = new BufferedInputStream(Files.newInputStream(getPlaylistPath()), BUFFER_SIZE))
+        {
+            Unmarshaller m = getJAXBContext().createUnmarshaller();
+
+            long contextLoaded = System.currentTimeMillis();
+
+            playlist = (PlaylistV2) m.unmarshal(in);
+
+            mLog.info("Playlist loaded in [" + (System.currentTimeMillis() - start) + "ms] - JAXB context [" +
+                (contextLoaded - start) + "ms] parse [" + (System.currentTimeMillis() - contextLoaded) + "ms]");
+        }
+        catch(JAXBException je)
+        {
+            mLog.error("JAXB exception while loading/unmarshalling playlist", je);
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("IO error while reading playlist file", ioe);
+        }
+
+        return playlist;
+    }
+
+    /**
+     * Shared JAXB context for loading and saving playlists.  Creating a JAXB context is expensive (it introspects the
+     * full set of playlist classes), so the context is created once and reused.  JAXB contexts are thread safe.
+     */
+    private static synchronized JAXBContext getJAXBContext() throws JAXBException
+    {
+        if(sJAXBContext == null)
+        {
+            sJAXBContext = JAXBContext.newInstance(PlaylistV2.class);
+        }
+
+        return sJAXBContext;
+    }
+
+    /**
+     * Journals the playlist change and schedules a full playlist save
+     */
+    private void playlistChanged(final Operation operation, final ItemType type, final Object item)
+    {
+        if(!mPlaylistLoading && item != null)
+        {
+            mSaveExecutor.execute(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    journal(operation, type, item);
+                }
+            });
+
+            schedulePlaylistSave();
+        }
+    }
+
+    /**
+     * Schedules a playlist save task.  The save is deferred until there have been no further changes for the quiet
+     * period, so that a burst of changes (e.g. editing or importing many aliases) produces a single save.  The save
+     * is never deferred longer than the maximum save delay after the first unsaved change.
      */
     private void schedulePlaylistSave()
     {
         if(!mPlaylistLoading)
         {
+            long now = System.currentTimeMillis();
+
+            mLastChangeTimestamp = now;
+
             if(mPlaylistSavePending.compareAndSet(false, true))
             {
-                ThreadPool.SCHEDULED.schedule(new PlaylistSaveTask(), 2, TimeUnit.SECONDS);
+                mFirstChangeTimestamp = now;
+
+                mSaveExecutor.schedule(new PlaylistSaveTask(), SAVE_QUIET_PERIOD_MS, TimeUnit.MILLISECONDS);
             }
         }
     }
 
     /**
-     * Resets the playlist save pending flag to false and proceeds to save the playlist.
+     * Saves the playlist once changes have stopped for the quiet period, or reschedules itself to run again at the
+     * end of the quiet period.
      */
     public class PlaylistSaveTask implements Runnable
     {
         @Override
         public void run()
         {
-            save();
+            long now = System.currentTimeMillis();
+
+            long quietRemaining = mLastChangeTimestamp + SAVE_QUIET_PERIOD_MS - now;
+            long maximumRemaining = mFirstChangeTimestamp + SAVE_MAXIMUM_DELAY_MS - now;
 
-            mPlaylistSavePending.set(false);
+            if(quietRemaining > 0 && maximumRemaining > 0)
+            {
+                mSaveExecutor.schedule(this, Math.min(quietRemaining, maximumRemaining), TimeUnit.MILLISECONDS);
+            }
+            else
+            {
+                //Clear the pending flag before saving so that changes made during the save schedule another save.  The
+                //flag is already clear when the pending changes were saved by a flush.
+                if(mPlaylistSavePending.compareAndSet(true, false))
+                {
+                    save();
+                }
+            }
         }
     }
 }
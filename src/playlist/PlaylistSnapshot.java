@@ -0,0 +1,509 @@
+/*******************************************************************************
+ *     SDR Trunk
+ *     Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package playlist;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.UnmarshallerHandler;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary snapshot of the playlist that is written next to the playlist XML after each save, so that the
+ * playlist can be loaded at startup without lexing and parsing the XML text.
+ *
+ * The snapshot holds the stream of XML events (elements, attributes, text and namespace mappings) produced by the
+ * JAXB marshaller, with each distinct name and value stored once in a string table.  Loading replays the events from
+ * the memory-mapped snapshot into the JAXB unmarshaller, so the snapshot always follows the JAXB annotations of the
+ * playlist classes and there is no second serialization form to maintain.
+ *
+ * File layout (big-endian):
+ *
+ *   int magic, int version, long XML length, long XML CRC32, int payload length, long payload CRC32, payload
+ *
+ * The snapshot is only used when the length and CRC32 of the current playlist XML match the header, meaning that it
+ * was written from the same playlist.  Otherwise the caller falls back to parsing the XML.
+ */
+public class PlaylistSnapshot
+{
+    private final static Logger mLog = LoggerFactory.getLogger(PlaylistSnapshot.class);
+
+    public static final int MAGIC = 0x53445250; //SDRP
+    public static final int VERSION = 1;
+    private static final int HEADER_SIZE = 36;
+
+    private static final byte START_ELEMENT = 1;
+    private static final byte END_ELEMENT = 2;
+    private static final byte CHARACTERS = 3;
+    private static final byte START_PREFIX_MAPPING = 4;
+    private static final byte END_PREFIX_MAPPING = 5;
+    private static final byte END_DOCUMENT = 6;
+
+    private Path mSnapshotPath;
+
+    /**
+     * Constructs a snapshot stored at the path
+     */
+    public PlaylistSnapshot(Path snapshotPath)
+    {
+        mSnapshotPath = snapshotPath;
+    }
+
+    /**
+     * Path to the snapshot file
+     */
+    public Path getPath()
+    {
+        return mSnapshotPath;
+    }
+
+    /**
+     * Removes the snapshot file, if it exists
+     */
+    public void delete()
+    {
+        try
+        {
+            Files.deleteIfExists(mSnapshotPath);
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Unable to delete playlist snapshot [" + mSnapshotPath.toString() + "]", ioe);
+        }
+    }
+
+    /**
+     * Writes a snapshot of the playlist.  The snapshot is written to a temporary file and then moved over the
+     * previous snapshot.
+     *
+     * @param playlist that was saved to the playlist XML
+     * @param context JAXB context for the playlist classes
+     * @param xmlLength length of the saved playlist XML file
+     * @param xmlCRC CRC32 of the saved playlist XML file
+     * @throws JAXBException if the playlist can't be marshalled
+     * @throws IOException if the snapshot can't be written
+     */
+    public void write(PlaylistV2 playlist, JAXBContext context, long xmlLength, long xmlCRC)
+        throws JAXBException, IOException
+    {
+        SnapshotEncoder encoder = new SnapshotEncoder();
+
+        Marshaller marshaller = context.createMarshaller();
+        marshaller.marshal(playlist, encoder);
+
+        byte[] payload = encoder.getPayload();
+
+        CRC32 payloadCRC = new CRC32();
+        payloadCRC.update(payload);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putLong(xmlLength);
+        header.putLong(xmlCRC);
+        header.putInt(payload.length);
+        header.putLong(payloadCRC.getValue());
+        header.flip();
+
+        Path tempPath = mSnapshotPath.resolveSibling(mSnapshotPath.getFileName().toString() + ".tmp");
+
+        try(FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            ByteBuffer body = ByteBuffer.wrap(payload);
+
+            while(header.hasRemaining() || body.hasRemaining())
+            {
+                channel.write(new ByteBuffer[]{header, body});
+            }
+        }
+
+        try
+        {
+            Files.move(tempPath, mSnapshotPath, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch(AtomicMoveNotSupportedException amnse)
+        {
+            Files.move(tempPath, mSnapshotPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Loads the playlist from the memory-mapped snapshot when the snapshot was written from the playlist XML file
+     *
+     * @param xmlLength length of the current playlist XML file
+     * @param xmlCRC CRC32 of the current playlist XML file
+     * @param context JAXB context for the playlist classes
+     * @return playlist or null if there is no valid snapshot for the playlist XML
+     */
+    public PlaylistV2 read(long xmlLength, long xmlCRC, JAXBContext context)
+    {
+        if(!Files.exists(mSnapshotPath))
+        {
+            mLog.info("Playlist snapshot not found [" + mSnapshotPath.toString() + "]");
+            return null;
+        }
+
+        try(FileChannel snapshotChannel = FileChannel.open(mSnapshotPath, StandardOpenOption.READ))
+        {
+            if(snapshotChannel.size() < HEADER_SIZE || snapshotChannel.size() > Integer.MAX_VALUE)
+            {
+                mLog.info("Playlist snapshot ignored - invalid size [" + snapshotChannel.size() + "]");
+                return null;
+            }
+
+            MappedByteBuffer buffer = snapshotChannel.map(FileChannel.MapMode.READ_ONLY, 0, snapshotChannel.size());
+
+            int magic = buffer.getInt();
+            int version = buffer.getInt();
+
+            if(magic != MAGIC || version != VERSION)
+            {
+                mLog.info("Playlist snapshot ignored - unrecognized format version [" + version + "]");
+                return null;
+            }
+
+            long snapshotXMLLength = buffer.getLong();
+            long snapshotXMLCRC = buffer.getLong();
+            int payloadLength = buffer.getInt();
+            long payloadCRC = buffer.getLong();
+
+            if(snapshotXMLLength != xmlLength || snapshotXMLCRC != xmlCRC)
+            {
+                mLog.info("Playlist snapshot ignored - checksum doesn't match the playlist XML");
+                return null;
+            }
+
+            if(payloadLength != buffer.remaining())
+            {
+                mLog.info("Playlist snapshot ignored - incomplete snapshot");
+                return null;
+            }
+
+            ByteBuffer payload = buffer.slice();
+
+            CRC32 crc = new CRC32();
+            crc.update(payload.duplicate());
+
+            if(crc.getValue() != payloadCRC)
+            {
+                mLog.info("Playlist snapshot ignored - snapshot checksum error");
+                return null;
+            }
+
+            UnmarshallerHandler handler = context.createUnmarshaller().getUnmarshallerHandler();
+
+            new SnapshotDecoder(payload).replay(handler);
+
+            return (PlaylistV2)handler.getResult();
+        }
+        catch(IOException | JAXBException | SAXException | RuntimeException e)
+        {
+            mLog.error("Unable to load playlist snapshot [" + mSnapshotPath.toString() + "]", e);
+        }
+
+        return null;
+    }
+
+    /**
+     * Calculates the CRC32 of the complete contents of the file channel using a memory-mapped view of the file
+     */
+    public static long getCRC(FileChannel channel) throws IOException
+    {
+        CRC32 crc = new CRC32();
+
+        crc.update(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+
+        return crc.getValue();
+    }
+
+    /**
+     * Encodes the SAX events produced by the JAXB marshaller.  Strings are written inline the first time they occur
+     * and as a string table index thereafter.
+     */
+    private static class SnapshotEncoder extends DefaultHandler
+    {
+        private ByteArrayOutputStream mBytes = new ByteArrayOutputStream();
+        private DataOutputStream mOutput = new DataOutputStream(mBytes);
+        private Map<String,Integer> mStringTable = new HashMap<>();
+
+        public byte[] getPayload()
+        {
+            return mBytes.toByteArray();
+        }
+
+        @Override
+        public void startPrefixMapping(String prefix, String uri) throws SAXException
+        {
+            writeToken(START_PREFIX_MAPPING);
+            writeString(prefix);
+            writeString(uri);
+        }
+
+        @Override
+        public void endPrefixMapping(String prefix) throws SAXException
+        {
+            writeToken(END_PREFIX_MAPPING);
+            writeString(prefix);
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes)
+            throws SAXException
+        {
+            writeToken(START_ELEMENT);
+            writeString(uri);
+            writeString(localName);
+            writeString(qName);
+            writeNumber(attributes.getLength());
+
+            for(int x = 0; x < attributes.getLength(); x++)
+            {
+                writeString(attributes.getURI(x));
+                writeString(attributes.getLocalName(x));
+                writeString(attributes.getQName(x));
+                writeString(attributes.getType(x));
+                writeString(attributes.getValue(x));
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException
+        {
+            writeToken(END_ELEMENT);
+            writeString(uri);
+            writeString(localName);
+            writeString(qName);
+        }
+
+        @Override
+        public void characters(char[] characters, int start, int length) throws SAXException
+        {
+            writeToken(CHARACTERS);
+            writeString(new String(characters, start, length));
+        }
+
+        @Override
+        public void endDocument() throws SAXException
+        {
+            writeToken(END_DOCUMENT);
+        }
+
+        private void writeToken(byte token) throws SAXException
+        {
+            try
+            {
+                mOutput.writeByte(token);
+            }
+            catch(IOException ioe)
+            {
+                throw new SAXException(ioe);
+            }
+        }
+
+        /**
+         * Writes a string table index + 1, or 0 followed by the UTF-8 length and bytes for a new string
+         */
+        private void writeString(String value) throws SAXException
+        {
+            String string = value != null ? value : "";
+
+            Integer index = mStringTable.get(string);
+
+            if(index != null)
+            {
+                writeNumber(index + 1);
+            }
+            else
+            {
+                mStringTable.put(string, mStringTable.size());
+
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+
+                writeNumber(0);
+                writeNumber(bytes.length);
+
+                try
+                {
+                    mOutput.write(bytes);
+                }
+                catch(IOException ioe)
+                {
+                    throw new SAXException(ioe);
+                }
+            }
+        }
+
+        /**
+         * Writes a non-negative number as a variable length value with 7 bits per byte
+         */
+        private void writeNumber(int value) throws SAXException
+        {
+            try
+            {
+                int remaining = value;
+
+                while((remaining & ~0x7F) != 0)
+                {
+                    mOutput.writeByte((remaining & 0x7F) | 0x80);
+                    remaining >>>= 7;
+                }
+
+                mOutput.writeByte(remaining);
+            }
+            catch(IOException ioe)
+            {
+                throw new SAXException(ioe);
+            }
+        }
+    }
+
+    /**
+     * Replays the encoded SAX events into a content handler
+     */
+    private static class SnapshotDecoder
+    {
+        private ByteBuffer mBuffer;
+        private List<String> mStringTable = new ArrayList<>();
+
+        public SnapshotDecoder(ByteBuffer buffer)
+        {
+            mBuffer = buffer;
+        }
+
+        public void replay(ContentHandler handler) throws SAXException
+        {
+            handler.startDocument();
+
+            AttributesImpl attributes = new AttributesImpl();
+
+            try
+            {
+                while(true)
+                {
+                    byte token = mBuffer.get();
+
+                    switch(token)
+                    {
+                        case START_ELEMENT:
+                            String uri = readString();
+                            String localName = readString();
+                            String qName = readString();
+                            int count = readNumber();
+
+                            attributes.clear();
+
+                            for(int x = 0; x < count; x++)
+                            {
+                                attributes.addAttribute(readString(), readString(), readString(), readString(),
+                                    readString());
+                            }
+
+                            handler.startElement(uri, localName, qName, attributes);
+                            break;
+                        case END_ELEMENT:
+                            handler.endElement(readString(), readString(), readString());
+                            break;
+                        case CHARACTERS:
+                            char[] characters = readString().toCharArray();
+                            handler.characters(characters, 0, characters.length);
+                            break;
+                        case START_PREFIX_MAPPING:
+                            handler.startPrefixMapping(readString(), readString());
+                            break;
+                        case END_PREFIX_MAPPING:
+                            handler.endPrefixMapping(readString());
+                            break;
+                        case END_DOCUMENT:
+                            handler.endDocument();
+                            return;
+                        default:
+                            throw new SAXException("Unrecognized playlist snapshot token [" + token + "]");
+                    }
+                }
+            }
+            catch(BufferUnderflowException bue)
+            {
+                throw new SAXException("Playlist snapshot ended unexpectedly");
+            }
+        }
+
+        private String readString()
+        {
+            int index = readNumber();
+
+            if(index > 0)
+            {
+                return mStringTable.get(index - 1);
+            }
+
+            byte[] bytes = new byte[readNumber()];
+            mBuffer.get(bytes);
+
+            String string = new String(bytes, StandardCharsets.UTF_8);
+            mStringTable.add(string);
+
+            return string;
+        }
+
+        private int readNumber()
+        {
+            int value = 0;
+            int shift = 0;
+
+            while(true)
+            {
+                byte b = mBuffer.get();
+
+                value |= (b & 0x7F) << shift;
+
+                if((b & 0x80) == 0)
+                {
+                    return value;
+                }
+
+                shift += 7;
+            }
+        }
+    }
+}
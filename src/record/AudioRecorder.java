@@ -26,6 +26,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sample.Listener;
 
+import java.io.ByteArrayOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
@@ -34,11 +35,10 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
-public abstract class AudioRecorder extends Module implements Listener<AudioPacket>, IAudioPacketListener
+public abstract class AudioRecorder extends Module implements Listener<AudioPacket>, IAudioPacketListener,
+    IRecordingWriter
 {
     private final static Logger mLog = LoggerFactory.getLogger(AudioRecorder.class);
 
@@ -46,20 +46,22 @@ public abstract class AudioRecorder extends Module implements Listener<AudioPack
     private List<AudioPacket> mPacketsToProcess = new ArrayList<>();
 
     private FileOutputStream mFileOutputStream;
+    private ByteArrayOutputStream mEncodedAudio = new ByteArrayOutputStream();
     private AtomicBoolean mRunning = new AtomicBoolean();
+    private volatile boolean mEncodingComplete;
+    private volatile boolean mClosed;
 
     protected Path mPath;
     protected Metadata mMetadata;
     protected long mTimeRecordingStart;
     protected long mTimeLastPacketReceived;
-    private BufferProcessor mBufferProcessor;
-    private ScheduledFuture<?> mProcessorHandle;
     private Listener<AudioRecorder> mRecordingClosedListener;
 
     private long mSampleCount;
 
     /**
-     * Abstract audio recorder that implements audio packet queueing and threaded audio conversion/writing to a file
+     * Abstract audio recorder that implements audio packet queueing, audio conversion on the shared recording
+     * encoder pool and writing to a file on the shared recording I/O processor thread
      *
      * @param path for the output recording
      */
@@ -145,11 +147,12 @@ public abstract class AudioRecorder extends Module implements Listener<AudioPack
     }
 
     /**
-     * File output stream for the current recording.  Intended to allow sub-classes to write binary data to the file.
+     * Output stream for the current recording.  Intended to allow sub-classes to write binary data to the file while
+     * recording or flushing.  The data is buffered in memory and written to the file by the recording I/O processor.
      */
     protected OutputStream getOutputStream()
     {
-        return mFileOutputStream;
+        return mEncodedAudio;
     }
 
     /**
@@ -163,10 +166,9 @@ public abstract class AudioRecorder extends Module implements Listener<AudioPack
 
     /**
      * Closes the recording file.  Upon successful closing of the recording file, the listener is notified that the
-     * audio recorder is closed.  There is potential for the calling thread (here) and the buffer processor thread to
-     * both inform the recording closed listener that the recording is ended.  So, we synchronize on the listener and
-     * the first thread to get the lock informs the listener and then nullifies the listener pointer so that if the
-     * second thread attempts a duplicate notification the listener would be null at that point.
+     * audio recorder is closed.  There is potential for the calling thread (here) and the recording I/O processor
+     * thread to both inform the recording closed listener that the recording is ended, so the first thread to notify
+     * the listener nullifies the listener pointer to prevent a duplicate notification.
      */
     public void close(Listener<AudioRecorder> listener)
     {
@@ -174,14 +176,19 @@ public abstract class AudioRecorder extends Module implements Listener<AudioPack
 
         if(!mRunning.compareAndSet(true, false))
         {
-            synchronized(mRecordingClosedListener)
-            {
-                if(mRecordingClosedListener != null)
-                {
-                    mRecordingClosedListener.receive(AudioRecorder.this);
-                    mRecordingClosedListener = null;
-                }
-            }
+            notifyRecordingClosed();
+        }
+    }
+
+    /**
+     * Notifies the recording closed listener, once
+     */
+    private synchronized void notifyRecordingClosed()
+    {
+        if(mRecordingClosedListener != null)
+        {
+            mRecordingClosedListener.receive(AudioRecorder.this);
+            mRecordingClosedListener = null;
         }
     }
 
@@ -192,9 +199,9 @@ public abstract class AudioRecorder extends Module implements Listener<AudioPack
     protected abstract void record(List<AudioPacket> audioPackets) throws IOException;
 
     /**
-     * Starts this recorder as a scheduled thread running under the executor argument
+     * Opens the recording file and registers this recorder with the shared recording I/O processor
      *
-     * @param executor to use in scheduling audio conversion and file writes.
+     * @param executor is not used
      */
     public void start(ScheduledExecutorService executor)
     {
@@ -202,17 +209,11 @@ public abstract class AudioRecorder extends Module implements Listener<AudioPack
         {
             mTimeLastPacketReceived = System.currentTimeMillis();
 
-            if(mBufferProcessor == null)
-            {
-                mBufferProcessor = new BufferProcessor();
-            }
-
             try
             {
                 mFileOutputStream = new FileOutputStream(mPath.toFile());
 
-				/* Schedule the handler to run every half second */
-                mProcessorHandle = executor.scheduleAtFixedRate(mBufferProcessor, 0, 500, TimeUnit.MILLISECONDS);
+                RecordingIOProcessor.getInstance().add(this);
             }
             catch(IOException io)
             {
@@ -280,56 +281,102 @@ public abstract class AudioRecorder extends Module implements Listener<AudioPack
     }
 
     /**
-     * Drains the audio packet queue and records the audio packets to file
+     * Drains the audio packet queue and records the audio packets to the in-memory output buffer.  If this recorder
+     * has been stopped or closed, finishes the queue and flushes the residual frame data.  Invoked on the recording
+     * encoder pool.
      */
-    public class BufferProcessor implements Runnable
+    @Override
+    public void encode()
     {
-        private AtomicBoolean mProcessing = new AtomicBoolean();
+        if(mEncodingComplete || mFileOutputStream == null)
+        {
+            return;
+        }
+
+        //Check before draining so that packets received prior to stopping are recorded
+        boolean running = mRunning.get();
 
-        public void run()
+        processAudioPacketQueue();
+
+        if(!running)
         {
-            if(mProcessing.compareAndSet(false, true))
-            {
-                processAudioPacketQueue();
+            //Allow sub-classes to flush remaining audio frame data
+            flush();
 
-                //If we've been stopped or closed, finish the queue, close the recording, notify the listener, and
-                // cancel the future
-                if(!mRunning.get())
-                {
-                    //Allow sub-classes to flush remaining audio frame data to disk.
-                    flush();
+            mEncodingComplete = true;
+        }
+    }
 
-                    if(mFileOutputStream != null)
-                    {
-                        try
-                        {
-                            mFileOutputStream.flush();
-                            mFileOutputStream.close();
-                        }
-                        catch(IOException e)
-                        {
-                            mLog.error("Error closing output stream", e);
-                        }
-                    }
+    /**
+     * Writes the encoded audio to file.  Once the remaining audio of a stopped recorder is written, closes the
+     * recording and notifies the listener.  Invoked by the recording I/O processor.
+     *
+     * @return number of bytes written
+     */
+    @Override
+    public long write()
+    {
+        if(mClosed || mFileOutputStream == null)
+        {
+            return 0;
+        }
 
-                    synchronized(mRecordingClosedListener)
-                    {
-                        if(mRecordingClosedListener != null)
-                        {
-                            mRecordingClosedListener.receive(AudioRecorder.this);
-                            mRecordingClosedListener = null;
-                        }
-                    }
+        long bytes = mEncodedAudio.size();
 
-                    if(mProcessorHandle != null)
-                    {
-                        mProcessorHandle.cancel(false);
-                        mProcessorHandle = null;
-                    }
-                }
+        if(bytes > 0)
+        {
+            try
+            {
+                mEncodedAudio.writeTo(mFileOutputStream);
+            }
+            catch(IOException ioe)
+            {
+                mLog.debug("Error while writing audio to [" + getPath().toString() + "] - stopping recorder");
+                stop();
+                bytes = 0;
+            }
+
+            mEncodedAudio.reset();
+        }
 
-                mProcessing.set(false);
+        if(mEncodingComplete)
+        {
+            try
+            {
+                mFileOutputStream.flush();
+                mFileOutputStream.close();
+            }
+            catch(IOException e)
+            {
+                mLog.error("Error closing output stream", e);
             }
+
+            mClosed = true;
+
+            notifyRecordingClosed();
+        }
+
+        return bytes;
+    }
+
+    @Override
+    public boolean isClosed()
+    {
+        return mClosed;
+    }
+
+    @Override
+    public int getQueueSize()
+    {
+        return mAudioPacketQueue.size();
+    }
+
+    @Override
+    public void sync() throws IOException
+    {
+        if(!mClosed && mFileOutputStream != null)
+        {
+            mFileOutputStream.getFD().sync();
         }
     }
 }
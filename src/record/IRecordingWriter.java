@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package record;
+
+import java.io.IOException;
+
+/**
+ * Recording that is written to disk by the shared recording I/O processor
+ */
+public interface IRecordingWriter
+{
+    /**
+     * Converts all queued audio to the recording format and buffers it in memory for the next write.  Once the
+     * recording is stopped, converts the remaining audio and any residual frame data.  Invoked on a recording encoder
+     * pool thread, and never concurrently with write().
+     */
+    void encode();
+
+    /**
+     * Writes the audio buffered by the latest encode to the recording file.  Once the remaining audio of a stopped
+     * recording is written, closes the file.  Invoked on the recording I/O thread.
+     *
+     * @return number of bytes written
+     */
+    long write();
+
+    /**
+     * Indicates if the recording file is closed and the writer can be discarded
+     */
+    boolean isClosed();
+
+    /**
+     * Number of audio buffers or packets queued for writing
+     */
+    int getQueueSize();
+
+    /**
+     * Forces the written audio to the storage device
+     */
+    void sync() throws IOException;
+}
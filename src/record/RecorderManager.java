@@ -18,12 +18,16 @@
 package record;
 
 import audio.AudioPacket;
+import channel.latency.LatencyStage;
 import channel.metadata.Metadata;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import properties.SystemProperties;
+import record.archive.CallArchive;
+import record.archive.CallArchiveRecorder;
 import record.wave.ComplexBufferWaveRecorder;
 import record.wave.RealBufferWaveRecorder;
+import record.wave.WaveWriter;
 import sample.Listener;
 import sample.OverflowableTransferQueue;
 import sample.real.IOverflowListener;
@@ -45,11 +49,16 @@ public class RecorderManager implements Listener<AudioPacket>
     public static final int AUDIO_SAMPLE_RATE = 8000;
     public static final long IDLE_RECORDER_REMOVAL_THRESHOLD = 6000; //6 seconds
 
+    public static final String PROPERTY_CALL_ARCHIVE_ENABLED = "recording.call.archive.enabled";
+
     private Map<String,RealBufferWaveRecorder> mRecorders = new HashMap<>();
+    private Map<String,CallArchiveRecorder> mArchiveRecorders = new HashMap<>();
+    private CallArchive mCallArchive;
     private OverflowableTransferQueue<AudioPacket> mAudioPacketQueue = new OverflowableTransferQueue<>(1000, 100);
     private ScheduledFuture<?> mBufferProcessorFuture;
 
     private boolean mCanStartNewRecorders = true;
+    private boolean mDisposed = false;
 
     /**
      * Audio recording manager.  Monitors stream of audio packets produced by decoding channels and automatically starts
@@ -57,9 +66,28 @@ public class RecorderManager implements Listener<AudioPacket>
      * based on audio packet metadata.  Recorders are shutdown when the channel sends an end-call audio packet
      * indicating that the call is complete.  A separate recording monitor periodically checks for idled recorders to
      * be stopped for cases when the channel fails to send an end-call audio packet.
+     *
+     * When the call archive is enabled (system property), calls are appended to the call archive instead of being
+     * recorded to individual wave files.
      */
     public RecorderManager()
     {
+        if(SystemProperties.getInstance().get(PROPERTY_CALL_ARCHIVE_ENABLED, false))
+        {
+            CallArchive callArchive = new CallArchive(SystemProperties.getInstance()
+                .getApplicationFolder("recordings").resolve("archive"));
+
+            try
+            {
+                callArchive.open();
+                mCallArchive = callArchive;
+            }
+            catch(Exception e)
+            {
+                mLog.error("Error opening call archive - calls will be recorded to wave files", e);
+            }
+        }
+
         mAudioPacketQueue.setOverflowListener(new IOverflowListener()
         {
             @Override
@@ -78,19 +106,100 @@ public class RecorderManager implements Listener<AudioPacket>
 
         mBufferProcessorFuture = ThreadPool.SCHEDULED.scheduleAtFixedRate(new BufferProcessor(), 0,
             1, TimeUnit.SECONDS);
+
+        repairRecordings();
+
+        //Write out and close the recordings and archive calls that are in progress when the application exits
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                dispose();
+            }
+        }, "sdrtrunk recorder shutdown"));
+    }
+
+    /**
+     * Corrects the wave headers of any recordings that were left open when the application last ran.  Wave
+     * recordings only update their header sizes when closed or at periodic checkpoints, so unfinished recordings are
+     * detected from header sizes that are smaller than the recorded audio.  The repair runs on its own thread since it
+     * reads the header of every recording, which can take a while on slow storage.
+     */
+    private void repairRecordings()
+    {
+        final long startTime = System.currentTimeMillis();
+
+        Thread thread = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                int repaired = WaveWriter.repair(SystemProperties.getInstance().getApplicationFolder("recordings"),
+                    startTime);
+
+                if(repaired > 0)
+                {
+                    mLog.info("Repaired [" + repaired + "] wave recordings that were not closed");
+                }
+            }
+        }, "sdrtrunk recording repair");
+
+        thread.setDaemon(true);
+        thread.start();
     }
 
     /**
-     * Prepares this class for shutdown
+     * Prepares this class for shutdown.  Queued audio is dispatched and all recorders are stopped, then the recording
+     * I/O processor writes out and closes the stopped recordings - adding any calls in progress to the call archive -
+     * before the call archive is closed.
      */
-    public void dispose()
+    public synchronized void dispose()
     {
+        if(mDisposed)
+        {
+            return;
+        }
+
+        mDisposed = true;
+
         if(mBufferProcessorFuture != null)
         {
-            mBufferProcessorFuture.cancel(true);
+            mBufferProcessorFuture.cancel(false);
+        }
+
+        processBuffers();
+
+        for(RealBufferWaveRecorder recorder : mRecorders.values())
+        {
+            recorder.stop();
+        }
+
+        mRecorders.clear();
+
+        for(CallArchiveRecorder recorder : mArchiveRecorders.values())
+        {
+            recorder.stop();
+        }
+
+        mArchiveRecorders.clear();
+
+        RecordingIOProcessor.getInstance().shutdown();
+
+        if(mCallArchive != null)
+        {
+            mCallArchive.close();
         }
     }
 
+    /**
+     * Call archive when enabled, otherwise null
+     */
+    public CallArchive getCallArchive()
+    {
+        return mCallArchive;
+    }
+
     /**
      * Primary ingest point for audio packets from all decoding channels
      * @param audioPacket to process
@@ -119,13 +228,18 @@ public class RecorderManager implements Listener<AudioPacket>
             {
                 String identifier = audioPacket.getMetadata().getUniqueIdentifier();
 
-                if(mRecorders.containsKey(identifier))
+                if(mCallArchive != null)
+                {
+                    archive(identifier, audioPacket);
+                }
+                else if(mRecorders.containsKey(identifier))
                 {
                     RealBufferWaveRecorder recorder = mRecorders.get(identifier);
 
                     if(audioPacket.getType() == AudioPacket.Type.AUDIO)
                     {
                         recorder.receive(audioPacket.getAudioBuffer());
+                        markLatency(audioPacket);
                     }
                     else if(audioPacket.getType() == AudioPacket.Type.END)
                     {
@@ -149,6 +263,7 @@ public class RecorderManager implements Listener<AudioPacket>
 
                             recorder.receive(audioPacket.getAudioBuffer());
                             mRecorders.put(identifier, recorder);
+                            markLatency(audioPacket);
                         }
                         catch(Exception ioe)
                         {
@@ -171,6 +286,60 @@ public class RecorderManager implements Listener<AudioPacket>
         }
     }
 
+    /**
+     * Routes the audio packet to the call archive recorder for the call, starting a new recorder for a new call
+     */
+    private void archive(String identifier, AudioPacket audioPacket)
+    {
+        CallArchiveRecorder recorder = mArchiveRecorders.get(identifier);
+
+        if(audioPacket.getType() == AudioPacket.Type.AUDIO)
+        {
+            if(recorder == null || !recorder.isRunning())
+            {
+                recorder = startArchiveRecorder(identifier);
+            }
+
+            recorder.receive(audioPacket);
+
+            //A recorder stops when its buffer overflows - the rest of the call goes to a new archive entry
+            if(!recorder.isRunning())
+            {
+                recorder = startArchiveRecorder(identifier);
+                recorder.receive(audioPacket);
+            }
+
+            markLatency(audioPacket);
+        }
+        else if(audioPacket.getType() == AudioPacket.Type.END && recorder != null)
+        {
+            mArchiveRecorders.remove(identifier);
+            recorder.stop();
+        }
+    }
+
+    /**
+     * Starts a call archive recorder for the call, replacing any stopped recorder for the call
+     */
+    private CallArchiveRecorder startArchiveRecorder(String identifier)
+    {
+        CallArchiveRecorder recorder = new CallArchiveRecorder(mCallArchive);
+        recorder.start();
+        mArchiveRecorders.put(identifier, recorder);
+        return recorder;
+    }
+
+    /**
+     * Records the grant to audio recording latency for audio packets produced by a followed call
+     */
+    private static void markLatency(AudioPacket audioPacket)
+    {
+        if(audioPacket.getMetadata().hasCallLatency())
+        {
+            audioPacket.getMetadata().getCallLatency().mark(LatencyStage.AUDIO_RECORDING);
+        }
+    }
+
     /**
      * Removes recorders that have not received any new audio buffers in the last 6 seconds.
      */
@@ -189,6 +358,20 @@ public class RecorderManager implements Listener<AudioPacket>
                 entry.getValue().stop();
             }
         }
+
+        Iterator<Map.Entry<String,CallArchiveRecorder>> archiveIterator = mArchiveRecorders.entrySet().iterator();
+
+        while(archiveIterator.hasNext())
+        {
+            Map.Entry<String,CallArchiveRecorder> entry = archiveIterator.next();
+
+            if(entry.getValue().getLastBufferReceived() + IDLE_RECORDER_REMOVAL_THRESHOLD < System.currentTimeMillis())
+            {
+                mLog.info("Removing idle call archive recorder [" + entry.getKey() + "]");
+                archiveIterator.remove();
+                entry.getValue().stop();
+            }
+        }
     }
 
     /**
@@ -242,8 +425,14 @@ public class RecorderManager implements Listener<AudioPacket>
         @Override
         public void run()
         {
-            processBuffers();
-            removeIdleRecorders();
+            synchronized(RecorderManager.this)
+            {
+                if(!mDisposed)
+                {
+                    processBuffers();
+                    removeIdleRecorders();
+                }
+            }
         }
     }
 }
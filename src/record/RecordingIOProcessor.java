@@ -0,0 +1,358 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package record;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import controller.NamingThreadFactory;
+import properties.SystemProperties;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared I/O processor that writes the audio for all active recordings on a single dedicated thread.
+ *
+ * Each processing interval, the processor has every registered recording encode its queued audio on a small encoder
+ * pool (thread count set by system property), so that MP3 encoding runs in parallel and off of the I/O thread.  Once
+ * the encoding completes, the I/O thread has each recording write its buffered audio in one batch, so each recording
+ * file receives at most one write per interval regardless of how many audio buffers arrived.  Recordings are removed
+ * once they report that they are closed.
+ *
+ * Recordings are optionally forced to the storage device at the sync interval (system property, disabled by
+ * default).  The processor tracks the queue depth, the write rate and the sync latency.
+ */
+public class RecordingIOProcessor implements Runnable
+{
+    private final static Logger mLog = LoggerFactory.getLogger(RecordingIOProcessor.class);
+
+    public static final long PROCESSING_INTERVAL_MS = 500;
+    public static final long METRICS_INTERVAL_MS = 10000;
+    public static final long SHUTDOWN_TIMEOUT_MS = 5000;
+
+    public static final String PROPERTY_SYNC_INTERVAL_MS = "recording.sync.interval.ms";
+    public static final int DEFAULT_SYNC_INTERVAL_MS = 0;
+    public static final String PROPERTY_ENCODER_THREAD_COUNT = "recording.encoder.threads";
+    public static final int DEFAULT_ENCODER_THREAD_COUNT = 2;
+
+    private static RecordingIOProcessor sInstance;
+
+    private List<IRecordingWriter> mWriters = new CopyOnWriteArrayList<>();
+    private List<Callable<Void>> mEncodeTasks = new ArrayList<>();
+    private ExecutorService mEncoderExecutor;
+    private Thread mThread;
+    private volatile boolean mRunning = true;
+    private long mSyncInterval;
+    private long mLastSync;
+
+    private long mMetricsStart;
+    private long mMetricsBytes;
+    private volatile int mQueueDepth;
+    private volatile int mPeakQueueDepth;
+    private volatile long mBytesPerSecond;
+    private volatile long mSyncLatency;
+    private volatile long mPeakSyncLatency;
+
+    private RecordingIOProcessor()
+    {
+        mSyncInterval = SystemProperties.getInstance().get(PROPERTY_SYNC_INTERVAL_MS, DEFAULT_SYNC_INTERVAL_MS);
+
+        int threads = Math.max(1, SystemProperties.getInstance().get(PROPERTY_ENCODER_THREAD_COUNT,
+            DEFAULT_ENCODER_THREAD_COUNT));
+
+        mEncoderExecutor = new ThreadPoolExecutor(threads, threads, 0l, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<Runnable>(), new NamingThreadFactory("sdrtrunk recording encoder"));
+
+        mThread = new Thread(this, "sdrtrunk recording io");
+        mThread.setDaemon(true);
+        mThread.start();
+    }
+
+    /**
+     * Shared recording I/O processor
+     */
+    public static synchronized RecordingIOProcessor getInstance()
+    {
+        if(sInstance == null)
+        {
+            sInstance = new RecordingIOProcessor();
+        }
+
+        return sInstance;
+    }
+
+    /**
+     * Registers the recording for processing until it reports that it is closed
+     */
+    public void add(IRecordingWriter writer)
+    {
+        mWriters.add(writer);
+    }
+
+    @Override
+    public void run()
+    {
+        mMetricsStart = System.currentTimeMillis();
+        mLastSync = mMetricsStart;
+
+        while(mRunning)
+        {
+            long start = System.currentTimeMillis();
+
+            try
+            {
+                process();
+            }
+            catch(Throwable t)
+            {
+                mLog.error("Error while processing audio recordings", t);
+            }
+
+            long sleep = PROCESSING_INTERVAL_MS - (System.currentTimeMillis() - start);
+
+            if(sleep > 0)
+            {
+                try
+                {
+                    Thread.sleep(sleep);
+                }
+                catch(InterruptedException ie)
+                {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops the processing thread and then encodes and writes the queued audio for each recording from the calling
+     * thread, so that stopped recordings are written out and closed, and then shuts down the encoder pool.  The thread
+     * isn't interrupted, since interrupting a thread that is writing to a file channel closes the channel.
+     */
+    public void shutdown()
+    {
+        mRunning = false;
+
+        try
+        {
+            mThread.join(SHUTDOWN_TIMEOUT_MS);
+        }
+        catch(InterruptedException ie)
+        {
+            mLog.warn("Interrupted while waiting for the recording I/O thread to stop");
+        }
+
+        if(mThread.isAlive())
+        {
+            mLog.warn("Recording I/O thread didn't stop - recordings may not be completely written");
+            return;
+        }
+
+        try
+        {
+            process();
+        }
+        catch(Throwable t)
+        {
+            mLog.error("Error while writing audio recordings at shutdown", t);
+        }
+
+        mEncoderExecutor.shutdown();
+    }
+
+    /**
+     * Encodes the queued audio for each recording on the encoder pool, writes the encoded audio, removes closed
+     * recordings and updates the metrics
+     */
+    private void process()
+    {
+        int queueDepth = 0;
+
+        for(IRecordingWriter writer : mWriters)
+        {
+            queueDepth += writer.getQueueSize();
+        }
+
+        mQueueDepth = queueDepth;
+
+        if(queueDepth > mPeakQueueDepth)
+        {
+            mPeakQueueDepth = queueDepth;
+        }
+
+        encode();
+
+        for(IRecordingWriter writer : mWriters)
+        {
+            mMetricsBytes += writer.write();
+
+            if(writer.isClosed())
+            {
+                mWriters.remove(writer);
+            }
+        }
+
+        long now = System.currentTimeMillis();
+
+        if(mSyncInterval > 0 && mLastSync + mSyncInterval <= now)
+        {
+            sync();
+            mLastSync = now;
+        }
+
+        if(mMetricsStart + METRICS_INTERVAL_MS <= now)
+        {
+            mBytesPerSecond = mMetricsBytes * 1000 / (now - mMetricsStart);
+
+            if(!mWriters.isEmpty())
+            {
+                mLog.debug("Recordings [" + mWriters.size() + "] queue depth [" + mQueueDepth + "] write rate [" +
+                    mBytesPerSecond + " bytes/sec] sync latency [" + mSyncLatency + " ms]");
+            }
+
+            mMetricsBytes = 0;
+            mMetricsStart = now;
+        }
+    }
+
+    /**
+     * Encodes the queued audio for each recording on the encoder pool and waits for the encoding to complete
+     */
+    private void encode()
+    {
+        for(final IRecordingWriter writer : mWriters)
+        {
+            mEncodeTasks.add(new Callable<Void>()
+            {
+                @Override
+                public Void call() throws Exception
+                {
+                    writer.encode();
+                    return null;
+                }
+            });
+        }
+
+        try
+        {
+            for(Future<Void> future : mEncoderExecutor.invokeAll(mEncodeTasks))
+            {
+                try
+                {
+                    future.get();
+                }
+                catch(ExecutionException ee)
+                {
+                    mLog.error("Error while encoding audio recording", ee.getCause());
+                }
+            }
+        }
+        catch(InterruptedException ie)
+        {
+            mLog.warn("Interrupted while waiting for audio recordings to encode");
+            Thread.currentThread().interrupt();
+        }
+
+        mEncodeTasks.clear();
+    }
+
+    /**
+     * Forces the open recordings to the storage device
+     */
+    private void sync()
+    {
+        long start = System.currentTimeMillis();
+
+        for(IRecordingWriter writer : mWriters)
+        {
+            try
+            {
+                writer.sync();
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Error syncing audio recording to disk", ioe);
+            }
+        }
+
+        mSyncLatency = System.currentTimeMillis() - start;
+
+        if(mSyncLatency > mPeakSyncLatency)
+        {
+            mPeakSyncLatency = mSyncLatency;
+        }
+    }
+
+    /**
+     * Number of active recordings
+     */
+    public int getRecordingCount()
+    {
+        return mWriters.size();
+    }
+
+    /**
+     * Number of audio buffers and packets queued across all recordings at the start of the latest interval
+     */
+    public int getQueueDepth()
+    {
+        return mQueueDepth;
+    }
+
+    /**
+     * Largest queue depth observed
+     */
+    public int getPeakQueueDepth()
+    {
+        return mPeakQueueDepth;
+    }
+
+    /**
+     * Bytes written per second across all recordings over the latest metrics interval
+     */
+    public long getBytesPerSecond()
+    {
+        return mBytesPerSecond;
+    }
+
+    /**
+     * Milliseconds taken to sync all open recordings at the latest sync interval
+     */
+    public long getSyncLatency()
+    {
+        return mSyncLatency;
+    }
+
+    /**
+     * Largest sync latency observed in milliseconds
+     */
+    public long getPeakSyncLatency()
+    {
+        return mPeakSyncLatency;
+    }
+}
@@ -0,0 +1,608 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package record.archive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Call archive that appends the encoded (MP3) audio for each call to large segment files and keeps a compact index
+ * of the calls, instead of writing a file per call.
+ *
+ * Each segment file is a plain concatenation of MP3 frames.  A new segment is started once the current segment
+ * reaches the maximum segment size.  Each segment has a fixed-width index (see CallArchiveIndex) that refers to the
+ * channel, talkgroup and radio ID strings by their ID in the archive string table, so the heap holds one copy of each
+ * distinct string instead of strings for every call.  Opening the archive reads the string table, the header of each
+ * completed segment index and the records of the segment that is being written.  Completed segment indexes are only
+ * memory-mapped when a query overlaps their time range.  A partial string or index record left by a crash is
+ * truncated when the archive is opened.
+ */
+public class CallArchive
+{
+    private final static Logger mLog = LoggerFactory.getLogger(CallArchive.class);
+
+    public static final String STRINGS_FILE_NAME = "strings.dat";
+    public static final long MAXIMUM_SEGMENT_SIZE = 256l * 1024l * 1024l; //256 MB
+
+    private static final int STRINGS_MAGIC = 0x53445253; //SDRS
+    private static final int STRINGS_VERSION = 1;
+    private static final int STRINGS_HEADER_SIZE = 8;
+    private static final Pattern SEGMENT_PATTERN = Pattern.compile("segment_(\\d+)\\.mp3");
+
+    private static final byte CHANNEL = 0;
+    private static final byte TALKGROUP = 1;
+    private static final byte RADIO_ID = 2;
+
+    private Path mDirectory;
+
+    //String table - each distinct (type, value) pair is stored once and referred to by its position in the table
+    private List<String> mStrings = new ArrayList<>();
+    private List<Map<String,Integer>> mStringIDs = new ArrayList<>();
+    private FileChannel mStringsChannel;
+    private DataOutputStream mStringsOutputStream;
+
+    private List<CallArchiveIndex> mIndexes = new ArrayList<>();
+    private CallArchiveIndex mActiveIndex;
+    private FileChannel mSegmentChannel;
+    private int mSegment;
+
+    /**
+     * Constructs a call archive
+     *
+     * @param directory for the archive segment and index files
+     */
+    public CallArchive(Path directory)
+    {
+        mDirectory = directory;
+
+        for(int x = CHANNEL; x <= RADIO_ID; x++)
+        {
+            mStringIDs.add(new HashMap<String,Integer>());
+        }
+    }
+
+    /**
+     * Archive directory
+     */
+    public Path getDirectory()
+    {
+        return mDirectory;
+    }
+
+    /**
+     * Opens the archive for reading and writing, creating the archive files if necessary.
+     */
+    public synchronized void open() throws IOException
+    {
+        if(mStringsChannel != null)
+        {
+            return;
+        }
+
+        Files.createDirectories(mDirectory);
+
+        mStringsChannel = FileChannel.open(mDirectory.resolve(STRINGS_FILE_NAME), StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        if(mStringsChannel.size() < STRINGS_HEADER_SIZE)
+        {
+            ByteBuffer header = ByteBuffer.allocate(STRINGS_HEADER_SIZE);
+            header.putInt(STRINGS_MAGIC);
+            header.putInt(STRINGS_VERSION);
+            header.flip();
+
+            mStringsChannel.truncate(0);
+
+            while(header.hasRemaining())
+            {
+                mStringsChannel.write(header, header.position());
+            }
+        }
+        else
+        {
+            loadStrings(true);
+        }
+
+        mStringsChannel.position(mStringsChannel.size());
+        mStringsOutputStream = new DataOutputStream(new BufferedOutputStream(
+            Channels.newOutputStream(mStringsChannel)));
+
+        loadIndexes(true);
+
+        mSegment = Math.max(1, getLastSegment());
+
+        //Continue the last segment unless it was already completed
+        if(!mIndexes.isEmpty() && mIndexes.get(mIndexes.size() - 1).getSegment() == mSegment)
+        {
+            CallArchiveIndex last = mIndexes.get(mIndexes.size() - 1);
+
+            if(last.isSealed())
+            {
+                mSegment++;
+            }
+            else
+            {
+                mActiveIndex = last;
+            }
+        }
+
+        openSegment();
+
+        mLog.info("Call archive opened with [" + size() + "] calls in [" + mIndexes.size() + "] segments [" +
+            mDirectory.toString() + "]");
+    }
+
+    /**
+     * Opens an existing archive for reading only.  The archive files are not created or modified - a partial record
+     * left by a crash is ignored instead of truncated - and calls can't be added.
+     */
+    public synchronized void openReadOnly() throws IOException
+    {
+        if(mStringsChannel != null)
+        {
+            return;
+        }
+
+        mStringsChannel = FileChannel.open(mDirectory.resolve(STRINGS_FILE_NAME), StandardOpenOption.READ);
+
+        if(mStringsChannel.size() >= STRINGS_HEADER_SIZE)
+        {
+            loadStrings(false);
+        }
+
+        loadIndexes(false);
+
+        mLog.info("Call archive opened read-only with [" + size() + "] calls in [" + mIndexes.size() +
+            "] segments [" + mDirectory.toString() + "]");
+    }
+
+    /**
+     * Loads the string table
+     *
+     * @param truncate any partial string at the end of the string table
+     */
+    private void loadStrings(boolean truncate) throws IOException
+    {
+        mStringsChannel.position(0);
+
+        DataInputStream input = new DataInputStream(new BufferedInputStream(
+            Channels.newInputStream(mStringsChannel)));
+
+        if(input.readInt() != STRINGS_MAGIC || input.readInt() != STRINGS_VERSION)
+        {
+            throw new IOException("Unrecognized call archive string table format [" + mDirectory.toString() + "]");
+        }
+
+        CountingDataInput counter = new CountingDataInput(input);
+        long validLength = STRINGS_HEADER_SIZE;
+
+        try
+        {
+            while(true)
+            {
+                byte type = counter.getDataInput().readByte();
+                String value = counter.getDataInput().readUTF();
+
+                if(type < CHANNEL || type > RADIO_ID)
+                {
+                    break;
+                }
+
+                validLength = STRINGS_HEADER_SIZE + counter.getCount();
+
+                mStringIDs.get(type).put(value, mStrings.size());
+                mStrings.add(value);
+            }
+        }
+        catch(EOFException eofe)
+        {
+            //End of the string table
+        }
+
+        if(truncate && validLength < mStringsChannel.size())
+        {
+            mLog.info("Truncating partial call archive string [" + mDirectory.toString() + "]");
+            mStringsChannel.truncate(validLength);
+        }
+    }
+
+    /**
+     * Opens the index of each segment in the archive directory.  Only the segment being written has its records
+     * loaded.  An index that was left unsealed by a crash while a later segment was started is sealed.
+     *
+     * @param writable to truncate partial records and seal completed segment indexes
+     */
+    private void loadIndexes(boolean writable) throws IOException
+    {
+        int lastSegment = getLastSegment();
+
+        for(int segment = 1; segment <= lastSegment; segment++)
+        {
+            Path indexPath = getIndexPath(segment);
+
+            if(!Files.exists(indexPath))
+            {
+                continue;
+            }
+
+            CallArchiveIndex index = CallArchiveIndex.open(indexPath, segment, writable && segment == lastSegment);
+
+            if(!index.isSealed() && segment < lastSegment && writable)
+            {
+                index.close();
+                index = CallArchiveIndex.open(indexPath, segment, true);
+                index.seal();
+            }
+
+            mIndexes.add(index);
+        }
+    }
+
+    /**
+     * Highest segment number in the archive directory, or zero if there are no segments
+     */
+    private int getLastSegment() throws IOException
+    {
+        int last = 0;
+
+        try(DirectoryStream<Path> stream = Files.newDirectoryStream(mDirectory, "segment_*.mp3"))
+        {
+            for(Path path : stream)
+            {
+                Matcher m = SEGMENT_PATTERN.matcher(path.getFileName().toString());
+
+                if(m.matches())
+                {
+                    last = Math.max(last, Integer.parseInt(m.group(1)));
+                }
+            }
+        }
+
+        return last;
+    }
+
+    /**
+     * Path of the segment file
+     */
+    public Path getSegmentPath(int segment)
+    {
+        return mDirectory.resolve(String.format("segment_%06d.mp3", segment));
+    }
+
+    /**
+     * Path of the segment index file
+     */
+    public Path getIndexPath(int segment)
+    {
+        return mDirectory.resolve(String.format("segment_%06d.idx", segment));
+    }
+
+    /**
+     * Opens the current segment and its index for appending
+     */
+    private void openSegment() throws IOException
+    {
+        mSegmentChannel = FileChannel.open(getSegmentPath(mSegment), StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE);
+        mSegmentChannel.position(mSegmentChannel.size());
+
+        if(mActiveIndex == null)
+        {
+            mActiveIndex = CallArchiveIndex.create(getIndexPath(mSegment), mSegment);
+            mIndexes.add(mActiveIndex);
+        }
+    }
+
+    /**
+     * Closes the archive files
+     */
+    public synchronized void close()
+    {
+        try
+        {
+            if(mStringsOutputStream != null)
+            {
+                mStringsOutputStream.close();
+            }
+
+            if(mSegmentChannel != null)
+            {
+                mSegmentChannel.close();
+            }
+
+            //The string table channel of a read-only archive has no output stream to close it
+            if(mStringsChannel != null && mStringsChannel.isOpen())
+            {
+                mStringsChannel.close();
+            }
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error closing call archive [" + mDirectory.toString() + "]", ioe);
+        }
+
+        for(CallArchiveIndex index : mIndexes)
+        {
+            index.close();
+        }
+
+        mStringsOutputStream = null;
+        mStringsChannel = null;
+        mSegmentChannel = null;
+        mActiveIndex = null;
+        mIndexes.clear();
+        mStrings.clear();
+
+        for(Map<String,Integer> ids : mStringIDs)
+        {
+            ids.clear();
+        }
+    }
+
+    /**
+     * Appends the call's encoded audio to the current segment and adds the call to the segment index.
+     *
+     * @param startTime of the call in milliseconds since epoch
+     * @param duration of the call audio in milliseconds
+     * @param channel name
+     * @param talkgroup called
+     * @param radioID of the calling radio
+     * @param audio encoded as MP3 frames
+     * @return index entry for the call
+     */
+    public synchronized CallArchiveEntry add(long startTime, int duration, String channel, String talkgroup,
+                                             String radioID, byte[] audio) throws IOException
+    {
+        if(mSegmentChannel == null)
+        {
+            throw new IOException("Call archive is not open for writing");
+        }
+
+        if(mSegmentChannel.size() > 0 && mSegmentChannel.size() + audio.length > MAXIMUM_SEGMENT_SIZE)
+        {
+            mSegmentChannel.close();
+            mActiveIndex.seal();
+            mActiveIndex = null;
+            mSegment++;
+            openSegment();
+        }
+
+        long offset = mSegmentChannel.position();
+
+        ByteBuffer buffer = ByteBuffer.wrap(audio);
+
+        while(buffer.hasRemaining())
+        {
+            mSegmentChannel.write(buffer);
+        }
+
+        CallArchiveEntry entry = new CallArchiveEntry(startTime, duration, channel, talkgroup, radioID, mSegment,
+            offset, audio.length);
+
+        //Strings are written ahead of the index record that refers to them
+        int channelID = getStringID(CHANNEL, entry.getChannel());
+        int talkgroupID = getStringID(TALKGROUP, entry.getTalkgroup());
+        int radioIDID = getStringID(RADIO_ID, entry.getRadioID());
+        mStringsOutputStream.flush();
+
+        mActiveIndex.add(startTime, duration, channelID, talkgroupID, radioIDID, offset, audio.length);
+
+        return entry;
+    }
+
+    /**
+     * ID of the string in the string table, adding the string to the table if necessary
+     */
+    private int getStringID(byte type, String value) throws IOException
+    {
+        Integer id = mStringIDs.get(type).get(value);
+
+        if(id == null)
+        {
+            id = mStrings.size();
+
+            mStringsOutputStream.writeByte(type);
+            mStringsOutputStream.writeUTF(value);
+
+            mStringIDs.get(type).put(value, id);
+            mStrings.add(value);
+        }
+
+        return id;
+    }
+
+    /**
+     * Calls that started within the time range, ordered by start time
+     *
+     * @param start time inclusive in milliseconds since epoch
+     * @param end time exclusive in milliseconds since epoch
+     */
+    public synchronized List<CallArchiveEntry> getCalls(long start, long end) throws IOException
+    {
+        return getCalls(-1, start, end);
+    }
+
+    /**
+     * Calls to the talkgroup that started within the time range, ordered by start time
+     *
+     * @param talkgroup called
+     * @param start time inclusive in milliseconds since epoch
+     * @param end time exclusive in milliseconds since epoch
+     */
+    public synchronized List<CallArchiveEntry> getCalls(String talkgroup, long start, long end) throws IOException
+    {
+        Integer id = mStringIDs.get(TALKGROUP).get(talkgroup);
+
+        if(id == null)
+        {
+            return Collections.emptyList();
+        }
+
+        return getCalls(id, start, end);
+    }
+
+    /**
+     * Calls from each segment index that overlaps the time range, ordered by start time
+     */
+    private List<CallArchiveEntry> getCalls(int talkgroupID, long start, long end) throws IOException
+    {
+        List<CallArchiveEntry> calls = new ArrayList<>();
+
+        for(CallArchiveIndex index : mIndexes)
+        {
+            index.getCalls(start, end, talkgroupID, mStrings, calls);
+        }
+
+        //Calls are added to a segment as they end, so the start times of adjacent segments can overlap
+        Collections.sort(calls, new Comparator<CallArchiveEntry>()
+        {
+            @Override
+            public int compare(CallArchiveEntry a, CallArchiveEntry b)
+            {
+                return Long.compare(a.getStartTime(), b.getStartTime());
+            }
+        });
+
+        return calls;
+    }
+
+    /**
+     * Talkgroups that have calls in the archive
+     */
+    public synchronized List<String> getTalkgroups()
+    {
+        List<String> talkgroups = new ArrayList<>(mStringIDs.get(TALKGROUP).keySet());
+        Collections.sort(talkgroups);
+        return talkgroups;
+    }
+
+    /**
+     * Number of calls in the archive
+     */
+    public synchronized int size()
+    {
+        int size = 0;
+
+        for(CallArchiveIndex index : mIndexes)
+        {
+            size += index.size();
+        }
+
+        return size;
+    }
+
+    /**
+     * Reads the encoded (MP3) audio for the call from its segment file
+     */
+    public byte[] getAudio(CallArchiveEntry entry) throws IOException
+    {
+        byte[] audio = new byte[entry.getLength()];
+
+        ByteBuffer buffer = ByteBuffer.wrap(audio);
+
+        try(FileChannel channel = FileChannel.open(getSegmentPath(entry.getSegment()), StandardOpenOption.READ))
+        {
+            while(buffer.hasRemaining())
+            {
+                if(channel.read(buffer, entry.getOffset() + buffer.position()) < 0)
+                {
+                    throw new EOFException("Call audio extends beyond the end of segment [" +
+                        getSegmentPath(entry.getSegment()).toString() + "]");
+                }
+            }
+        }
+
+        return audio;
+    }
+
+    /**
+     * Data input wrapper that counts the bytes read so that the end of the last complete string is known
+     */
+    private static class CountingDataInput extends InputStream
+    {
+        private InputStream mInputStream;
+        private DataInputStream mDataInput;
+        private long mCount;
+
+        private CountingDataInput(InputStream inputStream)
+        {
+            mInputStream = inputStream;
+            mDataInput = new DataInputStream(this);
+        }
+
+        private DataInputStream getDataInput()
+        {
+            return mDataInput;
+        }
+
+        private long getCount()
+        {
+            return mCount;
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            int value = mInputStream.read();
+
+            if(value >= 0)
+            {
+                mCount++;
+            }
+
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException
+        {
+            int read = mInputStream.read(buffer, offset, length);
+
+            if(read > 0)
+            {
+                mCount += read;
+            }
+
+            return read;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package record.archive;
+
+/**
+ * Call archive entry describing a call and the location of its encoded audio within a segment file.  Entries are
+ * created from the segment indexes for the calls returned by a call archive query.
+ */
+public class CallArchiveEntry
+{
+    private long mStartTime;
+    private int mDuration;
+    private String mChannel;
+    private String mTalkgroup;
+    private String mRadioID;
+    private int mSegment;
+    private long mOffset;
+    private int mLength;
+
+    /**
+     * Constructs an archive entry
+     *
+     * @param startTime of the call in milliseconds since epoch
+     * @param duration of the call audio in milliseconds
+     * @param channel name (system/site/channel) or empty string
+     * @param talkgroup or empty string
+     * @param radioID or empty string
+     * @param segment number of the segment file containing the audio
+     * @param offset of the audio within the segment file
+     * @param length of the audio in bytes
+     */
+    public CallArchiveEntry(long startTime, int duration, String channel, String talkgroup, String radioID,
+                            int segment, long offset, int length)
+    {
+        mStartTime = startTime;
+        mDuration = duration;
+        mChannel = channel != null ? channel : "";
+        mTalkgroup = talkgroup != null ? talkgroup : "";
+        mRadioID = radioID != null ? radioID : "";
+        mSegment = segment;
+        mOffset = offset;
+        mLength = length;
+    }
+
+    /**
+     * Call start time in milliseconds since epoch
+     */
+    public long getStartTime()
+    {
+        return mStartTime;
+    }
+
+    /**
+     * Call audio duration in milliseconds
+     */
+    public int getDuration()
+    {
+        return mDuration;
+    }
+
+    public String getChannel()
+    {
+        return mChannel;
+    }
+
+    public String getTalkgroup()
+    {
+        return mTalkgroup;
+    }
+
+    public String getRadioID()
+    {
+        return mRadioID;
+    }
+
+    /**
+     * Number of the segment file that contains the call audio
+     */
+    public int getSegment()
+    {
+        return mSegment;
+    }
+
+    /**
+     * Byte offset of the call audio within the segment file
+     */
+    public long getOffset()
+    {
+        return mOffset;
+    }
+
+    /**
+     * Length of the call audio in bytes
+     */
+    public int getLength()
+    {
+        return mLength;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Call start [").append(mStartTime).append("]");
+        sb.append(" duration [").append(mDuration).append(" ms]");
+        sb.append(" channel [").append(mChannel).append("]");
+        sb.append(" talkgroup [").append(mTalkgroup).append("]");
+        sb.append(" radio [").append(mRadioID).append("]");
+        return sb.toString();
+    }
+}
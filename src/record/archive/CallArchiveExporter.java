@@ -0,0 +1,212 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package record.archive;
+
+import net.sourceforge.lame.lowlevel.LameDecoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import record.wave.WaveWriter;
+import util.TimeStamp;
+
+import javax.sound.sampled.AudioFormat;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Exports calls from a call archive as standalone MP3 or WAVE files.
+ *
+ * Command line usage:
+ *
+ *   CallArchiveExporter archiveDirectory outputDirectory mp3|wav [talkgroup|*] [start [end]]
+ *
+ * where start and end are formatted as yyyyMMddHHmmss (local time).  All calls are exported when no talkgroup or
+ * time range is specified.
+ */
+public class CallArchiveExporter
+{
+    private final static Logger mLog = LoggerFactory.getLogger(CallArchiveExporter.class);
+
+    public static final String DATE_FORMAT = "yyyyMMddHHmmss";
+
+    private CallArchive mCallArchive;
+
+    /**
+     * Constructs an exporter for the open call archive
+     */
+    public CallArchiveExporter(CallArchive callArchive)
+    {
+        mCallArchive = callArchive;
+    }
+
+    /**
+     * Exports the call's MP3 audio to the file
+     */
+    public void exportMP3(CallArchiveEntry entry, Path file) throws IOException
+    {
+        Files.write(file, mCallArchive.getAudio(entry));
+    }
+
+    /**
+     * Decodes the call's MP3 audio and exports it to the file as 16-bit PCM WAVE audio
+     */
+    public void exportWAV(CallArchiveEntry entry, Path file) throws IOException
+    {
+        //The decoder only reads from files
+        Path temp = Files.createTempFile("sdrtrunk_call_", ".mp3");
+
+        try
+        {
+            exportMP3(entry, temp);
+
+            LameDecoder decoder = new LameDecoder(temp.toString());
+
+            AudioFormat format = new AudioFormat(decoder.getSampleRate(), 16, decoder.getChannels(), true, false);
+
+            //The decoder reports the MPEG-1 frame size (1152 samples) for all streams, but MPEG-2 and MPEG-2.5 frames
+            //at sample rates of 24 kHz and below only contain 576 samples per channel
+            int frameBytes = (decoder.getSampleRate() <= 24000 ? 576 : 1152) * decoder.getChannels() * 2;
+
+            ByteBuffer buffer = ByteBuffer.allocate(decoder.getFrameSize() * decoder.getChannels() * 2);
+
+            try(WaveWriter writer = new WaveWriter(format, file))
+            {
+                while(decoder.decode(buffer))
+                {
+                    writer.write(ByteBuffer.wrap(Arrays.copyOf(buffer.array(), frameBytes)));
+                    buffer.clear();
+                }
+            }
+            finally
+            {
+                decoder.close();
+            }
+        }
+        finally
+        {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Exports each of the calls to the output directory.  File names include the call's archive segment and
+     * offset so that calls that start in the same second to the same talkgroup don't overwrite each other.
+     *
+     * @param entries to export
+     * @param directory for the exported files
+     * @param wave true to export WAVE files or false to export MP3 files
+     * @return number of calls exported
+     */
+    public int export(List<CallArchiveEntry> entries, Path directory, boolean wave)
+    {
+        int count = 0;
+
+        for(CallArchiveEntry entry : entries)
+        {
+            StringBuilder sb = new StringBuilder();
+            sb.append(TimeStamp.getLongTimeStamp(entry.getStartTime(), "_"));
+
+            if(!entry.getTalkgroup().isEmpty())
+            {
+                sb.append("_TO_").append(entry.getTalkgroup());
+            }
+
+            if(!entry.getRadioID().isEmpty())
+            {
+                sb.append("_FROM_").append(entry.getRadioID());
+            }
+
+            sb.append("_").append(entry.getSegment()).append("_").append(entry.getOffset());
+
+            sb.append(wave ? ".wav" : ".mp3");
+
+            Path file = directory.resolve(sb.toString().replaceAll("[^A-Za-z0-9_.\\-]", "_"));
+
+            try
+            {
+                if(wave)
+                {
+                    exportWAV(entry, file);
+                }
+                else
+                {
+                    exportMP3(entry, file);
+                }
+
+                count++;
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Error exporting call [" + entry.toString() + "]", ioe);
+            }
+        }
+
+        return count;
+    }
+
+    public static void main(String[] args)
+    {
+        if(args.length < 3)
+        {
+            System.out.println("Usage: CallArchiveExporter archiveDirectory outputDirectory mp3|wav " +
+                "[talkgroup|*] [start [end]]   (start/end format: " + DATE_FORMAT + ")");
+            return;
+        }
+
+        CallArchive archive = new CallArchive(Paths.get(args[0]));
+
+        try
+        {
+            archive.openReadOnly();
+
+            Path output = Paths.get(args[1]);
+            Files.createDirectories(output);
+
+            boolean wave = args[2].equalsIgnoreCase("wav");
+
+            String talkgroup = args.length > 3 && !args[3].equals("*") ? args[3] : null;
+
+            SimpleDateFormat dateFormat = new SimpleDateFormat(DATE_FORMAT);
+
+            long start = args.length > 4 ? dateFormat.parse(args[4]).getTime() : 0;
+            long end = args.length > 5 ? dateFormat.parse(args[5]).getTime() : Long.MAX_VALUE;
+
+            List<CallArchiveEntry> entries = talkgroup != null ? archive.getCalls(talkgroup, start, end) :
+                archive.getCalls(start, end);
+
+            int exported = new CallArchiveExporter(archive).export(entries, output, wave);
+
+            mLog.info("Exported [" + exported + "] of [" + entries.size() + "] calls to [" + output.toString() + "]");
+        }
+        catch(IOException | ParseException e)
+        {
+            mLog.error("Error exporting calls from call archive [" + args[0] + "]", e);
+        }
+        finally
+        {
+            archive.close();
+        }
+    }
+}
@@ -0,0 +1,605 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package record.archive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Fixed-width index of the calls stored in one call archive segment.  Each index record holds the call start time,
+ * duration, the string table IDs of the channel, talkgroup and radio ID, and the location of the call audio within
+ * the segment file.
+ *
+ * The index of the segment that is currently being written is an append-only file of index records in the order that
+ * the calls ended.  Its records are kept in memory, sorted by start time, so the active index is bounded by the
+ * number of calls in one segment.  When the segment is full the index is sealed: it is rewritten with the records
+ * sorted by start time followed by the record numbers sorted by talkgroup and start time.  Sealed indexes are only
+ * memory-mapped when a query overlaps the time range of the segment, and are binary-searched by start time or by
+ * talkgroup and start time.
+ *
+ * File layout (big-endian):
+ *
+ *   header: int magic, int version, int flags, int record count, long minimum start time, long maximum start time
+ *   record: long start time, int duration, int channel, int talkgroup, int radio ID, long offset, int length
+ *   sealed only: int record number for each record, ordered by talkgroup and start time
+ */
+public class CallArchiveIndex
+{
+    private final static Logger mLog = LoggerFactory.getLogger(CallArchiveIndex.class);
+
+    private static final int MAGIC = 0x53445249; //SDRI
+    private static final int VERSION = 1;
+    private static final int FLAG_SEALED = 1;
+
+    public static final int HEADER_SIZE = 32;
+    public static final int RECORD_SIZE = 36;
+
+    private static final int START_TIME = 0;
+    private static final int DURATION = 8;
+    private static final int CHANNEL = 12;
+    private static final int TALKGROUP = 16;
+    private static final int RADIO_ID = 20;
+    private static final int OFFSET = 24;
+    private static final int LENGTH = 32;
+
+    private Path mPath;
+    private int mSegment;
+    private boolean mSealed;
+    private int mCount;
+    private long mMinimumStartTime = Long.MAX_VALUE;
+    private long mMaximumStartTime = Long.MIN_VALUE;
+
+    //Active (unsealed) index records, sorted by start time
+    private List<IndexRecord> mRecords;
+    private FileChannel mChannel;
+
+    //Sealed index, mapped on first use
+    private MappedByteBuffer mMappedIndex;
+
+    private CallArchiveIndex(Path path, int segment)
+    {
+        mPath = path;
+        mSegment = segment;
+    }
+
+    /**
+     * Creates a new, empty index for a segment that is being written
+     */
+    public static CallArchiveIndex create(Path path, int segment) throws IOException
+    {
+        CallArchiveIndex index = new CallArchiveIndex(path, segment);
+        index.mRecords = new ArrayList<>();
+        index.mChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+
+        ByteBuffer header = index.getHeader(0);
+
+        while(header.hasRemaining())
+        {
+            index.mChannel.write(header);
+        }
+
+        return index;
+    }
+
+    /**
+     * Opens an existing index.  Only the header of a sealed index is read.  The records of an active index are
+     * loaded and, when the index is writable, a partial record left by a crash is truncated and the index is kept
+     * open for appending.
+     *
+     * @param path of the index file
+     * @param segment number
+     * @param writable to continue appending to an active index
+     */
+    public static CallArchiveIndex open(Path path, int segment, boolean writable) throws IOException
+    {
+        CallArchiveIndex index = new CallArchiveIndex(path, segment);
+
+        FileChannel channel = writable ?
+            FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE) :
+            FileChannel.open(path, StandardOpenOption.READ);
+
+        boolean keepOpen = false;
+
+        try
+        {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+            while(header.hasRemaining() && channel.read(header, header.position()) > 0)
+            {
+                //Read the complete header
+            }
+
+            header.flip();
+
+            if(header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION)
+            {
+                throw new IOException("Unrecognized call archive index file format [" + path.toString() + "]");
+            }
+
+            index.mSealed = (header.getInt() & FLAG_SEALED) == FLAG_SEALED;
+
+            if(index.mSealed)
+            {
+                index.mCount = header.getInt();
+                index.mMinimumStartTime = header.getLong();
+                index.mMaximumStartTime = header.getLong();
+                return index;
+            }
+
+            long recordBytes = channel.size() - HEADER_SIZE;
+            int count = (int)(recordBytes / RECORD_SIZE);
+
+            if(writable && recordBytes % RECORD_SIZE != 0)
+            {
+                mLog.info("Truncating partial call archive index record [" + path.toString() + "]");
+                channel.truncate(HEADER_SIZE + (long)count * RECORD_SIZE);
+            }
+
+            ByteBuffer records = ByteBuffer.allocate(count * RECORD_SIZE);
+
+            while(records.hasRemaining() && channel.read(records, HEADER_SIZE + records.position()) > 0)
+            {
+                //Read all complete records
+            }
+
+            records.flip();
+
+            index.mRecords = new ArrayList<>(count);
+
+            for(int x = 0; x < count; x++)
+            {
+                index.insert(new IndexRecord(records, x * RECORD_SIZE));
+            }
+
+            if(writable)
+            {
+                channel.position(channel.size());
+                index.mChannel = channel;
+                keepOpen = true;
+            }
+
+            return index;
+        }
+        finally
+        {
+            if(!keepOpen)
+            {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Segment number
+     */
+    public int getSegment()
+    {
+        return mSegment;
+    }
+
+    /**
+     * Indicates if the index is sealed (the segment is complete)
+     */
+    public boolean isSealed()
+    {
+        return mSealed;
+    }
+
+    /**
+     * Number of calls in the segment
+     */
+    public int size()
+    {
+        return mCount;
+    }
+
+    /**
+     * Indicates if any call in the segment started within the time range
+     */
+    public boolean overlaps(long start, long end)
+    {
+        return mCount > 0 && mMinimumStartTime < end && mMaximumStartTime >= start;
+    }
+
+    /**
+     * Appends a call to the active index
+     */
+    public void add(long startTime, int duration, int channel, int talkgroup, int radioID, long offset, int length)
+        throws IOException
+    {
+        if(mChannel == null)
+        {
+            throw new IOException("Call archive index is not open for writing [" + mPath.toString() + "]");
+        }
+
+        IndexRecord record = new IndexRecord(startTime, duration, channel, talkgroup, radioID, offset, length);
+
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+        record.write(buffer);
+        buffer.flip();
+
+        while(buffer.hasRemaining())
+        {
+            mChannel.write(buffer);
+        }
+
+        insert(record);
+    }
+
+    /**
+     * Seals the index once the segment is complete, by rewriting the index with the records sorted by start time and
+     * the talkgroup ordering, and releases the in-memory records.
+     */
+    public void seal() throws IOException
+    {
+        if(mSealed)
+        {
+            return;
+        }
+
+        List<Integer> talkgroupOrder = new ArrayList<>(mRecords.size());
+
+        for(int x = 0; x < mRecords.size(); x++)
+        {
+            talkgroupOrder.add(x);
+        }
+
+        //Records are sorted by start time, so a stable sort by talkgroup keeps start time order within a talkgroup
+        Collections.sort(talkgroupOrder, new Comparator<Integer>()
+        {
+            @Override
+            public int compare(Integer a, Integer b)
+            {
+                return Integer.compare(mRecords.get(a).mTalkgroup, mRecords.get(b).mTalkgroup);
+            }
+        });
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + mRecords.size() * (RECORD_SIZE + 4));
+
+        ByteBuffer header = getHeader(FLAG_SEALED);
+        buffer.put(header);
+
+        for(IndexRecord record : mRecords)
+        {
+            record.write(buffer);
+        }
+
+        for(Integer recordNumber : talkgroupOrder)
+        {
+            buffer.putInt(recordNumber);
+        }
+
+        buffer.flip();
+
+        Path tempPath = mPath.resolveSibling(mPath.getFileName().toString() + ".tmp");
+
+        try(FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            while(buffer.hasRemaining())
+            {
+                channel.write(buffer);
+            }
+        }
+
+        close();
+
+        try
+        {
+            Files.move(tempPath, mPath, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch(AtomicMoveNotSupportedException amnse)
+        {
+            Files.move(tempPath, mPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        mSealed = true;
+        mRecords = null;
+    }
+
+    /**
+     * Adds the calls that started within the time range to the results
+     *
+     * @param start time inclusive in milliseconds since epoch
+     * @param end time exclusive in milliseconds since epoch
+     * @param talkgroup string table ID of the talkgroup, or -1 for calls to any talkgroup
+     * @param strings table for the channel, talkgroup and radio IDs
+     * @param results to add the calls to
+     */
+    public void getCalls(long start, long end, int talkgroup, List<String> strings, List<CallArchiveEntry> results)
+        throws IOException
+    {
+        if(!overlaps(start, end))
+        {
+            return;
+        }
+
+        if(!mSealed)
+        {
+            for(int x = getFirstRecord(start); x < mRecords.size() && mRecords.get(x).mStartTime < end; x++)
+            {
+                IndexRecord record = mRecords.get(x);
+
+                if(talkgroup < 0 || record.mTalkgroup == talkgroup)
+                {
+                    results.add(record.toEntry(mSegment, strings));
+                }
+            }
+
+            return;
+        }
+
+        ByteBuffer index = getMappedIndex();
+
+        if(talkgroup < 0)
+        {
+            for(int x = getFirstRecord(index, start); x < mCount && getStartTime(index, x) < end; x++)
+            {
+                results.add(new IndexRecord(index, HEADER_SIZE + x * RECORD_SIZE).toEntry(mSegment, strings));
+            }
+        }
+        else
+        {
+            for(int x = getFirstTalkgroupRecord(index, talkgroup, start); x < mCount; x++)
+            {
+                int recordNumber = getTalkgroupRecordNumber(index, x);
+                int position = HEADER_SIZE + recordNumber * RECORD_SIZE;
+
+                if(index.getInt(position + TALKGROUP) != talkgroup || index.getLong(position + START_TIME) >= end)
+                {
+                    break;
+                }
+
+                results.add(new IndexRecord(index, position).toEntry(mSegment, strings));
+            }
+        }
+    }
+
+    /**
+     * Closes the index file
+     */
+    public void close()
+    {
+        if(mChannel != null)
+        {
+            try
+            {
+                mChannel.close();
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Error closing call archive index [" + mPath.toString() + "]", ioe);
+            }
+
+            mChannel = null;
+        }
+
+        mMappedIndex = null;
+    }
+
+    /**
+     * Header for the index file with the current count and start time range
+     */
+    private ByteBuffer getHeader(int flags)
+    {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(flags);
+        header.putInt(mCount);
+        header.putLong(mMinimumStartTime);
+        header.putLong(mMaximumStartTime);
+        header.flip();
+        return header;
+    }
+
+    /**
+     * Inserts the record into the active records ordered by start time.  Calls are added as they end, so the
+     * insertion point is normally at or near the end of the list.
+     */
+    private void insert(IndexRecord record)
+    {
+        int index = mRecords.size();
+
+        while(index > 0 && mRecords.get(index - 1).mStartTime > record.mStartTime)
+        {
+            index--;
+        }
+
+        mRecords.add(index, record);
+
+        mCount++;
+        mMinimumStartTime = Math.min(mMinimumStartTime, record.mStartTime);
+        mMaximumStartTime = Math.max(mMaximumStartTime, record.mStartTime);
+    }
+
+    /**
+     * Memory-mapped view of the sealed index
+     */
+    private ByteBuffer getMappedIndex() throws IOException
+    {
+        if(mMappedIndex == null)
+        {
+            try(FileChannel channel = FileChannel.open(mPath, StandardOpenOption.READ))
+            {
+                mMappedIndex = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        }
+
+        return mMappedIndex;
+    }
+
+    /**
+     * Index of the first active record with a start time at or after the time
+     */
+    private int getFirstRecord(long time)
+    {
+        int low = 0;
+        int high = mRecords.size();
+
+        while(low < high)
+        {
+            int middle = (low + high) >>> 1;
+
+            if(mRecords.get(middle).mStartTime < time)
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Number of the first sealed record with a start time at or after the time
+     */
+    private int getFirstRecord(ByteBuffer index, long time)
+    {
+        int low = 0;
+        int high = mCount;
+
+        while(low < high)
+        {
+            int middle = (low + high) >>> 1;
+
+            if(getStartTime(index, middle) < time)
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Position in the talkgroup ordering of the first record for the talkgroup with a start time at or after the time
+     */
+    private int getFirstTalkgroupRecord(ByteBuffer index, int talkgroup, long time)
+    {
+        int low = 0;
+        int high = mCount;
+
+        while(low < high)
+        {
+            int middle = (low + high) >>> 1;
+
+            int position = HEADER_SIZE + getTalkgroupRecordNumber(index, middle) * RECORD_SIZE;
+            int middleTalkgroup = index.getInt(position + TALKGROUP);
+
+            if(middleTalkgroup < talkgroup ||
+                (middleTalkgroup == talkgroup && index.getLong(position + START_TIME) < time))
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    private int getTalkgroupRecordNumber(ByteBuffer index, int position)
+    {
+        return index.getInt(HEADER_SIZE + mCount * RECORD_SIZE + position * 4);
+    }
+
+    private static long getStartTime(ByteBuffer index, int recordNumber)
+    {
+        return index.getLong(HEADER_SIZE + recordNumber * RECORD_SIZE + START_TIME);
+    }
+
+    /**
+     * Fixed-width index record
+     */
+    private static class IndexRecord
+    {
+        private long mStartTime;
+        private int mDuration;
+        private int mChannel;
+        private int mTalkgroup;
+        private int mRadioID;
+        private long mOffset;
+        private int mLength;
+
+        private IndexRecord(long startTime, int duration, int channel, int talkgroup, int radioID, long offset,
+                            int length)
+        {
+            mStartTime = startTime;
+            mDuration = duration;
+            mChannel = channel;
+            mTalkgroup = talkgroup;
+            mRadioID = radioID;
+            mOffset = offset;
+            mLength = length;
+        }
+
+        /**
+         * Reads the record at the absolute position in the buffer
+         */
+        private IndexRecord(ByteBuffer buffer, int position)
+        {
+            this(buffer.getLong(position + START_TIME), buffer.getInt(position + DURATION),
+                buffer.getInt(position + CHANNEL), buffer.getInt(position + TALKGROUP),
+                buffer.getInt(position + RADIO_ID), buffer.getLong(position + OFFSET),
+                buffer.getInt(position + LENGTH));
+        }
+
+        private void write(ByteBuffer buffer)
+        {
+            buffer.putLong(mStartTime);
+            buffer.putInt(mDuration);
+            buffer.putInt(mChannel);
+            buffer.putInt(mTalkgroup);
+            buffer.putInt(mRadioID);
+            buffer.putLong(mOffset);
+            buffer.putInt(mLength);
+        }
+
+        private CallArchiveEntry toEntry(int segment, List<String> strings)
+        {
+            return new CallArchiveEntry(mStartTime, mDuration, strings.get(mChannel), strings.get(mTalkgroup),
+                strings.get(mRadioID), segment, mOffset, mLength);
+        }
+    }
+}
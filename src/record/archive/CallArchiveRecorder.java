@@ -0,0 +1,269 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package record.archive;
+
+import audio.AudioPacket;
+import audio.convert.MP3AudioConverter;
+import channel.metadata.Metadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import record.IRecordingWriter;
+import record.RecordingIOProcessor;
+import record.mp3.MP3Recorder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Records a single call to the call archive.  Audio packets are encoded to MP3 on the shared recording encoder pool as
+ * they arrive and the recording I/O processor appends the encoded call to the archive, with its index entry, once the
+ * recorder is stopped.
+ */
+public class CallArchiveRecorder implements IRecordingWriter
+{
+    private final static Logger mLog = LoggerFactory.getLogger(CallArchiveRecorder.class);
+
+    private CallArchive mCallArchive;
+    private MP3AudioConverter mConverter = new MP3AudioConverter(MP3Recorder.MP3_BIT_RATE,
+        MP3Recorder.CONSTANT_BIT_RATE);
+    private LinkedBlockingQueue<AudioPacket> mAudioPackets = new LinkedBlockingQueue<>(500);
+    private List<AudioPacket> mPacketsToEncode = new ArrayList<>();
+    private ByteArrayOutputStream mEncodedAudio = new ByteArrayOutputStream();
+
+    private Metadata mMetadata;
+    private long mStartTime;
+    private long mLastBufferReceived;
+    private long mSampleCount;
+
+    private AtomicBoolean mRunning = new AtomicBoolean();
+    private volatile boolean mEncodingComplete;
+    private volatile boolean mClosed;
+
+    /**
+     * Constructs a call recorder
+     *
+     * @param callArchive to receive the call
+     */
+    public CallArchiveRecorder(CallArchive callArchive)
+    {
+        mCallArchive = callArchive;
+    }
+
+    /**
+     * Registers this recorder with the shared recording I/O processor
+     */
+    public void start()
+    {
+        if(mRunning.compareAndSet(false, true))
+        {
+            mStartTime = System.currentTimeMillis();
+            mLastBufferReceived = mStartTime;
+
+            RecordingIOProcessor.getInstance().add(this);
+        }
+    }
+
+    /**
+     * Stops the recorder.  The recording I/O processor encodes any queued audio and adds the call to the archive.
+     */
+    public void stop()
+    {
+        mRunning.set(false);
+    }
+
+    /**
+     * Indicates if this recorder is accepting audio.  A recorder stops when it is stopped by the recorder manager or
+     * when its buffer overflows.
+     */
+    public boolean isRunning()
+    {
+        return mRunning.get();
+    }
+
+    /**
+     * Queues the audio packet for encoding.  When the buffer is full, the packet is not queued and the recorder is
+     * stopped so that the audio received so far is added to the archive.
+     */
+    public void receive(AudioPacket audioPacket)
+    {
+        if(mRunning.get())
+        {
+            if(audioPacket.hasMetadata())
+            {
+                mMetadata = audioPacket.getMetadata();
+            }
+
+            if(!mAudioPackets.offer(audioPacket))
+            {
+                mLog.error("Call archive recorder buffer overflow - stopping recorder and archiving the call so far");
+                stop();
+            }
+
+            mLastBufferReceived = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Timestamp of when the latest audio packet was received by this recorder
+     */
+    public long getLastBufferReceived()
+    {
+        return mLastBufferReceived;
+    }
+
+    /**
+     * Encodes the queued audio and, once stopped, the residual frame data.  Invoked on the recording encoder pool.
+     */
+    @Override
+    public void encode()
+    {
+        if(mEncodingComplete)
+        {
+            return;
+        }
+
+        //Check before draining so that packets received prior to stopping are recorded
+        boolean running = mRunning.get();
+
+        mAudioPackets.drainTo(mPacketsToEncode);
+
+        if(!mPacketsToEncode.isEmpty())
+        {
+            for(AudioPacket packet : mPacketsToEncode)
+            {
+                mSampleCount += packet.getAudioBuffer().getSamples().length;
+            }
+
+            byte[] encoded = mConverter.convert(mPacketsToEncode);
+            mEncodedAudio.write(encoded, 0, encoded.length);
+            mPacketsToEncode.clear();
+        }
+
+        if(!running)
+        {
+            byte[] finalFrames = mConverter.flush();
+            mEncodedAudio.write(finalFrames, 0, finalFrames.length);
+
+            mEncodingComplete = true;
+        }
+    }
+
+    /**
+     * Adds the encoded call to the archive once the recorder is stopped and encoding is complete.  Invoked by the
+     * recording I/O processor.
+     *
+     * @return number of bytes written to the archive
+     */
+    @Override
+    public long write()
+    {
+        if(mClosed || !mEncodingComplete)
+        {
+            return 0;
+        }
+
+        mClosed = true;
+
+        if(mEncodedAudio.size() == 0)
+        {
+            return 0;
+        }
+
+        try
+        {
+            mCallArchive.add(mStartTime, (int)(mSampleCount / 8), getChannel(), getTalkgroup(), getRadioID(),
+                mEncodedAudio.toByteArray());
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error adding call to call archive [" + mCallArchive.getDirectory().toString() + "]", ioe);
+            return 0;
+        }
+
+        return mEncodedAudio.size();
+    }
+
+    /**
+     * System, site and channel names from the call metadata
+     */
+    private String getChannel()
+    {
+        StringBuilder sb = new StringBuilder();
+
+        if(mMetadata != null)
+        {
+            if(mMetadata.hasChannelConfigurationSystem())
+            {
+                sb.append(mMetadata.getChannelConfigurationSystem());
+            }
+
+            sb.append("/");
+
+            if(mMetadata.hasChannelConfigurationSite())
+            {
+                sb.append(mMetadata.getChannelConfigurationSite());
+            }
+
+            sb.append("/");
+
+            if(mMetadata.hasChannelConfigurationName())
+            {
+                sb.append(mMetadata.getChannelConfigurationName());
+            }
+        }
+
+        return sb.toString();
+    }
+
+    private String getTalkgroup()
+    {
+        return mMetadata != null && mMetadata.getPrimaryAddressTo().hasIdentifier() ?
+            mMetadata.getPrimaryAddressTo().getIdentifier() : null;
+    }
+
+    private String getRadioID()
+    {
+        return mMetadata != null && mMetadata.getPrimaryAddressFrom().hasIdentifier() ?
+            mMetadata.getPrimaryAddressFrom().getIdentifier() : null;
+    }
+
+    @Override
+    public boolean isClosed()
+    {
+        return mClosed;
+    }
+
+    @Override
+    public int getQueueSize()
+    {
+        return mAudioPackets.size();
+    }
+
+    /**
+     * Not applicable - encoded audio is held in memory until the call is added to the archive
+     */
+    @Override
+    public void sync() throws IOException
+    {
+    }
+}
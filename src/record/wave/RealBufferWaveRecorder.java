@@ -21,6 +21,8 @@ package record.wave;
 import module.Module;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import record.IRecordingWriter;
+import record.RecordingIOProcessor;
 import sample.ConversionUtils;
 import sample.Listener;
 import sample.real.IFilteredRealBufferListener;
@@ -29,19 +31,21 @@ import util.TimeStamp;
 
 import javax.sound.sampled.AudioFormat;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * WAVE audio recorder module for recording real sample buffers to a wave file
+ * WAVE audio recorder module for recording real sample buffers to a wave file.  Queued buffers are converted to 16-bit
+ * samples on the shared recording encoder pool and written to the file by the shared recording I/O processor.
  */
 public class RealBufferWaveRecorder extends Module
-    implements IFilteredRealBufferListener, Listener<RealBuffer>
+    implements IFilteredRealBufferListener, Listener<RealBuffer>, IRecordingWriter
 {
     private final static Logger mLog = LoggerFactory.getLogger(RealBufferWaveRecorder.class);
 
@@ -50,12 +54,14 @@ public class RealBufferWaveRecorder extends Module
     private Path mFile;
     private AudioFormat mAudioFormat;
 
-    private BufferProcessor mBufferProcessor;
-    private ScheduledFuture<?> mProcessorHandle;
     private LinkedBlockingQueue<RealBuffer> mBuffers = new LinkedBlockingQueue<>(500);
+    private List<RealBuffer> mBuffersToWrite = new ArrayList<>();
+    private List<ByteBuffer> mConverted = new ArrayList<>();
     private long mLastBufferReceived;
 
     private AtomicBoolean mRunning = new AtomicBoolean();
+    private volatile boolean mEncodingComplete;
+    private volatile boolean mClosed;
 
     public RealBufferWaveRecorder(int sampleRate, String filePrefix)
     {
@@ -89,15 +95,15 @@ public class RealBufferWaveRecorder extends Module
         return mFile;
     }
 
+    /**
+     * Opens the recording file and registers this recorder with the shared recording I/O processor.
+     *
+     * @param executor is not used
+     */
     public void start(ScheduledExecutorService executor)
     {
         if(mRunning.compareAndSet(false, true))
         {
-            if(mBufferProcessor == null)
-            {
-                mBufferProcessor = new BufferProcessor();
-            }
-
             try
             {
                 StringBuilder sb = new StringBuilder();
@@ -110,8 +116,7 @@ public class RealBufferWaveRecorder extends Module
 
                 mWriter = new WaveWriter(mAudioFormat, mFile);
 
-				/* Schedule the processor to run every 500 milliseconds */
-                mProcessorHandle = executor.scheduleAtFixedRate(mBufferProcessor, 0, 500, TimeUnit.MILLISECONDS);
+                RecordingIOProcessor.getInstance().add(this);
             }
             catch(IOException io)
             {
@@ -120,25 +125,12 @@ public class RealBufferWaveRecorder extends Module
         }
     }
 
+    /**
+     * Stops the recorder.  The recording I/O processor writes any queued buffers and closes the file.
+     */
     public void stop()
     {
-        if(mRunning.compareAndSet(true, false))
-        {
-            try
-            {
-                write();
-
-                if(mWriter != null)
-                {
-                    mWriter.close();
-                    mWriter = null;
-                }
-            }
-            catch(IOException ioe)
-            {
-                mLog.error("Error writing final audio buffers to recording during shutdown", ioe);
-            }
-        }
+        mRunning.set(false);
     }
 
     @Override
@@ -176,36 +168,112 @@ public class RealBufferWaveRecorder extends Module
     }
 
     /**
-     * Writes all audio currently in the queue to the file
-     * @throws IOException if there are any errors writing the audio
+     * Converts all audio currently in the queue to 16-bit samples for the next write.  Invoked on the recording
+     * encoder pool.
      */
-    private void write() throws IOException
+    @Override
+    public void encode()
     {
-        RealBuffer buffer = mBuffers.poll();
+        if(mWriter == null || mEncodingComplete)
+        {
+            return;
+        }
+
+        //Check before draining so that buffers received prior to stopping are written
+        boolean running = mRunning.get();
+
+        mBuffers.drainTo(mBuffersToWrite);
+
+        for(RealBuffer buffer : mBuffersToWrite)
+        {
+            mConverted.add(ConversionUtils.convertToSigned16BitSamples(buffer));
+        }
 
-        while(buffer != null)
+        mBuffersToWrite.clear();
+
+        if(!running)
         {
-            mWriter.write(ConversionUtils.convertToSigned16BitSamples(buffer));
-            buffer = mBuffers.poll();
+            mEncodingComplete = true;
         }
     }
 
-    public class BufferProcessor implements Runnable
+    /**
+     * Writes all converted audio to the file as a single batch and closes the file once this recorder is stopped.
+     * Invoked by the recording I/O processor.
+     *
+     * @return number of bytes written
+     */
+    @Override
+    public long write()
     {
-        public void run()
+        if(mWriter == null)
+        {
+            return 0;
+        }
+
+        long bytes = 0;
+
+        try
+        {
+            if(!mConverted.isEmpty())
+            {
+                for(ByteBuffer converted : mConverted)
+                {
+                    bytes += converted.capacity();
+                }
+
+                mWriter.write(mConverted);
+            }
+        }
+        catch(IOException ioe)
+        {
+            /* Stop this module if/when we get an IO exception */
+            mBuffers.clear();
+            mRunning.set(false);
+            mEncodingComplete = true;
+            bytes = 0;
+
+            mLog.error("IO Exception while trying to write to the wave writer", ioe);
+        }
+
+        mConverted.clear();
+
+        if(mEncodingComplete)
         {
             try
             {
-                write();
+                mWriter.close();
             }
             catch(IOException ioe)
             {
-				/* Stop this module if/when we get an IO exception */
-                mBuffers.clear();
-                stop();
-
-                mLog.error("IO Exception while trying to write to the wave writer", ioe);
+                mLog.error("Error closing recording [" + mFile.toString() + "]", ioe);
             }
+
+            mWriter = null;
+            mClosed = true;
+        }
+
+        return bytes;
+    }
+
+    @Override
+    public boolean isClosed()
+    {
+        return mClosed;
+    }
+
+    @Override
+    public int getQueueSize()
+    {
+        return mBuffers.size();
+    }
+
+    @Override
+    public void sync() throws IOException
+    {
+        if(mWriter != null)
+        {
+            mWriter.sync();
         }
     }
 }
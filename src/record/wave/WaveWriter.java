@@ -19,15 +19,19 @@
 package record.wave;
 
 import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
-import java.util.Arrays;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -35,14 +39,30 @@ import javax.sound.sampled.AudioFormat;
 
 public class WaveWriter implements AutoCloseable 
 {
+	private final static Logger mLog = LoggerFactory.getLogger( WaveWriter.class );
+
 	private static final Pattern FILENAME_PATTERN = Pattern.compile( "(.*_)(\\d+)(\\.wav)" );
 	public static final long MAX_WAVE_SIZE = 2l * (long)Integer.MAX_VALUE;
-	
+
+	/* Size of the header written by WaveUtils.getWaveHeader() */
+	public static final int HEADER_SIZE = 44;
+
+	/* Sample data is staged in a direct buffer and written to the file once the buffer is full */
+	public static final int BUFFER_SIZE = 64 * 1024;
+
+	/* Default interval for updating the header sizes (and flushing the buffer) while the file is open */
+	public static final long DEFAULT_CHECKPOINT_INTERVAL = 10000; //10 seconds
+
+
 	private AudioFormat mAudioFormat;
 	private int mFileRolloverCounter = 1;
 	private long mMaxSize;
 	private Path mFile;
 	private FileChannel mFileChannel;
+	private ByteBuffer mBuffer = ByteBuffer.allocateDirect( BUFFER_SIZE );
+	private long mFileSize;
+	private long mCheckpointInterval;
+	private long mLastCheckpoint;
 	
 	/**
 	 * Constructs a new wave writer that is open with a complete header, ready
@@ -51,18 +71,26 @@ public class WaveWriter implements AutoCloseable
 	 * Each time the maximum file size is reached, a new file is created with a 
 	 * series suffix appended to the file name.
 	 * 
+	 * The header sizes are only updated when the file is closed and at each
+	 * checkpoint interval, so a file that isn't closed (e.g. application
+	 * crash) has header sizes that are out of date.  Use repair() to 
+	 * correct the headers of files that were left open.
+	 * 
 	 * @param format - audio format (channels, sample size, sample rate)
 	 * @param file - wave file to write
 	 * @param maxSize - maximum file size ( range: 1 - 4,294,967,294 bytes )
+	 * @param checkpointInterval - milliseconds between header updates while 
+	 * the file is open, or zero to update the header only when closing
 	 * @throws IOException - if there are any IO issues
 	 */
-	public WaveWriter( AudioFormat format, Path file, long maxSize ) throws IOException
+	public WaveWriter( AudioFormat format, Path file, long maxSize, long checkpointInterval ) throws IOException
 	{
 		Validate.isTrue(format != null);
 		Validate.isTrue( file != null );
 		
 		mAudioFormat = format;
 		mFile = file;
+		mCheckpointInterval = checkpointInterval;
 		
 		if( 0 < maxSize && maxSize <= MAX_WAVE_SIZE )
 		{
@@ -76,6 +104,21 @@ public class WaveWriter implements AutoCloseable
 		open();
 	}
 	
+	/**
+	 * Constructs a new wave writer that is open with a complete header, ready
+	 * for writing buffers of PCM sample data, using the default checkpoint 
+	 * interval.
+	 * 
+	 * @param format - audio format (channels, sample size, sample rate)
+	 * @param file - wave file to write
+	 * @param maxSize - maximum file size ( range: 1 - 4,294,967,294 bytes )
+	 * @throws IOException - if there are any IO issues
+	 */
+	public WaveWriter( AudioFormat format, Path file, long maxSize ) throws IOException
+	{
+		this( format, file, maxSize, DEFAULT_CHECKPOINT_INTERVAL );
+	}
+	
 	/**
 	 * Constructs a new wave writer that is open with a complete header, ready
 	 * for writing buffers of PCM sample data.  The maximum file size is limited
@@ -87,7 +130,7 @@ public class WaveWriter implements AutoCloseable
 	 */
 	public WaveWriter( AudioFormat format, Path file ) throws IOException
 	{
-		this( format, file, Integer.MAX_VALUE * 2 );
+		this( format, file, MAX_WAVE_SIZE );
 	}
 	
 	/**
@@ -109,28 +152,39 @@ public class WaveWriter implements AutoCloseable
 		
 		header.flip();
 
-		while( header.hasRemaining() )
-		{
-			mFileChannel.write( header );
-		}
+		mBuffer.clear();
+		mBuffer.put( header );
+
+		mFileSize = HEADER_SIZE;
+		mLastCheckpoint = System.currentTimeMillis();
 	}
 
 	/**
-	 * Closes the file
+	 * Writes any buffered sample data, updates the header sizes and closes 
+	 * the file.  The file isn't forced to disk - the operating system writes
+	 * it in due course.
 	 */
 	public void close() throws IOException
 	{
-		mFileChannel.force( true );
-		mFileChannel.close();
-		mFileChannel = null;
+		if( mFileChannel != null )
+		{
+			try
+			{
+				flush();
+				updateWaveFileSize();
+			}
+			finally
+			{
+				mFileChannel.close();
+				mFileChannel = null;
+			}
+		}
 	}
 
     @Override
     protected void finalize() throws IOException
     {
-        mFileChannel.force( true );
-        mFileChannel.close();
-        mFileChannel = null;
+        close();
     }
 
     /**
@@ -140,48 +194,168 @@ public class WaveWriter implements AutoCloseable
 	public void write( ByteBuffer buffer ) throws IOException
 	{
 		buffer.position( 0 );
+		buffer.limit( buffer.capacity() );
 
 		/* Write the full buffer if there is room, respecting the max file size */
-		if( mFileChannel.size() + buffer.capacity() < mMaxSize )
+		if( mFileSize + buffer.capacity() < mMaxSize )
 		{
-			while( buffer.hasRemaining() )
-			{
-				mFileChannel.write( buffer );
-			}
-			
-			updateWaveFileSize();
+			append( buffer );
 		}
 		else
 		{
 			/* Split the buffer to finish filling the current file and then put
 			 * the leftover into a new file */
-			int remaining = (int)( mMaxSize - mFileChannel.size() );
+			int remaining = (int)( mMaxSize - mFileSize );
 
 			/* Ensure we write full frames to fill up the remaining size */
 			remaining -= (int)( remaining % mAudioFormat.getFrameSize() );
 			
-			byte[] bytes = buffer.array();
+			ByteBuffer current = buffer.duplicate();
+			current.limit( remaining );
+
+			append( current );
 			
-			ByteBuffer current = ByteBuffer.wrap( Arrays.copyOf( bytes, remaining ) );
+			rollover();
+
+			buffer.position( remaining );
+
+			append( buffer );
+		}
 
-			ByteBuffer next = ByteBuffer.wrap( Arrays.copyOfRange( bytes, 
-					remaining, bytes.length ) );
+		checkpointIfDue();
+	}
 
-			while( current.hasRemaining() )
+	/**
+	 * Writes the contents of each buffer to the file.  Assumes that each 
+	 * buffer is full and the first byte of data is at position 0.
+	 * 
+	 * When the buffers don't fit in the staging buffer, the staged data and
+	 * the buffers are written to the file with a single gather write.
+	 */
+	public void write( List<ByteBuffer> buffers ) throws IOException
+	{
+		long total = 0;
+
+		for( ByteBuffer buffer: buffers )
+		{
+			total += buffer.capacity();
+		}
+
+		if( mFileSize + total >= mMaxSize || mBuffer.remaining() >= total )
+		{
+			for( ByteBuffer buffer: buffers )
 			{
-				mFileChannel.write( current );
+				write( buffer );
 			}
-			
-			updateWaveFileSize();
-			
-			rollover();
 
-			while( next.hasRemaining() )
+			return;
+		}
+
+		ByteBuffer[] gather = new ByteBuffer[ buffers.size() + 1 ];
+
+		mBuffer.flip();
+		gather[ 0 ] = mBuffer;
+
+		for( int x = 0; x < buffers.size(); x++ )
+		{
+			ByteBuffer buffer = buffers.get( x );
+			buffer.position( 0 );
+			buffer.limit( buffer.capacity() );
+			gather[ x + 1 ] = buffer;
+		}
+
+		long remaining = mBuffer.remaining() + total;
+
+		while( remaining > 0 )
+		{
+			remaining -= mFileChannel.write( gather );
+		}
+
+		mBuffer.clear();
+		mFileSize += total;
+
+		checkpointIfDue();
+	}
+
+	/**
+	 * Stages the buffer's remaining bytes in the direct buffer, writing the
+	 * direct buffer to the file each time it fills.
+	 */
+	private void append( ByteBuffer buffer ) throws IOException
+	{
+		mFileSize += buffer.remaining();
+
+		while( buffer.hasRemaining() )
+		{
+			if( !mBuffer.hasRemaining() )
 			{
-				mFileChannel.write( next );
+				flush();
+			}
+
+			if( buffer.remaining() <= mBuffer.remaining() )
+			{
+				mBuffer.put( buffer );
+			}
+			else
+			{
+				ByteBuffer slice = buffer.duplicate();
+				slice.limit( slice.position() + mBuffer.remaining() );
+				mBuffer.put( slice );
+				buffer.position( slice.position() );
 			}
-			
-			updateWaveFileSize();
+		}
+	}
+
+	/**
+	 * Writes the contents of the direct buffer to the file
+	 */
+	private void flush() throws IOException
+	{
+		mBuffer.flip();
+
+		while( mBuffer.hasRemaining() )
+		{
+			mFileChannel.write( mBuffer );
+		}
+
+		mBuffer.clear();
+	}
+
+	/**
+	 * Writes buffered sample data and updates the header sizes so that the 
+	 * file is playable up to this point if it is never closed.
+	 */
+	private void checkpoint() throws IOException
+	{
+		flush();
+		updateWaveFileSize();
+
+		mLastCheckpoint = System.currentTimeMillis();
+	}
+
+	/**
+	 * Performs a checkpoint when the checkpoint interval has elapsed
+	 */
+	private void checkpointIfDue() throws IOException
+	{
+		if( mCheckpointInterval > 0 && 
+			mLastCheckpoint + mCheckpointInterval <= System.currentTimeMillis() )
+		{
+			checkpoint();
+		}
+	}
+
+	/**
+	 * Performs a checkpoint and forces the file contents to the storage 
+	 * device.
+	 */
+	public void sync() throws IOException
+	{
+		if( mFileChannel != null )
+		{
+			checkpoint();
+
+			mFileChannel.force( false );
 		}
 	}
 
@@ -206,15 +380,217 @@ public class WaveWriter implements AutoCloseable
 	private void updateWaveFileSize() throws IOException
 	{
 		/* Update overall wave size (total size - 8 bytes) */
-		ByteBuffer buffer = getUnsignedIntegerBuffer( mFileChannel.size() - 8 );
+		ByteBuffer buffer = getUnsignedIntegerBuffer( mFileSize - 8 );
 
 		mFileChannel.write( buffer, 4 );
 
-		ByteBuffer buffer2 = getUnsignedIntegerBuffer( mFileChannel.size() - 44 );
+		ByteBuffer buffer2 = getUnsignedIntegerBuffer( mFileSize - HEADER_SIZE );
 		
 		mFileChannel.write( buffer2, 40 );
 	}
 
+	/**
+	 * Corrects the header sizes of wave files in the directory that were 
+	 * left open by this class (e.g. application crash) and trims any trailing
+	 * partial sample frame.  Unfinished files are detected from their header:
+	 * the RIFF and data chunk sizes are zero or smaller than the sample data
+	 * in the file.  Only files with the header layout written by this class
+	 * are checked, and each file is only opened for writing when its header 
+	 * needs to be corrected.
+	 * 
+	 * @param directory containing wave files
+	 * @param modifiedBefore - only files last modified before this time are
+	 * checked, so that files currently being written are not modified
+	 * @return number of files repaired
+	 */
+	public static int repair( Path directory, long modifiedBefore )
+	{
+		int repaired = 0;
+
+		if( directory == null || !Files.isDirectory( directory ) )
+		{
+			return repaired;
+		}
+
+		try( DirectoryStream<Path> stream = Files.newDirectoryStream( directory, "*.wav" ) )
+		{
+			for( Path file: stream )
+			{
+				try
+				{
+					if( Files.isRegularFile( file ) && 
+						Files.getLastModifiedTime( file ).toMillis() < modifiedBefore &&
+						repair( file ) )
+					{
+						repaired++;
+					}
+				}
+				catch( IOException ioe )
+				{
+					mLog.error( "Error checking wave file header [" + file.toString() + "]", ioe );
+				}
+			}
+		}
+		catch( IOException ioe )
+		{
+			mLog.error( "Error reading wave files from directory [" + directory.toString() + "]", ioe );
+		}
+
+		return repaired;
+	}
+
+	/**
+	 * Corrects the header sizes of the wave file when they are zero or stale
+	 * (smaller than the sample data in the file).  A file whose data chunk is
+	 * followed by another chunk (e.g. LIST or ID3 tags) already has a correct 
+	 * header and isn't modified.
+	 * 
+	 * @return true if the file was repaired
+	 */
+	private static boolean repair( Path file ) throws IOException
+	{
+		long dataSize;
+
+		try( FileChannel channel = FileChannel.open( file, StandardOpenOption.READ ) )
+		{
+			dataSize = getUnfinishedDataSize( channel );
+		}
+
+		if( dataSize < 0 )
+		{
+			return false;
+		}
+
+		try( FileChannel channel = FileChannel.open( file, StandardOpenOption.WRITE ) )
+		{
+			channel.truncate( dataSize + HEADER_SIZE );
+			channel.write( getUnsignedIntegerBuffer( dataSize + HEADER_SIZE - 8 ), 4 );
+			channel.write( getUnsignedIntegerBuffer( dataSize ), 40 );
+		}
+
+		mLog.info( "Repaired wave file header [" + file.toString() + "]" );
+
+		return true;
+	}
+
+	/**
+	 * Checks the header of the wave file for sizes that were not updated 
+	 * because the file was never closed.
+	 * 
+	 * @return size of the complete sample frames in the file when the header
+	 * sizes are out of date, or -1 if the header is up to date or the file 
+	 * wasn't written by this class
+	 */
+	private static long getUnfinishedDataSize( FileChannel channel ) throws IOException
+	{
+		long size = channel.size();
+
+		if( size < HEADER_SIZE || size > MAX_WAVE_SIZE )
+		{
+			return -1;
+		}
+
+		ByteBuffer header = ByteBuffer.allocate( HEADER_SIZE );
+		header.order( ByteOrder.LITTLE_ENDIAN );
+
+		while( header.hasRemaining() )
+		{
+			if( channel.read( header, header.position() ) < 0 )
+			{
+				return -1;
+			}
+		}
+
+		if( !matches( header, 0, WaveUtils.RIFF_CHUNK ) || 
+			!matches( header, 8, WaveUtils.WAV_FORMAT ) ||
+			!matches( header, 36, WaveUtils.CHUNK_DATA ) )
+		{
+			return -1;
+		}
+
+		int blockAlign = header.getShort( 32 );
+
+		long dataSize = size - HEADER_SIZE;
+
+		if( blockAlign > 0 )
+		{
+			dataSize -= dataSize % blockAlign;
+		}
+
+		long riffSize = header.getInt( 4 ) & 0xFFFFFFFFl;
+		long storedDataSize = header.getInt( 40 ) & 0xFFFFFFFFl;
+
+		if( storedDataSize > 0 && hasTrailingChunk( channel, HEADER_SIZE + storedDataSize + ( storedDataSize & 1 ) ) )
+		{
+			return -1;
+		}
+
+		boolean dataSizeStale = storedDataSize == 0 || storedDataSize < dataSize;
+		boolean riffSizeStale = riffSize == 0 || riffSize < dataSize + HEADER_SIZE - 8;
+
+		if( !dataSizeStale && !riffSizeStale )
+		{
+			return -1;
+		}
+
+		return dataSize;
+	}
+
+	/**
+	 * Indicates if the file contains a RIFF chunk (e.g. LIST or ID3 tags) at 
+	 * the offset: a chunk identifier of 4 printable ASCII characters and a 
+	 * chunk size that fits within the file.  Sample data left after stale 
+	 * header sizes is very unlikely to match.
+	 */
+	private static boolean hasTrailingChunk( FileChannel channel, long offset ) throws IOException
+	{
+		if( offset + 8 > channel.size() )
+		{
+			return false;
+		}
+
+		ByteBuffer chunk = ByteBuffer.allocate( 8 );
+		chunk.order( ByteOrder.LITTLE_ENDIAN );
+
+		while( chunk.hasRemaining() )
+		{
+			if( channel.read( chunk, offset + chunk.position() ) < 0 )
+			{
+				return false;
+			}
+		}
+
+		for( int x = 0; x < 4; x++ )
+		{
+			byte character = chunk.get( x );
+
+			if( character < 0x20 || character > 0x7E )
+			{
+				return false;
+			}
+		}
+
+		long chunkSize = chunk.getInt( 4 ) & 0xFFFFFFFFl;
+
+		return offset + 8 + chunkSize <= channel.size();
+	}
+
+	/**
+	 * Indicates if the buffer contains the bytes at the offset
+	 */
+	private static boolean matches( ByteBuffer buffer, int offset, byte[] bytes )
+	{
+		for( int x = 0; x < bytes.length; x++ )
+		{
+			if( buffer.get( offset + x ) != bytes[ x ] )
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
 	/**
 	 * Creates a little-endian 4-byte buffer containing an unsigned 32-bit 
 	 * integer value derived from the 4 least significant bytes of the argument.
@@ -54,6 +54,11 @@ public class SourceManager
         return mRecordingSourceManager;
     }
 
+    public TunerModel getTunerModel()
+    {
+        return mTunerModel;
+    }
+
     public TunerManager getTunerManager()
     {
         return mTunerManager;
@@ -212,7 +212,7 @@ public abstract class TunerController implements Tunable, IFrequencyChangeProces
 	 * 
 	 * @throws RejectedExecutionException if the decimation processor has an error
 	 */
-	public TunerChannelSource getChannel( Tuner tuner, TunerChannel channel ) 
+	public synchronized TunerChannelSource getChannel( Tuner tuner, TunerChannel channel ) 
 			throws RejectedExecutionException
 	{
 		TunerChannelSource source = null;
@@ -262,7 +262,7 @@ public abstract class TunerController implements Tunable, IFrequencyChangeProces
 	 * Releases the currently sourced tuner channel from this tuner and shuts
 	 * down the tuner if no other sources exist.
 	 */
-	public void releaseChannel( TunerChannelSource tunerChannelSource )
+	public synchronized void releaseChannel( TunerChannelSource tunerChannelSource )
 	{
 		if( tunerChannelSource != null )
 		{
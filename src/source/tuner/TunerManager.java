@@ -18,12 +18,14 @@
  ******************************************************************************/
 package source.tuner;
 
+import controller.NamingThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.usb4java.Device;
 import org.usb4java.DeviceDescriptor;
 import org.usb4java.DeviceList;
 import org.usb4java.LibUsb;
+import sample.Listener;
 import source.SourceException;
 import source.mixer.MixerManager;
 import source.tuner.airspy.AirspyTuner;
@@ -38,14 +40,31 @@ import source.tuner.rtl.RTL2832TunerController;
 import source.tuner.rtl.e4k.E4KTunerController;
 import source.tuner.rtl.r820t.R820TTunerController;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class TunerManager
 {
     private final static Logger mLog = LoggerFactory.getLogger(TunerManager.class);
 
+    /**
+     * Maximum time to wait for a USB device to be probed and initialized.  Devices are initialized in parallel and
+     * each tuner is added to the tuner model as soon as it is ready.  A device that is still initializing after this
+     * time is cancelled and skipped, so that a hung device can't hold up the rest of the application.
+     */
+    public static final long TUNER_INIT_TIMEOUT_MS = 10000;
+
     private MixerManager mMixerManager;
     private TunerModel mTunerModel;
+    private volatile boolean mInitializing = true;
+    private List<Listener<TunerManager>> mInitializationListeners = new ArrayList<>();
 
 
     /**
@@ -68,6 +87,33 @@ public class TunerManager
         initTuners();
     }
 
+    /**
+     * Indicates if USB devices are still being probed and initialized, meaning that more tuners may be added to the
+     * tuner model.
+     */
+    public boolean isInitializing()
+    {
+        return mInitializing;
+    }
+
+    /**
+     * Adds a listener to be notified once every USB device has been initialized, or skipped after the timeout.  The
+     * listener is notified immediately when initialization is already complete.
+     */
+    public void addInitializationCompleteListener(Listener<TunerManager> listener)
+    {
+        synchronized(mInitializationListeners)
+        {
+            if(mInitializing)
+            {
+                mInitializationListeners.add(listener);
+                return;
+            }
+        }
+
+        listener.receive(this);
+    }
+
     /**
      * Performs cleanup of USB related issues
      */
@@ -108,56 +154,174 @@ public class TunerManager
             }
         }
 
+        //Probe and initialize each device in parallel.  Each tuner is added to the tuner model as soon as it is
+        //initialized so that it is available to source channels without waiting for the other tuners.
+        final ExecutorService executor =
+            Executors.newCachedThreadPool(new NamingThreadFactory("sdrtrunk tuner init"));
+
+        final List<TunerLoader> loaders = new ArrayList<>();
+        final List<Future<?>> futures = new ArrayList<>();
+
+        final long start = System.currentTimeMillis();
+
         for(Device device : deviceList)
         {
-            DeviceDescriptor descriptor = new DeviceDescriptor();
+            //Hold a reference to the device while it is initialized, independent of the device list
+            LibUsb.refDevice(device);
+
+            TunerLoader loader = new TunerLoader(device);
+            loaders.add(loader);
+            futures.add(executor.submit(loader));
+        }
+
+        executor.shutdown();
 
-            result = LibUsb.getDeviceDescriptor(device, descriptor);
+        LibUsb.freeDeviceList(deviceList, true);
 
-            if(result != LibUsb.SUCCESS)
+        //Enforce the initialization timeout without blocking application startup
+        Thread monitor = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
             {
-                mLog.error("unable to read device descriptor [" +
-                    LibUsb.errorName(result) + "]");
+                awaitTuners(loaders, futures, start);
+
+                executor.shutdownNow();
+
+                mLog.info("usb device discovery and tuner initialization completed in [" +
+                    (System.currentTimeMillis() - start) + "ms]");
+
+                initializationComplete();
             }
-            else
+        }, "sdrtrunk tuner init monitor");
+
+        monitor.setDaemon(true);
+        monitor.start();
+    }
+
+    /**
+     * Waits for each device to finish initializing until the initialization timeout expires.  Devices that are still
+     * initializing after the timeout are cancelled and skipped.
+     */
+    private void awaitTuners(List<TunerLoader> loaders, List<Future<?>> futures, long start)
+    {
+        long deadline = start + TUNER_INIT_TIMEOUT_MS;
+
+        for(int x = 0; x < futures.size(); x++)
+        {
+            Future<?> future = futures.get(x);
+            TunerLoader loader = loaders.get(x);
+
+            try
+            {
+                future.get(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+            }
+            catch(TimeoutException te)
+            {
+                if(loader.skip())
+                {
+                    future.cancel(true);
+
+                    mLog.warn("usb device [" + loader.getDeviceName() + "] did not initialize within [" +
+                        TUNER_INIT_TIMEOUT_MS + "ms] - skipping device");
+                }
+            }
+            catch(InterruptedException | ExecutionException e)
+            {
+                mLog.error("error initializing usb device [" + loader.getDeviceName() + "]", e);
+            }
+        }
+    }
+
+    /**
+     * Flags initialization as complete and notifies the registered initialization listeners
+     */
+    private void initializationComplete()
+    {
+        List<Listener<TunerManager>> listeners;
+
+        synchronized(mInitializationListeners)
+        {
+            mInitializing = false;
+
+            listeners = new ArrayList<>(mInitializationListeners);
+            mInitializationListeners.clear();
+        }
+
+        for(Listener<TunerManager> listener : listeners)
+        {
+            try
             {
-                TunerInitStatus status = initTuner(device, descriptor);
+                listener.receive(this);
+            }
+            catch(Exception e)
+            {
+                mLog.error("error notifying tuner initialization listener", e);
+            }
+        }
+    }
+
+    /**
+     * Reads the device descriptor, initializes the tuner and adds the tuner to the tuner model
+     */
+    private void loadTuner(Device device, TunerLoader loader)
+    {
+        DeviceDescriptor descriptor = new DeviceDescriptor();
+
+        int result = LibUsb.getDeviceDescriptor(device, descriptor);
+
+        if(result != LibUsb.SUCCESS)
+        {
+            mLog.error("unable to read device descriptor [" +
+                LibUsb.errorName(result) + "]");
+        }
+        else
+        {
+            long start = System.currentTimeMillis();
+
+            TunerInitStatus status = initTuner(device, descriptor);
+
+            StringBuilder sb = new StringBuilder();
+
+            sb.append("usb device [");
+            sb.append(String.format("%04X", descriptor.idVendor()));
+            sb.append(":");
+            sb.append(String.format("%04X", descriptor.idProduct()));
 
-                StringBuilder sb = new StringBuilder();
+            if(status.isLoaded() && !loader.complete())
+            {
+                //Initialization completed after the timeout and the device was skipped
+                status.getTuner().dispose();
 
-                sb.append("usb device [");
-                sb.append(String.format("%04X", descriptor.idVendor()));
-                sb.append(":");
-                sb.append(String.format("%04X", descriptor.idProduct()));
+                sb.append("] NOT LOADED: initialization timed out");
+            }
+            else if(status.isLoaded())
+            {
+                Tuner tuner = status.getTuner();
 
-                if(status.isLoaded())
+                try
                 {
-                    Tuner tuner = status.getTuner();
-
-                    try
-                    {
-                        mTunerModel.addTuner(tuner);
-                        sb.append("] LOADED: ");
-                        sb.append(tuner.toString());
-                    }
-                    catch(Exception e)
-                    {
-                        sb.append("] NOT LOADED: ");
-                        sb.append(status.getInfo());
-                        sb.append(" Error:" + e.getMessage());
-                    }
+                    mTunerModel.addTuner(tuner);
+                    sb.append("] LOADED: ");
+                    sb.append(tuner.toString());
                 }
-                else
+                catch(Exception e)
                 {
                     sb.append("] NOT LOADED: ");
                     sb.append(status.getInfo());
+                    sb.append(" Error:" + e.getMessage());
                 }
-
-                mLog.info(sb.toString());
             }
-        }
+            else
+            {
+                sb.append("] NOT LOADED: ");
+                sb.append(status.getInfo());
+            }
 
-        LibUsb.freeDeviceList(deviceList, true);
+            sb.append(" [").append(System.currentTimeMillis() - start).append("ms]");
+
+            mLog.info(sb.toString());
+        }
     }
 
     private TunerInitStatus initTuner(Device device,
@@ -443,6 +607,70 @@ public class TunerManager
         return null;
     }
 
+    /**
+     * Initializes a single USB device.  Once the initialization timeout expires the loader is skipped and a tuner
+     * that completes initialization afterwards is disposed instead of being added to the tuner model.
+     */
+    private class TunerLoader implements Runnable
+    {
+        private Device mDevice;
+        private String mDeviceName;
+        private boolean mCompleted;
+        private boolean mSkipped;
+
+        public TunerLoader(Device device)
+        {
+            mDevice = device;
+            mDeviceName = "bus " + LibUsb.getBusNumber(device) + " address " + LibUsb.getDeviceAddress(device);
+        }
+
+        public String getDeviceName()
+        {
+            return mDeviceName;
+        }
+
+        /**
+         * Claims the initialized tuner for the tuner model
+         * @return true if the tuner can be added or false if the device was skipped
+         */
+        public synchronized boolean complete()
+        {
+            if(!mSkipped)
+            {
+                mCompleted = true;
+            }
+
+            return mCompleted;
+        }
+
+        /**
+         * Skips the device after the initialization timeout
+         * @return true if the device was skipped or false if the tuner was already claimed for the tuner model
+         */
+        public synchronized boolean skip()
+        {
+            if(!mCompleted)
+            {
+                mSkipped = true;
+            }
+
+            return mSkipped;
+        }
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                loadTuner(mDevice, this);
+            }
+            finally
+            {
+                LibUsb.unrefDevice(mDevice);
+            }
+        }
+    }
+
     public class TunerInitStatus
     {
         private Tuner mTuner;
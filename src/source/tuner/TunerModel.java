@@ -1,11 +1,12 @@
 package source.tuner;
 
 import java.text.DecimalFormat;
-import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.RejectedExecutionException;
 
+import javax.swing.SwingUtilities;
 import javax.swing.table.AbstractTableModel;
 
 import org.slf4j.Logger;
@@ -37,12 +38,13 @@ public class TunerModel extends AbstractTableModel implements Listener<TunerEven
 	private static final String[] COLUMNS = 
 		{ "Tuner", "ID", "Sample Rate", "Frequency", "Channels", "Spectral", "Display" };
 	
-	private List<Tuner> mTuners = new ArrayList<>();
-	private List<Listener<TunerEvent>> mTunerEventListeners = new ArrayList<>();
+	private List<Tuner> mTuners = new CopyOnWriteArrayList<>();
+	private List<Listener<TunerEvent>> mTunerEventListeners = new CopyOnWriteArrayList<>();
 	private DecimalFormat mFrequencyFormat = new DecimalFormat( "0.00000" );
 	private DecimalFormat mSampleRateFormat = new DecimalFormat( "0.000" );
 	
 	private TunerConfigurationModel mTunerConfigurationModel;
+	private boolean mFirstTunerDisplayRequested = false;
 
 	public TunerModel( TunerConfigurationModel tunerConfigurationModel )
 	{
@@ -81,7 +83,9 @@ public class TunerModel extends AbstractTableModel implements Listener<TunerEven
 	}
 
 	/**
-	 * Adds the Tuner to this model 
+	 * Adds the Tuner to this model.  Tuners can be added from any thread 
+	 * (e.g. as each tuner completes initialization) and become available to
+	 * source channels as soon as they are added.
 	 */
 	public void addTuner( Tuner tuner )
 	{
@@ -89,20 +93,41 @@ public class TunerModel extends AbstractTableModel implements Listener<TunerEven
 		{
 			//Get the tuner configuration and apply it to the tuner - this 
 			//call should always produce a tuner configuration
-			TunerConfiguration config = mTunerConfigurationModel
-				.getTunerConfiguration( tuner.getTunerType(), tuner.getUniqueID() );
+			TunerConfiguration config;
+			
+			synchronized( mTunerConfigurationModel )
+			{
+				config = mTunerConfigurationModel.getTunerConfiguration( 
+					tuner.getTunerType(), tuner.getUniqueID() );
+			}
 			
 			try
 			{
 				tuner.getTunerController().apply( config );
 				
-				mTuners.add( tuner );
+				final int index;
 				
-				int index = mTuners.indexOf( tuner );
+				synchronized( mTuners )
+				{
+					mTuners.add( tuner );
+					
+					index = mTuners.indexOf( tuner );
+				}
 				
-				fireTableRowsInserted( index, index );
+				SwingUtilities.invokeLater( new Runnable()
+				{
+					@Override
+					public void run()
+					{
+						fireTableRowsInserted( index, index );
+					}
+				} );
 				
 				tuner.addTunerChangeListener( this );
+				
+				broadcast( new TunerEvent( tuner, Event.ADD ) );
+				
+				requestPendingFirstTunerDisplay();
 			}
 			catch( SourceException se )
 			{
@@ -151,17 +176,52 @@ public class TunerModel extends AbstractTableModel implements Listener<TunerEven
 
 	/**
 	 * Requests to display the first tuner in this model.  Invoke this method
-	 * after all listeners have registered and tuners have been added to this
-	 * model, in order to inform the primary display to use the first tuner.
+	 * after all listeners have registered, in order to inform the primary 
+	 * display to use the first tuner.  When tuners are still initializing and
+	 * the model is empty, the request is fulfilled when the first tuner is 
+	 * added.
 	 */
 	public void requestFirstTunerDisplay()
 	{
-		if( mTuners.size() > 0 )
+		Tuner tuner = null;
+		
+		synchronized( mTuners )
 		{
-			broadcast( new TunerEvent( mTuners.get( 0 ),
+			if( mTuners.size() > 0 )
+			{
+				tuner = mTuners.get( 0 );
+			}
+			else
+			{
+				mFirstTunerDisplayRequested = true;
+			}
+		}
+		
+		if( tuner != null )
+		{
+			broadcast( new TunerEvent( tuner, 
 					Event.REQUEST_MAIN_SPECTRAL_DISPLAY ) );
 		}
 	}
+
+	/**
+	 * Fulfills a first tuner display request that was made before any tuners
+	 * were added to this model
+	 */
+	private void requestPendingFirstTunerDisplay()
+	{
+		synchronized( mTuners )
+		{
+			if( !mFirstTunerDisplayRequested )
+			{
+				return;
+			}
+			
+			mFirstTunerDisplayRequested = false;
+		}
+		
+		requestFirstTunerDisplay();
+	}
 	
 	@Override
 	public void receive( TunerEvent event )
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.RuntimeMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically logs application memory and CPU usage so that resource use can be compared across launch modes
+ * (e.g. GUI and headless).
+ */
+public class ResourceMonitor implements Runnable
+{
+    private final static Logger mLog = LoggerFactory.getLogger(ResourceMonitor.class);
+
+    public static final long DEFAULT_INTERVAL_SECONDS = 60;
+
+    private String mMode;
+    private ScheduledFuture<?> mScheduledFuture;
+    private long mPreviousCpuTime = -1;
+    private long mPreviousUptime;
+
+    /**
+     * Constructs a resource monitor
+     *
+     * @param mode label for the application launch mode included in each report
+     */
+    public ResourceMonitor(String mode)
+    {
+        mMode = mode;
+    }
+
+    /**
+     * Starts logging resource usage at the interval
+     */
+    public void start(long intervalSeconds)
+    {
+        if(mScheduledFuture == null)
+        {
+            mScheduledFuture = ThreadPool.SCHEDULED.scheduleAtFixedRate(this, intervalSeconds, intervalSeconds,
+                TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Stops logging resource usage
+     */
+    public void stop()
+    {
+        if(mScheduledFuture != null)
+        {
+            mScheduledFuture.cancel(false);
+            mScheduledFuture = null;
+        }
+    }
+
+    @Override
+    public void run()
+    {
+        try
+        {
+            mLog.info(getReport());
+        }
+        catch(Throwable t)
+        {
+            mLog.error("Error while reporting resource usage", t);
+        }
+    }
+
+    /**
+     * Current resource usage report
+     */
+    public String getReport()
+    {
+        Runtime runtime = Runtime.getRuntime();
+
+        long used = runtime.totalMemory() - runtime.freeMemory();
+
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("Resource usage [").append(mMode).append("]");
+        sb.append(" heap used:").append(used / 1048576).append("MB");
+        sb.append(" heap total:").append(runtime.totalMemory() / 1048576).append("MB");
+        sb.append(" threads:").append(threadMXBean.getThreadCount());
+
+        double cpu = getProcessCpuLoad();
+
+        if(cpu >= 0.0)
+        {
+            sb.append(" process cpu:").append(String.format("%.1f", cpu * 100.0)).append("%");
+        }
+
+        sb.append(" system load:").append(String.format("%.2f",
+            ManagementFactory.getOperatingSystemMXBean().getSystemLoadAverage()));
+
+        return sb.toString();
+    }
+
+    /**
+     * Process CPU load (0.0 - 1.0 across all cores) since the previous report, or -1 if process CPU time isn't
+     * available from this JVM.
+     */
+    private double getProcessCpuLoad()
+    {
+        OperatingSystemMXBean osMXBean = ManagementFactory.getOperatingSystemMXBean();
+
+        if(!(osMXBean instanceof com.sun.management.OperatingSystemMXBean))
+        {
+            return -1.0;
+        }
+
+        long cpuTime = ((com.sun.management.OperatingSystemMXBean)osMXBean).getProcessCpuTime();
+
+        RuntimeMXBean runtimeMXBean = ManagementFactory.getRuntimeMXBean();
+        long uptime = runtimeMXBean.getUptime();
+
+        double load = -1.0;
+
+        if(mPreviousCpuTime >= 0 && uptime > mPreviousUptime)
+        {
+            //Cpu time is in nanoseconds and uptime is in milliseconds
+            double elapsed = (uptime - mPreviousUptime) * 1000000.0 * osMXBean.getAvailableProcessors();
+
+            load = (cpuTime - mPreviousCpuTime) / elapsed;
+        }
+        else if(uptime > 0)
+        {
+            load = cpuTime / (uptime * 1000000.0 * osMXBean.getAvailableProcessors());
+        }
+
+        mPreviousCpuTime = cpuTime;
+        mPreviousUptime = uptime;
+
+        return load;
+    }
+}
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2017 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package util;
+
+import sample.Listener;
+
+import java.awt.EventQueue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Collects updates from any thread in a lock-free queue and delivers them as a batch on the Swing event dispatch
+ * thread no more than a fixed number of times per second.
+ *
+ * A delivery is scheduled when the first update arrives after the previous delivery, so no work is scheduled while
+ * there are no updates and the number of event dispatch thread tasks is independent of the update rate.
+ */
+public class SwingUpdateCoalescer<T> implements Listener<T>
+{
+    public static final int DEFAULT_UPDATES_PER_SECOND = 10;
+
+    private Queue<T> mQueue = new ConcurrentLinkedQueue<>();
+    private AtomicBoolean mScheduled = new AtomicBoolean();
+    private Listener<List<T>> mListener;
+    private long mInterval;
+
+    private Runnable mScheduledDelivery = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            EventQueue.invokeLater(mDelivery);
+        }
+    };
+
+    private Runnable mDelivery = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            //Clear the flag before draining so that an update added during delivery schedules another delivery
+            mScheduled.set(false);
+
+            List<T> batch = new ArrayList<>();
+
+            T update = mQueue.poll();
+
+            while(update != null)
+            {
+                batch.add(update);
+                update = mQueue.poll();
+            }
+
+            if(!batch.isEmpty())
+            {
+                mListener.receive(batch);
+            }
+        }
+    };
+
+    /**
+     * Constructs an update coalescer
+     *
+     * @param listener to receive batches of updates on the Swing event dispatch thread
+     * @param updatesPerSecond maximum number of batches delivered per second
+     */
+    public SwingUpdateCoalescer(Listener<List<T>> listener, int updatesPerSecond)
+    {
+        mListener = listener;
+        mInterval = 1000 / Math.max(updatesPerSecond, 1);
+    }
+
+    /**
+     * Constructs an update coalescer that delivers at the default rate
+     */
+    public SwingUpdateCoalescer(Listener<List<T>> listener)
+    {
+        this(listener, DEFAULT_UPDATES_PER_SECOND);
+    }
+
+    /**
+     * Queues the update for the next batch delivery
+     */
+    @Override
+    public void receive(T update)
+    {
+        mQueue.offer(update);
+
+        if(mScheduled.compareAndSet(false, true))
+        {
+            ThreadPool.SCHEDULED.schedule(mScheduledDelivery, mInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Discards any queued updates
+     */
+    public void clear()
+    {
+        mQueue.clear();
+    }
+}